@@ -0,0 +1,201 @@
+package com.brightcove.mediaapi.cache;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ *    A compact binary encoding of parsed JSON, used for cache snapshots.
+ * </p>
+ *
+ * <p>
+ *    Every value is written as a one byte type followed by its contents.
+ *    Object keys (which repeat in every video - "id", "name", ...) are
+ *    written once to a key table and referred to by number.  Decoding builds
+ *    the JSONObject directly, without tokenizing any JSON text.
+ * </p>
+ */
+class BinaryJson {
+	private static final byte NULL   = 0;
+	private static final byte FALSE  = 1;
+	private static final byte TRUE   = 2;
+	private static final byte INT    = 3;
+	private static final byte LONG   = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte STRING = 6;
+	private static final byte ARRAY  = 7;
+	private static final byte OBJECT = 8;
+
+	private final Map<String, Integer> keyIds;
+	private final List<String>         keys;
+
+	/**
+	 * <p>Creates an encoder with an empty key table.</p>
+	 */
+	public BinaryJson(){
+		keyIds = new HashMap<String, Integer>();
+		keys   = new ArrayList<String>();
+	}
+
+	/**
+	 * <p>Gets the key table built up by the values encoded so far.</p>
+	 *
+	 * @return Object keys, in the order of their numbers
+	 */
+	public List<String> getKeys(){
+		return keys;
+	}
+
+	/**
+	 * <p>Encodes a value.</p>
+	 *
+	 * @param value JSONObject, JSONArray, String, Number, Boolean or JSONObject.NULL
+	 * @param out Where to write the encoded value
+	 * @throws IOException If the value can't be written
+	 * @throws JSONException If the value can't be read
+	 */
+	public void encode(Object value, DataOutput out) throws IOException, JSONException {
+		if((value == null) || JSONObject.NULL.equals(value)){
+			out.writeByte(NULL);
+		}
+		else if(value instanceof Boolean){
+			out.writeByte(((Boolean)value) ? TRUE : FALSE);
+		}
+		else if((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)){
+			out.writeByte(INT);
+			out.writeInt(((Number)value).intValue());
+		}
+		else if(value instanceof Long){
+			out.writeByte(LONG);
+			out.writeLong((Long)value);
+		}
+		else if((value instanceof Double) || (value instanceof Float)){
+			out.writeByte(DOUBLE);
+			out.writeDouble(((Number)value).doubleValue());
+		}
+		else if(value instanceof JSONArray){
+			JSONArray array = (JSONArray)value;
+			out.writeByte(ARRAY);
+			writeVarInt(array.length(), out);
+			for(int i=0;i<array.length();i++){
+				encode(array.opt(i), out);
+			}
+		}
+		else if(value instanceof JSONObject){
+			JSONObject object = (JSONObject)value;
+			out.writeByte(OBJECT);
+			writeVarInt(object.length(), out);
+			Iterator<?> it = object.keys();
+			while(it.hasNext()){
+				String key = (String)it.next();
+				writeVarInt(keyId(key), out);
+				encode(object.opt(key), out);
+			}
+		}
+		else{
+			// Strings, and any other Number org.json might hand back
+			out.writeByte(STRING);
+			writeString(value.toString(), out);
+		}
+	}
+
+	/**
+	 * <p>Decodes a value written by encode().</p>
+	 *
+	 * @param in Buffer positioned at the start of the value (advanced past it)
+	 * @param keys Key table written with the value
+	 * @return Decoded value
+	 * @throws JSONException If the decoded object can't be built
+	 */
+	public static Object decode(ByteBuffer in, String[] keys) throws JSONException {
+		byte type = in.get();
+		switch(type){
+			case NULL:
+				return JSONObject.NULL;
+			case FALSE:
+				return Boolean.FALSE;
+			case TRUE:
+				return Boolean.TRUE;
+			case INT:
+				return in.getInt();
+			case LONG:
+				return in.getLong();
+			case DOUBLE:
+				return in.getDouble();
+			case STRING:
+				return readString(in);
+			case ARRAY:{
+				int       length = readVarInt(in);
+				JSONArray array  = new JSONArray();
+				for(int i=0;i<length;i++){
+					array.put(decode(in, keys));
+				}
+				return array;
+			}
+			case OBJECT:{
+				int        length = readVarInt(in);
+				JSONObject object = new JSONObject();
+				for(int i=0;i<length;i++){
+					String key = keys[readVarInt(in)];
+					object.put(key, decode(in, keys));
+				}
+				return object;
+			}
+			default:
+				throw new JSONException("Unknown value type " + type + " in snapshot.");
+		}
+	}
+
+	private int keyId(String key){
+		Integer id = keyIds.get(key);
+		if(id == null){
+			id = keys.size();
+			keyIds.put(key, id);
+			keys.add(key);
+		}
+		return id;
+	}
+
+	static void writeString(String value, DataOutput out) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length, out);
+		out.write(bytes);
+	}
+
+	static String readString(ByteBuffer in){
+		byte[] bytes = new byte[readVarInt(in)];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	static void writeVarInt(int value, DataOutput out) throws IOException {
+		while((value & ~0x7F) != 0){
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static int readVarInt(ByteBuffer in){
+		int  ret   = 0;
+		int  shift = 0;
+		byte b;
+		do{
+			b      = in.get();
+			ret   |= (b & 0x7F) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+		return ret;
+	}
+}
@@ -0,0 +1,188 @@
+package com.brightcove.mediaapi.cache;
+
+import java.nio.ByteBuffer;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ *    A single cached Media API response, with the times it was stored and
+ *    expires.
+ * </p>
+ *
+ * <p>
+ *    An entry loaded from a snapshot keeps the response in its encoded form
+ *    (in the memory-mapped snapshot file) until it is first looked up.
+ * </p>
+ */
+public class CacheEntry {
+	private volatile JSONObject response;
+	private volatile ByteBuffer record;
+	private final String[]      keys;
+	private final String[]      tags;
+	private final Long          storedAt;
+	private final Long          expiresAt;
+	private final Long          weight;
+
+	/**
+	 * <p>
+	 *    Creates a new cache entry.
+	 * </p>
+	 *
+	 * @param response Parsed response from the Media API, or null for a "not found" entry
+	 * @param storedAt Time the response was stored (milliseconds since the epoch)
+	 * @param expiresAt Time the response expires (milliseconds since the epoch)
+	 * @param weight Weight the response counts for against the cache's limit
+	 */
+	public CacheEntry(JSONObject response, Long storedAt, Long expiresAt, Long weight){
+		this(response, null, storedAt, expiresAt, weight);
+	}
+
+	/**
+	 * <p>
+	 *    Creates a new cache entry with invalidation tags.
+	 * </p>
+	 *
+	 * @param response Parsed response from the Media API, or null for a "not found" entry
+	 * @param tags Tags of the videos and playlists in the response (see CacheTags), or null
+	 * @param storedAt Time the response was stored (milliseconds since the epoch)
+	 * @param expiresAt Time the response expires (milliseconds since the epoch)
+	 * @param weight Weight the response counts for against the cache's limit
+	 */
+	public CacheEntry(JSONObject response, String[] tags, Long storedAt, Long expiresAt, Long weight){
+		this.response  = response;
+		this.record    = null;
+		this.keys      = null;
+		this.tags      = tags;
+		this.storedAt  = storedAt;
+		this.expiresAt = expiresAt;
+		this.weight    = weight;
+	}
+
+	/**
+	 * <p>
+	 *    Creates a cache entry whose response is decoded from a snapshot
+	 *    record the first time it is loaded.
+	 * </p>
+	 *
+	 * @param record Encoded response (see BinaryJson), or null for a "not found" entry
+	 * @param keys Key table the record was encoded with
+	 * @param tags Tags of the videos and playlists in the response (see CacheTags), or null
+	 * @param storedAt Time the response was stored (milliseconds since the epoch)
+	 * @param expiresAt Time the response expires (milliseconds since the epoch)
+	 * @param weight Weight the response counts for against the cache's limit
+	 */
+	CacheEntry(ByteBuffer record, String[] keys, String[] tags, Long storedAt, Long expiresAt, Long weight){
+		this.response  = null;
+		this.record    = record;
+		this.keys      = keys;
+		this.tags      = tags;
+		this.storedAt  = storedAt;
+		this.expiresAt = expiresAt;
+		this.weight    = weight;
+	}
+
+	/**
+	 * <p>Decodes the response if it came from a snapshot and hasn't been decoded yet.</p>
+	 *
+	 * @return False if the snapshot record is corrupt
+	 */
+	Boolean load(){
+		if(record == null){
+			// Already decoded (or never encoded) - no need to lock
+			return true;
+		}
+		return decode();
+	}
+
+	/**
+	 * <p>Decodes the snapshot record, unless another thread just has.</p>
+	 *
+	 * @return False if the snapshot record is corrupt
+	 */
+	private synchronized Boolean decode(){
+		ByteBuffer encoded = record;
+		if(encoded == null){
+			return true;
+		}
+
+		try{
+			response = (JSONObject)BinaryJson.decode(encoded.duplicate(), keys);
+			record   = null;
+			return true;
+		}
+		catch(JSONException jsone){
+			return false;
+		}
+		catch(RuntimeException re){
+			// Truncated record or wrong type
+			return false;
+		}
+	}
+
+	/**
+	 * <p>Gets the cached response.</p>
+	 *
+	 * @return Parsed response from the Media API, or null for a "not found" entry (or a snapshot entry that hasn't been loaded)
+	 */
+	public JSONObject getResponse(){
+		return response;
+	}
+
+	/**
+	 * <p>Gets the invalidation tags of the response.</p>
+	 *
+	 * @return Tags of the videos and playlists in the response (see CacheTags), or null
+	 */
+	public String[] getTags(){
+		return tags;
+	}
+
+	/**
+	 * <p>Gets the time the response was stored.</p>
+	 *
+	 * @return Milliseconds since the epoch
+	 */
+	public Long getStoredAt(){
+		return storedAt;
+	}
+
+	/**
+	 * <p>Gets the time the response expires.</p>
+	 *
+	 * @return Milliseconds since the epoch
+	 */
+	public Long getExpiresAt(){
+		return expiresAt;
+	}
+
+	/**
+	 * <p>Gets the weight the response counts for against the cache's limit.</p>
+	 *
+	 * @return Weight of the entry
+	 */
+	public Long getWeight(){
+		return weight;
+	}
+
+	/**
+	 * <p>Checks whether this entry records that the Media API returned "null".</p>
+	 *
+	 * @return True if this is a "not found" entry
+	 */
+	public Boolean isNotFound(){
+		// Check the record first: load() sets the response before clearing it
+		return (record == null) && (response == null);
+	}
+
+	/**
+	 * <p>Checks whether the response has passed its TTL.</p>
+	 *
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return True if the response has expired
+	 */
+	public Boolean isExpired(Long now){
+		return now >= expiresAt;
+	}
+}
@@ -0,0 +1,292 @@
+package com.brightcove.mediaapi.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONException;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Reads and writes ResponseCache snapshot files.
+ * </p>
+ *
+ * <p>
+ *    A snapshot holds one record per cache entry - the request key, the
+ *    stored/expiry times and weight, the invalidation tags, and the
+ *    response in BinaryJson form - followed by the key table and a fixed
+ *    size trailer:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;"MAPISNAP" version<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;{ key storedAt expiresAt weight tagCount { tag }* length response }*<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;keyCount { key }*<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;entryCount keyTableOffset "MAPISNAP"
+ * </p>
+ *
+ * <p>
+ *    Snapshots are read by memory-mapping the file, so opening one only
+ *    walks the record headers; each response is decoded straight from the
+ *    mapped file when it is first looked up.  A new snapshot is always
+ *    written to a temporary file and renamed over the old one, so a file
+ *    that is mapped is never modified.  Snapshots are limited to 2GB.
+ * </p>
+ *
+ * <p>
+ *    A file whose header, trailer or key table is damaged is rejected.  A
+ *    damaged record is dropped: one whose fields are out of range is
+ *    skipped, and if a record's own lengths run past the records, it and
+ *    every record after it are dropped, since the next record can't be
+ *    found.  A response that fails to decode is dropped when it is looked
+ *    up.
+ * </p>
+ */
+class CacheSnapshot {
+	private static final byte[]  MAGIC        = "MAPISNAP".getBytes(StandardCharsets.US_ASCII);
+	private static final Integer VERSION      = 2;
+
+	// entryCount, keyTableOffset and "MAPISNAP"
+	private static final Integer TRAILER_SIZE = 4 + 8 + 8;
+
+	/**
+	 * <p>Writes a snapshot, replacing any existing file.</p>
+	 *
+	 * @param file File to write
+	 * @param entries Cache entries by request key (snapshot entries must already be loaded)
+	 * @return Number of entries written
+	 * @throws BrightcoveException If the file can't be written
+	 */
+	public static Integer write(File file, Map<String, CacheEntry> entries) throws BrightcoveException {
+		Path target = file.toPath();
+		Path temp   = target.resolveSibling(target.getFileName() + ".tmp");
+
+		Integer count = 0;
+		try{
+			DataOutputStream      out     = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile()), 64 * 1024));
+			ByteArrayOutputStream record  = new ByteArrayOutputStream(4096);
+			DataOutputStream      encoded = new DataOutputStream(record);
+			BinaryJson            encoder = new BinaryJson();
+			long                  offset  = 0;
+			try{
+				out.write(MAGIC);
+				out.writeInt(VERSION);
+				offset += MAGIC.length + 4;
+
+				for(Map.Entry<String, CacheEntry> entry : entries.entrySet()){
+					CacheEntry cached = entry.getValue();
+
+					record.reset();
+					if(!cached.isNotFound()){
+						encoder.encode(cached.getResponse(), encoded);
+					}
+					encoded.flush();
+
+					ByteArrayOutputStream header = new ByteArrayOutputStream(256);
+					DataOutputStream      fields = new DataOutputStream(header);
+					BinaryJson.writeString(entry.getKey(), fields);
+					fields.writeLong(cached.getStoredAt());
+					fields.writeLong(cached.getExpiresAt());
+					fields.writeLong(cached.getWeight());
+					String[] tags = (cached.getTags() == null) ? new String[0] : cached.getTags();
+					BinaryJson.writeVarInt(tags.length, fields);
+					for(String tag : tags){
+						BinaryJson.writeString(tag, fields);
+					}
+					fields.writeInt(record.size());
+					fields.flush();
+
+					header.writeTo(out);
+					record.writeTo(out);
+					offset += header.size() + record.size();
+					count++;
+				}
+
+				long keyTableOffset = offset;
+				List<String> keys = encoder.getKeys();
+				BinaryJson.writeVarInt(keys.size(), out);
+				for(String key : keys){
+					BinaryJson.writeString(key, out);
+				}
+
+				out.writeInt(count);
+				out.writeLong(keyTableOffset);
+				out.write(MAGIC);
+			}
+			finally{
+				out.close();
+			}
+
+			if(Files.size(temp) > Integer.MAX_VALUE){
+				Files.deleteIfExists(temp);
+				throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Snapshot of " + count + " entries is larger than 2GB.");
+			}
+
+			try{
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch(AtomicMoveNotSupportedException amnse){
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch(IOException ioe){
+			throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Couldn't write snapshot file '" + file + "'.  Exception caught: '" + ioe + "'.");
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Couldn't encode cached response for snapshot.  Exception caught: '" + jsone + "'.");
+		}
+
+		return count;
+	}
+
+	/**
+	 * <p>
+	 *    Opens a snapshot.  The entries returned refer to the mapped file and
+	 *    decode their responses when they are first loaded.
+	 * </p>
+	 *
+	 * @param file File to read
+	 * @return Cache entries by request key, in the order they were written (without any damaged records)
+	 * @throws BrightcoveException If the file can't be read, isn't a snapshot, or its header, trailer or key table is damaged
+	 */
+	public static Map<String, CacheEntry> read(File file) throws BrightcoveException {
+		MappedByteBuffer buffer = null;
+		try{
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			try{
+				// The mapping stays valid after the channel is closed
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			finally{
+				channel.close();
+			}
+		}
+		catch(IOException ioe){
+			throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Couldn't open snapshot file '" + file + "'.  Exception caught: '" + ioe + "'.");
+		}
+
+		int      recordsStart = MAGIC.length + 4;
+		int      count;
+		long     keyTableOffset;
+		String[] keys;
+		try{
+			byte[] magic = new byte[MAGIC.length];
+			buffer.get(magic);
+			Integer version = buffer.getInt();
+			if((!Arrays.equals(magic, MAGIC)) || (!VERSION.equals(version)) || (buffer.capacity() < recordsStart + TRAILER_SIZE)){
+				throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "File '" + file + "' is not a version " + VERSION + " snapshot.");
+			}
+
+			int trailer = buffer.capacity() - TRAILER_SIZE;
+			buffer.position(trailer);
+			count          = buffer.getInt();
+			keyTableOffset = buffer.getLong();
+			buffer.get(magic);
+			if(!Arrays.equals(magic, MAGIC)){
+				throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Snapshot file '" + file + "' is truncated.");
+			}
+			if((count < 0) || (keyTableOffset < recordsStart) || (keyTableOffset > trailer)){
+				throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Snapshot file '" + file + "' has a corrupt trailer.");
+			}
+
+			ByteBuffer keyTable = buffer.duplicate();
+			keyTable.position((int)keyTableOffset);
+			keyTable.limit(trailer);
+			keys = new String[checkLength(BinaryJson.readVarInt(keyTable), keyTable)];
+			for(int i=0;i<keys.length;i++){
+				keys[i] = readString(keyTable);
+			}
+		}
+		catch(RuntimeException re){
+			// Buffer underflow, bad position etc. from a damaged file
+			throw new WrapperException(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, "Snapshot file '" + file + "' is corrupt.  Exception caught: '" + re + "'.");
+		}
+
+		// The records can't be read past the key table
+		ByteBuffer records = buffer.duplicate();
+		records.position(recordsStart);
+		records.limit((int)keyTableOffset);
+
+		Map<String, CacheEntry> ret = new LinkedHashMap<String, CacheEntry>();
+		for(int i=0;i<count;i++){
+			try{
+				String requestKey = readString(records);
+				Long   storedAt   = records.getLong();
+				Long   expiresAt  = records.getLong();
+				Long   weight     = records.getLong();
+
+				String[] tags = new String[checkLength(BinaryJson.readVarInt(records), records)];
+				for(int t=0;t<tags.length;t++){
+					tags[t] = readString(records);
+				}
+
+				int length = checkLength(records.getInt(), records);
+
+				ByteBuffer record = null;
+				if(length > 0){
+					record = records.duplicate();
+					record.limit(records.position() + length);
+					record = record.slice();
+					records.position(records.position() + length);
+				}
+
+				if((weight < 0) || (expiresAt < storedAt)){
+					// Damaged times or weight - skip to the next record
+					continue;
+				}
+				ret.put(requestKey, new CacheEntry(record, keys, tags, storedAt, expiresAt, weight));
+			}
+			catch(RuntimeException re){
+				// A length runs past the records, so the next record can't be found
+				break;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Reads a string, checking its length against what is left of the buffer first.</p>
+	 *
+	 * @param in Buffer to read from
+	 * @return String read
+	 * @throws BufferUnderflowException If the length is damaged
+	 */
+	private static String readString(ByteBuffer in){
+		byte[] bytes = new byte[checkLength(BinaryJson.readVarInt(in), in)];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * <p>Checks that a length (or count of non-empty items) read from a buffer fits in what is left of it.</p>
+	 *
+	 * @param length Length read
+	 * @param in Buffer it was read from
+	 * @return The length
+	 * @throws BufferUnderflowException If the length is negative or too long
+	 */
+	private static int checkLength(int length, ByteBuffer in){
+		if((length < 0) || (length > in.remaining())){
+			throw new BufferUnderflowException();
+		}
+		return length;
+	}
+}
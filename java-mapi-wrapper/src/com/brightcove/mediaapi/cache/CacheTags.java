@@ -0,0 +1,179 @@
+package com.brightcove.mediaapi.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.http.NameValuePair;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ *    Builds the invalidation tags for cached responses and for writes.
+ * </p>
+ *
+ * <p>
+ *    A tag names a single video or playlist, by id ("video:123") or by
+ *    reference id ("videoRef:abc").  A cached response is tagged with every
+ *    video and playlist it was requested for or contains - including the
+ *    videos in a playlist - so that a write to any of them removes it from
+ *    the cache.  Responses that don't contain a video (e.g. a search that
+ *    didn't match it before it was updated) aren't tagged with it, and are
+ *    only refreshed when they expire.
+ * </p>
+ */
+public class CacheTags {
+	private static final String VIDEO              = "video:";
+	private static final String VIDEO_REFERENCE    = "videoRef:";
+	private static final String PLAYLIST           = "playlist:";
+	private static final String PLAYLIST_REFERENCE = "playlistRef:";
+
+	/**
+	 * <p>Video fields a response is tagged by - requests limited to other fields must ask for these too.</p>
+	 */
+	public static final Set<String> VIDEO_FIELDS    = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList("id", "referenceId")));
+
+	/**
+	 * <p>Playlist fields a response is tagged by - requests limited to other fields must ask for these too.</p>
+	 */
+	public static final Set<String> PLAYLIST_FIELDS = Collections.unmodifiableSet(new LinkedHashSet<String>(Arrays.asList("id", "referenceId", "videoIds")));
+
+	/**
+	 * <p>Gets the tag for a video id.</p>
+	 *
+	 * @param videoId Id of the video
+	 * @return Tag for the video
+	 */
+	public static String video(Long videoId){
+		return VIDEO + videoId;
+	}
+
+	/**
+	 * <p>Gets the tag for a video reference id.</p>
+	 *
+	 * @param referenceId Reference id of the video
+	 * @return Tag for the video
+	 */
+	public static String videoReference(String referenceId){
+		return VIDEO_REFERENCE + referenceId;
+	}
+
+	/**
+	 * <p>Gets the tag for a playlist id.</p>
+	 *
+	 * @param playlistId Id of the playlist
+	 * @return Tag for the playlist
+	 */
+	public static String playlist(Long playlistId){
+		return PLAYLIST + playlistId;
+	}
+
+	/**
+	 * <p>Gets the tag for a playlist reference id.</p>
+	 *
+	 * @param referenceId Reference id of the playlist
+	 * @return Tag for the playlist
+	 */
+	public static String playlistReference(String referenceId){
+		return PLAYLIST_REFERENCE + referenceId;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the tags for a Read API response: the videos and playlists
+	 *    named in the request parameters, and those in the response.
+	 * </p>
+	 *
+	 * @param parameters Request parameters (including "command")
+	 * @param response Parsed response, or null for a "not found" response
+	 * @return Tags for the response
+	 */
+	public static Set<String> forResponse(List<NameValuePair> parameters, JSONObject response){
+		Set<String> ret = new LinkedHashSet<String>();
+
+		String command = null;
+		for(NameValuePair parameter : parameters){
+			if("command".equals(parameter.getName())){
+				command = parameter.getValue();
+			}
+		}
+		Boolean playlists = (command != null) && command.contains("playlist");
+
+		for(NameValuePair parameter : parameters){
+			String name  = parameter.getName();
+			String value = parameter.getValue();
+			if(value == null){
+				continue;
+			}
+
+			if("video_id".equals(name) || "video_ids".equals(name)){
+				for(String id : value.split(",")){
+					ret.add(VIDEO + id.trim());
+				}
+			}
+			else if("playlist_id".equals(name) || "playlist_ids".equals(name)){
+				for(String id : value.split(",")){
+					ret.add(PLAYLIST + id.trim());
+				}
+			}
+			else if("reference_id".equals(name) || "reference_ids".equals(name)){
+				for(String id : value.split(",")){
+					ret.add((playlists ? PLAYLIST_REFERENCE : VIDEO_REFERENCE) + id.trim());
+				}
+			}
+		}
+
+		if(response != null){
+			JSONArray items = response.optJSONArray("items");
+			if(items == null){
+				addItem(ret, response, playlists);
+			}
+			else{
+				for(int i=0;i<items.length();i++){
+					addItem(ret, items.optJSONObject(i), playlists);
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Adds the tags for a video or playlist in a response, and for the videos in a playlist.</p>
+	 *
+	 * @param tags Tags to add to
+	 * @param item Video or playlist JSON (may be null)
+	 * @param playlist True if the item is a playlist
+	 */
+	private static void addItem(Set<String> tags, JSONObject item, Boolean playlist){
+		if(item == null){
+			return;
+		}
+
+		Object id          = item.opt("id");
+		Object referenceId = item.opt("referenceId");
+		if((id != null) && (!JSONObject.NULL.equals(id))){
+			tags.add((playlist ? PLAYLIST : VIDEO) + id);
+		}
+		if((referenceId != null) && (!JSONObject.NULL.equals(referenceId))){
+			tags.add((playlist ? PLAYLIST_REFERENCE : VIDEO_REFERENCE) + referenceId);
+		}
+
+		if(playlist){
+			JSONArray videoIds = item.optJSONArray("videoIds");
+			if(videoIds != null){
+				for(int i=0;i<videoIds.length();i++){
+					tags.add(VIDEO + videoIds.optString(i));
+				}
+			}
+			JSONArray videos = item.optJSONArray("videos");
+			if(videos != null){
+				for(int i=0;i<videos.length();i++){
+					addItem(tags, videos.optJSONObject(i), false);
+				}
+			}
+		}
+	}
+}
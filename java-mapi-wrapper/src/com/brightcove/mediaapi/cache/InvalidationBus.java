@@ -0,0 +1,102 @@
+package com.brightcove.mediaapi.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ *    Passes invalidations from a WriteApi to the caches reading the same
+ *    account, so that a successful write removes the affected responses
+ *    straight away rather than when they expire.
+ * </p>
+ *
+ * <p>
+ *    Share one bus between the WriteApi and every ResponseCache:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;InvalidationBus bus = new InvalidationBus();<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;bus.addListener(responseCache);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;writeApi.setInvalidationBus(bus);
+ * </p>
+ *
+ * <p>
+ *    Listeners are called on the thread that made the write, before the
+ *    write method returns, so the writer reads its own writes.
+ * </p>
+ */
+public class InvalidationBus {
+	private final List<InvalidationListener> listeners;
+
+	/**
+	 * <p>Creates a bus with no listeners.</p>
+	 */
+	public InvalidationBus(){
+		listeners = new CopyOnWriteArrayList<InvalidationListener>();
+	}
+
+	/**
+	 * <p>Adds a listener to be told of every invalidation.</p>
+	 *
+	 * @param listener Listener to add
+	 */
+	public void addListener(InvalidationListener listener){
+		listeners.add(listener);
+	}
+
+	/**
+	 * <p>Removes a listener.</p>
+	 *
+	 * @param listener Listener to remove
+	 */
+	public void removeListener(InvalidationListener listener){
+		listeners.remove(listener);
+	}
+
+	/**
+	 * <p>Publishes that a video was created, changed or deleted.</p>
+	 *
+	 * @param videoId Id of the video (may be null if only the reference id is known)
+	 * @param referenceId Reference id of the video (may be null)
+	 */
+	public void videoChanged(Long videoId, String referenceId){
+		List<String> tags = new ArrayList<String>(2);
+		if(videoId != null){
+			tags.add(CacheTags.video(videoId));
+		}
+		if(referenceId != null){
+			tags.add(CacheTags.videoReference(referenceId));
+		}
+		publish(tags);
+	}
+
+	/**
+	 * <p>Publishes that a playlist was created, changed or deleted.</p>
+	 *
+	 * @param playlistId Id of the playlist (may be null if only the reference id is known)
+	 * @param referenceId Reference id of the playlist (may be null)
+	 */
+	public void playlistChanged(Long playlistId, String referenceId){
+		List<String> tags = new ArrayList<String>(2);
+		if(playlistId != null){
+			tags.add(CacheTags.playlist(playlistId));
+		}
+		if(referenceId != null){
+			tags.add(CacheTags.playlistReference(referenceId));
+		}
+		publish(tags);
+	}
+
+	/**
+	 * <p>Publishes invalidation tags to every listener.</p>
+	 *
+	 * @param tags Tags to invalidate (see CacheTags)
+	 */
+	public void publish(Collection<String> tags){
+		if(tags.isEmpty()){
+			return;
+		}
+		for(InvalidationListener listener : listeners){
+			listener.invalidate(tags);
+		}
+	}
+}
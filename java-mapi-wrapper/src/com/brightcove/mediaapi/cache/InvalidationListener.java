@@ -0,0 +1,17 @@
+package com.brightcove.mediaapi.cache;
+
+import java.util.Collection;
+
+/**
+ * <p>
+ *    Receives invalidations published on an InvalidationBus.
+ * </p>
+ */
+public interface InvalidationListener {
+	/**
+	 * <p>Called after a write changes the videos or playlists the tags refer to.</p>
+	 *
+	 * @param tags Tags of the videos and playlists that changed (see CacheTags)
+	 */
+	public void invalidate(Collection<String> tags);
+}
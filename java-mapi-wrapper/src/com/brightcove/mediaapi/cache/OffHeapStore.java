@@ -0,0 +1,327 @@
+package com.brightcove.mediaapi.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONException;
+
+/**
+ * <p>
+ *    An off-heap tier for cached responses, held in direct ByteBuffer slabs
+ *    outside the Java heap so that they don't add to garbage collection
+ *    work.
+ * </p>
+ *
+ * <p>
+ *    Responses are stored in BinaryJson form, appended one after another to
+ *    the current slab.  When every slab is full, the oldest slab is reused
+ *    and every response in it is dropped, so the tier evicts in the order
+ *    responses were added.  Only the index from request key to slab position
+ *    is kept on the heap.  Responses are copied back onto the heap and
+ *    decoded when they are taken out of the tier.
+ * </p>
+ *
+ * <p>
+ *    Not thread safe; the owner must lock around it.
+ * </p>
+ */
+class OffHeapStore {
+	private final Integer               slabSize;
+	private final ByteBuffer[]          slabs;
+	private final List<List<String>>    keysBySlab;
+	private final Map<String, Location> index;
+	private final Map<String, String[]> evicted;
+
+	private final BinaryJson            encoder;
+	private final ByteArrayOutputStream record;
+	private final DataOutputStream      encoded;
+	private String[] keyTable;
+
+	private int  current;
+	private int  position;
+	private long evictionCount;
+
+	public static final Integer DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+	public static final Integer MIN_SLAB_SIZE     = 64 * 1024;
+	public static final Integer MIN_SLABS         = 8;
+
+	/**
+	 * <p>Where a response is stored, and the details of its cache entry.</p>
+	 */
+	private static class Location {
+		final int      slab;
+		final int      offset;
+		final int      length;
+		final Long     storedAt;
+		final Long     expiresAt;
+		final Long     weight;
+		final String[] tags;
+
+		Location(int slab, int offset, int length, CacheEntry entry){
+			this.slab      = slab;
+			this.offset    = offset;
+			this.length    = length;
+			this.storedAt  = entry.getStoredAt();
+			this.expiresAt = entry.getExpiresAt();
+			this.weight    = entry.getWeight();
+			this.tags      = entry.getTags();
+		}
+	}
+
+	/**
+	 * <p>Creates a store.  Slabs are allocated as they are first needed.</p>
+	 *
+	 * @param capacity Maximum number of bytes to allocate off the heap
+	 */
+	public OffHeapStore(Long capacity){
+		// Enough slabs that reusing one only drops a small part of the tier
+		slabSize = (int)Math.min(capacity, Math.max(MIN_SLAB_SIZE, Math.min(DEFAULT_SLAB_SIZE, capacity / MIN_SLABS)));
+		int count = (int)Math.max(1, (capacity + slabSize - 1) / slabSize);
+
+		slabs      = new ByteBuffer[count];
+		keysBySlab = new ArrayList<List<String>>(count);
+		for(int i=0;i<count;i++){
+			keysBySlab.add(new ArrayList<String>());
+		}
+		index   = new HashMap<String, Location>();
+		evicted = new HashMap<String, String[]>();
+
+		encoder  = new BinaryJson();
+		record   = new ByteArrayOutputStream(4096);
+		encoded  = new DataOutputStream(record);
+		keyTable = new String[0];
+
+		current       = 0;
+		position      = 0;
+		evictionCount = 0;
+	}
+
+	/**
+	 * <p>
+	 *    Stores a cache entry, replacing any previous entry for the same key
+	 *    and dropping the oldest entries if there is no room.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param entry Loaded cache entry to store
+	 * @return False if the response couldn't be stored (it is too big for a slab or can't be encoded)
+	 */
+	public Boolean put(String key, CacheEntry entry){
+		index.remove(key);
+
+		record.reset();
+		try{
+			if(!entry.isNotFound()){
+				encoder.encode(entry.getResponse(), encoded);
+			}
+			encoded.flush();
+		}
+		catch(IOException ioe){
+			return false;
+		}
+		catch(JSONException jsone){
+			return false;
+		}
+
+		int length = record.size();
+		if(length > slabSize){
+			return false;
+		}
+		if(position + length > slabSize){
+			nextSlab();
+		}
+		if(slabs[current] == null){
+			slabs[current] = ByteBuffer.allocateDirect(slabSize);
+		}
+
+		ByteBuffer slab = slabs[current].duplicate();
+		slab.position(position);
+		slab.put(record.toByteArray());
+
+		index.put(key, new Location(current, position, length, entry));
+		keysBySlab.get(current).add(key);
+		position += length;
+		return true;
+	}
+
+	/**
+	 * <p>
+	 *    Removes a cache entry from the store and returns it.  The response is
+	 *    copied onto the heap and decoded when the entry is loaded.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Cache entry, or null if the store doesn't hold one for the key
+	 */
+	public CacheEntry take(String key){
+		Location location = index.remove(key);
+		if(location == null){
+			return null;
+		}
+		return toEntry(location);
+	}
+
+	/**
+	 * <p>Checks whether the store holds an entry for a request.</p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return True if there is an entry (which may have expired)
+	 */
+	public Boolean containsKey(String key){
+		return index.containsKey(key);
+	}
+
+	/**
+	 * <p>Removes the entry for a request, if there is one.</p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Tags of the entry removed, or null if there wasn't one (or it had no tags)
+	 */
+	public String[] remove(String key){
+		Location location = index.remove(key);
+		return (location == null) ? null : location.tags;
+	}
+
+	/**
+	 * <p>Gets and forgets the entries dropped to make room since this was last called.</p>
+	 *
+	 * @return Tags of the dropped entries (possibly null) by request key
+	 */
+	public Map<String, String[]> drainEvicted(){
+		Map<String, String[]> ret = new HashMap<String, String[]>(evicted);
+		evicted.clear();
+		return ret;
+	}
+
+	/**
+	 * <p>Copies out every entry that hasn't expired, leaving them in the store.</p>
+	 *
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return Cache entries (not yet loaded) by request key
+	 */
+	public Map<String, CacheEntry> copyLive(Long now){
+		Map<String, CacheEntry> ret = new LinkedHashMap<String, CacheEntry>();
+		for(Map.Entry<String, Location> entry : index.entrySet()){
+			if(now < entry.getValue().expiresAt){
+				ret.put(entry.getKey(), toEntry(entry.getValue()));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Removes every entry.  The slabs stay allocated.</p>
+	 */
+	public void clear(){
+		index.clear();
+		evicted.clear();
+		for(List<String> keys : keysBySlab){
+			keys.clear();
+		}
+		current  = 0;
+		position = 0;
+	}
+
+	/**
+	 * <p>
+	 *    Removes every entry and drops the slabs, so their memory can be
+	 *    freed.  The store can't be used afterwards.
+	 * </p>
+	 *
+	 * @return Tags of every entry removed (and of any dropped to make room but not yet drained), possibly null, by request key
+	 */
+	public Map<String, String[]> release(){
+		Map<String, String[]> ret = drainEvicted();
+		for(Map.Entry<String, Location> entry : index.entrySet()){
+			ret.put(entry.getKey(), entry.getValue().tags);
+		}
+		clear();
+		Arrays.fill(slabs, null);
+		return ret;
+	}
+
+	/**
+	 * <p>Gets the number of entries in the store.</p>
+	 *
+	 * @return Number of entries
+	 */
+	public Integer size(){
+		return index.size();
+	}
+
+	/**
+	 * <p>Gets the number of bytes allocated off the heap so far.</p>
+	 *
+	 * @return Allocated bytes
+	 */
+	public Long getAllocated(){
+		long ret = 0;
+		for(ByteBuffer slab : slabs){
+			if(slab != null){
+				ret += slab.capacity();
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Gets the number of entries dropped to make room for newer ones.</p>
+	 *
+	 * @return Number of evictions
+	 */
+	public Long getEvictionCount(){
+		return evictionCount;
+	}
+
+	/**
+	 * <p>Moves on to the next slab, dropping the entries it still holds.</p>
+	 */
+	private void nextSlab(){
+		current  = (current + 1) % slabs.length;
+		position = 0;
+
+		List<String> keys = keysBySlab.get(current);
+		for(String key : keys){
+			// The key may since have been stored again in another slab
+			Location location = index.get(key);
+			if((location != null) && (location.slab == current)){
+				index.remove(key);
+				evicted.put(key, location.tags);
+				evictionCount++;
+			}
+		}
+		keys.clear();
+	}
+
+	/**
+	 * <p>Copies a stored response onto the heap as a cache entry.</p>
+	 *
+	 * @param location Where the response is stored
+	 * @return Cache entry that decodes the response when loaded
+	 */
+	private CacheEntry toEntry(Location location){
+		ByteBuffer copy = null;
+		if(location.length > 0){
+			byte[] bytes = new byte[location.length];
+			ByteBuffer slab = slabs[location.slab].duplicate();
+			slab.position(location.offset);
+			slab.get(bytes);
+			copy = ByteBuffer.wrap(bytes);
+		}
+
+		// Records only refer to keys that existed when they were encoded
+		List<String> keys = encoder.getKeys();
+		if(keyTable.length != keys.size()){
+			keyTable = keys.toArray(new String[keys.size()]);
+		}
+		return new CacheEntry(copy, keyTable, location.tags, location.storedAt, location.expiresAt, location.weight);
+	}
+}
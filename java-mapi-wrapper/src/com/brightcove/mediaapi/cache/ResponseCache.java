@@ -0,0 +1,1324 @@
+package com.brightcove.mediaapi.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+
+/**
+ * <p>
+ *    An in-process cache of parsed Media API responses, keyed by request.
+ * </p>
+ *
+ * <p>
+ *    "Not found" results (where the Media API answers "null", e.g. for a
+ *    reference id that doesn't exist) are cached too, with their own
+ *    (normally much shorter) TTL, so repeated lookups of a missing item are
+ *    answered locally.
+ * </p>
+ *
+ * <p>
+ *    Entries expire a fixed time after they are stored.  The cache is
+ *    bounded by a maximum number of entries and, optionally, a maximum total
+ *    weight (the approximate size of the cached JSON in characters).  When
+ *    either bound is exceeded the least recently used entries are evicted.
+ * </p>
+ *
+ * <p>
+ *    A hit on the heap doesn't take the cache's lock: entries are read from
+ *    a concurrent view of the heap, and the hit is recorded in a small
+ *    buffer that is applied to the least recently used order in batches (or
+ *    before the next eviction).  Hits that arrive while the buffer is full
+ *    aren't recorded, so the order is approximate under heavy load.  Only
+ *    stores, removals and off-heap hits lock the cache.
+ * </p>
+ *
+ * <p>
+ *    Set on a ReadApi to have the finder methods read through it:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setResponseCache(new ResponseCache(5 * 60 * 1000l, 10000));
+ * </p>
+ *
+ * <p>
+ *    Cached responses are shared between every caller that reads them and
+ *    must be treated as read-only.
+ * </p>
+ *
+ * <p>
+ *    The cache can be saved to a snapshot file with writeSnapshot() (e.g. on
+ *    shutdown, or periodically) and reloaded with loadSnapshot() when the
+ *    process restarts, so a new process starts with a warm cache.  Loading a
+ *    snapshot memory-maps the file and only reads the request keys; each
+ *    response is decoded from the file the first time it is looked up.
+ * </p>
+ *
+ * <p>
+ *    A large cache can keep most of its responses off the Java heap with
+ *    setOffHeapCapacity().  Responses evicted from the (heap) LRU are then
+ *    moved to an off-heap tier in serialized form instead of being dropped,
+ *    and are decoded and moved back when they are next looked up.  The
+ *    off-heap tier evicts its oldest responses when it is full.
+ * </p>
+ *
+ * <p>
+ *    Responses stored with invalidation tags (see CacheTags) can be removed
+ *    by tag, so that a write to a video or playlist removes every cached
+ *    response that contains it.  Add the cache to the InvalidationBus set on
+ *    a WriteApi to have writes do this as they succeed.
+ * </p>
+ *
+ * <p>
+ *    A response that was being fetched while a write invalidated it must
+ *    not be stored once the invalidation has run, or the response from
+ *    before the write would be cached.  Take getGeneration() before making
+ *    the request and pass it to put() or putNotFound(); the response is only
+ *    stored if nothing has been invalidated since.
+ * </p>
+ *
+ * <p>
+ *    In refresh-ahead mode (setRefreshAheadMillis() and/or
+ *    setMaxStaleMillis()) a response that is about to expire, or has expired
+ *    within the maximum staleness, is still returned to the caller while it
+ *    is fetched again in the background, so no caller has to wait for the
+ *    Media API just because a response's TTL ran out.  Only one refresh runs
+ *    at a time for each request.  A response that is still stale once the
+ *    maximum staleness has passed (e.g. because every refresh failed) is
+ *    removed as usual.
+ * </p>
+ *
+ * <p>
+ *    With setStaleIfErrorMillis() expired responses are kept for a while
+ *    longer as the last known good value for their request.  They aren't
+ *    returned by lookup(), but can be fetched with lookupStale() when the
+ *    Media API can't be reached.
+ * </p>
+ */
+public class ResponseCache implements InvalidationListener {
+	private Long    ttlMillis;
+	private Long    notFoundTtlMillis;
+	private Integer maxEntries;
+	private Long    maxWeight;
+	private Long    offHeapCapacity;
+	private Long    refreshAheadMillis;
+	private Long    maxStaleMillis;
+	private Long    staleIfErrorMillis;
+	private Executor refreshExecutor;
+
+	private final LinkedHashMap<String, CacheEntry>     entries;
+	private final ConcurrentHashMap<String, CacheEntry> readView;
+	private final AtomicReferenceArray<String>          accessed;
+	private final AtomicInteger                         accessCount;
+	private Long totalWeight;
+	private volatile OffHeapStore offHeap;
+	private final Map<String, Set<String>> keysByTag;
+	private final Set<String> refreshing;
+	private Executor ownedRefreshExecutor;
+
+	private final AtomicLong hitCount;
+	private final AtomicLong notFoundHitCount;
+	private final AtomicLong missCount;
+	private final AtomicLong evictionCount;
+	private final AtomicLong expirationCount;
+	private final AtomicLong offHeapHitCount;
+	private final AtomicLong invalidationCount;
+	private final AtomicLong staleHitCount;
+	private final AtomicLong refreshCount;
+	private final AtomicLong staleIfErrorHitCount;
+	private final AtomicLong generation;
+
+	public static final Long    DEFAULT_TTL_MILLIS           = 5 * 60 * 1000l;
+	public static final Long    DEFAULT_NOT_FOUND_TTL_MILLIS = 30 * 1000l;
+	public static final Integer DEFAULT_MAX_ENTRIES          = 10000;
+	public static final Integer DEFAULT_REFRESH_THREADS      = 2;
+
+	private static final int ACCESS_BUFFER_SIZE = 64;
+
+	/**
+	 * <p>
+	 *    Creates a cache with the default TTLs and maximum number of entries,
+	 *    and no weight limit.
+	 * </p>
+	 */
+	public ResponseCache(){
+		this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * <p>
+	 *    Creates a cache with the specified TTL and maximum number of
+	 *    entries, the default "not found" TTL, and no weight limit.
+	 * </p>
+	 *
+	 * @param ttlMillis How long a response stays in the cache, in milliseconds
+	 * @param maxEntries Maximum number of responses to keep
+	 */
+	public ResponseCache(Long ttlMillis, Integer maxEntries){
+		this.ttlMillis         = ttlMillis;
+		this.notFoundTtlMillis = DEFAULT_NOT_FOUND_TTL_MILLIS;
+		this.maxEntries        = maxEntries;
+		this.maxWeight         = null;
+		this.offHeapCapacity   = null;
+		this.refreshAheadMillis = null;
+		this.maxStaleMillis     = null;
+		this.staleIfErrorMillis = null;
+		this.refreshExecutor    = null;
+
+		// Access ordered, so iteration starts at the least recently used entry
+		entries     = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+		readView    = new ConcurrentHashMap<String, CacheEntry>();
+		accessed    = new AtomicReferenceArray<String>(ACCESS_BUFFER_SIZE);
+		accessCount = new AtomicInteger(0);
+		totalWeight = 0l;
+		offHeap     = null;
+		keysByTag   = new HashMap<String, Set<String>>();
+		refreshing  = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		ownedRefreshExecutor = null;
+
+		hitCount          = new AtomicLong(0);
+		notFoundHitCount  = new AtomicLong(0);
+		missCount         = new AtomicLong(0);
+		evictionCount     = new AtomicLong(0);
+		expirationCount   = new AtomicLong(0);
+		offHeapHitCount   = new AtomicLong(0);
+		invalidationCount = new AtomicLong(0);
+		staleHitCount     = new AtomicLong(0);
+		refreshCount      = new AtomicLong(0);
+		staleIfErrorHitCount = new AtomicLong(0);
+		generation           = new AtomicLong(0);
+	}
+
+	/**
+	 * <p>
+	 *    Looks up a response.  A cached "not found" result and a miss both
+	 *    return null - use lookup() to tell them apart.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Cached response, or null if there isn't a live one
+	 */
+	public JSONObject get(String key){
+		CacheEntry entry = lookup(key);
+		if(entry == null){
+			return null;
+		}
+		return entry.getResponse();
+	}
+
+	/**
+	 * <p>
+	 *    Looks up the cache entry for a request.  Expired entries are removed
+	 *    and reported as a miss, unless they are within the maximum staleness
+	 *    (see setMaxStaleMillis()), in which case they are returned and
+	 *    should be refreshed with refreshAhead().
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Live cache entry (which may be a "not found" entry), or null if there isn't one
+	 */
+	public CacheEntry lookup(String key){
+		Long       now   = currentTimeMillis();
+		CacheEntry entry = find(key, now);
+		if((entry == null) || entry.isExpired(now - getServeStaleMillis())){
+			// An entry past the maximum staleness is only kept for lookupStale()
+			missCount.incrementAndGet();
+			return null;
+		}
+
+		hitCount.incrementAndGet();
+		if(entry.isNotFound()){
+			notFoundHitCount.incrementAndGet();
+		}
+		if(entry.isExpired(now)){
+			staleHitCount.incrementAndGet();
+		}
+		return entry;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the live cache entry for a request without counting a hit or
+	 *    miss, e.g. to check what is held before making a request.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Live, loaded cache entry (which may be a "not found" entry), or null if there isn't one
+	 */
+	public CacheEntry peek(String key){
+		Long       now   = currentTimeMillis();
+		CacheEntry entry = find(key, now);
+		if((entry == null) || entry.isExpired(now)){
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the last known good response for a request, even if it has
+	 *    expired, as long as it is within the stale-if-error time (see
+	 *    setStaleIfErrorMillis()).  Meant for when the Media API is failing;
+	 *    doesn't count a hit or miss.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Loaded cache entry (which may be a "not found" entry, and may have expired), or null if there isn't one
+	 */
+	public CacheEntry lookupStale(String key){
+		CacheEntry entry = find(key, currentTimeMillis());
+		if(entry == null){
+			return null;
+		}
+		staleIfErrorHitCount.incrementAndGet();
+		return entry;
+	}
+
+	/**
+	 * <p>
+	 *    Starts refreshing a response in the background if refresh-ahead mode
+	 *    is on and the entry looked up for it is within the refresh-ahead
+	 *    window or has expired.  Nothing is started if a refresh of the same
+	 *    request is already running.  The refresh must store the new response
+	 *    itself (with put() or putNotFound()); if it fails, the entry is
+	 *    refreshed again the next time it is looked up.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param entry Entry returned by lookup() for the request
+	 * @param refresh Fetches and stores the response again
+	 * @return True if a refresh was started
+	 */
+	public Boolean refreshAhead(final String key, CacheEntry entry, final Runnable refresh){
+		if(((refreshAheadMillis == null) && (maxStaleMillis == null)) || (!needsRefresh(entry, currentTimeMillis()))){
+			return false;
+		}
+		if(!refreshing.add(key)){
+			return false;
+		}
+
+		try{
+			getRefreshExecutor().execute(new Runnable(){
+				public void run(){
+					try{
+						refresh.run();
+					}
+					finally{
+						refreshing.remove(key);
+					}
+				}
+			});
+		}
+		catch(RejectedExecutionException ree){
+			// Executor is saturated or shut down - the caller still has the cached response
+			refreshing.remove(key);
+			return false;
+		}
+		refreshCount.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * <p>
+	 *    Stores a response, replacing any previous response for the same key
+	 *    and evicting least recently used entries if the cache is now too big.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param response Parsed response to cache
+	 */
+	public void put(String key, JSONObject response){
+		put(key, response, null);
+	}
+
+	/**
+	 * <p>
+	 *    Stores a response with the tags of the videos and playlists it
+	 *    contains, so that it can be removed by invalidate(Collection).
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param response Parsed response to cache
+	 * @param tags Invalidation tags for the response (see CacheTags), or null
+	 */
+	public void put(String key, JSONObject response, Collection<String> tags){
+		put(key, response, tags, null);
+	}
+
+	/**
+	 * <p>
+	 *    Stores a response that was fetched after getGeneration() returned
+	 *    the generation given, unless responses have been invalidated since
+	 *    (in which case it may be from before a write, and isn't stored).
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param response Parsed response to cache
+	 * @param tags Invalidation tags for the response (see CacheTags), or null
+	 * @param generation Generation taken before the request was made, or null to store it regardless
+	 * @return True if the response was stored
+	 */
+	public Boolean put(String key, JSONObject response, Collection<String> tags, Long generation){
+		return put(key, response, tags, generation, null);
+	}
+
+	/**
+	 * <p>
+	 *    Stores a response that expires at a given time rather than the TTL
+	 *    from now, e.g. because it carries over data from an older response,
+	 *    unless responses have been invalidated since the generation given.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param response Parsed response to cache
+	 * @param tags Invalidation tags for the response (see CacheTags), or null
+	 * @param generation Generation taken before the request was made, or null to store it regardless
+	 * @param expiresAt Time the response expires (in milliseconds since the epoch), or null for the TTL from now
+	 * @return True if the response was stored
+	 */
+	public Boolean put(String key, JSONObject response, Collection<String> tags, Long generation, Long expiresAt){
+		return put(key, response, tags, generation, expiresAt, null);
+	}
+
+	/**
+	 * <p>
+	 *    Stores a response whose weight is already known, e.g. from the
+	 *    length of the body it was parsed from, so that it doesn't have to
+	 *    be turned back into text to be weighed.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param response Parsed response to cache
+	 * @param tags Invalidation tags for the response (see CacheTags), or null
+	 * @param generation Generation taken before the request was made, or null to store it regardless
+	 * @param expiresAt Time the response expires (in milliseconds since the epoch), or null for the TTL from now
+	 * @param weight Approximate size of the response in characters, or null to weigh it if there is a weight limit
+	 * @return True if the response was stored
+	 */
+	public Boolean put(String key, JSONObject response, Collection<String> tags, Long generation, Long expiresAt, Long weight){
+		if(response == null){
+			return false;
+		}
+
+		Long now = currentTimeMillis();
+		if(expiresAt == null){
+			expiresAt = now + ttlMillis;
+		}
+		else if(expiresAt <= now){
+			return false;
+		}
+		if(maxWeight == null){
+			weight = 1l;
+		}
+		else if(weight == null){
+			weight = weigh(response);
+		}
+		return store(key, new CacheEntry(response, toArray(tags), now, expiresAt, weight), generation);
+	}
+
+	/**
+	 * <p>
+	 *    Records that the Media API returned "null" for a request, so that
+	 *    repeating the request within the "not found" TTL returns a cached
+	 *    "not found" entry.  Does nothing if the "not found" TTL is null or 0.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 */
+	public void putNotFound(String key){
+		putNotFound(key, null);
+	}
+
+	/**
+	 * <p>
+	 *    Records a "not found" result with the tags of the videos or
+	 *    playlists that were requested, so that creating one of them removes
+	 *    it.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param tags Invalidation tags for the request (see CacheTags), or null
+	 */
+	public void putNotFound(String key, Collection<String> tags){
+		putNotFound(key, tags, null);
+	}
+
+	/**
+	 * <p>
+	 *    Records a "not found" result that was fetched after getGeneration()
+	 *    returned the generation given, unless responses have been
+	 *    invalidated since.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param tags Invalidation tags for the request (see CacheTags), or null
+	 * @param generation Generation taken before the request was made, or null to store it regardless
+	 * @return True if the result was stored
+	 */
+	public Boolean putNotFound(String key, Collection<String> tags, Long generation){
+		if((notFoundTtlMillis == null) || (notFoundTtlMillis <= 0)){
+			return false;
+		}
+
+		Long now = currentTimeMillis();
+		return store(key, new CacheEntry(null, toArray(tags), now, now + notFoundTtlMillis, 1l), generation);
+	}
+
+	/**
+	 * <p>
+	 *    Gets the invalidation generation, which changes every time a
+	 *    response is invalidated or the cache is cleared.
+	 * </p>
+	 *
+	 * @return Current generation
+	 */
+	public Long getGeneration(){
+		return generation.get();
+	}
+
+	/**
+	 * <p>Removes the response for a single request, if it is cached.</p>
+	 *
+	 * @param key Canonical key for the request
+	 */
+	public void invalidate(String key){
+		synchronized(entries){
+			generation.incrementAndGet();
+			CacheEntry entry = entries.get(key);
+			if(entry != null){
+				removeEntry(key, entry);
+			}
+			if(offHeap != null){
+				unindex(key, offHeap.remove(key));
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Removes every response tagged with any of the tags, i.e. every
+	 *    response containing one of the videos or playlists they refer to.
+	 * </p>
+	 *
+	 * @param tags Invalidation tags (see CacheTags)
+	 */
+	public void invalidate(Collection<String> tags){
+		synchronized(entries){
+			// Even if nothing is cached yet, a response being fetched may be for one of the tags
+			generation.incrementAndGet();
+			for(String tag : tags){
+				Set<String> keys = keysByTag.get(tag);
+				if(keys == null){
+					continue;
+				}
+				for(String key : new ArrayList<String>(keys)){
+					invalidate(key);
+					invalidationCount.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>Removes every cached response.  The counters are not reset.</p>
+	 */
+	public void clear(){
+		synchronized(entries){
+			generation.incrementAndGet();
+			entries.clear();
+			readView.clear();
+			keysByTag.clear();
+			totalWeight = 0l;
+			if(offHeap != null){
+				offHeap.clear();
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Writes every live response to a snapshot file, replacing the file if
+	 *    it exists.  The file is written under a temporary name and then
+	 *    renamed, so a snapshot that is being read is never modified.
+	 * </p>
+	 *
+	 * @param file File to write the snapshot to
+	 * @return Number of responses written
+	 * @throws BrightcoveException If the file can't be written
+	 */
+	public Integer writeSnapshot(File file) throws BrightcoveException {
+		Map<String, CacheEntry> live = new LinkedHashMap<String, CacheEntry>();
+		synchronized(entries){
+			Long now = currentTimeMillis();
+			for(Map.Entry<String, CacheEntry> entry : entries.entrySet()){
+				CacheEntry cached = entry.getValue();
+				if((!isDead(cached, now)) && cached.load()){
+					live.put(entry.getKey(), cached);
+				}
+			}
+			if(offHeap != null){
+				for(Map.Entry<String, CacheEntry> entry : offHeap.copyLive(now - getRetainMillis()).entrySet()){
+					if(entry.getValue().load()){
+						live.put(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		}
+
+		return CacheSnapshot.write(file, live);
+	}
+
+	/**
+	 * <p>
+	 *    Adds the responses from a snapshot file written by writeSnapshot().
+	 *    Responses that have expired since the snapshot was written are
+	 *    skipped, and responses already in the cache are kept.  Does nothing
+	 *    if the file doesn't exist.
+	 * </p>
+	 *
+	 * @param file Snapshot file to read
+	 * @return Number of responses added
+	 * @throws BrightcoveException If the file can't be read or isn't a valid snapshot
+	 */
+	public Integer loadSnapshot(File file) throws BrightcoveException {
+		if(!file.exists()){
+			return 0;
+		}
+
+		Map<String, CacheEntry> snapshot = CacheSnapshot.read(file);
+
+		Integer added = 0;
+		synchronized(entries){
+			Long now = currentTimeMillis();
+			for(Map.Entry<String, CacheEntry> entry : snapshot.entrySet()){
+				if(isDead(entry.getValue(), now) || entries.containsKey(entry.getKey()) || ((offHeap != null) && offHeap.containsKey(entry.getKey()))){
+					continue;
+				}
+				store(entry.getKey(), entry.getValue());
+				added++;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * <p>Gets the number of responses currently cached on the heap (including any that have expired but not yet been removed).</p>
+	 *
+	 * @return Number of cached responses
+	 */
+	public Integer size(){
+		synchronized(entries){
+			return entries.size();
+		}
+	}
+
+	/**
+	 * <p>Gets the total weight of the cached responses.  Only tracked when a maximum weight is set.</p>
+	 *
+	 * @return Approximate size of the cached responses in characters
+	 */
+	public Long getWeight(){
+		synchronized(entries){
+			return totalWeight;
+		}
+	}
+
+	/**
+	 * <p>Gets the number of responses currently held in the off-heap tier.</p>
+	 *
+	 * @return Number of off-heap responses (0 if there is no off-heap tier)
+	 */
+	public Integer getOffHeapSize(){
+		synchronized(entries){
+			return (offHeap == null) ? 0 : offHeap.size();
+		}
+	}
+
+	/**
+	 * <p>Gets the number of bytes allocated off the heap for the off-heap tier so far.</p>
+	 *
+	 * @return Allocated bytes (0 if there is no off-heap tier)
+	 */
+	public Long getOffHeapAllocated(){
+		synchronized(entries){
+			return (offHeap == null) ? 0l : offHeap.getAllocated();
+		}
+	}
+
+	/**
+	 * <p>Gets the number of lookups that found a live response.</p>
+	 *
+	 * @return Number of cache hits
+	 */
+	public Long getHitCount(){
+		return hitCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of lookups that found a live "not found" entry (these are also counted as hits).</p>
+	 *
+	 * @return Number of cached "not found" hits
+	 */
+	public Long getNotFoundHitCount(){
+		return notFoundHitCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of lookups that didn't find a live response.</p>
+	 *
+	 * @return Number of cache misses
+	 */
+	public Long getMissCount(){
+		return missCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of hits that were answered from the off-heap tier (these are also counted as hits).</p>
+	 *
+	 * @return Number of off-heap hits
+	 */
+	public Long getOffHeapHitCount(){
+		return offHeapHitCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of responses evicted from the off-heap tier to make room for newer ones.</p>
+	 *
+	 * @return Number of off-heap evictions (0 if there is no off-heap tier)
+	 */
+	public Long getOffHeapEvictionCount(){
+		synchronized(entries){
+			return (offHeap == null) ? 0l : offHeap.getEvictionCount();
+		}
+	}
+
+	/**
+	 * <p>Gets the number of responses removed by invalidation tag.</p>
+	 *
+	 * @return Number of invalidated responses
+	 */
+	public Long getInvalidationCount(){
+		return invalidationCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of hits that returned a response after its TTL had passed, within the maximum staleness (these are also counted as hits).</p>
+	 *
+	 * @return Number of stale hits
+	 */
+	public Long getStaleHitCount(){
+		return staleHitCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of responses returned by lookupStale().</p>
+	 *
+	 * @return Number of stale-if-error hits
+	 */
+	public Long getStaleIfErrorHitCount(){
+		return staleIfErrorHitCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of background refreshes started by refreshAhead().</p>
+	 *
+	 * @return Number of refreshes
+	 */
+	public Long getRefreshCount(){
+		return refreshCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of responses evicted to keep the cache within its size limits (not counting those moved to the off-heap tier).</p>
+	 *
+	 * @return Number of evictions
+	 */
+	public Long getEvictionCount(){
+		return evictionCount.get();
+	}
+
+	/**
+	 * <p>Gets the number of responses removed because their TTL had passed.</p>
+	 *
+	 * @return Number of expirations
+	 */
+	public Long getExpirationCount(){
+		return expirationCount.get();
+	}
+
+	/**
+	 * <p>Gets the fraction of lookups that were hits.</p>
+	 *
+	 * @return Hit ratio between 0 and 1 (0 if there have been no lookups)
+	 */
+	public Double getHitRatio(){
+		long hits  = hitCount.get();
+		long total = hits + missCount.get();
+		if(total == 0){
+			return 0.0;
+		}
+		return ((double)hits) / total;
+	}
+
+	/**
+	 * <p>Gets how long a response stays in the cache.</p>
+	 *
+	 * @return TTL in milliseconds
+	 */
+	public Long getTtlMillis(){
+		return ttlMillis;
+	}
+
+	/**
+	 * <p>Sets how long a response stays in the cache.  Only affects responses stored afterwards.</p>
+	 *
+	 * @param ttlMillis TTL in milliseconds
+	 */
+	public void setTtlMillis(Long ttlMillis){
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * <p>Gets how long a "not found" result stays in the cache.</p>
+	 *
+	 * @return "Not found" TTL in milliseconds
+	 */
+	public Long getNotFoundTtlMillis(){
+		return notFoundTtlMillis;
+	}
+
+	/**
+	 * <p>Sets how long a "not found" result stays in the cache.  Set to null or 0 to not cache "not found" results.</p>
+	 *
+	 * @param notFoundTtlMillis "Not found" TTL in milliseconds
+	 */
+	public void setNotFoundTtlMillis(Long notFoundTtlMillis){
+		this.notFoundTtlMillis = notFoundTtlMillis;
+	}
+
+	/**
+	 * <p>Gets the maximum number of responses to keep.</p>
+	 *
+	 * @return Maximum number of entries
+	 */
+	public Integer getMaxEntries(){
+		return maxEntries;
+	}
+
+	/**
+	 * <p>Sets the maximum number of responses to keep.</p>
+	 *
+	 * @param maxEntries Maximum number of entries
+	 */
+	public void setMaxEntries(Integer maxEntries){
+		synchronized(entries){
+			this.maxEntries = maxEntries;
+			evictIfNeeded();
+		}
+	}
+
+	/**
+	 * <p>Gets the maximum total weight of the cached responses, if any.</p>
+	 *
+	 * @return Maximum weight in characters, or null for no weight limit
+	 */
+	public Long getMaxWeight(){
+		return maxWeight;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the maximum total weight (approximate size in characters) of
+	 *    the cached responses.  Set to null (the default) to limit the cache
+	 *    by number of entries only.  Should be set before the cache is used,
+	 *    since responses stored without a weight limit aren't weighed.
+	 * </p>
+	 *
+	 * @param maxWeight Maximum weight in characters, or null for no weight limit
+	 */
+	public void setMaxWeight(Long maxWeight){
+		synchronized(entries){
+			this.maxWeight = maxWeight;
+			evictIfNeeded();
+		}
+	}
+
+	/**
+	 * <p>Gets the maximum number of bytes the off-heap tier may allocate, if there is one.</p>
+	 *
+	 * @return Off-heap capacity in bytes, or null for no off-heap tier
+	 */
+	public Long getOffHeapCapacity(){
+		return offHeapCapacity;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the maximum number of bytes to allocate off the Java heap for
+	 *    responses evicted from the heap.  Set to null (the default) to drop
+	 *    evicted responses instead.  Any responses already in the off-heap
+	 *    tier are dropped.  Memory is allocated as it is needed, in slabs of
+	 *    up to 4MB, and is only released when the cache is garbage collected
+	 *    (-XX:MaxDirectMemorySize must allow for it).
+	 * </p>
+	 *
+	 * @param offHeapCapacity Off-heap capacity in bytes, or null for no off-heap tier
+	 */
+	public void setOffHeapCapacity(Long offHeapCapacity){
+		synchronized(entries){
+			this.offHeapCapacity = offHeapCapacity;
+			if(offHeap != null){
+				// Forget the old tier's responses before its slabs are dropped
+				for(Map.Entry<String, String[]> dropped : offHeap.release().entrySet()){
+					unindex(dropped.getKey(), dropped.getValue());
+				}
+			}
+			offHeap = ((offHeapCapacity == null) || (offHeapCapacity <= 0)) ? null : new OffHeapStore(offHeapCapacity);
+		}
+	}
+
+	/**
+	 * <p>Gets how long before a response expires it is refreshed in the background, if refresh-ahead mode is on.</p>
+	 *
+	 * @return Refresh-ahead window in milliseconds, or null
+	 */
+	public Long getRefreshAheadMillis(){
+		return refreshAheadMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how long before a response expires a lookup of it starts a
+	 *    background refresh (see refreshAhead()).  Set to null (the default)
+	 *    to only refresh responses that have expired within the maximum
+	 *    staleness, or to not refresh at all if that is null too.
+	 * </p>
+	 *
+	 * @param refreshAheadMillis Refresh-ahead window in milliseconds, or null
+	 */
+	public void setRefreshAheadMillis(Long refreshAheadMillis){
+		this.refreshAheadMillis = refreshAheadMillis;
+	}
+
+	/**
+	 * <p>Gets how long after a response expires it can still be returned while it is refreshed.</p>
+	 *
+	 * @return Maximum staleness in milliseconds, or null
+	 */
+	public Long getMaxStaleMillis(){
+		return maxStaleMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how long after a response expires it can still be returned by
+	 *    lookup() while it is refreshed in the background.  Set to null (the
+	 *    default) to treat expired responses as a miss.
+	 * </p>
+	 *
+	 * @param maxStaleMillis Maximum staleness in milliseconds, or null
+	 */
+	public void setMaxStaleMillis(Long maxStaleMillis){
+		this.maxStaleMillis = maxStaleMillis;
+	}
+
+	/**
+	 * <p>Gets how long after a response expires it is kept as the last known good value for its request.</p>
+	 *
+	 * @return Stale-if-error time in milliseconds, or null
+	 */
+	public Long getStaleIfErrorMillis(){
+		return staleIfErrorMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how long after a response expires it is kept so that
+	 *    lookupStale() can return it if the Media API is failing.  Set to null
+	 *    (the default) to remove responses once they have expired (and are
+	 *    past the maximum staleness).  Expired responses still count against
+	 *    the cache's limits until they are removed.
+	 * </p>
+	 *
+	 * @param staleIfErrorMillis Stale-if-error time in milliseconds, or null
+	 */
+	public void setStaleIfErrorMillis(Long staleIfErrorMillis){
+		this.staleIfErrorMillis = staleIfErrorMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the executor background refreshes run on.  Set to null (the
+	 *    default) to run them on a small pool of daemon threads owned by the
+	 *    cache.  The executor is owned by the caller.
+	 * </p>
+	 *
+	 * @param refreshExecutor Executor to run refreshes on, or null
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor){
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	/**
+	 * <p>Gets the executor to run background refreshes on, creating the cache's own pool if none was set.</p>
+	 *
+	 * @return Refresh executor
+	 */
+	private synchronized Executor getRefreshExecutor(){
+		if(refreshExecutor != null){
+			return refreshExecutor;
+		}
+		if(ownedRefreshExecutor == null){
+			ownedRefreshExecutor = Executors.newFixedThreadPool(DEFAULT_REFRESH_THREADS, new ThreadFactory(){
+				public Thread newThread(Runnable runnable){
+					Thread thread = new Thread(runnable, "mapi-cache-refresh");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return ownedRefreshExecutor;
+	}
+
+	/**
+	 * <p>Checks whether an entry is within the refresh-ahead window or has expired.</p>
+	 *
+	 * @param entry Cache entry
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return True if the entry should be refreshed
+	 */
+	private Boolean needsRefresh(CacheEntry entry, Long now){
+		Long window = (refreshAheadMillis == null) ? 0l : refreshAheadMillis;
+		return entry.isExpired(now + window);
+	}
+
+	/**
+	 * <p>Checks whether an entry has expired and is past both the maximum staleness and the stale-if-error time, so can't be returned any more.</p>
+	 *
+	 * @param entry Cache entry
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return True if the entry should be removed
+	 */
+	private Boolean isDead(CacheEntry entry, Long now){
+		return entry.isExpired(now - getRetainMillis());
+	}
+
+	/**
+	 * <p>Gets how long an expired entry is kept: the longer of the maximum staleness and the stale-if-error time.</p>
+	 *
+	 * @return Milliseconds past expiry
+	 */
+	private Long getRetainMillis(){
+		Long staleIfError = ((staleIfErrorMillis == null) || (staleIfErrorMillis < 0)) ? 0l : staleIfErrorMillis;
+		return Math.max(getServeStaleMillis(), staleIfError);
+	}
+
+	/**
+	 * <p>Gets the maximum staleness, treating null as 0.</p>
+	 *
+	 * @return Maximum staleness in milliseconds
+	 */
+	private Long getServeStaleMillis(){
+		return ((maxStaleMillis == null) || (maxStaleMillis < 0)) ? 0l : maxStaleMillis;
+	}
+
+	/**
+	 * <p>Estimates the in-memory size of a response stored without a known weight.</p>
+	 *
+	 * @param response Parsed response
+	 * @return Length of the response's JSON text
+	 */
+	private Long weigh(JSONObject response){
+		return (long)response.toString().length();
+	}
+
+	/**
+	 * <p>
+	 *    Finds the entry for a request that hasn't expired past the time
+	 *    expired entries are kept, moving it back from the off-heap tier if
+	 *    needed.  A hit on the heap is found without locking.  Entries that
+	 *    have died or whose snapshot record is damaged are removed.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return Loaded cache entry (which may have expired), or null if there isn't one
+	 */
+	private CacheEntry find(String key, Long now){
+		if(key == null){
+			return null;
+		}
+
+		CacheEntry entry = readView.get(key);
+		if((entry != null) && (!isDead(entry, now)) && entry.load()){
+			recordAccess(key);
+			return entry;
+		}
+		if((entry == null) && (offHeap == null)){
+			return null;
+		}
+
+		synchronized(entries){
+			entry = entries.get(key);
+			if(entry == null){
+				return (offHeap == null) ? null : promote(key);
+			}
+			if(isDead(entry, now)){
+				removeEntry(key, entry);
+				expirationCount.incrementAndGet();
+				return null;
+			}
+			if(!entry.load()){
+				// Damaged snapshot record - fetch it again
+				removeEntry(key, entry);
+				return null;
+			}
+			return entry;
+		}
+	}
+
+	/**
+	 * <p>Records a hit in the access buffer.  The thread that fills the buffer applies it; hits after that are dropped until it has.</p>
+	 *
+	 * @param key Key of the entry that was hit
+	 */
+	private void recordAccess(String key){
+		int slot = accessCount.getAndIncrement();
+		if(slot < ACCESS_BUFFER_SIZE){
+			accessed.lazySet(slot, key);
+		}
+		if(slot == ACCESS_BUFFER_SIZE - 1){
+			synchronized(entries){
+				drainAccesses();
+			}
+		}
+	}
+
+	/**
+	 * <p>Moves the entries hit since the last drain to the most recently used end.  Caller must hold the lock.</p>
+	 */
+	private void drainAccesses(){
+		int count = Math.min(accessCount.get(), ACCESS_BUFFER_SIZE);
+		for(int i=0;i<count;i++){
+			// A slot still being written is skipped
+			String key = accessed.getAndSet(i, null);
+			if(key != null){
+				// Reading an access-ordered map moves the entry (if it is still there)
+				entries.get(key);
+			}
+		}
+		accessCount.set(0);
+	}
+
+	/**
+	 * <p>Stores an entry, replacing any previous entry for the same key and evicting if needed.</p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param entry Entry to store
+	 */
+	private void store(String key, CacheEntry entry){
+		store(key, entry, null);
+	}
+
+	/**
+	 * <p>Stores an entry if nothing has been invalidated since the generation given.</p>
+	 *
+	 * @param key Canonical key for the request
+	 * @param entry Entry to store
+	 * @param expected Generation taken before the response was fetched, or null to store it regardless
+	 * @return True if the entry was stored
+	 */
+	private Boolean store(String key, CacheEntry entry, Long expected){
+		synchronized(entries){
+			// Checked under the lock, so an invalidation either runs first (and is seen here) or removes the entry afterwards
+			if((expected != null) && (expected != generation.get())){
+				return false;
+			}
+			CacheEntry previous = entries.put(key, entry);
+			readView.put(key, entry);
+			if(previous != null){
+				totalWeight -= previous.getWeight();
+				unindex(key, previous.getTags());
+			}
+			if(offHeap != null){
+				unindex(key, offHeap.remove(key));
+			}
+			index(key, entry.getTags());
+			totalWeight += entry.getWeight();
+
+			evictIfNeeded();
+			return true;
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Evicts least recently used entries until the cache is within its
+	 *    limits, moving them to the off-heap tier if there is one.  Caller
+	 *    must hold the lock.
+	 * </p>
+	 */
+	private void evictIfNeeded(){
+		if(isOverLimit()){
+			// Apply queued hits so recently hit entries aren't evicted
+			drainAccesses();
+		}
+
+		Long now = currentTimeMillis();
+		Iterator<Map.Entry<String, CacheEntry>> it = entries.entrySet().iterator();
+		while(it.hasNext() && isOverLimit()){
+			Map.Entry<String, CacheEntry> eldest = it.next();
+			it.remove();
+			readView.remove(eldest.getKey());
+			totalWeight -= eldest.getValue().getWeight();
+
+			CacheEntry evicted = eldest.getValue();
+			Boolean    moved   = false;
+			if((offHeap != null) && (!isDead(evicted, now)) && evicted.load()){
+				moved = offHeap.put(eldest.getKey(), evicted);
+			}
+			if(!moved){
+				unindex(eldest.getKey(), evicted.getTags());
+				evictionCount.incrementAndGet();
+			}
+		}
+
+		if(offHeap != null){
+			for(Map.Entry<String, String[]> dropped : offHeap.drainEvicted().entrySet()){
+				unindex(dropped.getKey(), dropped.getValue());
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Moves an entry from the off-heap tier back to the heap, evicting
+	 *    least recently used entries to make room.  Caller must hold the lock.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request
+	 * @return Entry moved back to the heap, or null if the off-heap tier doesn't have a live one
+	 */
+	private CacheEntry promote(String key){
+		CacheEntry entry = offHeap.take(key);
+		if(entry == null){
+			return null;
+		}
+		if(isDead(entry, currentTimeMillis())){
+			unindex(key, entry.getTags());
+			expirationCount.incrementAndGet();
+			return null;
+		}
+		if(!entry.load()){
+			unindex(key, entry.getTags());
+			return null;
+		}
+
+		offHeapHitCount.incrementAndGet();
+		entries.put(key, entry);
+		readView.put(key, entry);
+		totalWeight += entry.getWeight();
+		evictIfNeeded();
+		return entry;
+	}
+
+	/**
+	 * <p>Checks whether the cache holds more than it is allowed to.  Caller must hold the lock.</p>
+	 *
+	 * @return True if an entry needs to be evicted
+	 */
+	private Boolean isOverLimit(){
+		if((maxEntries != null) && (entries.size() > maxEntries)){
+			return true;
+		}
+		if((maxWeight != null) && (totalWeight > maxWeight)){
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <p>Removes an entry and its weight.  Caller must hold the lock.</p>
+	 *
+	 * @param key Key of the entry
+	 * @param entry Entry to remove
+	 */
+	private void removeEntry(String key, CacheEntry entry){
+		entries.remove(key);
+		readView.remove(key);
+		totalWeight -= entry.getWeight();
+		unindex(key, entry.getTags());
+	}
+
+	/**
+	 * <p>Records the tags of a stored entry.  Caller must hold the lock.</p>
+	 *
+	 * @param key Key of the entry
+	 * @param tags Tags of the entry (may be null)
+	 */
+	private void index(String key, String[] tags){
+		if(tags == null){
+			return;
+		}
+		for(String tag : tags){
+			Set<String> keys = keysByTag.get(tag);
+			if(keys == null){
+				keys = new HashSet<String>(2);
+				keysByTag.put(tag, keys);
+			}
+			keys.add(key);
+		}
+	}
+
+	/**
+	 * <p>Forgets the tags of an entry that is no longer stored.  Caller must hold the lock.</p>
+	 *
+	 * @param key Key of the entry
+	 * @param tags Tags of the entry (may be null)
+	 */
+	private void unindex(String key, String[] tags){
+		if(tags == null){
+			return;
+		}
+		for(String tag : tags){
+			Set<String> keys = keysByTag.get(tag);
+			if(keys != null){
+				keys.remove(key);
+				if(keys.isEmpty()){
+					keysByTag.remove(tag);
+				}
+			}
+		}
+	}
+
+	private static String[] toArray(Collection<String> tags){
+		if((tags == null) || tags.isEmpty()){
+			return null;
+		}
+		return tags.toArray(new String[tags.size()]);
+	}
+
+	/**
+	 * <p>Gets the current time.  Overridden by tests to control the clock.</p>
+	 *
+	 * @return Milliseconds since the epoch
+	 */
+	long currentTimeMillis(){
+		return System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,423 @@
+package com.brightcove.mediaapi.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * <p>
+ *    A cache of single videos that keeps one copy of each video with every
+ *    field that has been fetched for it, whatever video_fields and
+ *    custom_fields each request asked for.
+ * </p>
+ *
+ * <p>
+ *    A request for a subset of the fields already held is answered from the
+ *    cache, with only the fields asked for.  A request for fields that
+ *    aren't held yet fetches just the missing fields (see
+ *    getVideoFieldsToFetch() and getCustomFieldsToFetch()) and merges them
+ *    in.  If a fetch shows the video has been modified since the fields
+ *    already held were fetched, the old fields are thrown away.
+ * </p>
+ *
+ * <p>
+ *    The merged videos are stored in a ResponseCache (under their own keys),
+ *    so they share its TTL, size limits, off-heap tier, snapshots and
+ *    invalidation.  Merging fields into a video doesn't extend its life -
+ *    it still expires the TTL after its oldest fields were fetched, so no
+ *    field is held for longer than the TTL.  Set on a ReadApi to have FindVideoById and its variants read
+ *    through it:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setVideoFieldCache(new VideoFieldCache(responseCache));
+ * </p>
+ *
+ * <p>
+ *    Field names are the Media API's video_fields names, which are also the
+ *    keys of the video JSON.  A null or empty set of video fields means the
+ *    Media API's default (all) fields.
+ * </p>
+ */
+public class VideoFieldCache {
+	private final ResponseCache cache;
+
+	public static final String ID_FIELD            = "id";
+	public static final String CUSTOM_FIELDS_FIELD = "customFields";
+
+	private static final String KEY_PREFIX    = "fields:";
+	private static final String VIDEO         = "video";
+	private static final String VIDEO_FIELDS  = "videoFields";
+	private static final String CUSTOM_FIELDS = "customFields";
+	private static final String ALL_FIELDS    = "allFields";
+	private static final String MODIFIED      = "lastModifiedDate";
+	private static final String REFERENCE_ID  = "referenceId";
+
+	/**
+	 * <p>Creates a field cache that stores its videos in a response cache.</p>
+	 *
+	 * @param cache Response cache to store the merged videos in
+	 */
+	public VideoFieldCache(ResponseCache cache){
+		this.cache = cache;
+	}
+
+	/**
+	 * <p>Gets the response cache the merged videos are stored in.</p>
+	 *
+	 * @return Response cache
+	 */
+	public ResponseCache getResponseCache(){
+		return cache;
+	}
+
+	/**
+	 * <p>Looks up a video, if every field asked for is held.</p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param videoFields Video field names asked for (null or empty for all)
+	 * @param customFields Custom field names asked for (may be null)
+	 * @return Cache entry holding the video with just the fields asked for (or a "not found" entry), or null if the fields aren't all held
+	 */
+	public CacheEntry lookup(String key, Set<String> videoFields, Set<String> customFields){
+		CacheEntry entry = cache.lookup(KEY_PREFIX + key);
+		if(entry == null){
+			return null;
+		}
+		if(entry.isNotFound()){
+			return entry;
+		}
+
+		JSONObject merged = entry.getResponse();
+		if((!missingVideoFields(merged, videoFields).isEmpty()) || (!missingCustomFields(merged, customFields).isEmpty())){
+			return null;
+		}
+		try{
+			return new CacheEntry(project(merged, videoFields, customFields), entry.getTags(), entry.getStoredAt(), entry.getExpiresAt(), entry.getWeight());
+		}
+		catch(JSONException jsone){
+			// Not a merged video - fetch it again
+			return null;
+		}
+	}
+
+	/**
+	 * <p>Gets the video fields to fetch to be able to answer a request.</p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param videoFields Video field names asked for (null or empty for all)
+	 * @param customFields Custom field names asked for (may be null)
+	 * @return Video field names to fetch, or null to fetch all fields
+	 */
+	public Set<String> getVideoFieldsToFetch(String key, Set<String> videoFields, Set<String> customFields){
+		if(isAll(videoFields)){
+			JSONObject merged = held(key);
+			if((merged != null) && merged.optBoolean(ALL_FIELDS)){
+				// Only custom fields are missing
+				return fieldSet(ID_FIELD, MODIFIED, CUSTOM_FIELDS_FIELD);
+			}
+			return null;
+		}
+
+		JSONObject  merged = held(key);
+		Set<String> ret    = (merged == null) ? new LinkedHashSet<String>(videoFields) : missingVideoFields(merged, videoFields);
+		ret.add(ID_FIELD);
+		// Tag the video with its reference id, so that a write by reference id invalidates it
+		ret.add(REFERENCE_ID);
+		Set<String> customToFetch = (merged == null) ? customFields : missingCustomFields(merged, customFields);
+		if((customToFetch != null) && (!customToFetch.isEmpty())){
+			ret.add(CUSTOM_FIELDS_FIELD);
+		}
+		// Always fetch the modified date, so that a changed video can be spotted when the next fields are merged in
+		ret.add(MODIFIED);
+		return ret;
+	}
+
+	/**
+	 * <p>Gets the custom fields to fetch to be able to answer a request.</p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param customFields Custom field names asked for (may be null)
+	 * @return Custom field names to fetch (possibly empty)
+	 */
+	public Set<String> getCustomFieldsToFetch(String key, Set<String> customFields){
+		JSONObject merged = held(key);
+		if(merged == null){
+			return (customFields == null) ? new LinkedHashSet<String>() : new LinkedHashSet<String>(customFields);
+		}
+		return missingCustomFields(merged, customFields);
+	}
+
+	/**
+	 * <p>
+	 *    Merges fetched fields into the cached video and returns the video
+	 *    with just the fields asked for.
+	 * </p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param fetchedVideoFields Video field names that were fetched (null for all)
+	 * @param fetchedCustomFields Custom field names that were fetched
+	 * @param response Video JSON returned by the Media API
+	 * @param videoFields Video field names asked for (null or empty for all)
+	 * @param customFields Custom field names asked for (may be null)
+	 * @return Video JSON with just the fields asked for
+	 * @throws JSONException If the merged video can't be built
+	 */
+	public JSONObject merge(String key, Set<String> fetchedVideoFields, Set<String> fetchedCustomFields, JSONObject response, Set<String> videoFields, Set<String> customFields) throws JSONException {
+		return merge(key, fetchedVideoFields, fetchedCustomFields, response, videoFields, customFields, null);
+	}
+
+	/**
+	 * <p>
+	 *    Merges fetched fields into the cached video and returns the video
+	 *    with just the fields asked for.  The merged video is only stored if
+	 *    nothing has been invalidated since the generation given (see
+	 *    ResponseCache.getGeneration()).
+	 * </p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param fetchedVideoFields Video field names that were fetched (null for all)
+	 * @param fetchedCustomFields Custom field names that were fetched
+	 * @param response Video JSON returned by the Media API
+	 * @param videoFields Video field names asked for (null or empty for all)
+	 * @param customFields Custom field names asked for (may be null)
+	 * @param generation Generation taken before the fields were fetched, or null to store the video regardless
+	 * @return Video JSON with just the fields asked for
+	 * @throws JSONException If the merged video can't be built
+	 */
+	public synchronized JSONObject merge(String key, Set<String> fetchedVideoFields, Set<String> fetchedCustomFields, JSONObject response, Set<String> videoFields, Set<String> customFields, Long generation) throws JSONException {
+		CacheEntry heldEntry = heldEntry(key);
+		JSONObject held      = (heldEntry == null) ? null : heldEntry.getResponse();
+		if((held != null) && modifiedSince(held.optJSONObject(VIDEO), response)){
+			held = null;
+		}
+		Long expiresAt = null;
+
+		JSONObject video       = new JSONObject();
+		Set<String> heldFields = new LinkedHashSet<String>();
+		Set<String> heldCustom = new LinkedHashSet<String>();
+		Boolean     all        = isAll(fetchedVideoFields);
+		if(held != null){
+			copyInto(held.getJSONObject(VIDEO), video);
+			heldFields.addAll(toSet(held.optJSONArray(VIDEO_FIELDS)));
+			heldCustom.addAll(toSet(held.optJSONArray(CUSTOM_FIELDS)));
+			all = all || held.optBoolean(ALL_FIELDS);
+			// The fields already held expire when they would have anyway
+			expiresAt = heldEntry.getExpiresAt();
+		}
+
+		JSONObject heldValues = video.optJSONObject(CUSTOM_FIELDS_FIELD);
+		copyInto(response, video);
+		JSONObject fetchedValues = response.optJSONObject(CUSTOM_FIELDS_FIELD);
+		if((heldValues != null) || (fetchedValues != null)){
+			JSONObject values = new JSONObject();
+			if(heldValues != null){
+				copyInto(heldValues, values);
+			}
+			if(fetchedValues != null){
+				copyInto(fetchedValues, values);
+			}
+			video.put(CUSTOM_FIELDS_FIELD, values);
+		}
+
+		if(!all){
+			heldFields.addAll(fetchedVideoFields);
+		}
+		if(fetchedCustomFields != null){
+			heldCustom.addAll(fetchedCustomFields);
+		}
+
+		JSONObject merged = new JSONObject();
+		merged.put(VIDEO, video);
+		merged.put(ALL_FIELDS, all);
+		merged.put(VIDEO_FIELDS, new JSONArray(heldFields));
+		merged.put(CUSTOM_FIELDS, new JSONArray(heldCustom));
+
+		Set<String> tags = new LinkedHashSet<String>();
+		Object id          = video.opt(ID_FIELD);
+		Object referenceId = video.opt(REFERENCE_ID);
+		if((id != null) && (!JSONObject.NULL.equals(id))){
+			tags.add(CacheTags.video(video.getLong(ID_FIELD)));
+		}
+		if((referenceId != null) && (!JSONObject.NULL.equals(referenceId))){
+			tags.add(CacheTags.videoReference(referenceId.toString()));
+		}
+		cache.put(KEY_PREFIX + key, merged, tags, generation, expiresAt);
+
+		return project(merged, videoFields, customFields);
+	}
+
+	/**
+	 * <p>Records that the Media API returned "null" for a video.</p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param tags Invalidation tags for the request (see CacheTags), or null
+	 */
+	public void putNotFound(String key, Collection<String> tags){
+		putNotFound(key, tags, null);
+	}
+
+	/**
+	 * <p>Records that the Media API returned "null" for a video, unless anything has been invalidated since the generation given.</p>
+	 *
+	 * @param key Key for the video (the request without its field parameters)
+	 * @param tags Invalidation tags for the request (see CacheTags), or null
+	 * @param generation Generation taken before the video was fetched, or null to store it regardless
+	 */
+	public void putNotFound(String key, Collection<String> tags, Long generation){
+		cache.putNotFound(KEY_PREFIX + key, tags, generation);
+	}
+
+	/**
+	 * <p>Gets the invalidation generation of the response cache, to pass to merge() once the fields have been fetched.</p>
+	 *
+	 * @return Current generation
+	 */
+	public Long getGeneration(){
+		return cache.getGeneration();
+	}
+
+	/**
+	 * <p>Gets the merged video held for a key, without counting a hit or miss.</p>
+	 *
+	 * @param key Key for the video
+	 * @return Merged video, or null if there isn't one
+	 */
+	private JSONObject held(String key){
+		CacheEntry entry = heldEntry(key);
+		return (entry == null) ? null : entry.getResponse();
+	}
+
+	/**
+	 * <p>Gets the cache entry of the merged video held for a key, without counting a hit or miss.</p>
+	 *
+	 * @param key Key for the video
+	 * @return Cache entry of the merged video, or null if there isn't one (or it is a "not found" entry)
+	 */
+	private CacheEntry heldEntry(String key){
+		CacheEntry entry = cache.peek(KEY_PREFIX + key);
+		if((entry == null) || entry.isNotFound()){
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * <p>Builds a copy of the cached video with just the fields asked for.</p>
+	 *
+	 * @param merged Merged video
+	 * @param videoFields Video field names asked for (null or empty for all)
+	 * @param customFields Custom field names asked for (may be null)
+	 * @return Video JSON
+	 * @throws JSONException If the video can't be built
+	 */
+	private static JSONObject project(JSONObject merged, Set<String> videoFields, Set<String> customFields) throws JSONException {
+		JSONObject video = merged.getJSONObject(VIDEO);
+
+		JSONObject ret = new JSONObject();
+		if(isAll(videoFields)){
+			copyInto(video, ret);
+			ret.remove(CUSTOM_FIELDS_FIELD);
+		}
+		else{
+			for(String field : videoFields){
+				if((!CUSTOM_FIELDS_FIELD.equals(field)) && video.has(field)){
+					ret.put(field, video.get(field));
+				}
+			}
+		}
+
+		JSONObject values = video.optJSONObject(CUSTOM_FIELDS_FIELD);
+		if((customFields != null) && (!customFields.isEmpty()) && (values != null)){
+			JSONObject requested = new JSONObject();
+			for(String name : customFields){
+				if(values.has(name)){
+					requested.put(name, values.get(name));
+				}
+			}
+			ret.put(CUSTOM_FIELDS_FIELD, requested);
+		}
+		return ret;
+	}
+
+	private static Set<String> missingVideoFields(JSONObject merged, Set<String> videoFields){
+		Set<String> ret = new LinkedHashSet<String>();
+		if(merged.optBoolean(ALL_FIELDS)){
+			return ret;
+		}
+		if(isAll(videoFields)){
+			// Held fields are a subset, so something is missing
+			ret.add(ID_FIELD);
+			return ret;
+		}
+
+		Set<String> held = toSet(merged.optJSONArray(VIDEO_FIELDS));
+		for(String field : videoFields){
+			if((!held.contains(field)) && (!CUSTOM_FIELDS_FIELD.equals(field))){
+				ret.add(field);
+			}
+		}
+		return ret;
+	}
+
+	private static Set<String> missingCustomFields(JSONObject merged, Set<String> customFields){
+		Set<String> ret = new LinkedHashSet<String>();
+		if(customFields == null){
+			return ret;
+		}
+		Set<String> held = toSet(merged.optJSONArray(CUSTOM_FIELDS));
+		for(String name : customFields){
+			if(!held.contains(name)){
+				ret.add(name);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Checks whether a fetched video has a later modified date than the one held.</p>
+	 *
+	 * @param held Video held in the cache
+	 * @param fetched Video just fetched
+	 * @return True if both have a modified date and they differ
+	 */
+	private static Boolean modifiedSince(JSONObject held, JSONObject fetched){
+		if((held == null) || (!held.has(MODIFIED)) || (!fetched.has(MODIFIED))){
+			return false;
+		}
+		return !String.valueOf(held.opt(MODIFIED)).equals(String.valueOf(fetched.opt(MODIFIED)));
+	}
+
+	private static Boolean isAll(Set<String> videoFields){
+		return (videoFields == null) || videoFields.isEmpty();
+	}
+
+	private static Set<String> fieldSet(String... fields){
+		Set<String> ret = new LinkedHashSet<String>();
+		for(String field : fields){
+			ret.add(field);
+		}
+		return ret;
+	}
+
+	private static Set<String> toSet(JSONArray array){
+		Set<String> ret = new HashSet<String>();
+		if(array != null){
+			for(int i=0;i<array.length();i++){
+				ret.add(array.optString(i));
+			}
+		}
+		return ret;
+	}
+
+	private static void copyInto(JSONObject from, JSONObject to) throws JSONException {
+		Iterator<?> it = from.keys();
+		while(it.hasNext()){
+			String name = (String)it.next();
+			to.put(name, from.get(name));
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.List;
+
+/**
+ * <p>
+ *    Receives the items found by a CatalogScanner, one page at a time.
+ * </p>
+ *
+ * <p>
+ *    Pages are delivered as they arrive, so they may not be in page number
+ *    order.  The scanner never calls the consumer from two threads at once.
+ * </p>
+ */
+public interface CatalogConsumer<T> {
+	/**
+	 * <p>Called once for each page of items read from the Media API.</p>
+	 *
+	 * @param pageNumber Page number the items came from (0 based)
+	 * @param items Items on the page
+	 */
+	public void consume(Integer pageNumber, List<T> items);
+}
@@ -0,0 +1,780 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.ItemStateEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortByTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortOrderTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    An in-memory copy of an account's videos, indexed by id, reference id,
+ *    tag and text, that can answer the common finder and search queries
+ *    without calling the Media API.
+ * </p>
+ *
+ * <p>
+ *    The replica is a CatalogStore, so it is filled and kept up to date by a
+ *    CatalogSyncEngine (which should read every video field, or at least the
+ *    id, reference id, tags, item state, dates and play counts).  Once set on
+ *    a ReadApi, FindVideoById, FindVideoByReferenceId, FindVideosByIds,
+ *    FindVideosByTags, SearchVideos and FindVideosByText made with the
+ *    replica's read token are answered from memory as soon as the first sync
+ *    run has been committed:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CatalogReplica replica = new CatalogReplica(token);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;new CatalogSyncEngine(syncReadApi, token, replica, checkpoint).start(60 * 1000l);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setCatalogReplica(replica);
+ * </p>
+ *
+ * <p>
+ *    Like the Media API's filtered finders, queries only return videos that
+ *    are active and within their scheduled start and end dates.  Each
+ *    caller gets its own copy of the videos returned, with only the fields
+ *    it asked for (see copy()), so changing one doesn't change the replica.
+ *    The replica is only as fresh as the last sync run.
+ * </p>
+ *
+ * <p>
+ *    Each version of a video stored is given a new ordinal, which the text
+ *    index refers to it by.  Replaced and removed versions are skipped when
+ *    a search is evaluated, and once they outnumber the current ones the
+ *    ordinals are reassigned and the text index rebuilt.  Tags are indexed
+ *    as compressed bitmaps of the current ordinals, so and/or tag queries
+ *    are evaluated as bitmap intersections and unions.
+ * </p>
+ */
+public class CatalogReplica implements CatalogStore {
+	private final String readToken;
+
+	private final Map<Long, Video>   videosById;
+	private final Map<String, Long>  idsByReferenceId;
+
+	// Current version of each video by ordinal (null once replaced or removed)
+	private final Map<Long, Integer> ordinalsById;
+	private final List<Video>        videosByOrdinal;
+	private Integer                  staleOrdinals;
+	private TextIndex                textIndex;
+
+	// Ordinals of the current videos with each tag (keyed in lower case)
+	private final Map<String, OrdinalBitmap> ordinalsByTag;
+
+	private final ReadWriteLock lock;
+	private volatile Boolean    ready;
+	private volatile Long       lastCommitted;
+
+	public static final Integer MAX_VIDEOS_PER_PAGE = 100;
+
+	private static final Integer MIN_STALE_ORDINALS_TO_COMPACT = 1024;
+
+	/**
+	 * <p>
+	 *    Creates an empty replica.
+	 * </p>
+	 *
+	 * @param readToken Read Media API token whose queries the replica answers (the token the replica is synced with)
+	 */
+	public CatalogReplica(String readToken){
+		this.readToken = readToken;
+
+		videosById       = new HashMap<Long, Video>();
+		idsByReferenceId = new HashMap<String, Long>();
+
+		ordinalsById    = new HashMap<Long, Integer>();
+		videosByOrdinal = new ArrayList<Video>();
+		staleOrdinals   = 0;
+		textIndex       = new TextIndex();
+		ordinalsByTag   = new HashMap<String, OrdinalBitmap>();
+
+		lock          = new ReentrantReadWriteLock();
+		ready         = false;
+		lastCommitted = null;
+	}
+
+	/**
+	 * <p>
+	 *    Checks whether the replica can answer a query made with the token
+	 *    provided - i.e. the token is the replica's token and at least one
+	 *    sync run has been committed.
+	 * </p>
+	 *
+	 * @param readToken Read Media API token the query was made with
+	 * @return True if the query can be answered from the replica
+	 */
+	public Boolean answers(String readToken){
+		return ready && (this.readToken != null) && this.readToken.equals(readToken);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.brightcove.mediaapi.catalog.CatalogStore#put(com.brightcove.commons.catalog.objects.Video)
+	 */
+	public void put(Video video){
+		if((video == null) || (video.getId() == null)){
+			return;
+		}
+
+		lock.writeLock().lock();
+		try{
+			unindex(video.getId());
+
+			videosById.put(video.getId(), video);
+			if(video.getReferenceId() != null){
+				idsByReferenceId.put(video.getReferenceId(), video.getId());
+			}
+			indexOrdinal(video);
+
+			if((staleOrdinals >= MIN_STALE_ORDINALS_TO_COMPACT) && (staleOrdinals > videosById.size())){
+				compact();
+			}
+		}
+		finally{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.brightcove.mediaapi.catalog.CatalogStore#remove(java.lang.Long)
+	 */
+	public void remove(Long videoId){
+		lock.writeLock().lock();
+		try{
+			unindex(videoId);
+		}
+		finally{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.brightcove.mediaapi.catalog.CatalogStore#commit()
+	 */
+	public void commit(){
+		lock.writeLock().lock();
+		try{
+			textIndex.trim();
+		}
+		finally{
+			lock.writeLock().unlock();
+		}
+
+		lastCommitted = System.currentTimeMillis();
+		ready         = true;
+	}
+
+	/**
+	 * <p>Looks up a video by its Brightcove id.</p>
+	 *
+	 * @param videoId Brightcove id for the video to look for
+	 * @param videoFields Video fields to populate on the returned Video object (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video object (see copy())
+	 * @return Copy of the video with the id given, or null if there isn't one
+	 * @throws BrightcoveException If the video can't be copied
+	 */
+	public Video findVideoById(Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video found = null;
+		lock.readLock().lock();
+		try{
+			found = visible(videosById.get(videoId), System.currentTimeMillis());
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+		return copy(found, videoFields, customFields);
+	}
+
+	/**
+	 * <p>Looks up a video by its reference id.</p>
+	 *
+	 * @param referenceId Reference id for the video to look for
+	 * @param videoFields Video fields to populate on the returned Video object (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video object (see copy())
+	 * @return Copy of the video with the reference id given, or null if there isn't one
+	 * @throws BrightcoveException If the video can't be copied
+	 */
+	public Video findVideoByReferenceId(String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video found = null;
+		lock.readLock().lock();
+		try{
+			Long videoId = idsByReferenceId.get(referenceId);
+			if(videoId != null){
+				found = visible(videosById.get(videoId), System.currentTimeMillis());
+			}
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+		return copy(found, videoFields, customFields);
+	}
+
+	/**
+	 * <p>
+	 *    Looks up several videos by Brightcove id.  As with the Media API, the
+	 *    list has one entry per id in the order given, with null for any
+	 *    video that can't be found.
+	 * </p>
+	 *
+	 * @param videoIds Brightcove ids for the videos to look for
+	 * @param videoFields Video fields to populate on the returned Video objects (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video objects (see copy())
+	 * @return List of Video objects (and nulls)
+	 * @throws BrightcoveException If the list can't be built
+	 */
+	public Videos findVideosByIds(Set<Long> videoIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		List<Video> found = new ArrayList<Video>();
+		lock.readLock().lock();
+		try{
+			Long now = System.currentTimeMillis();
+			for(Long videoId : videoIds){
+				found.add(visible(videosById.get(videoId), now));
+			}
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+
+		List<Video> copies = new ArrayList<Video>(found.size());
+		for(Video video : found){
+			copies.add(copy(video, videoFields, customFields));
+		}
+		return toVideos(copies, 0, copies.size(), copies.size());
+	}
+
+	/**
+	 * <p>
+	 *    Finds the videos that have all of the "and" tags and at least one of
+	 *    the "or" tags (tags are not case-sensitive), sorted and paged the
+	 *    same way as FindVideosByTags.
+	 * </p>
+	 *
+	 * @param andTags Limit the results to those that contain all of these tags
+	 * @param orTags Limit the results to those that contain at least one of these tags
+	 * @param pageSize Number of items per page (null for 100)
+	 * @param pageNumber Zero-indexed number of the page to return (null for 0)
+	 * @param sortBy Field to sort on (null for creation date)
+	 * @param sortOrderType Order to sort in (null for ascending)
+	 * @param videoFields Video fields to populate on the returned Video objects (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video objects (see copy())
+	 * @return Requested page of matching videos, with the total number of matches
+	 * @throws BrightcoveException If more than 100 videos per page or a negative page number are requested
+	 */
+	public Videos findVideosByTags(Set<String> andTags, Set<String> orTags, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		pageSize   = checkPageSize(pageSize);
+		pageNumber = checkPageNumber(pageNumber);
+
+		List<Video> matches = null;
+		lock.readLock().lock();
+		try{
+			OrdinalBitmap candidates = null;
+			if((andTags != null) && (!andTags.isEmpty())){
+				for(String tag : andTags){
+					OrdinalBitmap tagged = ordinalsByTag.get(tagKey(tag));
+					if(tagged == null){
+						candidates = new OrdinalBitmap();
+						break;
+					}
+					candidates = (candidates == null) ? tagged : OrdinalBitmap.and(candidates, tagged);
+				}
+			}
+			if((orTags != null) && (!orTags.isEmpty()) && ((candidates == null) || (!candidates.isEmpty()))){
+				OrdinalBitmap any = new OrdinalBitmap();
+				for(String tag : orTags){
+					OrdinalBitmap tagged = ordinalsByTag.get(tagKey(tag));
+					if(tagged != null){
+						any = OrdinalBitmap.or(any, tagged);
+					}
+				}
+				candidates = (candidates == null) ? any : OrdinalBitmap.and(candidates, any);
+			}
+
+			matches = resolve((candidates == null) ? new int[0] : candidates.toArray());
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+
+		return page(matches, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+	}
+
+	/**
+	 * <p>
+	 *    Evaluates a search_videos query the same way as SearchVideos: the
+	 *    videos returned match every "all" clause, at least one "any" clause
+	 *    and no "none" clause.  Clauses are "field:value" pairs, or just a
+	 *    value to search the name and short description.
+	 * </p>
+	 *
+	 * @param all Clauses that must all match (may be null)
+	 * @param any Clauses at least one of which must match (may be null)
+	 * @param none Clauses that must not match (may be null)
+	 * @param exact If true, words must match exactly rather than by stem
+	 * @param sortBy Field to sort on (null for creation date)
+	 * @param sortOrderType Order to sort in (null for ascending)
+	 * @param pageSize Number of items per page (null for 100)
+	 * @param pageNumber Zero-indexed number of the page to return (null for 0)
+	 * @param videoFields Video fields to populate on the returned Video objects (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video objects (see copy())
+	 * @return Requested page of matching videos, with the total number of matches
+	 * @throws BrightcoveException If more than 100 videos per page or a negative page number are requested
+	 */
+	public Videos searchVideos(List<String> all, List<String> any, List<String> none, Boolean exact, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		pageSize   = checkPageSize(pageSize);
+		pageNumber = checkPageNumber(pageNumber);
+
+		List<Video> matches = null;
+		lock.readLock().lock();
+		try{
+			matches = resolve(textIndex.search(all, any, none, exact));
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+
+		return page(matches, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+	}
+
+	/**
+	 * <p>
+	 *    Finds the videos whose name, short description or long description
+	 *    contain every word of the text.  The Media API orders these by
+	 *    relevance, which the replica can't reproduce, so they are returned in
+	 *    creation date order.
+	 * </p>
+	 *
+	 * @param text Text to search for
+	 * @param pageSize Number of items per page (null for 100)
+	 * @param pageNumber Zero-indexed number of the page to return (null for 0)
+	 * @param videoFields Video fields to populate on the returned Video objects (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video objects (see copy())
+	 * @return Requested page of matching videos, with the total number of matches
+	 * @throws BrightcoveException If more than 100 videos per page or a negative page number are requested
+	 */
+	public Videos findVideosByText(String text, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		pageSize   = checkPageSize(pageSize);
+		pageNumber = checkPageNumber(pageNumber);
+
+		List<Video> matches = null;
+		lock.readLock().lock();
+		try{
+			matches = resolve(textIndex.findByText(text));
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+
+		return page(matches, pageSize, pageNumber, null, null, videoFields, customFields);
+	}
+
+	/**
+	 * <p>Gets the number of videos held (including inactive ones).</p>
+	 *
+	 * @return Number of videos
+	 */
+	public Integer size(){
+		lock.readLock().lock();
+		try{
+			return videosById.size();
+		}
+		finally{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>Gets the time the last sync run was committed.</p>
+	 *
+	 * @return Milliseconds since the epoch, or null if no sync run has been committed yet
+	 */
+	public Long getLastCommitted(){
+		return lastCommitted;
+	}
+
+	/**
+	 * <p>Gets the read token whose queries the replica answers.</p>
+	 *
+	 * @return Read Media API token
+	 */
+	public String getReadToken(){
+		return readToken;
+	}
+
+	/**
+	 * <p>Sorts matching videos and cuts out (copies of) the page requested.</p>
+	 *
+	 * @param matches Every matching video (reordered in place)
+	 * @param pageSize Number of items per page
+	 * @param pageNumber Zero-indexed number of the page
+	 * @param sortBy Field to sort on (null for creation date)
+	 * @param sortOrderType Order to sort in (null for ascending)
+	 * @param videoFields Video fields to populate on the returned Video objects (null or empty for every field)
+	 * @param customFields Custom fields to populate on the returned Video objects (see copy())
+	 * @return Requested page
+	 * @throws BrightcoveException If the list can't be built
+	 */
+	protected Videos page(List<Video> matches, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Collections.sort(matches, comparator(sortBy, sortOrderType));
+
+		Integer from = (int)Math.min((long)pageSize * pageNumber, matches.size());
+		Integer to   = Math.min(from + pageSize, matches.size());
+
+		List<Video> copies = new ArrayList<Video>(to - from);
+		for(Video video : matches.subList(from, to)){
+			copies.add(copy(video, videoFields, customFields));
+		}
+		return toVideos(copies, pageNumber, pageSize, matches.size());
+	}
+
+	/**
+	 * <p>
+	 *    Copies a video for a caller, with the fields a Media API call asking
+	 *    for the same fields would return.  Every field the replica holds is
+	 *    copied if no video fields are given.  Custom fields are only copied
+	 *    if they are named (and then only those named) or if the video
+	 *    fields include CUSTOMFIELDS.
+	 * </p>
+	 *
+	 * @param video Video held by the replica (may be null)
+	 * @param videoFields Video fields to copy (null or empty for every field)
+	 * @param customFields Custom fields to copy (null or empty for none, unless the video fields include CUSTOMFIELDS)
+	 * @return Copy of the video, or null if the video is null
+	 * @throws BrightcoveException If the video can't be copied
+	 */
+	protected static Video copy(Video video, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(video == null){
+			return null;
+		}
+
+		try{
+			// Through a string, so that the copy shares nothing with the replica's video
+			JSONObject json    = new JSONObject(video.toJson().toString());
+			JSONObject custom  = json.optJSONObject("customFields");
+			Boolean    allKept = (videoFields == null) || videoFields.isEmpty();
+
+			List<String> keys = new ArrayList<String>();
+			for(Iterator<?> i=json.keys();i.hasNext();){
+				keys.add((String)i.next());
+			}
+			for(String key : keys){
+				if((!allKept) && (!asked(key, videoFields))){
+					json.remove(key);
+				}
+			}
+
+			json.remove("customFields");
+			if((custom != null) && (customFields != null) && (!customFields.isEmpty())){
+				JSONObject named = new JSONObject();
+				for(String name : customFields){
+					if(custom.has(name)){
+						named.put(name, custom.get(name));
+					}
+				}
+				json.put("customFields", named);
+			}
+			else if((custom != null) && (!allKept) && videoFields.contains(VideoFieldEnum.CUSTOMFIELDS)){
+				json.put("customFields", custom);
+			}
+
+			return new Video(json);
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_VIDEO, "Couldn't copy video " + video.getId() + " from the catalog replica.  Exception caught: '" + jsone + "'.");
+		}
+	}
+
+	/**
+	 * <p>Checks whether a video JSON key is one of the video fields asked for (field names are not case-sensitive).</p>
+	 *
+	 * @param key Key in the video JSON
+	 * @param videoFields Video fields asked for
+	 * @return True if the key holds one of the fields
+	 */
+	private static Boolean asked(String key, EnumSet<VideoFieldEnum> videoFields){
+		for(VideoFieldEnum field : videoFields){
+			if(field.name().equalsIgnoreCase(key)){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <p>Validates the page size the same way ReadApi does.</p>
+	 *
+	 * @param pageSize Page size requested (null for 100)
+	 * @return Page size to use
+	 * @throws BrightcoveException If more than 100 (or a negative number of) videos per page are requested
+	 */
+	protected Integer checkPageSize(Integer pageSize) throws BrightcoveException {
+		if(pageSize == null){
+			return MAX_VIDEOS_PER_PAGE;
+		}
+		if(pageSize > MAX_VIDEOS_PER_PAGE){
+			throw new WrapperException(WrapperExceptionCode.USER_REQUESTED_TOO_MANY_VIDEOS_PER_PAGE, "User error - requested " + pageSize + " videos per page; maximum allowed is " + MAX_VIDEOS_PER_PAGE + " videos per page.");
+		}
+		if(pageSize < 0){
+			throw new WrapperException(WrapperExceptionCode.USER_REQUESTED_INCORRECT_PARAMETERS, "User error - requested " + pageSize + " videos per page.");
+		}
+		return pageSize;
+	}
+
+	/**
+	 * <p>Validates the page number.</p>
+	 *
+	 * @param pageNumber Zero-indexed page number requested (null for 0)
+	 * @return Page number to use
+	 * @throws BrightcoveException If a negative page number is requested
+	 */
+	protected Integer checkPageNumber(Integer pageNumber) throws BrightcoveException {
+		if(pageNumber == null){
+			return 0;
+		}
+		if(pageNumber < 0){
+			throw new WrapperException(WrapperExceptionCode.USER_REQUESTED_INCORRECT_PARAMETERS, "User error - requested page number " + pageNumber + "; page numbers start at 0.");
+		}
+		return pageNumber;
+	}
+
+	/**
+	 * <p>Checks whether a filtered finder would return a video.</p>
+	 *
+	 * @param video Video (may be null)
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return The video if it is visible, otherwise null
+	 */
+	protected Video visible(Video video, Long now){
+		if(video == null){
+			return null;
+		}
+
+		if((video.getItemState() != null) && (!ItemStateEnum.ACTIVE.equals(video.getItemState()))){
+			return null;
+		}
+		if((video.getStartDate() != null) && (video.getStartDate().getTime() > now)){
+			return null;
+		}
+		if((video.getEndDate() != null) && (video.getEndDate().getTime() <= now)){
+			return null;
+		}
+		return video;
+	}
+
+	/**
+	 * <p>Looks up the current, visible videos for a list of ordinals.  Caller must hold the read lock.</p>
+	 *
+	 * @param ordinals Ordinals from the text index
+	 * @return Visible videos
+	 */
+	private List<Video> resolve(int[] ordinals){
+		List<Video> ret = new ArrayList<Video>();
+		Long        now = System.currentTimeMillis();
+		for(int ordinal : ordinals){
+			Video video = visible(videosByOrdinal.get(ordinal), now);
+			if(video != null){
+				ret.add(video);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Reassigns ordinals to the current videos only and rebuilds the text index.  Caller must hold the write lock.</p>
+	 */
+	private void compact(){
+		List<Video> current = new ArrayList<Video>(videosById.size());
+		for(Video video : videosByOrdinal){
+			if(video != null){
+				current.add(video);
+			}
+		}
+
+		videosByOrdinal.clear();
+		ordinalsById.clear();
+		ordinalsByTag.clear();
+		staleOrdinals = 0;
+		textIndex     = new TextIndex();
+		for(Video video : current){
+			indexOrdinal(video);
+		}
+		textIndex.trim();
+	}
+
+	/**
+	 * <p>Gives a video the next ordinal and adds it to the tag and text indexes.  Caller must hold the write lock.</p>
+	 *
+	 * @param video Video to index
+	 */
+	private void indexOrdinal(Video video){
+		Integer ordinal = videosByOrdinal.size();
+		videosByOrdinal.add(video);
+		ordinalsById.put(video.getId(), ordinal);
+		textIndex.add(ordinal, video);
+
+		if(video.getTags() != null){
+			for(String tag : video.getTags()){
+				String        key    = tagKey(tag);
+				OrdinalBitmap tagged = ordinalsByTag.get(key);
+				if(tagged == null){
+					tagged = new OrdinalBitmap();
+					ordinalsByTag.put(key, tagged);
+				}
+				tagged.add(ordinal);
+			}
+		}
+	}
+
+	/**
+	 * <p>Removes a video from every index.  Caller must hold the write lock.</p>
+	 *
+	 * @param videoId Brightcove id of the video
+	 */
+	private void unindex(Long videoId){
+		Video previous = videosById.remove(videoId);
+		if(previous == null){
+			return;
+		}
+
+		Integer ordinal = ordinalsById.remove(videoId);
+		if(ordinal != null){
+			videosByOrdinal.set(ordinal, null);
+			staleOrdinals++;
+
+			if(previous.getTags() != null){
+				for(String tag : previous.getTags()){
+					String        key    = tagKey(tag);
+					OrdinalBitmap tagged = ordinalsByTag.get(key);
+					if(tagged != null){
+						tagged.remove(ordinal);
+						if(tagged.isEmpty()){
+							ordinalsByTag.remove(key);
+						}
+					}
+				}
+			}
+		}
+
+		String referenceId = previous.getReferenceId();
+		if((referenceId != null) && videoId.equals(idsByReferenceId.get(referenceId))){
+			idsByReferenceId.remove(referenceId);
+		}
+	}
+
+	/**
+	 * <p>Normalizes a tag for lookup (tags are not case-sensitive).</p>
+	 *
+	 * @param tag Tag
+	 * @return Index key for the tag
+	 */
+	private static String tagKey(String tag){
+		return (tag == null) ? "" : tag.toLowerCase();
+	}
+
+	/**
+	 * <p>
+	 *    Builds a comparator matching the Media API's sort options.  Videos
+	 *    without a value for the sort field sort first in ascending order, and
+	 *    ties are broken by id so paging is stable.
+	 * </p>
+	 *
+	 * @param sortBy Field to sort on (null for creation date)
+	 * @param sortOrderType Order to sort in (null for ascending)
+	 * @return Comparator for Video objects
+	 */
+	protected static Comparator<Video> comparator(final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType){
+		final Boolean descending = SortOrderTypeEnum.DESC.equals(sortOrderType);
+		return new Comparator<Video>(){
+			public int compare(Video a, Video b){
+				int ret = compareValues(sortValue(a, sortBy), sortValue(b, sortBy));
+				if(ret == 0){
+					ret = a.getId().compareTo(b.getId());
+				}
+				return descending ? -ret : ret;
+			}
+		};
+	}
+
+	/**
+	 * <p>Gets the value a video is sorted on.</p>
+	 *
+	 * @param video Video
+	 * @param sortBy Field to sort on (null for creation date)
+	 * @return Date or play count (may be null)
+	 */
+	private static Comparable<?> sortValue(Video video, SortByTypeEnum sortBy){
+		if(sortBy == null){
+			return video.getCreationDate();
+		}
+
+		switch(sortBy){
+			case PUBLISH_DATE:
+				return video.getPublishedDate();
+			case MODIFIED_DATE:
+				return video.getLastModifiedDate();
+			case PLAYS_TOTAL:
+				return video.getPlaysTotal();
+			case PLAYS_TRAILING_WEEK:
+				return video.getPlaysTrailingWeek();
+			default:
+				return video.getCreationDate();
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareValues(Comparable a, Comparable b){
+		if(a == b){
+			return 0;
+		}
+		if(a == null){
+			return -1;
+		}
+		if(b == null){
+			return 1;
+		}
+		return a.compareTo(b);
+	}
+
+	/**
+	 * <p>Builds a Videos list carrying the paging details the Media API would return.</p>
+	 *
+	 * @param videos Videos on the page (may include nulls)
+	 * @param pageNumber Zero-indexed number of the page
+	 * @param pageSize Number of items per page
+	 * @param totalCount Total number of matches
+	 * @return Videos object
+	 * @throws BrightcoveException If the list can't be built
+	 */
+	protected static Videos toVideos(List<Video> videos, Integer pageNumber, Integer pageSize, Integer totalCount) throws BrightcoveException {
+		Videos ret = null;
+		try{
+			JSONObject page = new JSONObject();
+			page.put("items",       new JSONArray());
+			page.put("page_number", pageNumber);
+			page.put("page_size",   pageSize);
+			page.put("total_count", totalCount);
+			ret = new Videos(page);
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_VIDEOS, "Couldn't build video list.  Exception caught: '" + jsone + "'.");
+		}
+
+		ret.addAll(videos);
+		return ret;
+	}
+}
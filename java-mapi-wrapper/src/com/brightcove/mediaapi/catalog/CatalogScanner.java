@@ -0,0 +1,235 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.commons.catalog.objects.Playlist;
+import com.brightcove.commons.catalog.objects.Playlists;
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.PlaylistFieldEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortByTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortOrderTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.mediaapi.concurrent.ParallelRunner;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.wrapper.ReadApi;
+
+/**
+ * <p>
+ *    Reads every video or playlist in an account, fetching pages
+ *    concurrently.
+ * </p>
+ *
+ * <p>
+ *    The first page is read on its own to learn the total number of items.
+ *    The remaining pages are then read with up to "parallelism" requests in
+ *    flight at once, and each page is handed to a CatalogConsumer as soon as
+ *    it arrives:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CatalogScanner scanner = new CatalogScanner(readApi);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;scanner.setParallelism(8);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;scanner.scanAllVideos(token, SortByTypeEnum.CREATION_DATE, SortOrderTypeEnum.ASC, videoFields, customFields, consumer);
+ * </p>
+ *
+ * <p>
+ *    Pages are requested independently, so items created or modified during
+ *    a scan can move between pages.  Sorting by creation date keeps this to
+ *    a minimum.  The ReadApi is shared by all of the scanner's threads and
+ *    should use a PooledHttpClientFactory.
+ * </p>
+ */
+public class CatalogScanner {
+	private ReadApi  readApi;
+	private Integer  pageSize;
+	private Integer  parallelism;
+	private Executor executor;
+
+	public static final Integer DEFAULT_PAGE_SIZE   = 100;
+	public static final Integer DEFAULT_PARALLELISM = 4;
+
+	/**
+	 * <p>
+	 *    Creates a scanner with the default page size and parallelism.
+	 * </p>
+	 *
+	 * @param readApi ReadApi used to read the pages
+	 */
+	public CatalogScanner(ReadApi readApi){
+		this.readApi     = readApi;
+		this.pageSize    = DEFAULT_PAGE_SIZE;
+		this.parallelism = DEFAULT_PARALLELISM;
+		this.executor    = null;
+	}
+
+	/**
+	 * <p>
+	 *    Reads every video in the account and hands them to the consumer a
+	 *    page at a time.
+	 * </p>
+	 *
+	 * @param readToken Read Media API token for the account
+	 * @param sortBy The field by which to sort the results (creation date is recommended)
+	 * @param sortOrderType How to order the results (ascending or descending)
+	 * @param videoFields Set of video fields to populate on the Video objects
+	 * @param customFields Set of custom fields to populate on the Video objects
+	 * @param consumer Receives each page of videos
+	 * @return Number of videos delivered to the consumer
+	 * @throws BrightcoveException If any page can't be read
+	 */
+	public Long scanAllVideos(final String readToken, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, CatalogConsumer<Video> consumer) throws BrightcoveException {
+		return scan(new PageReader<Video>(){
+			public Page<Video> read(Integer pageNumber) throws BrightcoveException {
+				Videos videos = readApi.FindAllVideos(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+				return new Page<Video>(videos, videos.getTotalCount());
+			}
+		}, consumer);
+	}
+
+	/**
+	 * <p>
+	 *    Reads every playlist in the account and hands them to the consumer
+	 *    a page at a time.
+	 * </p>
+	 *
+	 * @param readToken Read Media API token for the account
+	 * @param sortBy The field by which to sort the results (creation date is recommended)
+	 * @param sortOrderType How to order the results (ascending or descending)
+	 * @param videoFields Set of video fields to populate on the Video objects in each Playlist
+	 * @param customFields Set of custom fields to populate on the Video objects in each Playlist
+	 * @param playlistFields Set of playlist fields to populate on the Playlist objects
+	 * @param consumer Receives each page of playlists
+	 * @return Number of playlists delivered to the consumer
+	 * @throws BrightcoveException If any page can't be read
+	 */
+	public Long scanAllPlaylists(final String readToken, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields, CatalogConsumer<Playlist> consumer) throws BrightcoveException {
+		return scan(new PageReader<Playlist>(){
+			public Page<Playlist> read(Integer pageNumber) throws BrightcoveException {
+				Playlists playlists = readApi.FindAllPlaylists(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields, playlistFields);
+				return new Page<Playlist>(playlists, playlists.getTotalCount());
+			}
+		}, consumer);
+	}
+
+	/**
+	 * <p>Reads the first page, then the rest concurrently, delivering each to the consumer.</p>
+	 *
+	 * @param reader Reads a single page
+	 * @param consumer Receives each page
+	 * @return Number of items delivered
+	 * @throws BrightcoveException If any page can't be read
+	 */
+	private <T> Long scan(final PageReader<T> reader, final CatalogConsumer<T> consumer) throws BrightcoveException {
+		final AtomicLong delivered = new AtomicLong(0);
+
+		Page<T> first = reader.read(0);
+		deliver(consumer, 0, first.items, delivered);
+
+		if((first.totalCount == null) || (first.totalCount < 0)){
+			// No total count - fall back to reading until a short page
+			Integer pageNumber = 0;
+			Page<T> page       = first;
+			while(page.items.size() >= pageSize){
+				pageNumber++;
+				page = reader.read(pageNumber);
+				deliver(consumer, pageNumber, page.items, delivered);
+			}
+			return delivered.get();
+		}
+
+		Integer pageCount = (first.totalCount + pageSize - 1) / pageSize;
+		if(pageCount > 1){
+			ParallelRunner runner = new ParallelRunner(executor, parallelism, "mapi-catalog-scan");
+			runner.run(pageCount - 1, new ParallelRunner.Task(){
+				public void run(Integer index) throws BrightcoveException {
+					Integer pageNumber = index + 1;
+					deliver(consumer, pageNumber, reader.read(pageNumber).items, delivered);
+				}
+			});
+		}
+
+		return delivered.get();
+	}
+
+	/**
+	 * <p>Hands a page to the consumer, one page at a time.</p>
+	 *
+	 * @param consumer Receives the page
+	 * @param pageNumber Page number
+	 * @param items Items on the page
+	 * @param delivered Running count of items delivered
+	 */
+	private <T> void deliver(CatalogConsumer<T> consumer, Integer pageNumber, List<T> items, AtomicLong delivered){
+		synchronized(consumer){
+			consumer.consume(pageNumber, items);
+		}
+		delivered.addAndGet(items.size());
+	}
+
+	/**
+	 * <p>Gets the number of items requested per page.</p>
+	 *
+	 * @return Page size
+	 */
+	public Integer getPageSize(){
+		return pageSize;
+	}
+
+	/**
+	 * <p>Sets the number of items requested per page (at most 100).</p>
+	 *
+	 * @param pageSize Page size
+	 */
+	public void setPageSize(Integer pageSize){
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * <p>Gets the maximum number of pages requested at the same time.</p>
+	 *
+	 * @return Maximum number of concurrent page requests
+	 */
+	public Integer getParallelism(){
+		return parallelism;
+	}
+
+	/**
+	 * <p>Sets the maximum number of pages requested at the same time.</p>
+	 *
+	 * @param parallelism Maximum number of concurrent page requests
+	 */
+	public void setParallelism(Integer parallelism){
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * <p>Sets the executor page requests are run on.  Set to null (the default) to have each scan create (and shut down) its own threads.  The executor is owned by the caller.</p>
+	 *
+	 * @param executor Executor to run page requests on
+	 */
+	public void setExecutor(Executor executor){
+		this.executor = executor;
+	}
+
+	/**
+	 * <p>Reads a single page of items.</p>
+	 */
+	private interface PageReader<T> {
+		public Page<T> read(Integer pageNumber) throws BrightcoveException;
+	}
+
+	/**
+	 * <p>A page of items along with the total count reported by the Media API.</p>
+	 */
+	private static class Page<T> {
+		private final List<T> items;
+		private final Integer totalCount;
+
+		public Page(List<T> items, Integer totalCount){
+			this.items      = items;
+			this.totalCount = totalCount;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.brightcove.mediaapi.catalog;
+
+import com.brightcove.commons.catalog.objects.Video;
+
+/**
+ * <p>
+ *    A local copy of an account's videos, kept up to date by a
+ *    CatalogSyncEngine.
+ * </p>
+ *
+ * <p>
+ *    Changes may be applied more than once (sync runs overlap slightly so
+ *    nothing is missed), so put() and remove() must be idempotent.
+ * </p>
+ */
+public interface CatalogStore {
+	/**
+	 * <p>Adds a video, or replaces the stored copy of it.</p>
+	 *
+	 * @param video Video that was created or modified (including inactive videos)
+	 */
+	public void put(Video video);
+
+	/**
+	 * <p>Removes a video that was deleted.  Does nothing if the video isn't stored.</p>
+	 *
+	 * @param videoId Brightcove id of the deleted video
+	 */
+	public void remove(Long videoId);
+
+	/**
+	 * <p>
+	 *    Called after all of the changes in a sync run have been applied and
+	 *    before the checkpoint is advanced.  A durable store should make the
+	 *    changes permanent here.
+	 * </p>
+	 */
+	public void commit();
+}
@@ -0,0 +1,272 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.ItemStateEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortByTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortOrderTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoStateFilterEnum;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.wrapper.ReadApi;
+
+/**
+ * <p>
+ *    Keeps a local CatalogStore in step with an account by repeatedly
+ *    reading the videos modified since the last run.
+ * </p>
+ *
+ * <p>
+ *    Each run calls FindModifiedVideos from the saved checkpoint, with every
+ *    video state filter (so deleted and inactive videos are reported too),
+ *    and pages through all of the changes.  Deleted videos are removed from
+ *    the store and everything else is put into it.  Only once every change
+ *    has been applied and the store committed is the checkpoint advanced to
+ *    the time the run started - a run that fails part way is simply repeated
+ *    from the old checkpoint next time.
+ * </p>
+ *
+ * <p>
+ *    Runs can be made on demand with syncOnce(), or on a schedule:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CatalogSyncEngine engine = new CatalogSyncEngine(readApi, token, store, new FileSyncCheckpoint(new File("catalog.checkpoint")));<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;engine.start(5 * 60 * 1000l);
+ * </p>
+ *
+ * <p>
+ *    Without a checkpoint the first run reads every video modified since the
+ *    initial from date (0 by default, i.e. the whole catalog).  The ReadApi
+ *    used should not have a response cache, or repeated runs may be answered
+ *    from it.
+ * </p>
+ */
+public class CatalogSyncEngine {
+	private Logger         log;
+	private ReadApi        readApi;
+	private String         readToken;
+	private CatalogStore   store;
+	private SyncCheckpoint checkpoint;
+
+	private Integer                  pageSize;
+	private Long                     overlapMinutes;
+	private Long                     initialFromDate;
+	private EnumSet<VideoFieldEnum>  videoFields;
+	private Set<String>              customFields;
+	private ScheduledExecutorService scheduler;
+
+	public static final Integer DEFAULT_PAGE_SIZE       = 100;
+	public static final Long    DEFAULT_OVERLAP_MINUTES = 2l;
+
+	private static final Long MILLIS_PER_MINUTE = 60 * 1000l;
+
+	/**
+	 * <p>
+	 *    Creates a sync engine.
+	 * </p>
+	 *
+	 * @param readApi ReadApi used to read the changes
+	 * @param readToken Read Media API token for the account
+	 * @param store Local store to apply the changes to
+	 * @param checkpoint Where to remember how far the engine has got
+	 */
+	public CatalogSyncEngine(ReadApi readApi, String readToken, CatalogStore store, SyncCheckpoint checkpoint){
+		this.log        = null;
+		this.readApi    = readApi;
+		this.readToken  = readToken;
+		this.store      = store;
+		this.checkpoint = checkpoint;
+
+		pageSize        = DEFAULT_PAGE_SIZE;
+		overlapMinutes  = DEFAULT_OVERLAP_MINUTES;
+		initialFromDate = 0l;
+		videoFields     = null;
+		customFields    = null;
+		scheduler       = null;
+	}
+
+	/**
+	 * <p>
+	 *    Reads every change since the checkpoint, applies it to the store and
+	 *    advances the checkpoint.
+	 * </p>
+	 *
+	 * @return Number of changes applied
+	 * @throws BrightcoveException If the changes can't be read or the checkpoint can't be saved (the checkpoint is left where it was)
+	 */
+	public synchronized Long syncOnce() throws BrightcoveException {
+		// Anything modified after this point will be picked up by the next run
+		Long runStarted = System.currentTimeMillis();
+
+		Long fromDate = checkpoint.load();
+		if(fromDate == null){
+			fromDate = initialFromDate;
+		}
+
+		if(log != null){
+			log.info("Syncing catalog changes since " + fromDate + " (minutes since epoch).");
+		}
+
+		Set<VideoStateFilterEnum> filter = EnumSet.allOf(VideoStateFilterEnum.class);
+
+		// Newest first: videos modified during the run move to the front, so
+		// later pages can only repeat videos, never skip them
+		Long    applied    = 0l;
+		Integer pageNumber = 0;
+		while(true){
+			Videos page = readApi.FindModifiedVideos(readToken, fromDate, filter, pageSize, pageNumber, SortByTypeEnum.MODIFIED_DATE, SortOrderTypeEnum.DESC, videoFields, customFields);
+			for(Video video : page){
+				if(video == null){
+					continue;
+				}
+				if(ItemStateEnum.DELETED.equals(video.getItemState())){
+					store.remove(video.getId());
+				}
+				else{
+					store.put(video);
+				}
+				applied++;
+			}
+
+			Integer totalCount = page.getTotalCount();
+			if(page.size() < pageSize){
+				break;
+			}
+			if((totalCount != null) && (totalCount >= 0) && (((long)(pageNumber + 1) * pageSize) >= totalCount)){
+				break;
+			}
+			pageNumber++;
+		}
+
+		store.commit();
+
+		Long nextFromDate = Math.max(fromDate, (runStarted / MILLIS_PER_MINUTE) - overlapMinutes);
+		checkpoint.save(nextFromDate);
+
+		if(log != null){
+			log.info("Applied " + applied + " catalog changes; next sync from " + nextFromDate + " (minutes since epoch).");
+		}
+
+		return applied;
+	}
+
+	/**
+	 * <p>
+	 *    Starts running syncOnce() in the background, with the given delay
+	 *    between the end of one run and the start of the next.  The first run
+	 *    starts immediately.  A failed run is logged and retried at the next
+	 *    interval.
+	 * </p>
+	 *
+	 * @param intervalMillis Delay between runs in milliseconds
+	 */
+	public synchronized void start(Long intervalMillis){
+		if(scheduler != null){
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory(){
+			public Thread newThread(Runnable runnable){
+				Thread thread = new Thread(runnable, "mapi-catalog-sync");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable(){
+			public void run(){
+				try{
+					syncOnce();
+				}
+				catch(BrightcoveException be){
+					if(log != null){
+						log.warning("Catalog sync failed, will retry: " + be);
+					}
+				}
+				catch(RuntimeException re){
+					// Don't let one bad run cancel the schedule
+					if(log != null){
+						log.log(Level.WARNING, "Catalog sync failed, will retry.", re);
+					}
+				}
+			}
+		}, 0, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * <p>
+	 *    Stops the background runs started by start().  A run in progress is
+	 *    allowed to finish.
+	 * </p>
+	 */
+	public synchronized void stop(){
+		if(scheduler != null){
+			scheduler.shutdown();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * <p>Sets the Logger to report progress and failures to.</p>
+	 *
+	 * @param log java.util.logging.Logger object to log to
+	 */
+	public void setLogger(Logger log){
+		this.log = log;
+	}
+
+	/**
+	 * <p>Sets the number of changes read per page (at most 100).</p>
+	 *
+	 * @param pageSize Page size
+	 */
+	public void setPageSize(Integer pageSize){
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how many minutes before the start of the last run the next run
+	 *    reads from, to allow for clock differences between this machine and
+	 *    the Media API.  Defaults to 2.
+	 * </p>
+	 *
+	 * @param overlapMinutes Overlap between runs in minutes
+	 */
+	public void setOverlapMinutes(Long overlapMinutes){
+		this.overlapMinutes = overlapMinutes;
+	}
+
+	/**
+	 * <p>Sets the from date used when there is no checkpoint yet.  Defaults to 0 (the whole catalog).</p>
+	 *
+	 * @param initialFromDate From date in minutes since January 1st, 1970 00:00:00 GMT
+	 */
+	public void setInitialFromDate(Long initialFromDate){
+		this.initialFromDate = initialFromDate;
+	}
+
+	/**
+	 * <p>Sets the video fields to read.  Must include the id and item state.  Defaults to null (all fields).</p>
+	 *
+	 * @param videoFields Set of video fields to populate on the stored Video objects
+	 */
+	public void setVideoFields(EnumSet<VideoFieldEnum> videoFields){
+		this.videoFields = videoFields;
+	}
+
+	/**
+	 * <p>Sets the custom fields to read.  Defaults to null (none).</p>
+	 *
+	 * @param customFields Set of custom fields to populate on the stored Video objects
+	 */
+	public void setCustomFields(Set<String> customFields){
+		this.customFields = customFields;
+	}
+}
@@ -0,0 +1,81 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    A SyncCheckpoint stored in a small text file.
+ * </p>
+ *
+ * <p>
+ *    A new checkpoint is written to a temporary file next to the checkpoint
+ *    file and then moved over it, so a crash part way through a save leaves
+ *    the previous checkpoint intact.
+ * </p>
+ */
+public class FileSyncCheckpoint implements SyncCheckpoint {
+	private Path file;
+
+	/**
+	 * <p>
+	 *    Creates a checkpoint stored in the file provided.
+	 * </p>
+	 *
+	 * @param file File to store the checkpoint in (created on the first save)
+	 */
+	public FileSyncCheckpoint(File file){
+		this.file = file.toPath();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.brightcove.mediaapi.catalog.SyncCheckpoint#load()
+	 */
+	public Long load() throws BrightcoveException {
+		if(!Files.exists(file)){
+			return null;
+		}
+
+		try{
+			String contents = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+			if("".equals(contents)){
+				return null;
+			}
+			return Long.parseLong(contents);
+		}
+		catch(IOException ioe){
+			throw new WrapperException(WrapperExceptionCode.SYNC_CHECKPOINT_IO_EXCEPTION, "Couldn't read checkpoint file '" + file + "'.  Exception caught: '" + ioe + "'.");
+		}
+		catch(NumberFormatException nfe){
+			throw new WrapperException(WrapperExceptionCode.SYNC_CHECKPOINT_IO_EXCEPTION, "Checkpoint file '" + file + "' is corrupt.  Exception caught: '" + nfe + "'.");
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.brightcove.mediaapi.catalog.SyncCheckpoint#save(java.lang.Long)
+	 */
+	public void save(Long fromDate) throws BrightcoveException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try{
+			Files.write(temp, ("" + fromDate).getBytes(StandardCharsets.UTF_8));
+			try{
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch(AtomicMoveNotSupportedException amnse){
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch(IOException ioe){
+			throw new WrapperException(WrapperExceptionCode.SYNC_CHECKPOINT_IO_EXCEPTION, "Couldn't write checkpoint file '" + file + "'.  Exception caught: '" + ioe + "'.");
+		}
+	}
+}
@@ -0,0 +1,440 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *    A compressed set of video ordinals, laid out the same way as a Roaring
+ *    bitmap.
+ * </p>
+ *
+ * <p>
+ *    Ordinals are grouped into chunks of 65536 by their high 16 bits.  A
+ *    chunk holding few ordinals keeps their low 16 bits in a sorted char
+ *    array; once it holds more than 4096 (where the array would outgrow it)
+ *    it switches to a plain 8KB bitmap.  Intersections and unions work a
+ *    chunk at a time, using word-wide AND/OR where both chunks are bitmaps.
+ * </p>
+ *
+ * <p>
+ *    Not thread safe; the owner must lock around it.  The results of and()
+ *    and or() are new bitmaps that share nothing with their inputs.
+ * </p>
+ */
+class OrdinalBitmap {
+	private char[]   keys;
+	private Object[] chunks;
+	private int      size;
+
+	// Above this many ordinals a chunk is stored as a bitmap instead of an array
+	private static final int MAX_ARRAY_CHUNK = 4096;
+	private static final int BITMAP_WORDS    = 1024;
+
+	public OrdinalBitmap(){
+		keys   = new char[4];
+		chunks = new Object[4];
+		size   = 0;
+	}
+
+	/**
+	 * <p>Adds an ordinal to the set.</p>
+	 *
+	 * @param ordinal Ordinal to add
+	 */
+	public void add(int ordinal){
+		char key   = (char)(ordinal >>> 16);
+		char value = (char)ordinal;
+
+		int index = Arrays.binarySearch(keys, 0, size, key);
+		if(index < 0){
+			index = -index - 1;
+			insertChunk(index, key, new ArrayChunk());
+		}
+
+		Object chunk = chunks[index];
+		if(chunk instanceof ArrayChunk){
+			ArrayChunk array = (ArrayChunk)chunk;
+			array.add(value);
+			if(array.size > MAX_ARRAY_CHUNK){
+				chunks[index] = array.toBitmap();
+			}
+		}
+		else{
+			((BitmapChunk)chunk).add(value);
+		}
+	}
+
+	/**
+	 * <p>Removes an ordinal from the set, if it is there.</p>
+	 *
+	 * @param ordinal Ordinal to remove
+	 */
+	public void remove(int ordinal){
+		char key   = (char)(ordinal >>> 16);
+		char value = (char)ordinal;
+
+		int index = Arrays.binarySearch(keys, 0, size, key);
+		if(index < 0){
+			return;
+		}
+
+		Object chunk = chunks[index];
+		int    left  = 0;
+		if(chunk instanceof ArrayChunk){
+			ArrayChunk array = (ArrayChunk)chunk;
+			array.remove(value);
+			left = array.size;
+		}
+		else{
+			BitmapChunk bitmap = (BitmapChunk)chunk;
+			bitmap.remove(value);
+			left = bitmap.cardinality;
+			if((left > 0) && (left <= MAX_ARRAY_CHUNK)){
+				chunks[index] = bitmap.toArray();
+			}
+		}
+
+		if(left == 0){
+			removeChunk(index);
+		}
+	}
+
+	/**
+	 * <p>Checks whether an ordinal is in the set.</p>
+	 *
+	 * @param ordinal Ordinal to look for
+	 * @return True if the ordinal is in the set
+	 */
+	public Boolean contains(int ordinal){
+		int index = Arrays.binarySearch(keys, 0, size, (char)(ordinal >>> 16));
+		if(index < 0){
+			return false;
+		}
+
+		Object chunk = chunks[index];
+		if(chunk instanceof ArrayChunk){
+			return ((ArrayChunk)chunk).indexOf((char)ordinal) >= 0;
+		}
+		return ((BitmapChunk)chunk).contains((char)ordinal);
+	}
+
+	/**
+	 * <p>Gets the number of ordinals in the set.</p>
+	 *
+	 * @return Number of ordinals
+	 */
+	public Integer cardinality(){
+		int ret = 0;
+		for(int i=0;i<size;i++){
+			ret += chunkCardinality(chunks[i]);
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Checks whether the set is empty.</p>
+	 *
+	 * @return True if there are no ordinals in the set
+	 */
+	public Boolean isEmpty(){
+		return size == 0;
+	}
+
+	/**
+	 * <p>Lists the ordinals in the set.</p>
+	 *
+	 * @return Ordinals in increasing order
+	 */
+	public int[] toArray(){
+		int[] ret = new int[cardinality()];
+		int   n   = 0;
+		for(int i=0;i<size;i++){
+			int    high  = keys[i] << 16;
+			Object chunk = chunks[i];
+			if(chunk instanceof ArrayChunk){
+				ArrayChunk array = (ArrayChunk)chunk;
+				for(int j=0;j<array.size;j++){
+					ret[n++] = high | array.values[j];
+				}
+			}
+			else{
+				long[] words = ((BitmapChunk)chunk).words;
+				for(int w=0;w<BITMAP_WORDS;w++){
+					long word = words[w];
+					while(word != 0){
+						ret[n++] = high | ((w << 6) + Long.numberOfTrailingZeros(word));
+						word &= (word - 1);
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Intersects two sets.</p>
+	 *
+	 * @param a First set
+	 * @param b Second set
+	 * @return New set of the ordinals in both
+	 */
+	public static OrdinalBitmap and(OrdinalBitmap a, OrdinalBitmap b){
+		OrdinalBitmap ret = new OrdinalBitmap();
+		int i = 0, j = 0;
+		while((i < a.size) && (j < b.size)){
+			if(a.keys[i] < b.keys[j]){
+				i++;
+			}
+			else if(a.keys[i] > b.keys[j]){
+				j++;
+			}
+			else{
+				Object chunk = andChunks(a.chunks[i], b.chunks[j]);
+				if(chunk != null){
+					ret.insertChunk(ret.size, a.keys[i], chunk);
+				}
+				i++;
+				j++;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Merges two sets.</p>
+	 *
+	 * @param a First set
+	 * @param b Second set
+	 * @return New set of the ordinals in either
+	 */
+	public static OrdinalBitmap or(OrdinalBitmap a, OrdinalBitmap b){
+		OrdinalBitmap ret = new OrdinalBitmap();
+		int i = 0, j = 0;
+		while((i < a.size) || (j < b.size)){
+			if((j >= b.size) || ((i < a.size) && (a.keys[i] < b.keys[j]))){
+				ret.insertChunk(ret.size, a.keys[i], copyChunk(a.chunks[i]));
+				i++;
+			}
+			else if((i >= a.size) || (b.keys[j] < a.keys[i])){
+				ret.insertChunk(ret.size, b.keys[j], copyChunk(b.chunks[j]));
+				j++;
+			}
+			else{
+				ret.insertChunk(ret.size, a.keys[i], orChunks(a.chunks[i], b.chunks[j]));
+				i++;
+				j++;
+			}
+		}
+		return ret;
+	}
+
+	private void insertChunk(int index, char key, Object chunk){
+		if(size == keys.length){
+			keys   = Arrays.copyOf(keys, size * 2);
+			chunks = Arrays.copyOf(chunks, size * 2);
+		}
+		System.arraycopy(keys,   index, keys,   index + 1, size - index);
+		System.arraycopy(chunks, index, chunks, index + 1, size - index);
+		keys[index]   = key;
+		chunks[index] = chunk;
+		size++;
+	}
+
+	private void removeChunk(int index){
+		System.arraycopy(keys,   index + 1, keys,   index, size - index - 1);
+		System.arraycopy(chunks, index + 1, chunks, index, size - index - 1);
+		size--;
+		chunks[size] = null;
+	}
+
+	private static int chunkCardinality(Object chunk){
+		if(chunk instanceof ArrayChunk){
+			return ((ArrayChunk)chunk).size;
+		}
+		return ((BitmapChunk)chunk).cardinality;
+	}
+
+	private static Object copyChunk(Object chunk){
+		if(chunk instanceof ArrayChunk){
+			ArrayChunk array = (ArrayChunk)chunk;
+			ArrayChunk ret   = new ArrayChunk();
+			ret.values = Arrays.copyOf(array.values, Math.max(array.size, 1));
+			ret.size   = array.size;
+			return ret;
+		}
+		BitmapChunk bitmap = (BitmapChunk)chunk;
+		BitmapChunk ret    = new BitmapChunk();
+		ret.words       = bitmap.words.clone();
+		ret.cardinality = bitmap.cardinality;
+		return ret;
+	}
+
+	/**
+	 * <p>Intersects two chunks with the same key.</p>
+	 *
+	 * @return New chunk, or null if the intersection is empty
+	 */
+	private static Object andChunks(Object a, Object b){
+		if((a instanceof BitmapChunk) && (b instanceof BitmapChunk)){
+			long[]      x   = ((BitmapChunk)a).words;
+			long[]      y   = ((BitmapChunk)b).words;
+			BitmapChunk ret = new BitmapChunk();
+			for(int w=0;w<BITMAP_WORDS;w++){
+				ret.words[w]     = x[w] & y[w];
+				ret.cardinality += Long.bitCount(ret.words[w]);
+			}
+			if(ret.cardinality == 0){
+				return null;
+			}
+			return (ret.cardinality <= MAX_ARRAY_CHUNK) ? ret.toArray() : ret;
+		}
+
+		// At least one side is a small array - probe the other side with it
+		ArrayChunk array = (ArrayChunk)((a instanceof ArrayChunk) ? a : b);
+		Object     other = (array == a) ? b : a;
+		ArrayChunk ret   = new ArrayChunk();
+		ret.values = new char[Math.max(array.size, 1)];
+		for(int i=0;i<array.size;i++){
+			char    value = array.values[i];
+			Boolean found = (other instanceof ArrayChunk) ? (((ArrayChunk)other).indexOf(value) >= 0) : ((BitmapChunk)other).contains(value);
+			if(found){
+				ret.values[ret.size++] = value;
+			}
+		}
+		return (ret.size == 0) ? null : ret;
+	}
+
+	/**
+	 * <p>Merges two chunks with the same key.</p>
+	 *
+	 * @return New chunk
+	 */
+	private static Object orChunks(Object a, Object b){
+		if((a instanceof ArrayChunk) && (b instanceof ArrayChunk)){
+			ArrayChunk x = (ArrayChunk)a;
+			ArrayChunk y = (ArrayChunk)b;
+			if(x.size + y.size <= MAX_ARRAY_CHUNK){
+				ArrayChunk ret = new ArrayChunk();
+				ret.values = new char[Math.max(x.size + y.size, 1)];
+				int i = 0, j = 0;
+				while((i < x.size) || (j < y.size)){
+					if((j >= y.size) || ((i < x.size) && (x.values[i] < y.values[j]))){
+						ret.values[ret.size++] = x.values[i++];
+					}
+					else if((i >= x.size) || (y.values[j] < x.values[i])){
+						ret.values[ret.size++] = y.values[j++];
+					}
+					else{
+						ret.values[ret.size++] = x.values[i];
+						i++;
+						j++;
+					}
+				}
+				return ret;
+			}
+		}
+
+		BitmapChunk ret = (a instanceof BitmapChunk) ? (BitmapChunk)copyChunk(a) : ((ArrayChunk)a).toBitmap();
+		if(b instanceof BitmapChunk){
+			long[] y = ((BitmapChunk)b).words;
+			ret.cardinality = 0;
+			for(int w=0;w<BITMAP_WORDS;w++){
+				ret.words[w]    |= y[w];
+				ret.cardinality += Long.bitCount(ret.words[w]);
+			}
+		}
+		else{
+			ArrayChunk y = (ArrayChunk)b;
+			for(int i=0;i<y.size;i++){
+				ret.add(y.values[i]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>A chunk stored as a sorted array of the low 16 bits of its ordinals.</p>
+	 */
+	private static class ArrayChunk {
+		private char[] values = new char[4];
+		private int    size   = 0;
+
+		private int indexOf(char value){
+			return Arrays.binarySearch(values, 0, size, value);
+		}
+
+		private void add(char value){
+			int index = indexOf(value);
+			if(index >= 0){
+				return;
+			}
+			index = -index - 1;
+			if(size == values.length){
+				values = Arrays.copyOf(values, Math.min(size * 2, MAX_ARRAY_CHUNK + 1));
+			}
+			System.arraycopy(values, index, values, index + 1, size - index);
+			values[index] = value;
+			size++;
+		}
+
+		private void remove(char value){
+			int index = indexOf(value);
+			if(index < 0){
+				return;
+			}
+			System.arraycopy(values, index + 1, values, index, size - index - 1);
+			size--;
+		}
+
+		private BitmapChunk toBitmap(){
+			BitmapChunk ret = new BitmapChunk();
+			for(int i=0;i<size;i++){
+				ret.add(values[i]);
+			}
+			return ret;
+		}
+	}
+
+	/**
+	 * <p>A chunk stored as a 65536 bit bitmap.</p>
+	 */
+	private static class BitmapChunk {
+		private long[] words       = new long[BITMAP_WORDS];
+		private int    cardinality = 0;
+
+		private Boolean contains(char value){
+			return (words[value >>> 6] & (1l << value)) != 0;
+		}
+
+		private void add(char value){
+			long before = words[value >>> 6];
+			long after  = before | (1l << value);
+			if(before != after){
+				words[value >>> 6] = after;
+				cardinality++;
+			}
+		}
+
+		private void remove(char value){
+			long before = words[value >>> 6];
+			long after  = before & ~(1l << value);
+			if(before != after){
+				words[value >>> 6] = after;
+				cardinality--;
+			}
+		}
+
+		private ArrayChunk toArray(){
+			ArrayChunk ret = new ArrayChunk();
+			ret.values = new char[Math.max(cardinality, 1)];
+			for(int w=0;w<BITMAP_WORDS;w++){
+				long word = words[w];
+				while(word != 0){
+					ret.values[ret.size++] = (char)((w << 6) + Long.numberOfTrailingZeros(word));
+					word &= (word - 1);
+				}
+			}
+			return ret;
+		}
+	}
+}
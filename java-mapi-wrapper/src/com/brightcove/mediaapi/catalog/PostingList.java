@@ -0,0 +1,176 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *    A compressed, append-only list of video ordinals for one index term.
+ * </p>
+ *
+ * <p>
+ *    Ordinals must be added in increasing order.  Each is stored as the
+ *    difference from the one before in a variable-length encoding (7 bits
+ *    per byte), so the dense lists of common terms take about a byte per
+ *    video.
+ * </p>
+ */
+class PostingList {
+	private byte[] bytes;
+	private int    length;
+	private int    count;
+	private int    last;
+
+	public PostingList(){
+		bytes  = new byte[4];
+		length = 0;
+		count  = 0;
+		last   = -1;
+	}
+
+	/**
+	 * <p>Appends an ordinal.  Adding the last ordinal again does nothing.</p>
+	 *
+	 * @param ordinal Ordinal of the video (greater than or equal to the last one added)
+	 */
+	public void add(int ordinal){
+		if(ordinal == last){
+			return;
+		}
+		if(ordinal < last){
+			throw new IllegalArgumentException("Ordinal " + ordinal + " added after " + last + ".");
+		}
+
+		int delta = ordinal - last;
+		if(length + 5 > bytes.length){
+			bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+		}
+		while((delta & ~0x7F) != 0){
+			bytes[length++] = (byte)((delta & 0x7F) | 0x80);
+			delta >>>= 7;
+		}
+		bytes[length++] = (byte)delta;
+
+		last = ordinal;
+		count++;
+	}
+
+	/**
+	 * <p>Decodes the list.</p>
+	 *
+	 * @return Ordinals in increasing order
+	 */
+	public int[] toArray(){
+		int[] ret   = new int[count];
+		int   value = -1;
+		int   pos   = 0;
+		for(int i=0;i<count;i++){
+			int delta = 0;
+			int shift = 0;
+			byte b;
+			do{
+				b      = bytes[pos++];
+				delta |= (b & 0x7F) << shift;
+				shift += 7;
+			} while((b & 0x80) != 0);
+
+			value += delta;
+			ret[i] = value;
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Gets the number of ordinals in the list.</p>
+	 *
+	 * @return Number of ordinals
+	 */
+	public Integer size(){
+		return count;
+	}
+
+	/**
+	 * <p>Releases the spare capacity at the end of the list.</p>
+	 */
+	public void trim(){
+		if(bytes.length > length){
+			bytes = Arrays.copyOf(bytes, length);
+		}
+	}
+
+	/**
+	 * <p>Intersects two sorted ordinal arrays.</p>
+	 *
+	 * @param a Ordinals in increasing order
+	 * @param b Ordinals in increasing order
+	 * @return Ordinals in both, in increasing order
+	 */
+	public static int[] and(int[] a, int[] b){
+		int[] ret = new int[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while((i < a.length) && (j < b.length)){
+			if(a[i] < b[j]){
+				i++;
+			}
+			else if(a[i] > b[j]){
+				j++;
+			}
+			else{
+				ret[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(ret, n);
+	}
+
+	/**
+	 * <p>Merges two sorted ordinal arrays.</p>
+	 *
+	 * @param a Ordinals in increasing order
+	 * @param b Ordinals in increasing order
+	 * @return Ordinals in either, in increasing order
+	 */
+	public static int[] or(int[] a, int[] b){
+		int[] ret = new int[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while((i < a.length) || (j < b.length)){
+			if((j >= b.length) || ((i < a.length) && (a[i] < b[j]))){
+				ret[n++] = a[i++];
+			}
+			else if((i >= a.length) || (b[j] < a[i])){
+				ret[n++] = b[j++];
+			}
+			else{
+				ret[n++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(ret, n);
+	}
+
+	/**
+	 * <p>Removes the ordinals in one sorted array from another.</p>
+	 *
+	 * @param a Ordinals in increasing order
+	 * @param b Ordinals to remove, in increasing order
+	 * @return Ordinals in a but not b, in increasing order
+	 */
+	public static int[] andNot(int[] a, int[] b){
+		int[] ret = new int[a.length];
+		int i = 0, j = 0, n = 0;
+		while(i < a.length){
+			if((j >= b.length) || (a[i] < b[j])){
+				ret[n++] = a[i++];
+			}
+			else if(a[i] > b[j]){
+				j++;
+			}
+			else{
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(ret, n);
+	}
+}
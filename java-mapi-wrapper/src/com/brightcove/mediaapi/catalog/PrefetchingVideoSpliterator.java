@@ -0,0 +1,262 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.UncheckedBrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    A Spliterator over every video returned by a paged finder method.
+ * </p>
+ *
+ * <p>
+ *    Nothing is read until the first video is requested.  Whenever a page
+ *    arrives, the request for the following page is started in the
+ *    background, so reading the next page overlaps with processing the
+ *    current one.  At most two pages (the one being consumed and the one
+ *    being fetched) are held at a time.
+ * </p>
+ *
+ * <p>
+ *    The end of the results is detected from the total count reported by
+ *    the Media API, or from a page with fewer than pageSize videos.  A
+ *    failure to read a page is thrown as an UncheckedBrightcoveException.
+ * </p>
+ */
+public class PrefetchingVideoSpliterator implements Spliterator<Video> {
+	private final VideoPageReader reader;
+	private final Integer         pageSize;
+	private final Executor        executor;
+
+	private Videos                    currentPage;
+	private Integer                   currentIndex;
+	private Integer                   currentPageNumber;
+	private CompletableFuture<Videos> nextPage;
+	private Integer                   totalCount;
+	private Boolean                   finished;
+
+	/**
+	 * <p>
+	 *    Creates a spliterator that reads pages with the reader provided,
+	 *    prefetching on the executor provided.
+	 * </p>
+	 *
+	 * @param reader Reads a single page of videos
+	 * @param pageSize Page size the reader uses (used to detect the last page)
+	 * @param executor Executor to prefetch pages on
+	 */
+	public PrefetchingVideoSpliterator(VideoPageReader reader, Integer pageSize, Executor executor){
+		this.reader   = reader;
+		this.pageSize = pageSize;
+		this.executor = executor;
+
+		currentPage       = null;
+		currentIndex      = 0;
+		currentPageNumber = -1;
+		nextPage          = null;
+		totalCount        = null;
+		finished          = false;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+	 */
+	public boolean tryAdvance(Consumer<? super Video> action){
+		while((currentPage == null) || (currentIndex >= currentPage.size())){
+			if(!advancePage()){
+				return false;
+			}
+		}
+
+		action.accept(currentPage.get(currentIndex++));
+		return true;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Spliterator#trySplit()
+	 */
+	public Spliterator<Video> trySplit(){
+		// Pages have to be read in order - no splitting
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Spliterator#estimateSize()
+	 */
+	public long estimateSize(){
+		if(finished){
+			return (currentPage == null) ? 0 : (currentPage.size() - currentIndex);
+		}
+		if(totalCount == null){
+			return Long.MAX_VALUE;
+		}
+		long consumed = ((long)currentPageNumber * pageSize) + currentIndex;
+		return Math.max(0, totalCount - consumed);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Spliterator#characteristics()
+	 */
+	public int characteristics(){
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * <p>Cancels any page being prefetched and stops the iteration.</p>
+	 */
+	public void close(){
+		finished    = true;
+		currentPage = null;
+		if(nextPage != null){
+			nextPage.cancel(true);
+			nextPage = null;
+		}
+	}
+
+	/**
+	 * <p>Moves on to the next page, starting the prefetch of the one after it.</p>
+	 *
+	 * @return False if there are no more pages
+	 */
+	private boolean advancePage(){
+		if(finished){
+			currentPage = null;
+			return false;
+		}
+
+		Integer pageNumber = currentPageNumber + 1;
+		Videos  page       = null;
+		if(nextPage == null){
+			page = read(pageNumber);
+		}
+		else{
+			page     = await(nextPage);
+			nextPage = null;
+		}
+
+		currentPage       = page;
+		currentIndex      = 0;
+		currentPageNumber = pageNumber;
+
+		Integer reportedTotal = page.getTotalCount();
+		if((reportedTotal != null) && (reportedTotal >= 0)){
+			totalCount = reportedTotal;
+		}
+
+		if(isLastPage(page, pageNumber)){
+			finished = true;
+		}
+		else{
+			prefetch(pageNumber + 1);
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>Checks whether a page is the last one.</p>
+	 *
+	 * @param page Page just read
+	 * @param pageNumber Number of the page
+	 * @return True if there are no pages after this one
+	 */
+	private Boolean isLastPage(Videos page, Integer pageNumber){
+		if(page.size() < pageSize){
+			return true;
+		}
+		if((totalCount != null) && (((long)(pageNumber + 1) * pageSize) >= totalCount)){
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * <p>Starts reading a page in the background.</p>
+	 *
+	 * @param pageNumber Page to read
+	 */
+	private void prefetch(final Integer pageNumber){
+		final CompletableFuture<Videos> future = new CompletableFuture<Videos>();
+		nextPage = future;
+
+		Runnable fetch = new Runnable(){
+			public void run(){
+				if(future.isCancelled()){
+					return;
+				}
+				try{
+					future.complete(reader.read(pageNumber));
+				}
+				catch(BrightcoveException be){
+					future.completeExceptionally(be);
+				}
+				catch(RuntimeException re){
+					future.completeExceptionally(re);
+				}
+			}
+		};
+
+		try{
+			executor.execute(fetch);
+		}
+		catch(RuntimeException re){
+			// Couldn't start the prefetch (e.g. executor shut down) - the page
+			// will be read in the foreground instead
+			nextPage = null;
+		}
+	}
+
+	/**
+	 * <p>Reads a page in the calling thread.</p>
+	 *
+	 * @param pageNumber Page to read
+	 * @return Videos on the page
+	 */
+	private Videos read(Integer pageNumber){
+		try{
+			return reader.read(pageNumber);
+		}
+		catch(BrightcoveException be){
+			throw new UncheckedBrightcoveException(be);
+		}
+	}
+
+	/**
+	 * <p>Waits for a prefetched page.</p>
+	 *
+	 * @param future Page being prefetched
+	 * @return Videos on the page
+	 */
+	private Videos await(CompletableFuture<Videos> future){
+		try{
+			return future.get();
+		}
+		catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+			throw new UncheckedBrightcoveException(new WrapperException(WrapperExceptionCode.BATCH_REQUEST_INTERRUPTED, "Interrupted while waiting for the next page."));
+		}
+		catch(CancellationException ce){
+			throw new UncheckedBrightcoveException(new WrapperException(WrapperExceptionCode.BATCH_REQUEST_INTERRUPTED, "Page request was cancelled."));
+		}
+		catch(ExecutionException ee){
+			Throwable cause = ee.getCause();
+			if(cause instanceof BrightcoveException){
+				throw new UncheckedBrightcoveException((BrightcoveException)cause);
+			}
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException)cause;
+			}
+			throw new UncheckedBrightcoveException(new WrapperException(WrapperExceptionCode.MAPI_UNKNOWN_NULL, "Page request failed.  Exception caught: '" + cause + "'."));
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.brightcove.mediaapi.catalog;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+
+/**
+ * <p>
+ *    Remembers how far a CatalogSyncEngine has got, so that a restarted
+ *    engine picks up where it left off instead of rescanning the catalog.
+ * </p>
+ */
+public interface SyncCheckpoint {
+	/**
+	 * <p>Loads the saved checkpoint.</p>
+	 *
+	 * @return From date (minutes since January 1st, 1970 00:00:00 GMT) for the next sync run, or null if there is no checkpoint yet
+	 * @throws BrightcoveException If the checkpoint can't be read
+	 */
+	public Long load() throws BrightcoveException;
+
+	/**
+	 * <p>Saves a new checkpoint.  Must either fully succeed or leave the old checkpoint in place.</p>
+	 *
+	 * @param fromDate From date (minutes since January 1st, 1970 00:00:00 GMT) for the next sync run
+	 * @throws BrightcoveException If the checkpoint can't be saved
+	 */
+	public void save(Long fromDate) throws BrightcoveException;
+}
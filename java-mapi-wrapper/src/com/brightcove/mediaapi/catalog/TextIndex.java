@@ -0,0 +1,344 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.brightcove.commons.catalog.objects.CustomField;
+import com.brightcove.commons.catalog.objects.Video;
+
+/**
+ * <p>
+ *    An inverted index over the text fields of a set of videos, evaluating
+ *    the all/any/none clauses of search_videos and the text of
+ *    find_videos_by_text.
+ * </p>
+ *
+ * <p>
+ *    The name, short and long descriptions, tags, reference id and custom
+ *    fields of each video are split into lower case words, and each word is
+ *    mapped to a compressed PostingList of the ordinals of the videos it
+ *    appears in.  A clause such as "tag:sports" or "display_name:big game"
+ *    matches the videos that have every word of the value in that field; a
+ *    clause with no field name searches the name and short description.
+ *    Unless an exact search is asked for, words also match other words with
+ *    the same stem (e.g. "game" matches "games"), using a light English
+ *    suffix stemmer in place of the Media API's fuzzy matching.
+ * </p>
+ *
+ * <p>
+ *    Videos are only ever added.  The owner keeps track of which ordinals
+ *    are no longer current, and rebuilds the index when too many are.  Not
+ *    thread safe; the owner must lock around it.
+ * </p>
+ */
+class TextIndex {
+	private final Map<String, PostingList> postings;
+	private final Map<String, Set<String>> termsByStem;
+	private final PostingList              all;
+
+	private static final String NAME              = "name";
+	private static final String SHORT_DESCRIPTION = "shortDescription";
+	private static final String LONG_DESCRIPTION  = "longDescription";
+	private static final String TAG               = "tag";
+	private static final String REFERENCE_ID      = "referenceId";
+	private static final String CUSTOM_FIELDS     = "customFields";
+
+	private static final String[] DEFAULT_FIELDS = { NAME, SHORT_DESCRIPTION };
+	private static final String[] TEXT_FIELDS    = { NAME, SHORT_DESCRIPTION, LONG_DESCRIPTION };
+
+	public TextIndex(){
+		postings    = new HashMap<String, PostingList>();
+		termsByStem = new HashMap<String, Set<String>>();
+		all         = new PostingList();
+	}
+
+	/**
+	 * <p>Indexes a video.  Ordinals must be added in increasing order.</p>
+	 *
+	 * @param ordinal Ordinal of the video
+	 * @param video Video to index
+	 */
+	public void add(int ordinal, Video video){
+		all.add(ordinal);
+
+		addText(ordinal, NAME,              video.getName());
+		addText(ordinal, SHORT_DESCRIPTION, video.getShortDescription());
+		addText(ordinal, LONG_DESCRIPTION,  video.getLongDescription());
+		addText(ordinal, REFERENCE_ID,      video.getReferenceId());
+		if(video.getTags() != null){
+			for(String tag : video.getTags()){
+				addText(ordinal, TAG, tag);
+			}
+		}
+		if(video.getCustomFields() != null){
+			for(CustomField field : video.getCustomFields()){
+				if(field.getName() == null){
+					continue;
+				}
+				addText(ordinal, CUSTOM_FIELDS, field.getValue());
+				addText(ordinal, customFieldKey(field.getName()), field.getValue());
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Evaluates search_videos clauses: a video matches if it matches every
+	 *    "all" clause, at least one "any" clause (if there are any), and no
+	 *    "none" clause.
+	 * </p>
+	 *
+	 * @param all Clauses that must all match (may be null)
+	 * @param any Clauses at least one of which must match (may be null)
+	 * @param none Clauses that must not match (may be null)
+	 * @param exact If true, words must match exactly rather than by stem
+	 * @return Matching ordinals in increasing order
+	 */
+	public int[] search(List<String> all, List<String> any, List<String> none, Boolean exact){
+		Boolean stemmed = (exact == null) || (!exact);
+
+		int[] ret = null;
+		if(all != null){
+			for(String clause : all){
+				int[] matches = matchClause(clause, stemmed);
+				ret = (ret == null) ? matches : PostingList.and(ret, matches);
+			}
+		}
+		if((any != null) && (!any.isEmpty())){
+			int[] union = new int[0];
+			for(String clause : any){
+				union = PostingList.or(union, matchClause(clause, stemmed));
+			}
+			ret = (ret == null) ? union : PostingList.and(ret, union);
+		}
+		if(ret == null){
+			ret = this.all.toArray();
+		}
+		if(none != null){
+			for(String clause : none){
+				ret = PostingList.andNot(ret, matchClause(clause, stemmed));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Finds the videos whose name, short description or long description contain every word of the text.</p>
+	 *
+	 * @param text Text to search for
+	 * @return Matching ordinals in increasing order
+	 */
+	public int[] findByText(String text){
+		return matchWords(tokenize(text), TEXT_FIELDS, false);
+	}
+
+	/**
+	 * <p>Releases spare capacity once a batch of videos has been added.</p>
+	 */
+	public void trim(){
+		for(PostingList list : postings.values()){
+			list.trim();
+		}
+		all.trim();
+	}
+
+	/**
+	 * <p>Gets the number of distinct field/word pairs indexed.</p>
+	 *
+	 * @return Number of terms
+	 */
+	public Integer getTermCount(){
+		return postings.size();
+	}
+
+	/**
+	 * <p>Evaluates a single "field:value" (or just "value") clause.</p>
+	 *
+	 * @param clause Clause to evaluate
+	 * @param stemmed If true, words match by stem
+	 * @return Matching ordinals in increasing order
+	 */
+	private int[] matchClause(String clause, Boolean stemmed){
+		if(clause == null){
+			return new int[0];
+		}
+
+		String[] fields = DEFAULT_FIELDS;
+		String   value  = clause;
+
+		int colon = clause.indexOf(':');
+		if(colon > 0){
+			String fieldName = clause.substring(0, colon).trim();
+			if(fieldName.matches("[A-Za-z0-9_\\-]+")){
+				fields = resolveFields(fieldName);
+				value  = clause.substring(colon + 1);
+			}
+		}
+
+		return matchWords(tokenize(value), fields, stemmed);
+	}
+
+	/**
+	 * <p>Finds the videos that have every word in at least one of the fields.</p>
+	 *
+	 * @param words Words to look for
+	 * @param fields Index fields to look in
+	 * @param stemmed If true, words match by stem
+	 * @return Matching ordinals in increasing order
+	 */
+	private int[] matchWords(List<String> words, String[] fields, Boolean stemmed){
+		if(words.isEmpty()){
+			return new int[0];
+		}
+
+		int[] ret = null;
+		for(String word : words){
+			Set<String> terms = new HashSet<String>();
+			terms.add(word);
+			if(stemmed){
+				Set<String> related = termsByStem.get(stem(word));
+				if(related != null){
+					terms.addAll(related);
+				}
+			}
+
+			int[] matches = new int[0];
+			for(String field : fields){
+				for(String term : terms){
+					PostingList list = postings.get(field + ":" + term);
+					if(list != null){
+						matches = PostingList.or(matches, list.toArray());
+					}
+				}
+			}
+
+			ret = (ret == null) ? matches : PostingList.and(ret, matches);
+			if(ret.length == 0){
+				break;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Adds every word of a field's value to the index.</p>
+	 *
+	 * @param ordinal Ordinal of the video
+	 * @param field Index field
+	 * @param text Value of the field (may be null)
+	 */
+	private void addText(int ordinal, String field, String text){
+		for(String word : tokenize(text)){
+			String      key  = field + ":" + word;
+			PostingList list = postings.get(key);
+			if(list == null){
+				list = new PostingList();
+				postings.put(key, list);
+
+				String      stem  = stem(word);
+				Set<String> terms = termsByStem.get(stem);
+				if(terms == null){
+					terms = new HashSet<String>(2);
+					termsByStem.put(stem, terms);
+				}
+				terms.add(word);
+			}
+			list.add(ordinal);
+		}
+	}
+
+	/**
+	 * <p>Maps a search_videos field name to the index fields it searches.</p>
+	 *
+	 * @param fieldName Field name from a clause
+	 * @return Index fields
+	 */
+	private static String[] resolveFields(String fieldName){
+		String name = fieldName.toLowerCase().replace("_", "");
+		if("displayname".equals(name) || "name".equals(name)){
+			return new String[]{ NAME };
+		}
+		if("shortdescription".equals(name)){
+			return new String[]{ SHORT_DESCRIPTION };
+		}
+		if("longdescription".equals(name)){
+			return new String[]{ LONG_DESCRIPTION };
+		}
+		if("searchtext".equals(name)){
+			return TEXT_FIELDS;
+		}
+		if("tag".equals(name) || "tags".equals(name)){
+			return new String[]{ TAG };
+		}
+		if("referenceid".equals(name)){
+			return new String[]{ REFERENCE_ID };
+		}
+		if("customfields".equals(name)){
+			return new String[]{ CUSTOM_FIELDS };
+		}
+		return new String[]{ customFieldKey(fieldName) };
+	}
+
+	private static String customFieldKey(String fieldName){
+		return CUSTOM_FIELDS + "." + fieldName.toLowerCase();
+	}
+
+	/**
+	 * <p>Splits text into lower case words (runs of letters and digits).</p>
+	 *
+	 * @param text Text to split (may be null)
+	 * @return Words in the order they appear
+	 */
+	static List<String> tokenize(String text){
+		List<String> ret = new ArrayList<String>();
+		if(text == null){
+			return ret;
+		}
+
+		int start = -1;
+		for(int i=0;i<=text.length();i++){
+			Boolean inWord = (i < text.length()) && Character.isLetterOrDigit(text.charAt(i));
+			if(inWord && (start < 0)){
+				start = i;
+			}
+			else if((!inWord) && (start >= 0)){
+				ret.add(text.substring(start, i).toLowerCase());
+				start = -1;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Reduces a word to a stem by removing common English plural and verb endings.</p>
+	 *
+	 * @param word Lower case word
+	 * @return Stem of the word
+	 */
+	static String stem(String word){
+		int length = word.length();
+		if((length > 4) && word.endsWith("ies")){
+			return word.substring(0, length - 3) + "y";
+		}
+		if((length > 5) && word.endsWith("ing")){
+			return word.substring(0, length - 3);
+		}
+		if((length > 4) && word.endsWith("ed")){
+			return word.substring(0, length - 2);
+		}
+		for(String suffix : Arrays.asList("sses", "xes", "zes", "ches", "shes")){
+			if(word.endsWith(suffix) && (length > suffix.length() + 1)){
+				return word.substring(0, length - 2);
+			}
+		}
+		if((length > 3) && word.endsWith("s") && (!word.endsWith("ss"))){
+			return word.substring(0, length - 1);
+		}
+		return word;
+	}
+}
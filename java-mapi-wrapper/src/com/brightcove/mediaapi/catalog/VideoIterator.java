@@ -0,0 +1,58 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Iterator;
+import java.util.Spliterators;
+
+import com.brightcove.commons.catalog.objects.Video;
+
+/**
+ * <p>
+ *    An Iterator over every video returned by a paged finder method (see
+ *    VideoPager), which must be closed if it is abandoned before the end.
+ * </p>
+ *
+ * <p>
+ *    Closing the iterator cancels the page being prefetched in the
+ *    background, so use it in a try-with-resources statement:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;try(VideoIterator videos = pager.iterateVideosByTags(token, andTags, null, sortBy, sortOrder, videoFields, customFields)){<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;while(videos.hasNext()){ ... }<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;}
+ * </p>
+ */
+public class VideoIterator implements Iterator<Video>, AutoCloseable {
+	private final PrefetchingVideoSpliterator spliterator;
+	private final Iterator<Video>             iterator;
+
+	/**
+	 * <p>
+	 *    Creates an iterator over the videos read by a spliterator.
+	 * </p>
+	 *
+	 * @param spliterator Spliterator to read the videos from
+	 */
+	public VideoIterator(PrefetchingVideoSpliterator spliterator){
+		this.spliterator = spliterator;
+		this.iterator    = Spliterators.iterator(spliterator);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Iterator#hasNext()
+	 */
+	public boolean hasNext(){
+		return iterator.hasNext();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.Iterator#next()
+	 */
+	public Video next(){
+		return iterator.next();
+	}
+
+	/**
+	 * <p>Cancels any page being prefetched and stops the iteration.</p>
+	 */
+	public void close(){
+		spliterator.close();
+	}
+}
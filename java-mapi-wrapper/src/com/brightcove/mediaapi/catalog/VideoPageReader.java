@@ -0,0 +1,21 @@
+package com.brightcove.mediaapi.catalog;
+
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+
+/**
+ * <p>
+ *    Reads a single page of videos - usually by calling one of the paged
+ *    ReadApi finder methods with a fixed page size.
+ * </p>
+ */
+public interface VideoPageReader {
+	/**
+	 * <p>Reads one page of videos.</p>
+	 *
+	 * @param pageNumber Page number to read (0 based)
+	 * @return Videos on the page
+	 * @throws BrightcoveException If the page can't be read
+	 */
+	public Videos read(Integer pageNumber) throws BrightcoveException;
+}
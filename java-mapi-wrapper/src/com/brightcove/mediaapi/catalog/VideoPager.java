@@ -0,0 +1,279 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.SortByTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortOrderTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoStateFilterEnum;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.wrapper.ReadApi;
+
+/**
+ * <p>
+ *    Lazy, prefetching access to every result of the paged ReadApi finder
+ *    methods, without hand-written page loops.
+ * </p>
+ *
+ * <p>
+ *    Each method takes the same arguments as the ReadApi method it pages
+ *    through, minus the page size and page number, and returns either a
+ *    Stream or a VideoIterator over every matching video:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;VideoPager pager = new VideoPager(readApi);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;try(Stream&lt;Video&gt; videos = pager.streamVideosByTags(token, andTags, null, sortBy, sortOrder, videoFields, customFields)){<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;&nbsp;videos.forEach(...);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;}
+ * </p>
+ *
+ * <p>
+ *    While one page is being consumed the next is fetched in the background
+ *    (see PrefetchingVideoSpliterator).  Failures are thrown as
+ *    UncheckedBrightcoveException.  Closing a Stream or a VideoIterator
+ *    cancels its prefetch, so one that may be abandoned before the end
+ *    should be used in a try-with-resources statement.
+ * </p>
+ *
+ * <p>
+ *    A pager created without an executor prefetches on its own pool of
+ *    daemon threads, which should be released with shutdown() once the
+ *    pager is no longer needed.
+ * </p>
+ */
+public class VideoPager {
+	private ReadApi         readApi;
+	private Integer         pageSize;
+	private Executor        executor;
+	private ExecutorService ownedExecutor;
+
+	public static final Integer DEFAULT_PAGE_SIZE = 100;
+
+	/**
+	 * <p>
+	 *    Creates a pager that prefetches pages on its own pool of daemon
+	 *    threads.
+	 * </p>
+	 *
+	 * @param readApi ReadApi used to read the pages
+	 */
+	public VideoPager(ReadApi readApi){
+		this.readApi       = readApi;
+		this.pageSize      = DEFAULT_PAGE_SIZE;
+		this.ownedExecutor = Executors.newCachedThreadPool(new ThreadFactory(){
+			public Thread newThread(Runnable runnable){
+				Thread thread = new Thread(runnable, "mapi-page-prefetch");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.executor      = ownedExecutor;
+	}
+
+	/**
+	 * <p>
+	 *    Creates a pager that prefetches pages on the executor provided.  The
+	 *    executor is owned by the caller and is not shut down by this object.
+	 * </p>
+	 *
+	 * @param readApi ReadApi used to read the pages
+	 * @param executor Executor to prefetch pages on
+	 */
+	public VideoPager(ReadApi readApi, Executor executor){
+		this.readApi       = readApi;
+		this.pageSize      = DEFAULT_PAGE_SIZE;
+		this.ownedExecutor = null;
+		this.executor      = executor;
+	}
+
+	/**
+	 * <p>
+	 *    Shuts down the internal thread pool, if this object created one
+	 *    (see VideoPager(ReadApi)).  Pages already being prefetched are
+	 *    still read; streams and iterators used afterwards read each page
+	 *    in the calling thread instead.  Does nothing if the pager was
+	 *    given an executor, which is left to its owner.
+	 * </p>
+	 */
+	public void shutdown(){
+		if(ownedExecutor != null){
+			ownedExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * <p>Gets the number of videos requested per page.</p>
+	 *
+	 * @return Page size
+	 */
+	public Integer getPageSize(){
+		return pageSize;
+	}
+
+	/**
+	 * <p>Sets the number of videos requested per page (at most 100).</p>
+	 *
+	 * @param pageSize Page size
+	 */
+	public void setPageSize(Integer pageSize){
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * <p>Streams every video returned by {@link ReadApi#FindVideosByTags}.</p>
+	 *
+	 * @return Lazy stream over every matching video
+	 */
+	public Stream<Video> streamVideosByTags(String readToken, Set<String> andTags, Set<String> orTags, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return stream(videosByTagsReader(readToken, andTags, orTags, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Iterates over every video returned by {@link ReadApi#FindVideosByTags}.</p>
+	 *
+	 * @return Lazy iterator over every matching video, to be closed if abandoned before the end
+	 */
+	public VideoIterator iterateVideosByTags(String readToken, Set<String> andTags, Set<String> orTags, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return iterate(videosByTagsReader(readToken, andTags, orTags, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Streams every video returned by {@link ReadApi#SearchVideos}.</p>
+	 *
+	 * @return Lazy stream over every matching video
+	 */
+	public Stream<Video> streamSearchVideos(String readToken, List<String> all, List<String> any, List<String> none, Boolean exact, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return stream(searchVideosReader(readToken, all, any, none, exact, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Iterates over every video returned by {@link ReadApi#SearchVideos}.</p>
+	 *
+	 * @return Lazy iterator over every matching video, to be closed if abandoned before the end
+	 */
+	public VideoIterator iterateSearchVideos(String readToken, List<String> all, List<String> any, List<String> none, Boolean exact, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return iterate(searchVideosReader(readToken, all, any, none, exact, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Streams every video returned by {@link ReadApi#FindModifiedVideos}.</p>
+	 *
+	 * @return Lazy stream over every matching video
+	 */
+	public Stream<Video> streamModifiedVideos(String readToken, Long fromDate, Set<VideoStateFilterEnum> filter, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return stream(modifiedVideosReader(readToken, fromDate, filter, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Iterates over every video returned by {@link ReadApi#FindModifiedVideos}.</p>
+	 *
+	 * @return Lazy iterator over every matching video, to be closed if abandoned before the end
+	 */
+	public VideoIterator iterateModifiedVideos(String readToken, Long fromDate, Set<VideoStateFilterEnum> filter, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return iterate(modifiedVideosReader(readToken, fromDate, filter, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Streams every video returned by {@link ReadApi#FindVideosByUserId}.</p>
+	 *
+	 * @return Lazy stream over every matching video
+	 */
+	public Stream<Video> streamVideosByUserId(String readToken, String userId, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return stream(videosByUserIdReader(readToken, userId, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Iterates over every video returned by {@link ReadApi#FindVideosByUserId}.</p>
+	 *
+	 * @return Lazy iterator over every matching video, to be closed if abandoned before the end
+	 */
+	public VideoIterator iterateVideosByUserId(String readToken, String userId, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+		return iterate(videosByUserIdReader(readToken, userId, sortBy, sortOrderType, videoFields, customFields));
+	}
+
+	/**
+	 * <p>Streams every video read by any page reader.</p>
+	 *
+	 * @param reader Reads a single page of videos (must use this pager's page size)
+	 * @return Lazy stream over every video
+	 */
+	public Stream<Video> stream(VideoPageReader reader){
+		final PrefetchingVideoSpliterator spliterator = new PrefetchingVideoSpliterator(reader, pageSize, executor);
+
+		return StreamSupport.stream(spliterator, false).onClose(new Runnable(){
+			public void run(){
+				spliterator.close();
+			}
+		});
+	}
+
+	/**
+	 * <p>Iterates over every video read by any page reader.</p>
+	 *
+	 * @param reader Reads a single page of videos (must use this pager's page size)
+	 * @return Lazy iterator over every video, to be closed if abandoned before the end
+	 */
+	public VideoIterator iterate(VideoPageReader reader){
+		return new VideoIterator(new PrefetchingVideoSpliterator(reader, pageSize, executor));
+	}
+
+	/**
+	 * <p>Reads pages of {@link ReadApi#FindVideosByTags}.</p>
+	 *
+	 * @return Page reader
+	 */
+	private VideoPageReader videosByTagsReader(final String readToken, final Set<String> andTags, final Set<String> orTags, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return new VideoPageReader(){
+			public Videos read(Integer pageNumber) throws BrightcoveException {
+				return readApi.FindVideosByTags(readToken, andTags, orTags, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		};
+	}
+
+	/**
+	 * <p>Reads pages of {@link ReadApi#SearchVideos}.</p>
+	 *
+	 * @return Page reader
+	 */
+	private VideoPageReader searchVideosReader(final String readToken, final List<String> all, final List<String> any, final List<String> none, final Boolean exact, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return new VideoPageReader(){
+			public Videos read(Integer pageNumber) throws BrightcoveException {
+				return readApi.SearchVideos(readToken, all, any, none, exact, sortBy, sortOrderType, pageSize, pageNumber, videoFields, customFields);
+			}
+		};
+	}
+
+	/**
+	 * <p>Reads pages of {@link ReadApi#FindModifiedVideos}.</p>
+	 *
+	 * @return Page reader
+	 */
+	private VideoPageReader modifiedVideosReader(final String readToken, final Long fromDate, final Set<VideoStateFilterEnum> filter, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return new VideoPageReader(){
+			public Videos read(Integer pageNumber) throws BrightcoveException {
+				return readApi.FindModifiedVideos(readToken, fromDate, filter, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		};
+	}
+
+	/**
+	 * <p>Reads pages of {@link ReadApi#FindVideosByUserId}.</p>
+	 *
+	 * @return Page reader
+	 */
+	private VideoPageReader videosByUserIdReader(final String readToken, final String userId, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return new VideoPageReader(){
+			public Videos read(Integer pageNumber) throws BrightcoveException {
+				return readApi.FindVideosByUserId(readToken, userId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		};
+	}
+}
@@ -0,0 +1,181 @@
+package com.brightcove.mediaapi.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Runs a numbered set of tasks with bounded parallelism and waits for
+ *    them all to finish.
+ * </p>
+ *
+ * <p>
+ *    At most "parallelism" tasks run at the same time, no matter how big
+ *    the executor is.  Tasks are started roughly in index order.  If any
+ *    task fails, tasks that haven't started yet are skipped and the first
+ *    failure (including an Error) is thrown to the caller once the running
+ *    tasks have finished.
+ * </p>
+ *
+ * <p>
+ *    If no executor is given, each call to run() creates its own daemon
+ *    threads (named threadName-0, threadName-1, ...) and shuts them down
+ *    afterwards.
+ * </p>
+ */
+public class ParallelRunner {
+	private Executor executor;
+	private Integer  parallelism;
+	private String   threadName;
+
+	/**
+	 * <p>
+	 *    Creates a runner.
+	 * </p>
+	 *
+	 * @param executor Executor to run tasks on, or null to create threads for each run
+	 * @param parallelism Maximum number of tasks to run at the same time
+	 * @param threadName Name to give threads created by this runner (followed by the thread's number)
+	 */
+	public ParallelRunner(Executor executor, Integer parallelism, String threadName){
+		this.executor    = executor;
+		this.parallelism = parallelism;
+		this.threadName  = threadName;
+	}
+
+	/**
+	 * <p>
+	 *    Runs tasks 0 to taskCount-1 and waits for them to finish.
+	 * </p>
+	 *
+	 * @param taskCount Number of tasks to run
+	 * @param task Task to run for each index
+	 * @throws BrightcoveException The first exception thrown by a task, or if this thread is interrupted while waiting
+	 */
+	public void run(final Integer taskCount, final Task task) throws BrightcoveException {
+		final AtomicInteger              next    = new AtomicInteger(0);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>(null);
+
+		Runnable worker = new Runnable(){
+			public void run(){
+				try{
+					while(failure.get() == null){
+						int index = next.getAndIncrement();
+						if(index >= taskCount){
+							return;
+						}
+						task.run(index);
+					}
+				}
+				catch(Throwable t){
+					// Errors too, or the worker would die without the caller knowing
+					failure.compareAndSet(null, t);
+				}
+			}
+		};
+
+		Integer workerCount = Math.min(parallelism, taskCount);
+		if(workerCount <= 1){
+			worker.run();
+		}
+		else{
+			ExecutorService ownedExecutor = null;
+			Executor        runOn         = executor;
+			if(runOn == null){
+				ownedExecutor = Executors.newFixedThreadPool(workerCount, new ThreadFactory(){
+					private final AtomicInteger threadNumber = new AtomicInteger(0);
+
+					public Thread newThread(Runnable runnable){
+						Thread thread = new Thread(runnable, threadName + "-" + threadNumber.getAndIncrement());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+				runOn = ownedExecutor;
+			}
+
+			final CountDownLatch done = new CountDownLatch(workerCount);
+			try{
+				for(int i=0;i<workerCount;i++){
+					final Runnable shareOfWork = worker;
+					Runnable countedWorker = new Runnable(){
+						public void run(){
+							try{
+								shareOfWork.run();
+							}
+							finally{
+								done.countDown();
+							}
+						}
+					};
+
+					try{
+						runOn.execute(countedWorker);
+					}
+					catch(RejectedExecutionException ree){
+						// Executor is saturated - do this share of the work ourselves
+						countedWorker.run();
+					}
+				}
+
+				done.await();
+			}
+			catch(InterruptedException ie){
+				Thread.currentThread().interrupt();
+				failure.compareAndSet(null, new WrapperException(WrapperExceptionCode.BATCH_REQUEST_INTERRUPTED, "Interrupted while waiting for parallel requests."));
+			}
+			finally{
+				if(ownedExecutor != null){
+					ownedExecutor.shutdown();
+				}
+			}
+		}
+
+		Throwable t = failure.get();
+		if(t == null){
+			return;
+		}
+		if(t instanceof BrightcoveException){
+			throw (BrightcoveException)t;
+		}
+		if(t instanceof RuntimeException){
+			throw (RuntimeException)t;
+		}
+		if(t instanceof Error){
+			throw (Error)t;
+		}
+		throw new WrapperException(WrapperExceptionCode.MAPI_UNKNOWN_NULL, "Parallel request failed.  Exception caught: '" + t + "'.");
+	}
+
+	/**
+	 * <p>Gets the maximum number of tasks run at the same time.</p>
+	 *
+	 * @return Maximum parallelism
+	 */
+	public Integer getParallelism(){
+		return parallelism;
+	}
+
+	/**
+	 * <p>A task identified by its index.</p>
+	 */
+	public interface Task {
+		/**
+		 * <p>Runs the task.</p>
+		 *
+		 * @param index Index of the task (0 to taskCount-1)
+		 * @throws BrightcoveException If the task fails
+		 */
+		public void run(Integer index) throws BrightcoveException;
+	}
+}
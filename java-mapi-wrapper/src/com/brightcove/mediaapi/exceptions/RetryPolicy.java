@@ -0,0 +1,422 @@
+package com.brightcove.mediaapi.exceptions;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.http.conn.ConnectTimeoutException;
+
+/**
+ * <p>
+ *    Decides whether, and after how long, a failed Media API call is retried.
+ * </p>
+ *
+ * <p>
+ *    A call is retried if it failed with a retryable WrapperExceptionCode
+ *    (by default the transport errors - see
+ *    WrapperExceptionCode.isTransportError) or a retryable Media API error
+ *    code (by default 103, "CallTimeoutError"), until it has been attempted
+ *    the maximum number of times or its time budget runs out.  Before each
+ *    retry the calling thread sleeps for a random time between 0 and an
+ *    exponentially growing cap ("full jitter"), so callers that failed
+ *    together don't all retry together.
+ * </p>
+ *
+ * <p>
+ *    Set on a ReadApi or WriteApi to have every public method retry through
+ *    it:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setRetryPolicy(new RetryPolicy());
+ * </p>
+ *
+ * <p>
+ *    A write that fails with an I/O error may still have been applied, so
+ *    retrying it can e.g. create a video twice.  Calls that aren't
+ *    idempotent (the WriteApi methods that create something, and uploads)
+ *    are therefore only retried if the failed attempt never reached the
+ *    Media API - see isUnsent().
+ * </p>
+ *
+ * <p>
+ *    A policy is safe to share between threads and API objects once it has
+ *    been configured.
+ * </p>
+ */
+public class RetryPolicy {
+	private Integer maxAttempts;
+	private Long    baseDelayMillis;
+	private Long    maxDelayMillis;
+	private Long    timeBudgetMillis;
+	
+	private Set<WrapperExceptionCode> retryableCodes;
+	private Set<Integer>              retryableResponseCodes;
+	
+	public static final Integer DEFAULT_MAX_ATTEMPTS       = 3;
+	public static final Long    DEFAULT_BASE_DELAY_MILLIS  = 100l;
+	public static final Long    DEFAULT_MAX_DELAY_MILLIS   = 5000l;
+	public static final Long    DEFAULT_TIME_BUDGET_MILLIS = 30000l;
+	
+	public static final Integer MEDIA_API_CALL_TIMEOUT = 103;
+	
+	/**
+	 * <p>
+	 *    The state of a single call's attempts.  Get one from start() for
+	 *    each call.
+	 * </p>
+	 */
+	public static class Attempts {
+		private final Long startedAt;
+		private Integer    count;
+	
+		private Attempts(Long startedAt){
+			this.startedAt = startedAt;
+			this.count     = 1;
+		}
+	
+		/**
+		 * <p>
+		 *    Gets the number of the attempt currently being made.
+		 * </p>
+		 * 
+		 * @return Attempt number, starting at 1
+		 */
+		public Integer getCount(){
+			return count;
+		}
+	
+		/**
+		 * <p>
+		 *    Gets the time the first attempt was started.
+		 * </p>
+		 * 
+		 * @return Milliseconds since the epoch
+		 */
+		public Long getStartedAt(){
+			return startedAt;
+		}
+	}
+	
+	/**
+	 * <p>
+	 *    Creates a policy with the default attempts, delays, time budget and
+	 *    retryable errors.
+	 * </p>
+	 */
+	public RetryPolicy(){
+		this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_TIME_BUDGET_MILLIS);
+	}
+	
+	/**
+	 * <p>
+	 *    Creates a policy with the default retryable errors.
+	 * </p>
+	 * 
+	 * @param maxAttempts Maximum number of times a call is attempted (including the first)
+	 * @param baseDelayMillis Cap on the delay before the first retry; doubles for each retry after that
+	 * @param maxDelayMillis Largest cap on the delay before a retry
+	 * @param timeBudgetMillis Time after the first attempt started beyond which no retry is started, or null for no limit
+	 */
+	public RetryPolicy(Integer maxAttempts, Long baseDelayMillis, Long maxDelayMillis, Long timeBudgetMillis){
+		this.maxAttempts      = maxAttempts;
+		this.baseDelayMillis  = baseDelayMillis;
+		this.maxDelayMillis   = maxDelayMillis;
+		this.timeBudgetMillis = timeBudgetMillis;
+	
+		this.retryableCodes = EnumSet.noneOf(WrapperExceptionCode.class);
+		for(WrapperExceptionCode code : WrapperExceptionCode.values()){
+			if(code.isTransportError()){
+				retryableCodes.add(code);
+			}
+		}
+		this.retryableResponseCodes = new HashSet<Integer>();
+		retryableResponseCodes.add(MEDIA_API_CALL_TIMEOUT);
+	}
+	
+	/**
+	 * <p>
+	 *    Starts tracking the attempts of a call.
+	 * </p>
+	 * 
+	 * @return State for the call's first attempt
+	 */
+	public Attempts start(){
+		return new Attempts(currentTimeMillis());
+	}
+	
+	/**
+	 * <p>
+	 *    Called when an attempt of a call fails.  Returns (after sleeping for
+	 *    the backoff delay) if the call should be attempted again, and throws
+	 *    the exception otherwise.
+	 * </p>
+	 * 
+	 * @param be Exception the attempt failed with
+	 * @param attempts State of the call's attempts
+	 * @throws BrightcoveException The exception provided, if the call shouldn't be retried (or the thread is interrupted while waiting)
+	 */
+	public void beforeRetry(BrightcoveException be, Attempts attempts) throws BrightcoveException {
+		beforeRetry(be, attempts, true);
+	}
+	
+	/**
+	 * <p>
+	 *    Called when an attempt of a call fails.  Returns (after sleeping for
+	 *    the backoff delay) if the call should be attempted again, and throws
+	 *    the exception otherwise.  A call that isn't idempotent is only
+	 *    attempted again if the failed attempt never reached the Media API.
+	 * </p>
+	 * 
+	 * @param be Exception the attempt failed with
+	 * @param attempts State of the call's attempts
+	 * @param idempotent False if repeating an attempt that reached the Media API could apply the call twice
+	 * @throws BrightcoveException The exception provided, if the call shouldn't be retried (or the thread is interrupted while waiting)
+	 */
+	public void beforeRetry(BrightcoveException be, Attempts attempts, Boolean idempotent) throws BrightcoveException {
+		if((!isRetryable(be)) || ((maxAttempts != null) && (attempts.count >= maxAttempts))){
+			throw be;
+		}
+		if((!idempotent) && (!isUnsent(be))){
+			throw be;
+		}
+	
+		Long delay = getDelayMillis(attempts.count);
+		if(timeBudgetMillis != null){
+			Long elapsed = currentTimeMillis() - attempts.startedAt;
+			if(elapsed + delay > timeBudgetMillis){
+				throw be;
+			}
+		}
+	
+		if(delay > 0){
+			try{
+				Thread.sleep(delay);
+			}
+			catch(InterruptedException ie){
+				Thread.currentThread().interrupt();
+				throw be;
+			}
+		}
+		attempts.count++;
+	}
+	
+	/**
+	 * <p>
+	 *    Checks whether an exception is one of the retryable kinds.
+	 * </p>
+	 * 
+	 * @param be Exception thrown by the Media API or the Java wrapper
+	 * @return True if a call failing with the exception can be retried
+	 */
+	public Boolean isRetryable(BrightcoveException be){
+		if(be instanceof WrapperException){
+			WrapperExceptionCode code = ((WrapperException)be).getCode();
+			return (code != null) && retryableCodes.contains(code);
+		}
+		if(be instanceof MediaApiException){
+			Integer code = ((MediaApiException)be).getResponseCode();
+			return (code != null) && retryableResponseCodes.contains(code);
+		}
+		return false;
+	}
+	
+	/**
+	 * <p>
+	 *    Checks whether an exception shows that the attempt never reached the
+	 *    Media API, so that even a call that isn't idempotent can safely be
+	 *    made again: the connection couldn't be opened, or the circuit
+	 *    breaker, rate limiter or concurrency limiter turned the call away.
+	 * </p>
+	 * 
+	 * @param be Exception thrown by the Media API or the Java wrapper
+	 * @return True if the attempt wasn't sent
+	 */
+	public static Boolean isUnsent(BrightcoveException be){
+		if(!(be instanceof WrapperException)){
+			return false;
+		}
+		
+		WrapperExceptionCode code = ((WrapperException)be).getCode();
+		if((code == WrapperExceptionCode.CIRCUIT_OPEN) || (code == WrapperExceptionCode.RATE_LIMITED) || (code == WrapperExceptionCode.CONCURRENCY_LIMITED)){
+			return true;
+		}
+		
+		// Any other I/O error may have happened after the request was (partly) sent
+		Throwable cause = be.getCause();
+		return (code == WrapperExceptionCode.MAPI_IO_EXCEPTION) && ((cause instanceof ConnectException) || (cause instanceof ConnectTimeoutException) || (cause instanceof UnknownHostException));
+	}
+	
+	/**
+	 * <p>
+	 *    Picks the delay before a retry: a random time between 0 and
+	 *    baseDelay * 2^(attempt - 1), capped at the maximum delay.
+	 * </p>
+	 * 
+	 * @param attempt Number of the attempt that failed, starting at 1
+	 * @return Delay in milliseconds
+	 */
+	public Long getDelayMillis(Integer attempt){
+		if((baseDelayMillis == null) || (baseDelayMillis <= 0)){
+			return 0l;
+		}
+	
+		// Stop doubling well before the shift overflows
+		long cap = baseDelayMillis << Math.min(Math.max(attempt - 1, 0), 30);
+		if((maxDelayMillis != null) && ((cap > maxDelayMillis) || (cap <= 0))){
+			cap = maxDelayMillis;
+		}
+		if(cap <= 0){
+			return 0l;
+		}
+		return ThreadLocalRandom.current().nextLong(cap + 1);
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the maximum number of times a call is attempted.
+	 * </p>
+	 * 
+	 * @return Maximum attempts (including the first), or null for no limit
+	 */
+	public Integer getMaxAttempts(){
+		return maxAttempts;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the maximum number of times a call is attempted, including the
+	 *    first.  Set to null to only limit retries by the time budget.
+	 * </p>
+	 * 
+	 * @param maxAttempts Maximum attempts, or null for no limit
+	 */
+	public void setMaxAttempts(Integer maxAttempts){
+		this.maxAttempts = maxAttempts;
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the cap on the delay before the first retry.
+	 * </p>
+	 * 
+	 * @return Base delay in milliseconds
+	 */
+	public Long getBaseDelayMillis(){
+		return baseDelayMillis;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the cap on the delay before the first retry.  The cap doubles
+	 *    for each retry after that.  Set to null or 0 to retry straight away.
+	 * </p>
+	 * 
+	 * @param baseDelayMillis Base delay in milliseconds
+	 */
+	public void setBaseDelayMillis(Long baseDelayMillis){
+		this.baseDelayMillis = baseDelayMillis;
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the largest cap on the delay before a retry.
+	 * </p>
+	 * 
+	 * @return Maximum delay in milliseconds, or null for no limit
+	 */
+	public Long getMaxDelayMillis(){
+		return maxDelayMillis;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the largest cap on the delay before a retry.
+	 * </p>
+	 * 
+	 * @param maxDelayMillis Maximum delay in milliseconds, or null for no limit
+	 */
+	public void setMaxDelayMillis(Long maxDelayMillis){
+		this.maxDelayMillis = maxDelayMillis;
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the time after a call's first attempt started beyond which it
+	 *    isn't retried.
+	 * </p>
+	 * 
+	 * @return Time budget in milliseconds, or null for no limit
+	 */
+	public Long getTimeBudgetMillis(){
+		return timeBudgetMillis;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the time after a call's first attempt started beyond which it
+	 *    isn't retried.  A retry isn't started if its delay would take the
+	 *    call past the budget.  Attempts already running aren't cut short.
+	 * </p>
+	 * 
+	 * @param timeBudgetMillis Time budget in milliseconds, or null for no limit
+	 */
+	public void setTimeBudgetMillis(Long timeBudgetMillis){
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the wrapper error codes that are retried.
+	 * </p>
+	 * 
+	 * @return Retryable wrapper error codes (read only)
+	 */
+	public Set<WrapperExceptionCode> getRetryableCodes(){
+		return Collections.unmodifiableSet(retryableCodes);
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the wrapper error codes that are retried.
+	 * </p>
+	 * 
+	 * @param retryableCodes Retryable wrapper error codes
+	 */
+	public void setRetryableCodes(Set<WrapperExceptionCode> retryableCodes){
+		this.retryableCodes = retryableCodes.isEmpty() ? EnumSet.noneOf(WrapperExceptionCode.class) : EnumSet.copyOf(retryableCodes);
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the Media API error codes that are retried.
+	 * </p>
+	 * 
+	 * @return Retryable Media API error codes (read only)
+	 */
+	public Set<Integer> getRetryableResponseCodes(){
+		return Collections.unmodifiableSet(retryableResponseCodes);
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the Media API error codes (MediaApiException.getResponseCode)
+	 *    that are retried.
+	 * </p>
+	 * 
+	 * @param retryableResponseCodes Retryable Media API error codes
+	 */
+	public void setRetryableResponseCodes(Set<Integer> retryableResponseCodes){
+		this.retryableResponseCodes = new HashSet<Integer>(retryableResponseCodes);
+	}
+	
+	/**
+	 * <p>Gets the current time.  Overridden by tests to control the clock.</p>
+	 * 
+	 * @return Milliseconds since the epoch
+	 */
+	long currentTimeMillis(){
+		return System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,35 @@
+package com.brightcove.mediaapi.exceptions;
+
+/**
+ * <p>
+ *    Wraps a BrightcoveException where a checked exception can't be thrown
+ *    - e.g. from an Iterator or a Stream that reads from the Media API as it
+ *    is consumed.
+ * </p>
+ */
+public class UncheckedBrightcoveException extends RuntimeException {
+	private static final long serialVersionUID = 4081937457346094751L;
+	
+	/**
+	 * <p>
+	 *    Creates an unchecked exception wrapping the BrightcoveException
+	 *    provided.
+	 * </p>
+	 * 
+	 * @param cause Exception thrown by the Media API Wrapper
+	 */
+	public UncheckedBrightcoveException(BrightcoveException cause){
+		super(cause);
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the wrapped exception.
+	 * </p>
+	 * 
+	 * @return Exception thrown by the Media API Wrapper
+	 */
+	public BrightcoveException getBrightcoveException(){
+		return (BrightcoveException)getCause();
+	}
+}
@@ -19,6 +19,10 @@ public enum WrapperExceptionCode {
 	CLIENT_PROTOCOL_EXCEPTION(201,   "Couldn't communicate with Media API - Client used invalid protocol"),
 	MAPI_IO_EXCEPTION(202,           "Couldn't communicate with Media API - I/O exception thrown"),
 	MAPI_ILLEGAL_STATE_RESPONSE(203, "Couldn't communicate with Media API - Illegal state exception caught trying to parse response"),
+	BATCH_REQUEST_INTERRUPTED(204,   "Couldn't communicate with Media API - Interrupted while waiting for a batched or shared request"),
+	CIRCUIT_OPEN(205,                "Couldn't communicate with Media API - Circuit breaker is open after too many failed or slow calls"),
+	RATE_LIMITED(206,                "Couldn't communicate with Media API - Rate limit reached"),
+	CONCURRENCY_LIMITED(207,         "Couldn't communicate with Media API - Too many calls in flight"),
 	
 	// 300 Series: Error tyring to parse the response from the Media API
 	MAPI_UNPARSABLE_RESPONSE(300,    "Couldn't parse response from Media API"),
@@ -47,6 +51,10 @@ public enum WrapperExceptionCode {
 	USER_REQUESTED_INCORRECT_PARAMETERS(520,        "Request contained incorrect parameters"),
 	USER_REQUESTED_INVALID_FILE(530,                "Request included reference to file that does not exist or could not be read"),
 	
+	// 600 Series: Error in local state kept by the wrapper
+	SYNC_CHECKPOINT_IO_EXCEPTION(600, "Couldn't read or write catalog sync checkpoint"),
+	CACHE_SNAPSHOT_IO_EXCEPTION(601,  "Couldn't read or write cache snapshot"),
+	
 	// Old:
 	oINVALID_URL_SYNTAX(1100,          "Invalid URL syntax"),
 	oINVALID_URL_ENCODING(1101,        "Invalid URL encoding"),
@@ -88,4 +96,24 @@ public enum WrapperExceptionCode {
 	public Integer getCode() {
 		return code;
 	}
+	
+	/**
+	 * <p>Checks whether this code means the Media API couldn't be reached or
+	 * didn't give a usable answer (HTTP error status, I/O failure or timeout,
+	 * truncated or unparsable response), as opposed to a problem with the
+	 * request itself.</p>
+	 * 
+	 * @return True for transport errors
+	 */
+	public Boolean isTransportError() {
+		switch(this){
+			case HTTP_ERROR_RESPONSE_CODE:
+			case MAPI_IO_EXCEPTION:
+			case MAPI_ILLEGAL_STATE_RESPONSE:
+			case MAPI_UNPARSABLE_RESPONSE:
+				return true;
+			default:
+				return false;
+		}
+	}
 }
@@ -0,0 +1,471 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Limits the number of Media API calls in flight at the same time, and
+ *    adapts the limit to how the Media API is coping.
+ * </p>
+ *
+ * <p>
+ *    The limit grows by about one call for every limit's worth of calls that
+ *    succeed while latency stays close to the lowest latency seen recently
+ *    (additive increase), and stops growing once latency rises past the
+ *    tolerance, shrinking slowly while it stays there.  A call that times
+ *    out or fails with a transport error cuts the limit by the backoff ratio
+ *    (multiplicative decrease) - at most once per round trip, so a burst of
+ *    failures from calls that were already in flight only counts once.  The
+ *    lowest latency is measured again every few hundred calls, so the limit
+ *    follows the Media API if its normal latency changes.
+ * </p>
+ *
+ * <p>
+ *    Different kinds of call take very different times - a page of 100
+ *    videos takes much longer than a single video - so each call is
+ *    compared to the lowest recent latency of its own latency class (e.g.
+ *    its command and page size).  A call whose latency says nothing about
+ *    the Media API, such as an upload, has no class: it only lowers the
+ *    limit if it is dropped.
+ * </p>
+ *
+ * <p>
+ *    Calls over the limit wait for a call to finish, for up to the maximum
+ *    wait (see setMaxWaitMillis()).  The read and write endpoints have
+ *    different capacity, so give a ReadApi and a WriteApi a limiter each:
+ * <br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setConcurrencyLimiter(new AdaptiveConcurrencyLimiter());<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;writeApi.setConcurrencyLimiter(new AdaptiveConcurrencyLimiter());
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+	private Integer minLimit;
+	private Integer maxLimit;
+	private Double  latencyTolerance;
+	private Double  backoffRatio;
+	private Long    maxWaitMillis;
+
+	private double limit;
+	private int    inFlight;
+
+	private final Map<String, Baseline> baselines;
+	private long lastDecreaseAt;
+
+	private final AtomicLong rejectedCount;
+	private final AtomicLong decreaseCount;
+
+	public static final Integer DEFAULT_INITIAL_LIMIT     = 10;
+	public static final Integer DEFAULT_MIN_LIMIT         = 1;
+	public static final Integer DEFAULT_MAX_LIMIT         = 200;
+	public static final Double  DEFAULT_LATENCY_TOLERANCE = 2.0;
+	public static final Double  DEFAULT_BACKOFF_RATIO     = 0.5;
+
+	public static final String DEFAULT_LATENCY_CLASS = "";
+
+	private static final int MIN_RTT_WINDOW = 500;
+
+	/**
+	 * <p>The lowest recent latency of one latency class.</p>
+	 */
+	private static class Baseline {
+		private long minRttNanos       = Long.MAX_VALUE;
+		private long windowMinRttNanos = Long.MAX_VALUE;
+		private int  windowSamples     = 0;
+
+		/**
+		 * <p>Adds a successful call's latency to the lowest recent latency.</p>
+		 *
+		 * @param rttNanos How long the call took
+		 */
+		private void sample(long rttNanos){
+			minRttNanos       = Math.min(minRttNanos, rttNanos);
+			windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+			if(++windowSamples >= MIN_RTT_WINDOW){
+				// Forget latencies from before the last window
+				minRttNanos       = windowMinRttNanos;
+				windowMinRttNanos = Long.MAX_VALUE;
+				windowSamples     = 0;
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Creates a limiter with the default initial, minimum and maximum
+	 *    limits.  Calls over the limit wait for as long as it takes.
+	 * </p>
+	 */
+	public AdaptiveConcurrencyLimiter(){
+		this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+	}
+
+	/**
+	 * <p>
+	 *    Creates a limiter.
+	 * </p>
+	 *
+	 * @param initialLimit Number of calls allowed in flight to start with
+	 * @param minLimit Fewest calls allowed in flight, however badly the Media API is doing
+	 * @param maxLimit Most calls allowed in flight, however well the Media API is doing
+	 */
+	public AdaptiveConcurrencyLimiter(Integer initialLimit, Integer minLimit, Integer maxLimit){
+		this.minLimit         = minLimit;
+		this.maxLimit         = maxLimit;
+		this.latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+		this.backoffRatio     = DEFAULT_BACKOFF_RATIO;
+		this.maxWaitMillis    = null;
+
+		this.limit             = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		this.inFlight          = 0;
+		this.baselines         = new HashMap<String, Baseline>();
+		this.lastDecreaseAt    = 0;
+
+		this.rejectedCount = new AtomicLong(0);
+		this.decreaseCount = new AtomicLong(0);
+	}
+
+	/**
+	 * <p>
+	 *    Waits until there is room for another call in flight, for up to the
+	 *    maximum wait.  Must be followed by release() once the call is
+	 *    finished.
+	 * </p>
+	 *
+	 * @throws WrapperException With code CONCURRENCY_LIMITED, if there was no room in time (or the thread was interrupted)
+	 */
+	public synchronized void acquire() throws WrapperException {
+		long deadline = (maxWaitMillis == null) ? 0 : nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+		try{
+			while(inFlight >= (int)limit){
+				if(maxWaitMillis == null){
+					wait();
+					continue;
+				}
+
+				long remaining = deadline - nanoTime();
+				if(remaining <= 0){
+					rejectedCount.incrementAndGet();
+					throw new WrapperException(WrapperExceptionCode.CONCURRENCY_LIMITED, "" + inFlight + " calls in flight (limit " + (int)limit + ").");
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, remaining);
+			}
+		}
+		catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+			rejectedCount.incrementAndGet();
+			throw new WrapperException(WrapperExceptionCode.CONCURRENCY_LIMITED, "Interrupted while waiting for room for another call.");
+		}
+		inFlight++;
+	}
+
+	/**
+	 * <p>
+	 *    Takes room for another call in flight if there is any now, without
+	 *    waiting.  Must be followed by release() once the call is finished if
+	 *    it returns true.
+	 * </p>
+	 *
+	 * @return True if the call may be made
+	 */
+	public synchronized Boolean tryAcquire(){
+		if(inFlight >= (int)limit){
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	/**
+	 * <p>
+	 *    Records that a call allowed by acquire() (or tryAcquire()) has finished, and adjusts
+	 *    the limit, comparing its latency to that of the other calls in the
+	 *    default latency class.
+	 * </p>
+	 *
+	 * @param rttNanos How long the call took, or null if it wasn't made (the limit isn't adjusted)
+	 * @param dropped True if the call timed out or failed with a transport error (see CircuitBreaker.isFailure())
+	 */
+	public void release(Long rttNanos, Boolean dropped){
+		release(rttNanos, dropped, DEFAULT_LATENCY_CLASS);
+	}
+
+	/**
+	 * <p>
+	 *    Records that a call allowed by acquire() (or tryAcquire()) has finished, and adjusts
+	 *    the limit.
+	 * </p>
+	 *
+	 * @param rttNanos How long the call took, or null if it wasn't made (the limit isn't adjusted)
+	 * @param dropped True if the call timed out or failed with a transport error (see CircuitBreaker.isFailure())
+	 * @param latencyClass Class of calls whose latencies are comparable (e.g. the command and page size), or null if the call's latency says nothing about the Media API (e.g. an upload)
+	 */
+	public synchronized void release(Long rttNanos, Boolean dropped, String latencyClass){
+		// Whether the limit was being used, before this call finished
+		boolean saturated = inFlight >= (limit / 2);
+		inFlight--;
+		notifyAll();
+
+		if(rttNanos == null){
+			return;
+		}
+
+		long now = nanoTime();
+		if(dropped){
+			if((lastDecreaseAt == 0) || (now - lastDecreaseAt > getRoundTripNanos(latencyClass))){
+				limit          = Math.max(minLimit, limit * backoffRatio);
+				lastDecreaseAt = now;
+				decreaseCount.incrementAndGet();
+			}
+			return;
+		}
+
+		if(latencyClass == null){
+			return;
+		}
+		Baseline baseline = baselines.get(latencyClass);
+		if(baseline == null){
+			baseline = new Baseline();
+			baselines.put(latencyClass, baseline);
+		}
+		baseline.sample(rttNanos);
+		if(rttNanos > baseline.minRttNanos * latencyTolerance){
+			// Queueing at the Media API - back off gently
+			limit = Math.max(minLimit, limit - (1.0 / limit));
+		}
+		else if(saturated){
+			limit = Math.min(maxLimit, limit + (1.0 / limit));
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls currently allowed in flight.
+	 * </p>
+	 *
+	 * @return Current limit
+	 */
+	public synchronized Integer getLimit(){
+		return (int)limit;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls currently in flight.
+	 * </p>
+	 *
+	 * @return Calls in flight
+	 */
+	public synchronized Integer getInFlight(){
+		return inFlight;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the lowest latency seen recently in any latency class.
+	 * </p>
+	 *
+	 * @return Lowest recent latency in milliseconds, or null if no call has succeeded yet
+	 */
+	public synchronized Double getMinRttMillis(){
+		long min = getLowestRttNanos();
+		return (min == Long.MAX_VALUE) ? null : min / 1000000.0;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the lowest latency seen recently in a latency class, which the
+	 *    latency of each call in the class is compared to.
+	 * </p>
+	 *
+	 * @param latencyClass Latency class passed to release()
+	 * @return Lowest recent latency in milliseconds, or null if no call in the class has succeeded yet
+	 */
+	public synchronized Double getMinRttMillis(String latencyClass){
+		Baseline baseline = baselines.get(latencyClass);
+		return ((baseline == null) || (baseline.minRttNanos == Long.MAX_VALUE)) ? null : baseline.minRttNanos / 1000000.0;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls that didn't get room in time.
+	 * </p>
+	 *
+	 * @return Number of rejected calls
+	 */
+	public Long getRejectedCount(){
+		return rejectedCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of times the limit has been cut after a timeout or
+	 *    transport error.
+	 * </p>
+	 *
+	 * @return Number of multiplicative decreases
+	 */
+	public Long getDecreaseCount(){
+		return decreaseCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the fewest calls allowed in flight.
+	 * </p>
+	 *
+	 * @return Minimum limit
+	 */
+	public Integer getMinLimit(){
+		return minLimit;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the fewest calls allowed in flight, however badly the Media API
+	 *    is doing.
+	 * </p>
+	 *
+	 * @param minLimit Minimum limit (at least 1)
+	 */
+	public synchronized void setMinLimit(Integer minLimit){
+		this.minLimit = minLimit;
+		limit = Math.max(minLimit, limit);
+		notifyAll();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the most calls allowed in flight.
+	 * </p>
+	 *
+	 * @return Maximum limit
+	 */
+	public Integer getMaxLimit(){
+		return maxLimit;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the most calls allowed in flight, however well the Media API is
+	 *    doing.
+	 * </p>
+	 *
+	 * @param maxLimit Maximum limit
+	 */
+	public synchronized void setMaxLimit(Integer maxLimit){
+		this.maxLimit = maxLimit;
+		limit = Math.min(maxLimit, limit);
+	}
+
+	/**
+	 * <p>
+	 *    Gets how many times the lowest recent latency a call can take before
+	 *    the limit stops growing.
+	 * </p>
+	 *
+	 * @return Latency tolerance
+	 */
+	public Double getLatencyTolerance(){
+		return latencyTolerance;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how many times the lowest recent latency a call can take before
+	 *    the limit stops growing and starts shrinking slowly.  Defaults to 2.
+	 * </p>
+	 *
+	 * @param latencyTolerance Latency tolerance (greater than 1)
+	 */
+	public void setLatencyTolerance(Double latencyTolerance){
+		this.latencyTolerance = latencyTolerance;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the fraction of the limit kept after a timeout or transport
+	 *    error.
+	 * </p>
+	 *
+	 * @return Backoff ratio
+	 */
+	public Double getBackoffRatio(){
+		return backoffRatio;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the fraction of the limit kept after a timeout or transport
+	 *    error.  Defaults to 0.5.
+	 * </p>
+	 *
+	 * @param backoffRatio Backoff ratio between 0 and 1
+	 */
+	public void setBackoffRatio(Double backoffRatio){
+		this.backoffRatio = backoffRatio;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the longest time a call waits for room.
+	 * </p>
+	 *
+	 * @return Maximum wait in milliseconds, or null to wait for as long as it takes
+	 */
+	public Long getMaxWaitMillis(){
+		return maxWaitMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the longest time a call waits for room before failing with
+	 *    WrapperExceptionCode.CONCURRENCY_LIMITED.  Set to 0 to fail straight
+	 *    away, or null (the default) to wait for as long as it takes.
+	 * </p>
+	 *
+	 * @param maxWaitMillis Maximum wait in milliseconds, or null
+	 */
+	public void setMaxWaitMillis(Long maxWaitMillis){
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * <p>Gets the lowest recent latency of every latency class.  Caller must hold the lock.</p>
+	 *
+	 * @return Lowest recent latency in nanoseconds, or Long.MAX_VALUE if none has been seen
+	 */
+	private long getLowestRttNanos(){
+		long min = Long.MAX_VALUE;
+		for(Baseline baseline : baselines.values()){
+			min = Math.min(min, baseline.minRttNanos);
+		}
+		return min;
+	}
+
+	/**
+	 * <p>Gets the time to wait between cuts to the limit.  Caller must hold the lock.</p>
+	 *
+	 * @param latencyClass Latency class of the dropped call, or null
+	 * @return Lowest recent latency of the class (or of any class, if it has none) times the tolerance, or 0 if none has been seen
+	 */
+	private long getRoundTripNanos(String latencyClass){
+		Baseline baseline = (latencyClass == null) ? null : baselines.get(latencyClass);
+		long     min      = ((baseline == null) || (baseline.minRttNanos == Long.MAX_VALUE)) ? getLowestRttNanos() : baseline.minRttNanos;
+		return (min == Long.MAX_VALUE) ? 0 : (long)(min * latencyTolerance);
+	}
+
+	/**
+	 * <p>Gets the current time.  Overridden by tests to control the clock.</p>
+	 *
+	 * @return Current value of the system's high-resolution timer
+	 */
+	long nanoTime(){
+		return System.nanoTime();
+	}
+}
@@ -0,0 +1,542 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.MediaApiException;
+import com.brightcove.mediaapi.exceptions.RetryPolicy;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Stops calling the Media API for a while once too many recent calls have
+ *    failed or been slow, so that callers fail fast instead of tying up
+ *    threads and connections until they time out.
+ * </p>
+ *
+ * <p>
+ *    The breaker starts closed and counts calls, failures and slow calls
+ *    over a rolling window.  Once the window holds at least the minimum
+ *    number of calls and either the failure rate or the slow call rate
+ *    reaches its threshold, the breaker opens: every call is rejected with
+ *    WrapperExceptionCode.CIRCUIT_OPEN without going to the network.  After
+ *    the open time the breaker goes half-open and lets a few probe calls
+ *    through.  If they all succeed quickly it closes again; if any of them
+ *    fails or is slow it opens again.
+ * </p>
+ *
+ * <p>
+ *    A call only counts in the state it was let through in: acquire()
+ *    returns the breaker's generation, which changes with every change of
+ *    state, and record() ignores a call from an earlier generation.  So a
+ *    slow call let through before the breaker opened can't close it when it
+ *    finishes during the half-open state - only the probes can.
+ * </p>
+ *
+ * <p>
+ *    Only transport errors (see WrapperExceptionCode.isTransportError) and
+ *    Media API call timeouts count as failures.  Any other error means the
+ *    Media API answered, and counts as a successful call.
+ * </p>
+ *
+ * <p>
+ *    A breaker created with the default constructor holds the settings for
+ *    a CircuitBreakerRegistry, which creates a breaker per endpoint (and
+ *    optionally per token) with the same settings.
+ * </p>
+ */
+public class CircuitBreaker {
+	/**
+	 * <p>
+	 *    The states a breaker can be in.
+	 * </p>
+	 */
+	public enum State {
+		CLOSED,
+		OPEN,
+		HALF_OPEN
+	}
+
+	private Long    windowMillis;
+	private Integer minimumCalls;
+	private Double  failureRateThreshold;
+	private Long    slowCallMillis;
+	private Double  slowCallRateThreshold;
+	private Long    openMillis;
+	private Integer halfOpenCalls;
+
+	private final String name;
+
+	private long[] bucketIds;
+	private long[] calls;
+	private long[] failures;
+	private long[] slowCalls;
+
+	private State state;
+	private long  generation;
+	private long  openedAt;
+	private int   probesStarted;
+	private int   probesSucceeded;
+
+	private final AtomicLong rejectedCount;
+	private final AtomicLong openCount;
+
+	public static final Long    DEFAULT_WINDOW_MILLIS            = 10000l;
+	public static final Integer DEFAULT_MINIMUM_CALLS            = 20;
+	public static final Double  DEFAULT_FAILURE_RATE_THRESHOLD   = 0.5;
+	public static final Long    DEFAULT_SLOW_CALL_MILLIS         = 5000l;
+	public static final Double  DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+	public static final Long    DEFAULT_OPEN_MILLIS              = 30000l;
+	public static final Integer DEFAULT_HALF_OPEN_CALLS          = 3;
+
+	private static final int BUCKETS = 10;
+
+	/**
+	 * <p>
+	 *    Creates a closed breaker with the default settings.
+	 * </p>
+	 */
+	public CircuitBreaker(){
+		this("default");
+	}
+
+	/**
+	 * <p>
+	 *    Creates a closed breaker with the default settings.
+	 * </p>
+	 *
+	 * @param name Name of the breaker, used in the exception thrown when it is open
+	 */
+	public CircuitBreaker(String name){
+		this.name = name;
+
+		windowMillis          = DEFAULT_WINDOW_MILLIS;
+		minimumCalls          = DEFAULT_MINIMUM_CALLS;
+		failureRateThreshold  = DEFAULT_FAILURE_RATE_THRESHOLD;
+		slowCallMillis        = DEFAULT_SLOW_CALL_MILLIS;
+		slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+		openMillis            = DEFAULT_OPEN_MILLIS;
+		halfOpenCalls         = DEFAULT_HALF_OPEN_CALLS;
+
+		rejectedCount = new AtomicLong(0);
+		openCount     = new AtomicLong(0);
+		reset();
+	}
+
+	/**
+	 * <p>
+	 *    Creates a closed breaker with the same settings as another one.
+	 * </p>
+	 *
+	 * @param name Name of the breaker, used in the exception thrown when it is open
+	 * @param settings Breaker to copy the settings (but not the state) of
+	 */
+	public CircuitBreaker(String name, CircuitBreaker settings){
+		this(name);
+
+		windowMillis          = settings.windowMillis;
+		minimumCalls          = settings.minimumCalls;
+		failureRateThreshold  = settings.failureRateThreshold;
+		slowCallMillis        = settings.slowCallMillis;
+		slowCallRateThreshold = settings.slowCallRateThreshold;
+		openMillis            = settings.openMillis;
+		halfOpenCalls         = settings.halfOpenCalls;
+	}
+
+	/**
+	 * <p>
+	 *    Checks that a call may be made, and must be followed by record()
+	 *    once the call is finished.  In the half-open state this takes one of
+	 *    the probe calls.
+	 * </p>
+	 *
+	 * @return Generation the call was let through in, to pass to record()
+	 * @throws WrapperException With code CIRCUIT_OPEN, if the call must not be made
+	 */
+	public synchronized Long acquire() throws WrapperException {
+		if(state == State.OPEN){
+			if(currentTimeMillis() - openedAt < openMillis){
+				reject();
+			}
+			state           = State.HALF_OPEN;
+			probesStarted   = 0;
+			probesSucceeded = 0;
+			generation++;
+		}
+		if(state == State.HALF_OPEN){
+			if(probesStarted >= halfOpenCalls){
+				reject();
+			}
+			probesStarted++;
+		}
+		return generation;
+	}
+
+	/**
+	 * <p>
+	 *    Records the outcome of a call allowed by acquire().  The call is
+	 *    ignored if the breaker has changed state since it was let through.
+	 * </p>
+	 *
+	 * @param admitted Generation acquire() returned for the call
+	 * @param failed True if the call failed (see isFailure())
+	 * @param durationMillis How long the call took, or null if its time says nothing about the Media API's health (e.g. an upload, whose time depends on the file)
+	 */
+	public synchronized void record(Long admitted, Boolean failed, Long durationMillis){
+		if((admitted == null) || (admitted != generation)){
+			// Let through in an earlier state - e.g. before the breaker opened
+			return;
+		}
+
+		Long    now  = currentTimeMillis();
+		Boolean slow = (slowCallMillis != null) && (durationMillis != null) && (durationMillis >= slowCallMillis);
+
+		if(state == State.HALF_OPEN){
+			if(failed || slow){
+				open(now);
+			}
+			else if(++probesSucceeded >= halfOpenCalls){
+				reset();
+			}
+			return;
+		}
+
+		int index = bucket(now);
+		calls[index]++;
+		if(failed){
+			failures[index]++;
+		}
+		if(slow){
+			slowCalls[index]++;
+		}
+
+		long totalCalls    = 0;
+		long totalFailures = 0;
+		long totalSlow     = 0;
+		long first         = (now / getBucketMillis()) - BUCKETS + 1;
+		for(int i=0;i<BUCKETS;i++){
+			if(bucketIds[i] >= first){
+				totalCalls    += calls[i];
+				totalFailures += failures[i];
+				totalSlow     += slowCalls[i];
+			}
+		}
+		if((totalCalls == 0) || (totalCalls < minimumCalls)){
+			return;
+		}
+		if((failureRateThreshold != null) && (((double)totalFailures) / totalCalls >= failureRateThreshold)){
+			open(now);
+		}
+		else if((slowCallRateThreshold != null) && (((double)totalSlow) / totalCalls >= slowCallRateThreshold)){
+			open(now);
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Checks whether an exception counts as a failed call: a transport
+	 *    error or a Media API call timeout.
+	 * </p>
+	 *
+	 * @param be Exception the call failed with
+	 * @return True if the call counts as failed
+	 */
+	public static Boolean isFailure(BrightcoveException be){
+		if(be instanceof WrapperException){
+			WrapperExceptionCode code = ((WrapperException)be).getCode();
+			return (code != null) && code.isTransportError();
+		}
+		if(be instanceof MediaApiException){
+			return RetryPolicy.MEDIA_API_CALL_TIMEOUT.equals(((MediaApiException)be).getResponseCode());
+		}
+		return false;
+	}
+
+	/**
+	 * <p>
+	 *    Closes the breaker and forgets the calls in the window.
+	 * </p>
+	 */
+	public synchronized void reset(){
+		bucketIds = new long[BUCKETS];
+		calls     = new long[BUCKETS];
+		failures  = new long[BUCKETS];
+		slowCalls = new long[BUCKETS];
+
+		state           = State.CLOSED;
+		generation++;
+		openedAt        = 0;
+		probesStarted   = 0;
+		probesSucceeded = 0;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the state the breaker is in.  An open breaker whose open time
+	 *    has passed is reported as open until the next call probes it.
+	 * </p>
+	 *
+	 * @return Current state
+	 */
+	public synchronized State getState(){
+		return state;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the name of the breaker.
+	 * </p>
+	 *
+	 * @return Name of the breaker
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls rejected because the breaker was open.
+	 * </p>
+	 *
+	 * @return Number of rejected calls
+	 */
+	public Long getRejectedCount(){
+		return rejectedCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of times the breaker has opened.
+	 * </p>
+	 *
+	 * @return Number of times opened
+	 */
+	public Long getOpenCount(){
+		return openCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the length of the rolling window calls are counted over.
+	 * </p>
+	 *
+	 * @return Window length in milliseconds
+	 */
+	public Long getWindowMillis(){
+		return windowMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the length of the rolling window calls are counted over.  The
+	 *    calls already counted are forgotten.
+	 * </p>
+	 *
+	 * @param windowMillis Window length in milliseconds
+	 */
+	public synchronized void setWindowMillis(Long windowMillis){
+		this.windowMillis = windowMillis;
+		reset();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls the window must hold before the breaker can
+	 *    open.
+	 * </p>
+	 *
+	 * @return Minimum number of calls
+	 */
+	public Integer getMinimumCalls(){
+		return minimumCalls;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the number of calls the window must hold before the breaker can
+	 *    open, so that a couple of failures on a quiet endpoint don't open it.
+	 * </p>
+	 *
+	 * @param minimumCalls Minimum number of calls
+	 */
+	public void setMinimumCalls(Integer minimumCalls){
+		this.minimumCalls = minimumCalls;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the fraction of failed calls in the window that opens the
+	 *    breaker.
+	 * </p>
+	 *
+	 * @return Failure rate threshold between 0 and 1, or null
+	 */
+	public Double getFailureRateThreshold(){
+		return failureRateThreshold;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the fraction of failed calls in the window that opens the
+	 *    breaker.  Set to null to ignore failures.
+	 * </p>
+	 *
+	 * @param failureRateThreshold Failure rate threshold between 0 and 1, or null
+	 */
+	public void setFailureRateThreshold(Double failureRateThreshold){
+		this.failureRateThreshold = failureRateThreshold;
+	}
+
+	/**
+	 * <p>
+	 *    Gets how long a call must take to count as slow.
+	 * </p>
+	 *
+	 * @return Slow call time in milliseconds, or null
+	 */
+	public Long getSlowCallMillis(){
+		return slowCallMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how long a call must take to count as slow.  Set to null to not
+	 *    count slow calls.
+	 * </p>
+	 *
+	 * @param slowCallMillis Slow call time in milliseconds, or null
+	 */
+	public void setSlowCallMillis(Long slowCallMillis){
+		this.slowCallMillis = slowCallMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the fraction of slow calls in the window that opens the
+	 *    breaker.
+	 * </p>
+	 *
+	 * @return Slow call rate threshold between 0 and 1, or null
+	 */
+	public Double getSlowCallRateThreshold(){
+		return slowCallRateThreshold;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the fraction of slow calls in the window that opens the
+	 *    breaker.  Set to null to only open on failures.
+	 * </p>
+	 *
+	 * @param slowCallRateThreshold Slow call rate threshold between 0 and 1, or null
+	 */
+	public void setSlowCallRateThreshold(Double slowCallRateThreshold){
+		this.slowCallRateThreshold = slowCallRateThreshold;
+	}
+
+	/**
+	 * <p>
+	 *    Gets how long the breaker stays open before it lets probe calls
+	 *    through.
+	 * </p>
+	 *
+	 * @return Open time in milliseconds
+	 */
+	public Long getOpenMillis(){
+		return openMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets how long the breaker stays open before it lets probe calls
+	 *    through.
+	 * </p>
+	 *
+	 * @param openMillis Open time in milliseconds
+	 */
+	public void setOpenMillis(Long openMillis){
+		this.openMillis = openMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of probe calls let through in the half-open state.
+	 * </p>
+	 *
+	 * @return Number of probe calls
+	 */
+	public Integer getHalfOpenCalls(){
+		return halfOpenCalls;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the number of probe calls let through in the half-open state.
+	 *    All of them must succeed for the breaker to close.
+	 * </p>
+	 *
+	 * @param halfOpenCalls Number of probe calls
+	 */
+	public void setHalfOpenCalls(Integer halfOpenCalls){
+		this.halfOpenCalls = halfOpenCalls;
+	}
+
+	/**
+	 * <p>Opens the breaker.  Caller must hold the lock.</p>
+	 *
+	 * @param now Current time (milliseconds since the epoch)
+	 */
+	private void open(Long now){
+		state    = State.OPEN;
+		openedAt = now;
+		generation++;
+		openCount.incrementAndGet();
+	}
+
+	/**
+	 * <p>Rejects a call.</p>
+	 *
+	 * @throws WrapperException With code CIRCUIT_OPEN
+	 */
+	private void reject() throws WrapperException {
+		rejectedCount.incrementAndGet();
+		throw new WrapperException(WrapperExceptionCode.CIRCUIT_OPEN, "Circuit breaker '" + name + "' is " + state + ".");
+	}
+
+	/**
+	 * <p>Gets the bucket for the current time, clearing it if it last held an older part of the window.  Caller must hold the lock.</p>
+	 *
+	 * @param now Current time (milliseconds since the epoch)
+	 * @return Index of the bucket
+	 */
+	private int bucket(Long now){
+		long id    = now / getBucketMillis();
+		int  index = (int)(id % BUCKETS);
+		if(bucketIds[index] != id){
+			bucketIds[index] = id;
+			calls[index]     = 0;
+			failures[index]  = 0;
+			slowCalls[index] = 0;
+		}
+		return index;
+	}
+
+	/**
+	 * <p>Gets the length of each of the window's buckets.</p>
+	 *
+	 * @return Bucket length in milliseconds (at least 1)
+	 */
+	private long getBucketMillis(){
+		return Math.max(1, windowMillis / BUCKETS);
+	}
+
+	/**
+	 * <p>Gets the current time.  Overridden by tests to control the clock.</p>
+	 *
+	 * @return Milliseconds since the epoch
+	 */
+	long currentTimeMillis(){
+		return System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,148 @@
+package com.brightcove.mediaapi.http;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ *    Holds the circuit breakers for the Media API endpoints: one for the
+ *    Read API and one for the Write API, so that a failing write endpoint
+ *    doesn't stop reads (or the other way around).  Optionally each token
+ *    gets its own breakers as well, so that e.g. one account being
+ *    throttled doesn't stop calls for the others.
+ * </p>
+ *
+ * <p>
+ *    Set the same registry on a ReadApi and a WriteApi (or a different one
+ *    on each):<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CircuitBreakerRegistry breakers = new CircuitBreakerRegistry();<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setCircuitBreakers(breakers);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;writeApi.setCircuitBreakers(breakers);
+ * </p>
+ *
+ * <p>
+ *    A breaker's name appears in the exception thrown while it is open, so
+ *    the breakers for a token are named after a hash of the token rather
+ *    than the token itself (e.g. "read:token#1a2b3c4d").
+ * </p>
+ */
+public class CircuitBreakerRegistry {
+	private final CircuitBreaker settings;
+	private Boolean perToken;
+
+	private final ConcurrentMap<String, CircuitBreaker> breakers;
+
+	public static final String READ  = "read";
+	public static final String WRITE = "write";
+
+	/**
+	 * <p>
+	 *    Creates a registry whose breakers have the default settings, with
+	 *    one breaker per endpoint.
+	 * </p>
+	 */
+	public CircuitBreakerRegistry(){
+		this(new CircuitBreaker(), false);
+	}
+
+	/**
+	 * <p>
+	 *    Creates a registry.
+	 * </p>
+	 *
+	 * @param settings Breaker whose settings every breaker in the registry is created with
+	 * @param perToken True to give each token its own breakers
+	 */
+	public CircuitBreakerRegistry(CircuitBreaker settings, Boolean perToken){
+		this.settings = settings;
+		this.perToken = perToken;
+		this.breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the breaker for calls to an endpoint, creating it if needed.
+	 * </p>
+	 *
+	 * @param endpoint READ or WRITE
+	 * @param token Token the call is made with (ignored unless the registry has breakers per token)
+	 * @return Circuit breaker for the call
+	 */
+	public CircuitBreaker get(String endpoint, String token){
+		Boolean byToken = perToken && (token != null);
+		String  key     = byToken ? (endpoint + ":" + token) : endpoint;
+
+		CircuitBreaker breaker = breakers.get(key);
+		if(breaker == null){
+			CircuitBreaker created = new CircuitBreaker(byToken ? (endpoint + ":token#" + hash(token)) : endpoint, settings);
+			breaker = breakers.putIfAbsent(key, created);
+			if(breaker == null){
+				breaker = created;
+			}
+		}
+		return breaker;
+	}
+
+	/**
+	 * <p>
+	 *    Hashes a token for a breaker's name, so that the name can be logged
+	 *    and shown in exceptions without giving the token away.
+	 * </p>
+	 *
+	 * @param token Token to hash
+	 * @return First 8 hex digits of the token's SHA-256 hash
+	 */
+	private static String hash(String token){
+		try{
+			byte[]        digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			StringBuilder ret    = new StringBuilder(8);
+			for(int i=0;i<4;i++){
+				ret.append(String.format("%02x", digest[i] & 0xff));
+			}
+			return ret.toString();
+		}
+		catch(NoSuchAlgorithmException nsae){
+			// Every Java platform has SHA-256
+			throw new IllegalStateException(nsae);
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Gets every breaker created so far, e.g. to report their states.
+	 * </p>
+	 *
+	 * @return Circuit breakers
+	 */
+	public List<CircuitBreaker> getBreakers(){
+		return new ArrayList<CircuitBreaker>(breakers.values());
+	}
+
+	/**
+	 * <p>
+	 *    Checks whether each token gets its own breakers.
+	 * </p>
+	 *
+	 * @return True if there are breakers per token
+	 */
+	public Boolean isPerToken(){
+		return perToken;
+	}
+
+	/**
+	 * <p>
+	 *    Sets whether each token gets its own breakers.  Breakers already
+	 *    created are kept.
+	 * </p>
+	 *
+	 * @param perToken True to give each token its own breakers
+	 */
+	public void setPerToken(Boolean perToken){
+		this.perToken = perToken;
+	}
+}
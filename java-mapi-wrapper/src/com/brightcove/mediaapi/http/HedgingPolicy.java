@@ -0,0 +1,594 @@
+package com.brightcove.mediaapi.http;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.client.methods.HttpGet;
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Hedges Read API requests to cut tail latency: if a request hasn't
+ *    returned after a delay, the same request is sent again and whichever
+ *    response comes back first is used.  The other request is aborted.
+ * </p>
+ *
+ * <p>
+ *    The delay is a percentile (by default the 95th) of the latencies of
+ *    recent requests, so only the slowest few percent are hedged.  A
+ *    request overtaken by its hedge counts with the time it had taken when
+ *    it was overtaken, since it is aborted before its latency is known.  On top
+ *    of that a budget caps hedges at a fraction of requests (by default 5%)
+ *    - each request adds that fraction of a hedge to the budget, up to a
+ *    small burst, and each hedge takes one - so a Media API that is slow
+ *    for everyone doesn't get twice the load.
+ * </p>
+ *
+ * <p>
+ *    A hedge is a call of its own, so before it is sent the request is
+ *    asked to take whatever a call needs (see Request.startHedge()) - e.g.
+ *    a rate limiter permit - without waiting.  If it can't, the hedge isn't
+ *    sent and the request just waits for its first copy.
+ * </p>
+ *
+ * <p>
+ *    Only reads are hedged, since sending a write twice could apply it
+ *    twice:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setHedgingPolicy(new HedgingPolicy());
+ * </p>
+ *
+ * <p>
+ *    Requests are made on an executor (by default a pool of daemon threads
+ *    owned by the policy) while the calling thread waits for the first
+ *    response.
+ * </p>
+ */
+public class HedgingPolicy {
+	private Double  percentile;
+	private Long    initialDelayMillis;
+	private Long    minDelayMillis;
+	private Double  budgetRatio;
+	private Integer budgetBurst;
+
+	private Executor        executor;
+	private ExecutorService ownedExecutor;
+
+	private final long[]  latencies;
+	private int           latencyCount;
+	private int           latencyIndex;
+	private volatile long delayNanos;
+
+	private final AtomicLong budget;
+
+	private final AtomicLong requestCount;
+	private final AtomicLong hedgeCount;
+	private final AtomicLong hedgeWinCount;
+	private final AtomicLong budgetExhaustedCount;
+	private final AtomicLong hedgeRefusedCount;
+
+	public static final Double  DEFAULT_PERCENTILE           = 95.0;
+	public static final Long    DEFAULT_INITIAL_DELAY_MILLIS = 500l;
+	public static final Long    DEFAULT_MIN_DELAY_MILLIS     = 10l;
+	public static final Double  DEFAULT_BUDGET_RATIO         = 0.05;
+	public static final Integer DEFAULT_BUDGET_BURST         = 10;
+
+	private static final int  LATENCY_WINDOW  = 1000;
+	private static final int  MIN_SAMPLES     = 50;
+	private static final int  RECOMPUTE_EVERY = 50;
+	private static final long BUDGET_UNIT     = 1000;
+
+	/**
+	 * <p>
+	 *    Creates a policy with the default percentile and budget.
+	 * </p>
+	 */
+	public HedgingPolicy(){
+		this(DEFAULT_PERCENTILE, DEFAULT_BUDGET_RATIO);
+	}
+
+	/**
+	 * <p>
+	 *    Creates a policy.
+	 * </p>
+	 *
+	 * @param percentile Percentile of recent latencies to wait for before hedging (e.g. 95.0)
+	 * @param budgetRatio Largest fraction of requests that may be hedged (e.g. 0.05)
+	 */
+	public HedgingPolicy(Double percentile, Double budgetRatio){
+		this.percentile         = percentile;
+		this.initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+		this.minDelayMillis     = DEFAULT_MIN_DELAY_MILLIS;
+		this.budgetRatio        = budgetRatio;
+		this.budgetBurst        = DEFAULT_BUDGET_BURST;
+
+		this.executor      = null;
+		this.ownedExecutor = null;
+
+		this.latencies    = new long[LATENCY_WINDOW];
+		this.latencyCount = 0;
+		this.latencyIndex = 0;
+		this.delayNanos   = TimeUnit.MILLISECONDS.toNanos(initialDelayMillis);
+
+		this.budget = new AtomicLong(0);
+
+		this.requestCount         = new AtomicLong(0);
+		this.hedgeCount           = new AtomicLong(0);
+		this.hedgeWinCount        = new AtomicLong(0);
+		this.budgetExhaustedCount = new AtomicLong(0);
+		this.hedgeRefusedCount    = new AtomicLong(0);
+	}
+
+	/**
+	 * <p>
+	 *    Makes a request, sending it again if it hasn't returned after the
+	 *    hedging delay (and the budget allows), and returns the first
+	 *    response.  If the first request to return fails while the other is
+	 *    still in flight, the other one's response is used instead.
+	 * </p>
+	 *
+	 * @param commandUrl Read API request URL
+	 * @param request Request to make (called once per copy of the request)
+	 * @return Parsed response from the Media API (possibly null)
+	 * @throws BrightcoveException If every copy of the request fails (the first failure is thrown), or the thread is interrupted
+	 */
+	public JSONObject execute(URI commandUrl, Request request) throws BrightcoveException {
+		requestCount.incrementAndGet();
+		deposit();
+
+		BlockingQueue<Attempt> finished = new LinkedBlockingQueue<Attempt>();
+		Attempt primary = new Attempt(commandUrl, request, finished, false);
+		Attempt hedge   = null;
+		getExecutor().execute(primary);
+
+		try{
+			Attempt first = finished.poll(delayNanos, TimeUnit.NANOSECONDS);
+			if(first == null){
+				if(!withdraw()){
+					budgetExhaustedCount.incrementAndGet();
+				}
+				else if(!request.startHedge()){
+					// No permit for the hedge right now - give the budget back
+					budget.addAndGet(BUDGET_UNIT);
+					hedgeRefusedCount.incrementAndGet();
+				}
+				else{
+					hedgeCount.incrementAndGet();
+					hedge = new Attempt(commandUrl, request, finished, true);
+					try{
+						getExecutor().execute(hedge);
+					}
+					catch(RuntimeException re){
+						request.finishHedge();
+						throw re;
+					}
+				}
+				first = finished.take();
+			}
+
+			Attempt winner = first;
+			if((first.failure != null) && (hedge != null)){
+				Attempt second = finished.take();
+				if(second.failure == null){
+					winner = second;
+				}
+			}
+
+			if(primary.done){
+				if(primary.failure == null){
+					recordLatency(primary.elapsedNanos);
+				}
+			}
+			else{
+				// Overtaken by its hedge, so it is aborted before it returns.
+				// Its latency is only known to be longer than this (a censored
+				// sample), which is past the delay it was hedged at - leaving
+				// it out would take the slowest requests out of the window and
+				// pull the percentile down.
+				recordLatency(System.nanoTime() - primary.startedAt);
+			}
+			if((winner == hedge) && (winner.failure == null)){
+				hedgeWinCount.incrementAndGet();
+			}
+
+			if(winner.failure == null){
+				return winner.response;
+			}
+			return rethrow(first.failure);
+		}
+		catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+			throw new WrapperException(WrapperExceptionCode.BATCH_REQUEST_INTERRUPTED, "Interrupted while waiting for a hedged request.");
+		}
+		finally{
+			// Abort whichever copy is still in flight (does nothing to one that has returned)
+			primary.abort();
+			if(hedge != null){
+				hedge.abort();
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Gets how long a request is currently given before it is hedged.
+	 * </p>
+	 *
+	 * @return Hedging delay in milliseconds
+	 */
+	public Long getDelayMillis(){
+		return TimeUnit.NANOSECONDS.toMillis(delayNanos);
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of requests made through the policy.
+	 * </p>
+	 *
+	 * @return Number of requests
+	 */
+	public Long getRequestCount(){
+		return requestCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of hedges sent.
+	 * </p>
+	 *
+	 * @return Number of hedges
+	 */
+	public Long getHedgeCount(){
+		return hedgeCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of hedges whose response was used.
+	 * </p>
+	 *
+	 * @return Number of hedges that won
+	 */
+	public Long getHedgeWinCount(){
+		return hedgeWinCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of requests that would have been hedged, but the
+	 *    budget had run out.
+	 * </p>
+	 *
+	 * @return Number of hedges not sent
+	 */
+	public Long getBudgetExhaustedCount(){
+		return budgetExhaustedCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of hedges not sent because the request couldn't
+	 *    take what it needed for one (see Request.startHedge()).
+	 * </p>
+	 *
+	 * @return Number of hedges refused
+	 */
+	public Long getHedgeRefusedCount(){
+		return hedgeRefusedCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the percentile of recent latencies waited for before hedging.
+	 * </p>
+	 *
+	 * @return Percentile
+	 */
+	public Double getPercentile(){
+		return percentile;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the percentile of recent latencies waited for before hedging.
+	 *    Defaults to 95, so about one request in twenty is hedged (within
+	 *    the budget).
+	 * </p>
+	 *
+	 * @param percentile Percentile between 0 and 100
+	 */
+	public void setPercentile(Double percentile){
+		this.percentile = percentile;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the delay used until enough latencies have been seen to work
+	 *    out the percentile.
+	 * </p>
+	 *
+	 * @return Initial delay in milliseconds
+	 */
+	public Long getInitialDelayMillis(){
+		return initialDelayMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the delay used until enough latencies have been seen to work
+	 *    out the percentile.  Defaults to 500 milliseconds.
+	 * </p>
+	 *
+	 * @param initialDelayMillis Initial delay in milliseconds
+	 */
+	public synchronized void setInitialDelayMillis(Long initialDelayMillis){
+		this.initialDelayMillis = initialDelayMillis;
+		if(latencyCount < MIN_SAMPLES){
+			delayNanos = TimeUnit.MILLISECONDS.toNanos(initialDelayMillis);
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Gets the shortest delay before hedging.
+	 * </p>
+	 *
+	 * @return Minimum delay in milliseconds
+	 */
+	public Long getMinDelayMillis(){
+		return minDelayMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the shortest delay before hedging, however fast requests have
+	 *    been.  Defaults to 10 milliseconds.
+	 * </p>
+	 *
+	 * @param minDelayMillis Minimum delay in milliseconds
+	 */
+	public void setMinDelayMillis(Long minDelayMillis){
+		this.minDelayMillis = minDelayMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the largest fraction of requests that may be hedged.
+	 * </p>
+	 *
+	 * @return Budget ratio
+	 */
+	public Double getBudgetRatio(){
+		return budgetRatio;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the largest fraction of requests that may be hedged.  Defaults
+	 *    to 0.05.
+	 * </p>
+	 *
+	 * @param budgetRatio Budget ratio between 0 and 1
+	 */
+	public void setBudgetRatio(Double budgetRatio){
+		this.budgetRatio = budgetRatio;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the most hedges the budget can save up.
+	 * </p>
+	 *
+	 * @return Budget burst
+	 */
+	public Integer getBudgetBurst(){
+		return budgetBurst;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the most hedges the budget can save up while requests are fast,
+	 *    to spend when some are slow.  Defaults to 10.
+	 * </p>
+	 *
+	 * @param budgetBurst Budget burst
+	 */
+	public void setBudgetBurst(Integer budgetBurst){
+		this.budgetBurst = budgetBurst;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the executor requests are made on.  It must be able to run
+	 *    two requests for each calling thread at once without queueing them,
+	 *    or hedges will wait behind the requests they are meant to overtake.
+	 *    Set to null (the default) to use a pool of daemon threads owned by
+	 *    the policy.  The executor is owned by the caller.
+	 * </p>
+	 *
+	 * @param executor Executor to make requests on, or null
+	 */
+	public void setExecutor(Executor executor){
+		this.executor = executor;
+	}
+
+	/**
+	 * <p>Gets the executor to make requests on, creating the policy's own pool if none was set.</p>
+	 *
+	 * @return Executor
+	 */
+	private synchronized Executor getExecutor(){
+		if(executor != null){
+			return executor;
+		}
+		if(ownedExecutor == null){
+			ownedExecutor = Executors.newCachedThreadPool(new ThreadFactory(){
+				public Thread newThread(Runnable runnable){
+					Thread thread = new Thread(runnable, "mapi-hedge");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return ownedExecutor;
+	}
+
+	/**
+	 * <p>Adds a request's latency to the recent latencies, and works out the delay again every so often.</p>
+	 *
+	 * @param nanos How long the request took
+	 */
+	private synchronized void recordLatency(long nanos){
+		latencies[latencyIndex] = nanos;
+		latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+		if(latencyCount < LATENCY_WINDOW){
+			latencyCount++;
+		}
+		if((latencyCount < MIN_SAMPLES) || (latencyIndex % RECOMPUTE_EVERY != 0)){
+			return;
+		}
+
+		long[] sorted = Arrays.copyOf(latencies, latencyCount);
+		Arrays.sort(sorted);
+		int rank = (int)Math.ceil((percentile / 100.0) * latencyCount) - 1;
+		long at = sorted[Math.max(0, Math.min(latencyCount - 1, rank))];
+		delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(minDelayMillis), at);
+	}
+
+	/**
+	 * <p>Adds one request's share of a hedge to the budget, up to the burst.</p>
+	 */
+	private void deposit(){
+		long share = (long)(budgetRatio * BUDGET_UNIT);
+		long cap   = budgetBurst * BUDGET_UNIT;
+		while(true){
+			long current = budget.get();
+			if((current >= cap) || budget.compareAndSet(current, Math.min(cap, current + share))){
+				return;
+			}
+		}
+	}
+
+	/**
+	 * <p>Takes a hedge from the budget, if there is one.</p>
+	 *
+	 * @return True if a hedge may be sent
+	 */
+	private Boolean withdraw(){
+		while(true){
+			long current = budget.get();
+			if(current < BUDGET_UNIT){
+				return false;
+			}
+			if(budget.compareAndSet(current, current - BUDGET_UNIT)){
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * <p>Throws the exception a request failed with.</p>
+	 *
+	 * @param failure Exception thrown by the request
+	 * @return Never returns
+	 * @throws BrightcoveException The request's exception, if it was one
+	 */
+	private static JSONObject rethrow(Throwable failure) throws BrightcoveException {
+		if(failure instanceof BrightcoveException){
+			throw (BrightcoveException)failure;
+		}
+		if(failure instanceof RuntimeException){
+			throw (RuntimeException)failure;
+		}
+		throw (Error)failure;
+	}
+
+	/**
+	 * <p>One copy of a request, run on the executor.</p>
+	 */
+	private static class Attempt implements Runnable {
+		final HttpGet                httpGet;
+		final Request                request;
+		final BlockingQueue<Attempt> finished;
+		final boolean                hedge;
+		final long                   startedAt;
+
+		volatile boolean    done;
+		volatile JSONObject response;
+		volatile Throwable  failure;
+		volatile long       elapsedNanos;
+
+		Attempt(URI commandUrl, Request request, BlockingQueue<Attempt> finished, boolean hedge){
+			this.httpGet   = new HttpGet(commandUrl);
+			this.request   = request;
+			this.finished  = finished;
+			this.hedge     = hedge;
+			this.startedAt = System.nanoTime();
+		}
+
+		public void run(){
+			try{
+				response = request.execute(httpGet);
+			}
+			catch(Throwable t){
+				failure = t;
+			}
+			elapsedNanos = System.nanoTime() - startedAt;
+			done         = true;
+			try{
+				if(hedge){
+					request.finishHedge();
+				}
+			}
+			finally{
+				finished.add(this);
+			}
+		}
+
+		void abort(){
+			if(!done){
+				httpGet.abort();
+			}
+		}
+	}
+
+	/**
+	 * <p>A Read API request that can be sent more than once.</p>
+	 */
+	public interface Request {
+		/**
+		 * <p>Makes the request.</p>
+		 *
+		 * @param httpGet GET request for this copy of the request (aborted if the other copy returns first)
+		 * @return Parsed response from the Media API (possibly null)
+		 * @throws BrightcoveException If the request fails
+		 */
+		public JSONObject execute(HttpGet httpGet) throws BrightcoveException;
+
+		/**
+		 * <p>
+		 *    Takes whatever a second copy of the request needs to be sent now
+		 *    (e.g. a rate limiter permit), without waiting.
+		 * </p>
+		 *
+		 * @return True if the hedge may be sent (finishHedge() is then called once it has finished)
+		 */
+		public Boolean startHedge();
+
+		/**
+		 * <p>Gives back what startHedge() took, once the hedge has finished or been aborted.</p>
+		 */
+		public void finishHedge();
+	}
+}
@@ -0,0 +1,159 @@
+package com.brightcove.mediaapi.http;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * <p>
+ *    Parses a Media API JSON response into a JSONObject tree, reading the
+ *    HTTP entity's content stream rather than a String copy of the body.
+ * </p>
+ *
+ * <p>
+ *    This only saves the String (and the buffer it is read into): the
+ *    whole JSONObject tree is still built before the Video and Playlist
+ *    objects are, in a second pass over the tree, so at its peak a large
+ *    page of videos is held twice - once as the tree and once as the
+ *    objects built from it.  Those objects can only be built from a
+ *    JSONObject, so binding them while the stream is read would mean
+ *    duplicating the Commons library's parsing.
+ * </p>
+ */
+public class JsonEntityParser {
+	private static final Integer READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * <p>
+	 *    Parses the entity's content stream as a JSON object.  The stream is
+	 *    always fully consumed and closed, so a pooled connection can be
+	 *    reused afterwards.
+	 * </p>
+	 *
+	 * @param entity HTTP entity returned by the Media API
+	 * @param defaultCharSet Character set to use if the response doesn't specify one
+	 * @return Parsed JSON object, or null if the Media API returned the literal "null"
+	 * @throws IOException If the stream can't be read
+	 * @throws JSONException If the response is empty or isn't a JSON object
+	 */
+	public static JSONObject parse(HttpEntity entity, String defaultCharSet) throws IOException, JSONException {
+		return parse(entity, defaultCharSet, null);
+	}
+
+	/**
+	 * <p>
+	 *    Parses the entity's content stream as a JSON object, counting the
+	 *    characters read so that the caller knows the size of the body
+	 *    without turning the parsed tree back into text.
+	 * </p>
+	 *
+	 * @param entity HTTP entity returned by the Media API
+	 * @param defaultCharSet Character set to use if the response doesn't specify one
+	 * @param length Set to the length of the body in characters once it is parsed (may be null)
+	 * @return Parsed JSON object, or null if the Media API returned the literal "null"
+	 * @throws IOException If the stream can't be read
+	 * @throws JSONException If the response is empty or isn't a JSON object
+	 */
+	public static JSONObject parse(HttpEntity entity, String defaultCharSet, AtomicLong length) throws IOException, JSONException {
+		if(entity == null){
+			throw new JSONException("Empty response");
+		}
+
+		String charSet = EntityUtils.getContentCharSet(entity);
+		if(charSet == null){
+			charSet = defaultCharSet;
+		}
+
+		InputStream stream = entity.getContent();
+		if(stream == null){
+			throw new JSONException("Empty response");
+		}
+
+		try{
+			CountingReader counter = new CountingReader(new InputStreamReader(stream, charSet));
+			Reader         reader  = new BufferedReader(counter, READ_BUFFER_SIZE);
+			JSONTokener    tokener = new JSONTokener(reader);
+
+			// An empty (or cut off) body is not the same as "null"
+			if(tokener.nextClean() == 0){
+				throw new JSONException("Empty response");
+			}
+			tokener.back();
+
+			Object value;
+			try{
+				value = tokener.nextValue();
+			}
+			catch(JSONException jsone){
+				// The tokener wraps read failures - report those as I/O
+				// problems rather than as unparsable JSON
+				if(jsone.getCause() instanceof IOException){
+					throw (IOException)jsone.getCause();
+				}
+				throw jsone;
+			}
+			if(length != null){
+				length.set(counter.count);
+			}
+
+			// Certain responses don't really return useful JSON - e.g. an
+			// invalid reference id in a find_video_by_reference_id will
+			// simply return the string "null"
+			if(JSONObject.NULL.equals(value)){
+				return null;
+			}
+			if(!(value instanceof JSONObject)){
+				throw new JSONException("Expected a JSON object but found '" + value + "'");
+			}
+
+			return (JSONObject)value;
+		}
+		finally{
+			// Closing the content stream drains anything left and releases the connection
+			stream.close();
+		}
+	}
+
+	/**
+	 * <p>Counts the characters read through it.</p>
+	 */
+	private static class CountingReader extends FilterReader {
+		private long count;
+
+		CountingReader(Reader in){
+			super(in);
+		}
+
+		public int read() throws IOException {
+			int c = super.read();
+			if(c >= 0){
+				count++;
+			}
+			return c;
+		}
+
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+			if(read > 0){
+				count += read;
+			}
+			return read;
+		}
+
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+}
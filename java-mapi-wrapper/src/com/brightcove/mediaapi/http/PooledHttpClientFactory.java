@@ -0,0 +1,313 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * <p>
+ *    An HttpClientFactory that hands out a single, long-lived HttpClient
+ *    backed by a thread-safe pool of keep-alive connections.
+ * </p>
+ *
+ * <p>
+ *    The default factory creates a new HttpClient (and therefore a new TCP
+ *    and possibly TLS connection) for every Media API call.  This factory
+ *    instead reuses connections across calls and across threads, so a single
+ *    ReadApi or WriteApi instance using it can be shared by all request
+ *    threads in an application:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.OverrideHttpClientFactory(new PooledHttpClientFactory());
+ * </p>
+ *
+ * <p>
+ *    Settings (pool sizes, timeouts, keep-alive) must be changed before the
+ *    first call to getHttpClient() - after that the client is built and the
+ *    settings are fixed.  Idle and expired connections are evicted by a
+ *    background daemon thread.  Call shutdown() to release the pool when the
+ *    application is finished with it.
+ * </p>
+ */
+public class PooledHttpClientFactory implements ReleasableHttpClientFactory {
+	private Integer maxTotalConnections;
+	private Integer maxConnectionsPerRoute;
+	private Integer connectionTimeoutMillis;
+	private Integer socketTimeoutMillis;
+	private Long    connectionRequestTimeoutMillis;
+	private Long    keepAliveMillis;
+	private Long    idleConnectionTimeoutMillis;
+	private Long    evictionIntervalMillis;
+
+	private DefaultHttpClient        httpClient;
+	private ScheduledExecutorService evictor;
+
+	public static final Integer DEFAULT_MAX_TOTAL_CONNECTIONS        = 200;
+	public static final Integer DEFAULT_MAX_CONNECTIONS_PER_ROUTE    = 50;
+	public static final Integer DEFAULT_CONNECTION_TIMEOUT_MILLIS    = 10000;
+	public static final Integer DEFAULT_SOCKET_TIMEOUT_MILLIS        = 60000;
+	public static final Long    DEFAULT_CONNECTION_REQUEST_TIMEOUT   = 10000l;
+	public static final Long    DEFAULT_KEEP_ALIVE_MILLIS            = 30000l;
+	public static final Long    DEFAULT_IDLE_CONNECTION_TIMEOUT      = 30000l;
+	public static final Long    DEFAULT_EVICTION_INTERVAL_MILLIS     = 5000l;
+
+	/**
+	 * <p>
+	 *    Creates a pooled client factory with the default pool sizes and
+	 *    timeouts.
+	 * </p>
+	 */
+	public PooledHttpClientFactory(){
+		init();
+	}
+
+	/**
+	 * <p>
+	 *    Creates a pooled client factory with the specified pool sizes and
+	 *    the default timeouts.
+	 * </p>
+	 *
+	 * @param maxTotalConnections Maximum number of connections open across all hosts
+	 * @param maxConnectionsPerRoute Maximum number of connections open to any single host
+	 */
+	public PooledHttpClientFactory(Integer maxTotalConnections, Integer maxConnectionsPerRoute){
+		init();
+
+		this.maxTotalConnections    = maxTotalConnections;
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+	}
+
+	/**
+	 * <p>Called by constructors to initialize variables.</p>
+	 */
+	private void init(){
+		maxTotalConnections            = DEFAULT_MAX_TOTAL_CONNECTIONS;
+		maxConnectionsPerRoute         = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+		connectionTimeoutMillis        = DEFAULT_CONNECTION_TIMEOUT_MILLIS;
+		socketTimeoutMillis            = DEFAULT_SOCKET_TIMEOUT_MILLIS;
+		connectionRequestTimeoutMillis = DEFAULT_CONNECTION_REQUEST_TIMEOUT;
+		keepAliveMillis                = DEFAULT_KEEP_ALIVE_MILLIS;
+		idleConnectionTimeoutMillis    = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+		evictionIntervalMillis         = DEFAULT_EVICTION_INTERVAL_MILLIS;
+
+		httpClient = null;
+		evictor    = null;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.brightcove.commons.http.HttpClientFactory#getHttpClient()
+	 */
+	public synchronized HttpClient getHttpClient(){
+		if(httpClient == null){
+			httpClient = buildHttpClient();
+			startEvictor();
+		}
+		return httpClient;
+	}
+
+	/**
+	 * <p>
+	 *    Does nothing - the client is shared by every call (and every
+	 *    thread), so it is left open for reuse.
+	 * </p>
+	 *
+	 * @param httpClient Client used to make the call
+	 */
+	public void release(HttpClient httpClient){
+	}
+
+	/**
+	 * <p>
+	 *    Closes every pooled connection and stops the eviction thread.  Any
+	 *    later call to getHttpClient() builds a fresh pool.
+	 * </p>
+	 */
+	public synchronized void shutdown(){
+		if(evictor != null){
+			evictor.shutdownNow();
+			evictor = null;
+		}
+		if(httpClient != null){
+			httpClient.getConnectionManager().shutdown();
+			httpClient = null;
+		}
+	}
+
+	/**
+	 * <p>Builds the shared client and its thread-safe connection manager.</p>
+	 *
+	 * @return HttpClient backed by the connection pool
+	 */
+	private DefaultHttpClient buildHttpClient(){
+		HttpParams params = new BasicHttpParams();
+
+		ConnManagerParams.setMaxTotalConnections(params, maxTotalConnections);
+		ConnManagerParams.setMaxConnectionsPerRoute(params, new ConnPerRouteBean(maxConnectionsPerRoute));
+		ConnManagerParams.setTimeout(params, connectionRequestTimeoutMillis);
+
+		HttpConnectionParams.setConnectionTimeout(params, connectionTimeoutMillis);
+		HttpConnectionParams.setSoTimeout(params, socketTimeoutMillis);
+		HttpConnectionParams.setStaleCheckingEnabled(params, true);
+		HttpConnectionParams.setTcpNoDelay(params, true);
+
+		SchemeRegistry schemeRegistry = new SchemeRegistry();
+		schemeRegistry.register(new Scheme("http",  PlainSocketFactory.getSocketFactory(), 80));
+		schemeRegistry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(),   443));
+
+		ClientConnectionManager connectionManager = new ThreadSafeClientConnManager(params, schemeRegistry);
+
+		DefaultHttpClient client = new DefaultHttpClient(connectionManager, params);
+		client.setKeepAliveStrategy(new ConnectionKeepAliveStrategy(){
+			public long getKeepAliveDuration(HttpResponse response, HttpContext context){
+				// Honor the server's Keep-Alive timeout if it sent one,
+				// otherwise fall back to our own default
+				HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+				while(it.hasNext()){
+					HeaderElement element = it.nextElement();
+					if("timeout".equalsIgnoreCase(element.getName()) && (element.getValue() != null)){
+						try{
+							return Long.parseLong(element.getValue()) * 1000;
+						}
+						catch(NumberFormatException nfe){
+							// Ignore - use the default below
+						}
+					}
+				}
+				return keepAliveMillis;
+			}
+		});
+
+		return client;
+	}
+
+	/**
+	 * <p>Starts the background thread that closes idle and expired connections.</p>
+	 */
+	private void startEvictor(){
+		final ClientConnectionManager connectionManager = httpClient.getConnectionManager();
+
+		evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory(){
+			public Thread newThread(Runnable runnable){
+				Thread thread = new Thread(runnable, "mapi-connection-evictor");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		evictor.scheduleWithFixedDelay(new Runnable(){
+			public void run(){
+				connectionManager.closeExpiredConnections();
+				connectionManager.closeIdleConnections(idleConnectionTimeoutMillis, TimeUnit.MILLISECONDS);
+			}
+		}, evictionIntervalMillis, evictionIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * <p>Sets the maximum number of connections open across all hosts.</p>
+	 *
+	 * @param maxTotalConnections Maximum number of pooled connections
+	 */
+	public void setMaxTotalConnections(Integer maxTotalConnections){
+		this.maxTotalConnections = maxTotalConnections;
+	}
+
+	/**
+	 * <p>Gets the maximum number of connections open across all hosts.</p>
+	 *
+	 * @return Maximum number of pooled connections
+	 */
+	public Integer getMaxTotalConnections(){
+		return maxTotalConnections;
+	}
+
+	/**
+	 * <p>Sets the maximum number of connections open to any single host (route).</p>
+	 *
+	 * @param maxConnectionsPerRoute Maximum number of pooled connections per route
+	 */
+	public void setMaxConnectionsPerRoute(Integer maxConnectionsPerRoute){
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+	}
+
+	/**
+	 * <p>Gets the maximum number of connections open to any single host (route).</p>
+	 *
+	 * @return Maximum number of pooled connections per route
+	 */
+	public Integer getMaxConnectionsPerRoute(){
+		return maxConnectionsPerRoute;
+	}
+
+	/**
+	 * <p>Sets how long to wait when opening a new connection to the server.</p>
+	 *
+	 * @param connectionTimeoutMillis Connect timeout in milliseconds
+	 */
+	public void setConnectionTimeoutMillis(Integer connectionTimeoutMillis){
+		this.connectionTimeoutMillis = connectionTimeoutMillis;
+	}
+
+	/**
+	 * <p>Sets how long to wait for data from the server once connected.</p>
+	 *
+	 * @param socketTimeoutMillis Socket read timeout in milliseconds
+	 */
+	public void setSocketTimeoutMillis(Integer socketTimeoutMillis){
+		this.socketTimeoutMillis = socketTimeoutMillis;
+	}
+
+	/**
+	 * <p>Sets how long a caller waits for a free connection when the pool is exhausted.</p>
+	 *
+	 * @param connectionRequestTimeoutMillis Pool wait timeout in milliseconds
+	 */
+	public void setConnectionRequestTimeoutMillis(Long connectionRequestTimeoutMillis){
+		this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+	}
+
+	/**
+	 * <p>Sets how long to keep a connection alive when the server doesn't say.</p>
+	 *
+	 * @param keepAliveMillis Keep-alive duration in milliseconds
+	 */
+	public void setKeepAliveMillis(Long keepAliveMillis){
+		this.keepAliveMillis = keepAliveMillis;
+	}
+
+	/**
+	 * <p>Sets how long a pooled connection may sit unused before it is closed.</p>
+	 *
+	 * @param idleConnectionTimeoutMillis Idle timeout in milliseconds
+	 */
+	public void setIdleConnectionTimeoutMillis(Long idleConnectionTimeoutMillis){
+		this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+	}
+
+	/**
+	 * <p>Sets how often the eviction thread checks for idle and expired connections.</p>
+	 *
+	 * @param evictionIntervalMillis Eviction interval in milliseconds
+	 */
+	public void setEvictionIntervalMillis(Long evictionIntervalMillis){
+		this.evictionIntervalMillis = evictionIntervalMillis;
+	}
+}
@@ -0,0 +1,283 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Limits the rate of calls to the Media API for each token, so that e.g.
+ *    a batch job can't use up an account's request quota and get the token
+ *    throttled for everything else using it.
+ * </p>
+ *
+ * <p>
+ *    Calls are split into command classes - reads, writes and uploads - and
+ *    each class can have its own limit (calls per second and burst size).
+ *    Every token gets its own token bucket per limited class, with the limit
+ *    set for the class, or the limit set for that token and class if there
+ *    is one.  Classes without a limit aren't limited.
+ * </p>
+ *
+ * <p>
+ *    Set on a ReadApi and a WriteApi to have every call to the Media API
+ *    take a permit first:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;RateLimiter limiter = new RateLimiter();<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;limiter.setLimit(RateLimiter.CommandClass.READ, 50.0, 100);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setRateLimiter(limiter);
+ * </p>
+ *
+ * <p>
+ *    By default a call waits for as long as it takes to get its permit; see
+ *    setMaxWaitMillis().  Taking a permit never locks.
+ * </p>
+ */
+public class RateLimiter {
+	/**
+	 * <p>
+	 *    The classes of calls that are limited separately.
+	 * </p>
+	 */
+	public enum CommandClass {
+		READ,
+		WRITE,
+		UPLOAD
+	}
+
+	/**
+	 * <p>A rate and burst size.</p>
+	 */
+	private static class Limit {
+		final Double  permitsPerSecond;
+		final Integer burst;
+
+		Limit(Double permitsPerSecond, Integer burst){
+			this.permitsPerSecond = permitsPerSecond;
+			this.burst            = burst;
+		}
+	}
+
+	private final Limit[]                              limits;
+	private final ConcurrentMap<String, Limit[]>       tokenLimits;
+	private final ConcurrentMap<String, TokenBucket[]> buckets;
+	private Long maxWaitMillis;
+
+	private final AtomicLong delayedCount;
+	private final AtomicLong rejectedCount;
+
+	/**
+	 * <p>
+	 *    Creates a rate limiter with no limits.  Calls wait for as long as it
+	 *    takes to get a permit.
+	 * </p>
+	 */
+	public RateLimiter(){
+		limits        = new Limit[CommandClass.values().length];
+		tokenLimits   = new ConcurrentHashMap<String, Limit[]>();
+		buckets       = new ConcurrentHashMap<String, TokenBucket[]>();
+		maxWaitMillis = null;
+
+		delayedCount  = new AtomicLong(0);
+		rejectedCount = new AtomicLong(0);
+	}
+
+	/**
+	 * <p>
+	 *    Sets the limit for a class of calls, applied to each token
+	 *    separately.  Resets every token's buckets.
+	 * </p>
+	 *
+	 * @param commandClass Class of calls to limit
+	 * @param permitsPerSecond Calls per second allowed for each token, or null to not limit the class
+	 * @param burst Number of calls a token can make at once after being idle
+	 */
+	public void setLimit(CommandClass commandClass, Double permitsPerSecond, Integer burst){
+		limits[commandClass.ordinal()] = (permitsPerSecond == null) ? null : new Limit(permitsPerSecond, burst);
+		buckets.clear();
+	}
+
+	/**
+	 * <p>
+	 *    Sets the limit for a class of calls made with one token, in place of
+	 *    the limit for the class.  Resets that token's buckets.
+	 * </p>
+	 *
+	 * @param token Read or write token
+	 * @param commandClass Class of calls to limit
+	 * @param permitsPerSecond Calls per second allowed, or null to use the limit for the class
+	 * @param burst Number of calls that can be made at once after being idle
+	 */
+	public void setLimit(String token, CommandClass commandClass, Double permitsPerSecond, Integer burst){
+		Limit[] forToken = tokenLimits.get(token);
+		if(forToken == null){
+			tokenLimits.putIfAbsent(token, new Limit[CommandClass.values().length]);
+			forToken = tokenLimits.get(token);
+		}
+		forToken[commandClass.ordinal()] = (permitsPerSecond == null) ? null : new Limit(permitsPerSecond, burst);
+		buckets.remove(token);
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit for a call, waiting for as long as it takes.
+	 * </p>
+	 *
+	 * @param token Token the call is made with
+	 * @param commandClass Class of the call
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public void acquire(String token, CommandClass commandClass) throws InterruptedException {
+		TokenBucket bucket = getBucket(token, commandClass);
+		if(bucket != null){
+			bucket.acquire();
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit for a call if one is available now.
+	 * </p>
+	 *
+	 * @param token Token the call is made with
+	 * @param commandClass Class of the call
+	 * @return True if the call may be made
+	 */
+	public Boolean tryAcquire(String token, CommandClass commandClass){
+		TokenBucket bucket = getBucket(token, commandClass);
+		return (bucket == null) || bucket.tryAcquire();
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit for a call, waiting up to the time given.  Returns
+	 *    straight away if no permit will be available in time.
+	 * </p>
+	 *
+	 * @param token Token the call is made with
+	 * @param commandClass Class of the call
+	 * @param timeoutMillis Longest time to wait
+	 * @return True if the call may be made
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public Boolean tryAcquire(String token, CommandClass commandClass, Long timeoutMillis) throws InterruptedException {
+		TokenBucket bucket = getBucket(token, commandClass);
+		return (bucket == null) || bucket.tryAcquire(timeoutMillis);
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit for a call to the Media API, waiting up to the
+	 *    maximum wait (see setMaxWaitMillis()).  Used by ReadApi and WriteApi
+	 *    before each call.
+	 * </p>
+	 *
+	 * @param token Token the call is made with
+	 * @param commandClass Class of the call
+	 * @throws WrapperException With code RATE_LIMITED, if no permit was available in time (or the thread was interrupted)
+	 */
+	public void permit(String token, CommandClass commandClass) throws WrapperException {
+		TokenBucket bucket = getBucket(token, commandClass);
+		if((bucket == null) || bucket.tryAcquire()){
+			return;
+		}
+
+		delayedCount.incrementAndGet();
+		try{
+			if(maxWaitMillis == null){
+				bucket.acquire();
+				return;
+			}
+			if(bucket.tryAcquire(maxWaitMillis)){
+				return;
+			}
+		}
+		catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+			rejectedCount.incrementAndGet();
+			throw new WrapperException(WrapperExceptionCode.RATE_LIMITED, "Interrupted while waiting for a " + commandClass + " permit.");
+		}
+		rejectedCount.incrementAndGet();
+		throw new WrapperException(WrapperExceptionCode.RATE_LIMITED, "No " + commandClass + " permit available within " + maxWaitMillis + " milliseconds.");
+	}
+
+	/**
+	 * <p>
+	 *    Gets the longest time a call to the Media API waits for a permit.
+	 * </p>
+	 *
+	 * @return Maximum wait in milliseconds, or null to wait for as long as it takes
+	 */
+	public Long getMaxWaitMillis(){
+		return maxWaitMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Sets the longest time a call to the Media API waits for a permit
+	 *    before failing with WrapperExceptionCode.RATE_LIMITED.  Set to 0 to
+	 *    fail straight away, or null (the default) to wait for as long as it
+	 *    takes.
+	 * </p>
+	 *
+	 * @param maxWaitMillis Maximum wait in milliseconds, or null
+	 */
+	public void setMaxWaitMillis(Long maxWaitMillis){
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls to permit() that didn't get a permit straight
+	 *    away (including those that were then rejected).
+	 * </p>
+	 *
+	 * @return Number of delayed calls
+	 */
+	public Long getDelayedCount(){
+		return delayedCount.get();
+	}
+
+	/**
+	 * <p>
+	 *    Gets the number of calls to permit() that didn't get a permit.
+	 * </p>
+	 *
+	 * @return Number of rejected calls
+	 */
+	public Long getRejectedCount(){
+		return rejectedCount.get();
+	}
+
+	/**
+	 * <p>Gets the bucket for a token and class of calls, creating the token's buckets if needed.</p>
+	 *
+	 * @param token Token the call is made with (may be null)
+	 * @param commandClass Class of the call
+	 * @return Token bucket, or null if the class isn't limited for the token
+	 */
+	private TokenBucket getBucket(String token, CommandClass commandClass){
+		String key = (token == null) ? "" : token;
+
+		TokenBucket[] forToken = buckets.get(key);
+		if(forToken == null){
+			Limit[] overrides = tokenLimits.get(key);
+
+			TokenBucket[] created = new TokenBucket[limits.length];
+			for(int i=0;i<limits.length;i++){
+				Limit limit = ((overrides != null) && (overrides[i] != null)) ? overrides[i] : limits[i];
+				if(limit != null){
+					created[i] = new TokenBucket(limit.permitsPerSecond, limit.burst);
+				}
+			}
+
+			forToken = buckets.putIfAbsent(key, created);
+			if(forToken == null){
+				forToken = created;
+			}
+		}
+		return forToken[commandClass.ordinal()];
+	}
+}
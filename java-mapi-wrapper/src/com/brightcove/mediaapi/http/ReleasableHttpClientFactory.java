@@ -0,0 +1,31 @@
+package com.brightcove.mediaapi.http;
+
+import org.apache.http.client.HttpClient;
+
+import com.brightcove.commons.http.HttpClientFactory;
+
+/**
+ * <p>
+ *    An HttpClientFactory that decides what happens to a client once a
+ *    Media API call is finished with it.
+ * </p>
+ *
+ * <p>
+ *    ReadApi and WriteApi shut down the connection manager of a client from
+ *    any other factory after each call, since the default factory creates a
+ *    new client every time.  A factory that shares its clients between calls
+ *    (such as PooledHttpClientFactory, or one that wraps it) implements this
+ *    interface so they are left open instead.
+ * </p>
+ */
+public interface ReleasableHttpClientFactory extends HttpClientFactory {
+	/**
+	 * <p>
+	 *    Releases a client obtained from getHttpClient() once a call is
+	 *    finished with it.
+	 * </p>
+	 *
+	 * @param httpClient Client used to make the call
+	 */
+	public void release(HttpClient httpClient);
+}
@@ -0,0 +1,129 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Collapses identical Media API requests that are in flight at the same
+ *    time into a single network call.
+ * </p>
+ *
+ * <p>
+ *    The first thread to make a request with a given key makes the call.
+ *    Any thread making a request with the same key before that call returns
+ *    waits for it and receives the same parsed response (or the same
+ *    exception).  Once the call returns the key is forgotten, so later
+ *    requests go to the network again - this is not a cache.
+ * </p>
+ *
+ * <p>
+ *    The response is shared between every waiting thread and must be
+ *    treated as read-only.
+ * </p>
+ */
+public class RequestCoalescer {
+	private final ConcurrentMap<String, CompletableFuture<JSONObject>> inFlight;
+
+	/**
+	 * <p>
+	 *    Creates a new coalescer with no requests in flight.
+	 * </p>
+	 */
+	public RequestCoalescer(){
+		inFlight = new ConcurrentHashMap<String, CompletableFuture<JSONObject>>();
+	}
+
+	/**
+	 * <p>
+	 *    Makes the request, or waits for an identical request already in
+	 *    flight and returns its response.
+	 * </p>
+	 *
+	 * @param key Canonical key for the request (identical requests must have identical keys)
+	 * @param request Request to make if no identical request is in flight
+	 * @return Parsed response from the Media API (possibly null)
+	 * @throws BrightcoveException If the shared request fails
+	 */
+	public JSONObject execute(String key, Request request) throws BrightcoveException {
+		CompletableFuture<JSONObject> call     = new CompletableFuture<JSONObject>();
+		CompletableFuture<JSONObject> existing = inFlight.putIfAbsent(key, call);
+		if(existing != null){
+			return await(existing);
+		}
+
+		try{
+			JSONObject response = request.execute();
+			call.complete(response);
+			return response;
+		}
+		catch(BrightcoveException be){
+			call.completeExceptionally(be);
+			throw be;
+		}
+		catch(RuntimeException re){
+			call.completeExceptionally(re);
+			throw re;
+		}
+		finally{
+			inFlight.remove(key, call);
+		}
+	}
+
+	/**
+	 * <p>Gets the number of distinct requests currently in flight.</p>
+	 *
+	 * @return Number of requests in flight
+	 */
+	public Integer getInFlightCount(){
+		return inFlight.size();
+	}
+
+	/**
+	 * <p>Waits for a request made by another thread and returns its result.</p>
+	 *
+	 * @param call Future for the other thread's request
+	 * @return Parsed response from the Media API (possibly null)
+	 * @throws BrightcoveException If the shared request failed, or this thread is interrupted
+	 */
+	private JSONObject await(CompletableFuture<JSONObject> call) throws BrightcoveException {
+		try{
+			return call.get();
+		}
+		catch(InterruptedException ie){
+			Thread.currentThread().interrupt();
+			throw new WrapperException(WrapperExceptionCode.BATCH_REQUEST_INTERRUPTED, "Interrupted while waiting for a shared request.");
+		}
+		catch(ExecutionException ee){
+			Throwable cause = ee.getCause();
+			if(cause instanceof BrightcoveException){
+				throw (BrightcoveException)cause;
+			}
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException)cause;
+			}
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNKNOWN_NULL, "Shared request failed.  Exception caught: '" + cause + "'.");
+		}
+	}
+
+	/**
+	 * <p>A Media API request that can be shared between threads.</p>
+	 */
+	public interface Request {
+		/**
+		 * <p>Makes the request.</p>
+		 *
+		 * @return Parsed response from the Media API (possibly null)
+		 * @throws BrightcoveException If the request fails
+		 */
+		public JSONObject execute() throws BrightcoveException;
+	}
+}
@@ -0,0 +1,144 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *    A token bucket: permits are added at a fixed rate, up to a maximum
+ *    burst, and each call takes one.
+ * </p>
+ *
+ * <p>
+ *    The bucket is kept as a single timestamp - when the next permit
+ *    would be due if the bucket were empty - and updated with
+ *    compare-and-set, so taking a permit never locks.  A caller that
+ *    is willing to wait reserves its permit straight away and then sleeps
+ *    until it is due, so waiting callers are served in the order they
+ *    arrived.
+ * </p>
+ */
+public class TokenBucket {
+	private final Double     permitsPerSecond;
+	private final Integer    burst;
+	private final long       intervalNanos;
+	private final long       toleranceNanos;
+	private final AtomicLong nextPermitAt;
+
+	/**
+	 * <p>
+	 *    Creates a full bucket.
+	 * </p>
+	 *
+	 * @param permitsPerSecond Rate permits are added at
+	 * @param burst Maximum number of permits the bucket holds (at least 1)
+	 */
+	public TokenBucket(Double permitsPerSecond, Integer burst){
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst            = Math.max(1, burst);
+		this.intervalNanos    = Math.max(1, (long)(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+		this.toleranceNanos   = intervalNanos * (this.burst - 1);
+		this.nextPermitAt     = new AtomicLong(nanoTime());
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit if one is available now.
+	 * </p>
+	 *
+	 * @return True if a permit was taken
+	 */
+	public Boolean tryAcquire(){
+		return reserve(0) == 0;
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit, waiting up to the time given for one to become
+	 *    available.  Returns straight away if no permit will be available in
+	 *    time.
+	 * </p>
+	 *
+	 * @param timeoutMillis Longest time to wait
+	 * @return True if a permit was taken
+	 * @throws InterruptedException If the thread is interrupted while waiting (the permit is used up)
+	 */
+	public Boolean tryAcquire(Long timeoutMillis) throws InterruptedException {
+		long wait = reserve(TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+		if(wait < 0){
+			return false;
+		}
+		if(wait > 0){
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+		return true;
+	}
+
+	/**
+	 * <p>
+	 *    Takes a permit, waiting for as long as it takes.
+	 * </p>
+	 *
+	 * @throws InterruptedException If the thread is interrupted while waiting (the permit is used up)
+	 */
+	public void acquire() throws InterruptedException {
+		long wait = reserve(Long.MAX_VALUE);
+		if(wait > 0){
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * <p>
+	 *    Gets the rate permits are added at.
+	 * </p>
+	 *
+	 * @return Permits per second
+	 */
+	public Double getPermitsPerSecond(){
+		return permitsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 *    Gets the maximum number of permits the bucket holds.
+	 * </p>
+	 *
+	 * @return Burst size
+	 */
+	public Integer getBurst(){
+		return burst;
+	}
+
+	/**
+	 * <p>Reserves the next permit if it is due within the time given.</p>
+	 *
+	 * @param maxWaitNanos Longest time the caller will wait
+	 * @return Nanoseconds until the reserved permit is due (0 if it is due now), or -1 if it wouldn't be due in time
+	 */
+	private long reserve(long maxWaitNanos){
+		while(true){
+			long now  = nanoTime();
+			long next = nextPermitAt.get();
+			long wait = Math.max(0, next - toleranceNanos - now);
+			if(wait > maxWaitNanos){
+				return -1;
+			}
+
+			// An idle bucket doesn't collect more than one burst of permits
+			long updated = ((next - now) > 0 ? next : now) + intervalNanos;
+			if(nextPermitAt.compareAndSet(next, updated)){
+				return wait;
+			}
+		}
+	}
+
+	/**
+	 * <p>Gets the current time.  Overridden by tests to control the clock (this is called from the constructor).</p>
+	 *
+	 * @return Current value of the system's high-resolution timer
+	 */
+	long nanoTime(){
+		return System.nanoTime();
+	}
+}
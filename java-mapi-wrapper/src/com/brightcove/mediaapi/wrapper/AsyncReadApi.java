@@ -0,0 +1,539 @@
+package com.brightcove.mediaapi.wrapper;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.brightcove.commons.catalog.objects.Playlist;
+import com.brightcove.commons.catalog.objects.Playlists;
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.PlaylistFieldEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortByTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.SortOrderTypeEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.commons.catalog.objects.enumerations.VideoStateFilterEnum;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+
+/**
+ * <p>
+ *    Asynchronous interface to the READ portion of the Media API.
+ * </p>
+ * 
+ * <p>
+ *    Every method mirrors the ReadApi method of the same name, but instead of
+ *    blocking the calling thread for the HTTP round trip it returns a
+ *    CompletableFuture immediately and runs the call on an Executor.  This
+ *    lets independent lookups (e.g. the 5-20 lookups needed to render a
+ *    page) overlap rather than run one after another:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CompletableFuture&lt;Video&gt;  video    = asyncApi.FindVideoById(token, videoId, videoFields, customFields);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CompletableFuture&lt;Videos&gt; related  = asyncApi.FindRelatedVideos(token, videoId, null, 10, 0, videoFields, customFields);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;CompletableFuture.allOf(video, related).join();
+ * </p>
+ * 
+ * <p>
+ *    If a call fails, the future is completed exceptionally with the
+ *    BrightcoveException thrown by the ReadApi (any exception handler set on
+ *    the ReadApi still applies).  Since many calls will share the ReadApi
+ *    concurrently, it should be configured with a PooledHttpClientFactory.
+ * </p>
+ * 
+ * <p>
+ *    Stale responses count towards the ResponseStaleness set on the ReadApi
+ *    for the thread that started the call (see
+ *    ReadApi.setResponseStaleness), so a caller can check the calls it
+ *    started once their futures complete.
+ * </p>
+ */
+public class AsyncReadApi {
+	private ReadApi         readApi;
+	private Executor        executor;
+	private ExecutorService ownedExecutor;
+	
+	public static final Integer DEFAULT_THREAD_COUNT = 20;
+	
+	/**
+	 * <p>
+	 *    Creates an asynchronous wrapper around the ReadApi provided, running
+	 *    calls on an internal pool of DEFAULT_THREAD_COUNT daemon threads.
+	 * </p>
+	 * 
+	 * @param readApi ReadApi used to make the actual calls
+	 */
+	public AsyncReadApi(ReadApi readApi){
+		this.readApi       = readApi;
+		this.ownedExecutor = Executors.newFixedThreadPool(DEFAULT_THREAD_COUNT, new DaemonThreadFactory());
+		this.executor      = ownedExecutor;
+	}
+	
+	/**
+	 * <p>
+	 *    Creates an asynchronous wrapper around the ReadApi provided, running
+	 *    calls on the executor provided.  The executor is owned by the caller
+	 *    and is not shut down by this object.
+	 * </p>
+	 * 
+	 * @param readApi ReadApi used to make the actual calls
+	 * @param executor Executor to run the calls on
+	 */
+	public AsyncReadApi(ReadApi readApi, Executor executor){
+		this.readApi       = readApi;
+		this.ownedExecutor = null;
+		this.executor      = executor;
+	}
+	
+	/**
+	 * <p>
+	 *    Gets the ReadApi used to make the actual calls.
+	 * </p>
+	 * 
+	 * @return ReadApi used to make the actual calls
+	 */
+	public ReadApi getReadApi(){
+		return readApi;
+	}
+	
+	/**
+	 * <p>
+	 *    Shuts down the internal thread pool, if this object created one.
+	 *    Calls already submitted are allowed to finish.
+	 * </p>
+	 */
+	public void shutdown(){
+		if(ownedExecutor != null){
+			ownedExecutor.shutdown();
+		}
+	}
+	
+	/**
+	 * <p>Runs a call on the executor, completing the returned future with its result or exception.</p>
+	 * 
+	 * @param call Call to make against the ReadApi
+	 * @return Future for the result of the call
+	 */
+	private <T> CompletableFuture<T> submit(final ReadCall<T> call){
+		final CompletableFuture<T> future    = new CompletableFuture<T>();
+		final ResponseStaleness    staleness = readApi.getResponseStaleness();
+		
+		try{
+			executor.execute(new Runnable(){
+				public void run(){
+					// Stale responses count towards the ResponseStaleness set on the calling thread
+					ResponseStaleness previous = readApi.setResponseStaleness(staleness);
+					try{
+						future.complete(call.call());
+					}
+					catch(BrightcoveException be){
+						future.completeExceptionally(be);
+					}
+					catch(RuntimeException re){
+						future.completeExceptionally(re);
+					}
+					finally{
+						readApi.setResponseStaleness(previous);
+					}
+				}
+			});
+		}
+		catch(RejectedExecutionException ree){
+			future.completeExceptionally(ree);
+		}
+		
+		return future;
+	}
+	
+	// --------------------- Video Read API Methods --------------------------
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoById}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoById, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoById(final String readToken, final Long videoId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoById(readToken, videoId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByIdOrNull}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByIdOrNull, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByIdOrNull(final String readToken, final Long videoId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByIdOrNull(readToken, videoId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByIdUnfiltered}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByIdUnfiltered, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByIdUnfiltered(final String readToken, final Long videoId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByIdUnfiltered(readToken, videoId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByIdUnfilteredOrNull}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByIdUnfilteredOrNull, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByIdUnfilteredOrNull(final String readToken, final Long videoId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByIdUnfilteredOrNull(readToken, videoId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindAllVideos}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindAllVideos, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindAllVideos(final String readToken, final Integer pageSize, final Integer pageNumber, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindAllVideos(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindRelatedVideos}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindRelatedVideos, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindRelatedVideos(final String readToken, final Long videoId, final String referenceId, final Integer pageSize, final Integer pageNumber, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindRelatedVideos(readToken, videoId, referenceId, pageSize, pageNumber, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByIds}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByIds, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByIds(final String readToken, final Set<Long> videoIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByIds(readToken, videoIds, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByIdsBulk}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByIdsBulk, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByIdsBulk(final String readToken, final Set<Long> videoIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByIdsBulk(readToken, videoIds, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByIdsUnfiltered}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByIdsUnfiltered, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByIdsUnfiltered(final String readToken, final Set<Long> videoIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByIdsUnfiltered(readToken, videoIds, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByReferenceId}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByReferenceId, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByReferenceId(final String readToken, final String referenceId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByReferenceId(readToken, referenceId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByReferenceIdOrNull}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByReferenceIdOrNull, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByReferenceIdOrNull(final String readToken, final String referenceId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByReferenceIdOrNull(readToken, referenceId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByReferenceIdUnfiltered}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByReferenceIdUnfiltered, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByReferenceIdUnfiltered(final String readToken, final String referenceId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByReferenceIdUnfiltered(readToken, referenceId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideoByReferenceIdUnfilteredOrNull}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideoByReferenceIdUnfilteredOrNull, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Video> FindVideoByReferenceIdUnfilteredOrNull(final String readToken, final String referenceId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Video>(){
+			public Video call() throws BrightcoveException {
+				return readApi.FindVideoByReferenceIdUnfilteredOrNull(readToken, referenceId, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByReferenceIdsUnfiltered}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByReferenceIdsUnfiltered, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByReferenceIdsUnfiltered(final String readToken, final Set<String> referenceIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByReferenceIdsUnfiltered(readToken, referenceIds, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByReferenceIds}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByReferenceIds, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByReferenceIds(final String readToken, final Set<String> referenceIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByReferenceIds(readToken, referenceIds, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByReferenceIdsBulk}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByReferenceIdsBulk, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByReferenceIdsBulk(final String readToken, final Set<String> referenceIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByReferenceIdsBulk(readToken, referenceIds, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByUserId}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByUserId, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByUserId(final String readToken, final String userId, final Integer pageSize, final Integer pageNumber, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByUserId(readToken, userId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByCampaignId}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByCampaignId, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByCampaignId(final String readToken, final String campaignId, final Integer pageSize, final Integer pageNumber, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByCampaignId(readToken, campaignId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindModifiedVideos}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindModifiedVideos, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindModifiedVideos(final String readToken, final Long fromDate, final Set<VideoStateFilterEnum> filter, final Integer pageSize, final Integer pageNumber, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindModifiedVideos(readToken, fromDate, filter, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#SearchVideos}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.SearchVideos, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> SearchVideos(final String readToken, final List<String> all, final List<String> any, final List<String> none, final Boolean exact, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final Integer pageSize, final Integer pageNumber, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.SearchVideos(readToken, all, any, none, exact, sortBy, sortOrderType, pageSize, pageNumber, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByText}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByText, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByText(final String readToken, final String text, final Integer pageSize, final Integer pageNumber, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByText(readToken, text, pageSize, pageNumber, videoFields, customFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindVideosByTags}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindVideosByTags, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Videos> FindVideosByTags(final String readToken, final Set<String> andTags, final Set<String> orTags, final Integer pageSize, final Integer pageNumber, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields){
+		return submit(new ReadCall<Videos>(){
+			public Videos call() throws BrightcoveException {
+				return readApi.FindVideosByTags(readToken, andTags, orTags, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+			}
+		});
+	}
+	
+	// --------------------- Playlist Read API Methods -----------------------
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindAllPlaylists}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindAllPlaylists, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Playlists> FindAllPlaylists(final String readToken, final Integer pageSize, final Integer pageNumber, final SortByTypeEnum sortBy, final SortOrderTypeEnum sortOrderType, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields){
+		return submit(new ReadCall<Playlists>(){
+			public Playlists call() throws BrightcoveException {
+				return readApi.FindAllPlaylists(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields, playlistFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindPlaylistById}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindPlaylistById, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Playlist> FindPlaylistById(final String readToken, final Long playlistId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields){
+		return submit(new ReadCall<Playlist>(){
+			public Playlist call() throws BrightcoveException {
+				return readApi.FindPlaylistById(readToken, playlistId, videoFields, customFields, playlistFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindPlaylistByReferenceId}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindPlaylistByReferenceId, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Playlist> FindPlaylistByReferenceId(final String readToken, final String referenceId, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields){
+		return submit(new ReadCall<Playlist>(){
+			public Playlist call() throws BrightcoveException {
+				return readApi.FindPlaylistByReferenceId(readToken, referenceId, videoFields, customFields, playlistFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindPlaylistsByIds}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindPlaylistsByIds, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Playlists> FindPlaylistsByIds(final String readToken, final Set<Long> playlistIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields){
+		return submit(new ReadCall<Playlists>(){
+			public Playlists call() throws BrightcoveException {
+				return readApi.FindPlaylistsByIds(readToken, playlistIds, videoFields, customFields, playlistFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindPlaylistsByReferenceIds}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindPlaylistsByReferenceIds, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Playlists> FindPlaylistsByReferenceIds(final String readToken, final Set<String> referenceIds, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields){
+		return submit(new ReadCall<Playlists>(){
+			public Playlists call() throws BrightcoveException {
+				return readApi.FindPlaylistsByReferenceIds(readToken, referenceIds, videoFields, customFields, playlistFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Asynchronous version of {@link ReadApi#FindPlaylistsForPlayerId}.</p>
+	 * 
+	 * @return Future completed with the result of ReadApi.FindPlaylistsForPlayerId, or completed exceptionally with the BrightcoveException it threw
+	 */
+	public CompletableFuture<Playlists> FindPlaylistsForPlayerId(final String readToken, final String playerId, final Integer pageSize, final Integer pageNumber, final EnumSet<VideoFieldEnum> videoFields, final Set<String> customFields, final EnumSet<PlaylistFieldEnum> playlistFields){
+		return submit(new ReadCall<Playlists>(){
+			public Playlists call() throws BrightcoveException {
+				return readApi.FindPlaylistsForPlayerId(readToken, playerId, pageSize, pageNumber, videoFields, customFields, playlistFields);
+			}
+		});
+	}
+	
+	/**
+	 * <p>A single blocking call against the ReadApi.</p>
+	 */
+	private interface ReadCall<T> {
+		public T call() throws BrightcoveException;
+	}
+	
+	/**
+	 * <p>Creates named daemon threads so an unused pool doesn't keep the JVM alive.</p>
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger threadCount = new AtomicInteger(0);
+		
+		public Thread newThread(Runnable runnable){
+			Thread thread = new Thread(runnable, "mapi-async-read-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -4,9 +4,19 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import org.apache.http.HttpEntity;
@@ -18,6 +28,8 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIUtils;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -33,12 +45,26 @@ import com.brightcove.commons.catalog.objects.enumerations.VideoStateFilterEnum;
 import com.brightcove.commons.collection.CollectionUtils;
 import com.brightcove.commons.http.DefaultHttpClientFactory;
 import com.brightcove.commons.http.HttpClientFactory;
-import com.brightcove.commons.http.HttpUtils;
+import com.brightcove.mediaapi.cache.CacheEntry;
+import com.brightcove.mediaapi.cache.CacheTags;
+import com.brightcove.mediaapi.cache.ResponseCache;
+import com.brightcove.mediaapi.cache.VideoFieldCache;
+import com.brightcove.mediaapi.catalog.CatalogReplica;
+import com.brightcove.mediaapi.concurrent.ParallelRunner;
 import com.brightcove.mediaapi.exceptions.BrightcoveException;
 import com.brightcove.mediaapi.exceptions.BrightcoveExceptionHandler;
 import com.brightcove.mediaapi.exceptions.MediaApiException;
+import com.brightcove.mediaapi.exceptions.RetryPolicy;
 import com.brightcove.mediaapi.exceptions.WrapperException;
 import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+import com.brightcove.mediaapi.http.AdaptiveConcurrencyLimiter;
+import com.brightcove.mediaapi.http.CircuitBreaker;
+import com.brightcove.mediaapi.http.CircuitBreakerRegistry;
+import com.brightcove.mediaapi.http.HedgingPolicy;
+import com.brightcove.mediaapi.http.JsonEntityParser;
+import com.brightcove.mediaapi.http.RateLimiter;
+import com.brightcove.mediaapi.http.ReleasableHttpClientFactory;
+import com.brightcove.mediaapi.http.RequestCoalescer;
 
 /**
  * <p>
@@ -91,7 +117,40 @@ public class ReadApi {
 	private static final Integer MAX_VIDEOS_PER_PAGE    = 100;
 	private static final Integer MAX_PLAYLISTS_PER_PAGE = 100;
 	
+	private static final Integer DEFAULT_BULK_CHUNK_SIZE   = 50;
+	private static final Integer DEFAULT_BULK_CHUNK_LENGTH = 2000;
+	private static final Integer DEFAULT_BULK_PARALLELISM  = 4;
+	
+	private static final Long DEFAULT_STALE_SHORT_CIRCUIT_MILLIS = 5000l;
+	
+	// Commands whose "null" response means the single item asked for doesn't exist
+	private static final Set<String> NOT_FOUND_COMMANDS = new HashSet<String>(Arrays.asList(
+		"find_video_by_id", "find_video_by_id_unfiltered",
+		"find_video_by_reference_id", "find_video_by_reference_id_unfiltered",
+		"find_playlist_by_id", "find_playlist_by_reference_id"));
+	
 	private BrightcoveExceptionHandler exceptionHandler;
+	private RetryPolicy                retryPolicy;
+	
+	private VideoBatchLoader videoBatchLoader;
+	private RequestCoalescer requestCoalescer;
+	private ResponseCache    responseCache;
+	private VideoFieldCache  videoFieldCache;
+	private CatalogReplica   catalogReplica;
+	
+	private CircuitBreakerRegistry     circuitBreakers;
+	private RateLimiter                rateLimiter;
+	private AdaptiveConcurrencyLimiter concurrencyLimiter;
+	private HedgingPolicy              hedgingPolicy;
+	
+	private Integer  bulkChunkSize;
+	private Integer  bulkChunkLength;
+	private Integer  bulkParallelism;
+	private Executor bulkExecutor;
+	
+	private Long                           staleShortCircuitMillis;
+	private ConcurrentMap<String, Long>    failingUntil;
+	private ThreadLocal<ResponseStaleness> responseStaleness;
 	
 	/**
 	 * <p>Default constructor</p>
@@ -177,6 +236,27 @@ public class ReadApi {
 		clientFactory = new DefaultHttpClientFactory();
 		
 		exceptionHandler = null;
+		retryPolicy      = null;
+		
+		videoBatchLoader = null;
+		requestCoalescer = null;
+		responseCache    = null;
+		videoFieldCache  = null;
+		catalogReplica   = null;
+		
+		circuitBreakers    = null;
+		rateLimiter        = null;
+		concurrencyLimiter = null;
+		hedgingPolicy      = null;
+		
+		bulkChunkSize   = DEFAULT_BULK_CHUNK_SIZE;
+		bulkChunkLength = DEFAULT_BULK_CHUNK_LENGTH;
+		bulkParallelism = DEFAULT_BULK_PARALLELISM;
+		bulkExecutor    = null;
+		
+		staleShortCircuitMillis = DEFAULT_STALE_SHORT_CIRCUIT_MILLIS;
+		failingUntil            = new ConcurrentHashMap<String, Long>();
+		responseStaleness       = new ThreadLocal<ResponseStaleness>();
 	}
 	
 	/**
@@ -197,6 +277,8 @@ public class ReadApi {
 	/**
 	 * <p>Overrides the standard factory used to create HTTPClients to connect to the Read API Server.</p>
 	 * 
+	 * <p>Use a PooledHttpClientFactory to reuse keep-alive connections between calls.  With a pooled factory a single ReadApi instance can be shared by all request threads.</p>
+	 * 
 	 * @param clientFactory HttpClientFactory to use to generate HttpClient objects
 	 */
 	public void OverrideHttpClientFactory(HttpClientFactory clientFactory){
@@ -236,67 +318,602 @@ public class ReadApi {
 	 * </ul>
 	 */
 	private JSONObject executeCommand(List<NameValuePair> parameters) throws  BrightcoveException {
+		return executeCommand(parameters, true);
+	}
+	
+	/**
+	 * <p>Executes a command against the Media API, optionally bypassing the response cache</p>
+	 * 
+	 * @param parameters List of parameters to pass in the url
+	 * @param cacheable If false the response cache isn't read or written (the request is still coalesced)
+	 * @return Response from server in the form of a JSON object
+	 * @throws BrightcoveException If the request fails, or the Media API reports an error
+	 */
+	private JSONObject executeCommand(final List<NameValuePair> parameters, Boolean cacheable) throws  BrightcoveException {
+		final ResponseCache cache = cacheable ? responseCache : null;
+		
 		if(deliveryProtocol != null){
 			parameters.add(new BasicNameValuePair("media_delivery", deliveryProtocol));
 		}
 		
-		// Build up URL from the parameters provided
-		URI commandUrl = BuildCommandUrl(parameters);
+		if((cache == null) && (requestCoalescer == null)){
+			return executeGuarded(BuildCommandUrl(parameters), parameters, null);
+		}
+		
+		final String requestKey = BuildRequestKey(parameters);
+		
+		// Build up URL from the parameters provided - a cached response is tagged with the ids and reference ids it contains, so ask for them even if the caller didn't
+		final URI commandUrl = BuildCommandUrl((cache == null) ? parameters : withTagFields(parameters));
+		
+		if(cache != null){
+			CacheEntry cached = cache.lookup(requestKey);
+			if(cached != null){
+				if(log != null){
+					log.info("Response for '" + commandUrl + "' found in cache.");
+				}
+				
+				// In refresh-ahead mode, fetch a response that is (nearly) stale again in the background
+				cache.refreshAhead(requestKey, cached, new Runnable(){
+					public void run(){
+						try{
+							coalesceAndCache(requestKey, commandUrl, parameters, cache);
+						}
+						catch(BrightcoveException be){
+							if(log != null){
+								log.warning("Background refresh of '" + commandUrl + "' failed: " + be);
+							}
+						}
+					}
+				});
+				
+				// Null for a cached "not found" result
+				markStaleness(cached);
+				return cached.getResponse();
+			}
+			
+			// While the Media API is failing for this token, answer from the last known good response rather than waiting for another failure
+			Long until = failingUntil.get(getFailingKey(parameters));
+			if((until != null) && (System.currentTimeMillis() < until)){
+				CacheEntry stale = cache.lookupStale(requestKey);
+				if(stale != null){
+					if(log != null){
+						log.info("Media API is failing - returning stale response for '" + commandUrl + "' from cache.");
+					}
+					markStaleness(stale);
+					return stale.getResponse();
+				}
+			}
+		}
+		
+		try{
+			JSONObject response = coalesceAndCache(requestKey, commandUrl, parameters, cache);
+			if(!failingUntil.isEmpty()){
+				failingUntil.remove(getFailingKey(parameters));
+			}
+			return response;
+		}
+		catch(BrightcoveException be){
+			if((cache == null) || (!isUnavailable(be))){
+				throw be;
+			}
+			
+			if((staleShortCircuitMillis != null) && (staleShortCircuitMillis > 0)){
+				failingUntil.put(getFailingKey(parameters), System.currentTimeMillis() + staleShortCircuitMillis);
+			}
+			CacheEntry stale = cache.lookupStale(requestKey);
+			if(stale == null){
+				throw be;
+			}
+			
+			if(log != null){
+				log.warning("Request '" + commandUrl + "' failed (" + be + ") - returning stale response from cache.");
+			}
+			markStaleness(stale);
+			return stale.getResponse();
+		}
+	}
+	
+	/**
+	 * <p>Checks whether a request failed because the Media API couldn't be used (so a stale cached response may be returned instead)</p>
+	 * 
+	 * @param be Exception the request failed with
+	 * @return True for transport errors, Media API timeouts, an open circuit breaker, or the rate or concurrency limit
+	 */
+	private Boolean isUnavailable(BrightcoveException be){
+		if(CircuitBreaker.isFailure(be)){
+			return true;
+		}
+		if(be instanceof WrapperException){
+			WrapperExceptionCode code = ((WrapperException)be).getCode();
+			return (code == WrapperExceptionCode.CIRCUIT_OPEN) || (code == WrapperExceptionCode.RATE_LIMITED) || (code == WrapperExceptionCode.CONCURRENCY_LIMITED);
+		}
+		return false;
+	}
+	
+	/**
+	 * <p>Gets the key the Media API is marked as failing under for a request - its token if the circuit breakers are per token (or there are none), so that one failing account doesn't short circuit the others</p>
+	 * 
+	 * @param parameters Request parameters (including "token")
+	 * @return Key for the failingUntil map
+	 */
+	private String getFailingKey(List<NameValuePair> parameters){
+		CircuitBreakerRegistry breakers = circuitBreakers;
+		if((breakers != null) && (!breakers.isPerToken())){
+			return CircuitBreakerRegistry.READ;
+		}
+		String token = getParameter(parameters, "token");
+		return (token == null) ? CircuitBreakerRegistry.READ : CircuitBreakerRegistry.READ + ":" + token;
+	}
+	
+	/**
+	 * <p>Makes the request to the Media API once the rate limiter and the concurrency limiter (if any) allow it, through the Read API circuit breaker for the token (if there are circuit breakers)</p>
+	 * 
+	 * @param commandUrl Read Media API request URL
+	 * @param parameters Request parameters (including "token")
+	 * @param length Set to the length of the response body in characters (may be null)
+	 * @return Response from server in the form of a JSON object
+	 * @throws BrightcoveException If the rate limit is reached, the concurrency limiter has no room, the circuit breaker is open, the request fails, or the Media API reports an error
+	 */
+	private JSONObject executeGuarded(URI commandUrl, List<NameValuePair> parameters, AtomicLong length) throws BrightcoveException {
+		if((circuitBreakers == null) && (rateLimiter == null) && (concurrencyLimiter == null)){
+			return executeRequest(commandUrl, null, length);
+		}
+		
+		String token = getParameter(parameters, "token");
+		
+		if(rateLimiter != null){
+			rateLimiter.permit(token, RateLimiter.CommandClass.READ);
+		}
+		AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+		if(limiter != null){
+			limiter.acquire();
+		}
+		
+		CircuitBreaker breaker  = null;
+		Long           admitted = null;
+		Long           start    = null;
+		Boolean        failed   = true;
+		try{
+			if(circuitBreakers != null){
+				breaker = circuitBreakers.get(CircuitBreakerRegistry.READ, token);
+				admitted = breaker.acquire();
+			}
+			
+			start = System.nanoTime();
+			JSONObject response = executeRequest(commandUrl, token, length);
+			failed = false;
+			return response;
+		}
+		catch(BrightcoveException be){
+			failed = CircuitBreaker.isFailure(be);
+			throw be;
+		}
+		finally{
+			// No timing if the circuit breaker didn't let the call through
+			Long elapsed = (start == null) ? null : System.nanoTime() - start;
+			if((breaker != null) && (elapsed != null)){
+				breaker.record(admitted, failed, TimeUnit.NANOSECONDS.toMillis(elapsed));
+			}
+			if(limiter != null){
+				// A page of videos takes longer than a single video, so calls are only compared with others like them
+				String pageSize = getParameter(parameters, "page_size");
+				limiter.release(elapsed, failed, getParameter(parameters, "command") + ((pageSize == null) ? "" : ":" + pageSize));
+			}
+		}
+	}
+	
+	/**
+	 * <p>Records a response that is past its TTL with the thread's ResponseStaleness (see setResponseStaleness)</p>
+	 * 
+	 * @param entry Cache entry the response came from
+	 */
+	private void markStaleness(CacheEntry entry){
+		ResponseStaleness staleness = responseStaleness.get();
+		Long              now       = System.currentTimeMillis();
+		if((staleness != null) && entry.isExpired(now)){
+			staleness.record(now - entry.getExpiresAt());
+		}
+	}
+	
+	/**
+	 * <p>Makes the request to the Media API through the request coalescer (if there is one) and caches the response</p>
+	 * 
+	 * @param requestKey Canonical key for the request
+	 * @param commandUrl Read Media API request URL
+	 * @param parameters Request parameters
+	 * @param cache Cache to store the response in (may be null)
+	 * @return Response from server in the form of a JSON object
+	 * @throws BrightcoveException If the request fails, or the Media API reports an error
+	 */
+	private JSONObject coalesceAndCache(final String requestKey, final URI commandUrl, final List<NameValuePair> parameters, final ResponseCache cache) throws BrightcoveException {
+		if(requestCoalescer == null){
+			return executeAndCache(requestKey, commandUrl, parameters, cache);
+		}
+		
+		// Share a single call between every thread making the same request
+		return requestCoalescer.execute(requestKey, new RequestCoalescer.Request(){
+			public JSONObject execute() throws BrightcoveException {
+				return executeAndCache(requestKey, commandUrl, parameters, cache);
+			}
+		});
+	}
+	
+	/**
+	 * <p>Makes the request to the Media API and stores a successful (or "not found") response in the response cache (if there is one)</p>
+	 * 
+	 * <p>The response is tagged with the videos and playlists it was requested for or contains, so that writes to them can invalidate it.  The fields only asked for to tag it (see withTagFields) are then removed, so it has the fields the caller asked for.  A "null" response is only cached as "not found" for commands that look up a single video or playlist.  The response isn't cached if anything was invalidated while it was being fetched, since it may be from before the write.</p>
+	 * 
+	 * @param requestKey Canonical key for the request
+	 * @param commandUrl Read Media API request URL
+	 * @param parameters Request parameters
+	 * @param cache Cache to store the response in (may be null)
+	 * @return Response from server in the form of a JSON object
+	 * @throws BrightcoveException If the request fails, or the Media API reports an error
+	 */
+	private JSONObject executeAndCache(String requestKey, URI commandUrl, List<NameValuePair> parameters, ResponseCache cache) throws BrightcoveException {
+		Long       generation = (cache == null) ? null : cache.getGeneration();
+		AtomicLong length     = (cache == null) ? null : new AtomicLong();
+		JSONObject response   = executeGuarded(commandUrl, parameters, length);
+		if(cache != null){
+			Set<String> tags = CacheTags.forResponse(parameters, response);
+			if(response != null){
+				removeTagFields(response, parameters);
+				// Weighed by the body it was parsed from, rather than by turning it back into text
+				cache.put(requestKey, response, tags, generation, null, length.get());
+			}
+			else if(NOT_FOUND_COMMANDS.contains(getParameter(parameters, "command"))){
+				cache.putNotFound(requestKey, tags, generation);
+			}
+		}
+		return response;
+	}
+	
+	/**
+	 * <p>Adds the fields a response is tagged by (see CacheTags) to the video_fields and playlist_fields parameters (if there are any), so that a write by id or reference id can invalidate the response</p>
+	 * 
+	 * @param parameters Request parameters
+	 * @return Copy of the parameters, with the tag fields added to the field lists that don't have them
+	 */
+	private static List<NameValuePair> withTagFields(List<NameValuePair> parameters){
+		List<NameValuePair> ret = new ArrayList<NameValuePair>(parameters.size());
+		for(NameValuePair parameter : parameters){
+			String      name    = parameter.getName();
+			Set<String> unasked = getUnaskedTagFields(parameters, name);
+			if(!unasked.isEmpty()){
+				parameter = new BasicNameValuePair(name, parameter.getValue() + "," + CollectionUtils.JoinToString(unasked, ","));
+			}
+			ret.add(parameter);
+		}
+		return ret;
+	}
+	
+	/**
+	 * <p>Removes the fields withTagFields added from the videos and playlists in a response</p>
+	 * 
+	 * @param response Response to remove the fields from
+	 * @param parameters Request parameters, as the caller made the request
+	 */
+	private static void removeTagFields(JSONObject response, List<NameValuePair> parameters){
+		Set<String> videoFields    = getUnaskedTagFields(parameters, "video_fields");
+		Set<String> playlistFields = getUnaskedTagFields(parameters, "playlist_fields");
+		if(videoFields.isEmpty() && playlistFields.isEmpty()){
+			return;
+		}
+		
+		String    command   = getParameter(parameters, "command");
+		Boolean   playlists = (command != null) && command.contains("playlist");
+		JSONArray items     = response.optJSONArray("items");
+		if(items == null){
+			removeTagFields(response, playlists, videoFields, playlistFields);
+		}
+		else{
+			for(int i=0;i<items.length();i++){
+				removeTagFields(items.optJSONObject(i), playlists, videoFields, playlistFields);
+			}
+		}
+	}
+	
+	/**
+	 * <p>Removes fields from a video or playlist, and from the videos in a playlist</p>
+	 * 
+	 * @param item Video or playlist JSON (may be null)
+	 * @param playlist True if the item is a playlist
+	 * @param videoFields Fields to remove from videos
+	 * @param playlistFields Fields to remove from playlists
+	 */
+	private static void removeTagFields(JSONObject item, Boolean playlist, Set<String> videoFields, Set<String> playlistFields){
+		if(item == null){
+			return;
+		}
+		
+		for(String field : (playlist ? playlistFields : videoFields)){
+			item.remove(field);
+		}
+		if(playlist){
+			JSONArray videos = item.optJSONArray("videos");
+			if(videos != null){
+				for(int i=0;i<videos.length();i++){
+					removeTagFields(videos.optJSONObject(i), false, videoFields, playlistFields);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * <p>Gets the tag fields (see CacheTags) missing from a video_fields or playlist_fields parameter</p>
+	 * 
+	 * @param parameters Request parameters
+	 * @param name video_fields or playlist_fields (any other name has no tag fields)
+	 * @return Tag fields the parameter doesn't ask for, or an empty set if there is no such parameter (every field is returned)
+	 */
+	private static Set<String> getUnaskedTagFields(List<NameValuePair> parameters, String name){
+		Set<String> ret   = new LinkedHashSet<String>();
+		String      value = getParameter(parameters, name);
+		if((value == null) || ("".equals(value))){
+			return ret;
+		}
+		
+		if("video_fields".equals(name)){
+			ret.addAll(CacheTags.VIDEO_FIELDS);
+		}
+		else if("playlist_fields".equals(name)){
+			ret.addAll(CacheTags.PLAYLIST_FIELDS);
+		}
+		for(String field : value.split(",")){
+			for(String tagField : new ArrayList<String>(ret)){
+				if(tagField.equalsIgnoreCase(field.trim())){
+					ret.remove(tagField);
+				}
+			}
+		}
+		return ret;
+	}
+	
+	/**
+	 * <p>Gets the value of a request parameter</p>
+	 * 
+	 * @param parameters Request parameters
+	 * @param name Name of the parameter
+	 * @return Value of the (last) parameter with the name, or null if there isn't one
+	 */
+	private static String getParameter(List<NameValuePair> parameters, String name){
+		String value = null;
+		for(NameValuePair parameter : parameters){
+			if(name.equals(parameter.getName())){
+				value = parameter.getValue();
+			}
+		}
+		return value;
+	}
+	
+	/**
+	 * <p>Looks up a single video by id through the video field cache, fetching only the fields the cache doesn't hold yet</p>
+	 * 
+	 * @param command find_video_by_id or find_video_by_id_unfiltered
+	 * @param readToken Read Media API token for the account
+	 * @param videoId Brightcove id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object, or null if the video can't be found
+	 * @throws BrightcoveException If the request fails, the Media API reports an error, or the response can't be parsed
+	 */
+	private Video findVideoThroughFieldCache(String command, String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
+		
+		parameters.add(new BasicNameValuePair("command",  command));
+		parameters.add(new BasicNameValuePair("video_id", ""+videoId));
+		parameters.add(new BasicNameValuePair("token",    readToken));
+		
+		// The delivery protocol changes the URLs returned, so it is part of the key
+		List<NameValuePair> keyParameters = new ArrayList<NameValuePair>(parameters);
+		if(deliveryProtocol != null){
+			keyParameters.add(new BasicNameValuePair("media_delivery", deliveryProtocol));
+		}
+		String key = BuildRequestKey(keyParameters);
+		
+		Set<String> fieldNames = new LinkedHashSet<String>();
+		if(videoFields != null){
+			for(VideoFieldEnum field : videoFields){
+				fieldNames.add(field.toString());
+			}
+		}
+		
+		CacheEntry cached = videoFieldCache.lookup(key, fieldNames, customFields);
+		if(cached != null){
+			if(log != null){
+				log.info("Video " + videoId + " found in video field cache.");
+			}
+			return cached.isNotFound() ? null : parseVideo(cached.getResponse());
+		}
+		
+		Set<String> fetchFields = videoFieldCache.getVideoFieldsToFetch(key, fieldNames, customFields);
+		Set<String> fetchCustom = videoFieldCache.getCustomFieldsToFetch(key, customFields);
 		
+		String videoFieldsString = CollectionUtils.JoinToString((Set<?>)fetchFields, ",");
+		if(!("".equals(videoFieldsString))){
+			parameters.add(new BasicNameValuePair("video_fields", videoFieldsString));
+		}
+		
+		String customFieldsString = CollectionUtils.JoinToString((Set<?>)fetchCustom, ",");
+		if(!("".equals(customFieldsString))){
+			parameters.add(new BasicNameValuePair("custom_fields", customFieldsString));
+		}
+		
+		// Nothing fetched before a write may be stored after it
+		Long       generation = videoFieldCache.getGeneration();
+		JSONObject response   = executeCommand(parameters, false);
+		if(response == null){
+			videoFieldCache.putNotFound(key, CacheTags.forResponse(parameters, null), generation);
+			return null;
+		}
+		
+		try{
+			return parseVideo(videoFieldCache.merge(key, fetchFields, fetchCustom, response, fieldNames, customFields, generation));
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_VIDEO, "Couldn't merge video fields from JSON.  Exception caught: '" + jsone + "'.");
+		}
+	}
+	
+	/**
+	 * <p>Builds a Video from its JSON</p>
+	 * 
+	 * @param json Video JSON
+	 * @return Video object
+	 * @throws BrightcoveException If the JSON can't be parsed
+	 */
+	private Video parseVideo(JSONObject json) throws BrightcoveException {
+		try{
+			return new Video(json);
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_VIDEO, "Couldn't parse video from JSON.  Exception caught: '" + jsone + "'.");
+		}
+	}
+	
+	/**
+	 * <p>Checks whether a query can be answered from the catalog replica rather than the Media API</p>
+	 * 
+	 * @param readToken Read Media API token the query is made with
+	 * @return True if a synced replica for this token is set
+	 */
+	private Boolean answeredLocally(String readToken){
+		return (catalogReplica != null) && catalogReplica.answers(readToken);
+	}
+	
+	/**
+	 * <p>Builds a key that is identical for any two requests with the same parameters, regardless of the order the parameters were added in</p>
+	 * 
+	 * @param parameters URL parameters to pass, including the command name
+	 * @return Canonical form of the request URL
+	 * @throws BrightcoveException if the URL built is syntactically invalid.
+	 */
+	private String BuildRequestKey(List<NameValuePair> parameters) throws BrightcoveException {
+		List<NameValuePair> sorted = new ArrayList<NameValuePair>(parameters);
+		Collections.sort(sorted, new Comparator<NameValuePair>(){
+			public int compare(NameValuePair a, NameValuePair b){
+				int ret = a.getName().compareTo(b.getName());
+				if(ret != 0){
+					return ret;
+				}
+				return String.valueOf(a.getValue()).compareTo(String.valueOf(b.getValue()));
+			}
+		});
+		
+		return BuildCommandUrl(sorted).toString();
+	}
+	
+	/**
+	 * <p>Makes the HTTP request to the Media API (hedged, if there is a hedging policy) and parses the response</p>
+	 * 
+	 * <p>A hedge is only sent if the rate limiter and the concurrency limiter (if any) have room for it straight away.</p>
+	 * 
+	 * @param commandUrl Read Media API request URL
+	 * @param token Token the request is made with (for the rate limiter)
+	 * @param length Set to the length of the response body in characters (may be null)
+	 * @return Response from server in the form of a JSON object
+	 * @throws BrightcoveException If the request fails, or the Media API reports an error
+	 */
+	private JSONObject executeRequest(URI commandUrl, final String token, final AtomicLong length) throws BrightcoveException {
+		HedgingPolicy policy = hedgingPolicy;
+		if(policy == null){
+			return executeRequest(new HttpGet(commandUrl), length);
+		}
+		
+		final RateLimiter                rates   = rateLimiter;
+		final AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+		return policy.execute(commandUrl, new HedgingPolicy.Request(){
+			public JSONObject execute(HttpGet httpGet) throws BrightcoveException {
+				// Both requests are for the same URL, so it doesn't matter which one sets the length
+				return executeRequest(httpGet, length);
+			}
+			
+			public Boolean startHedge(){
+				if((limiter != null) && (!limiter.tryAcquire())){
+					return false;
+				}
+				if((rates != null) && (!rates.tryAcquire(token, RateLimiter.CommandClass.READ))){
+					if(limiter != null){
+						limiter.release(null, false);
+					}
+					return false;
+				}
+				return true;
+			}
+			
+			public void finishHedge(){
+				// The hedge's time says nothing on its own - the hedged call is timed as a whole
+				if(limiter != null){
+					limiter.release(null, false);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * <p>Makes a single HTTP request to the Media API and parses the response</p>
+	 * 
+	 * @param httpGet GET request for the Read Media API request URL
+	 * @param length Set to the length of the response body in characters (may be null)
+	 * @return Response from server in the form of a JSON object
+	 * @throws BrightcoveException If the request fails (or is aborted), or the Media API reports an error
+	 */
+	private JSONObject executeRequest(HttpGet httpGet, AtomicLong length) throws BrightcoveException {
 		if(log != null){
-			log.info("JSON Command to execute: '" + commandUrl + "'.");
+			log.info("JSON Command to execute: '" + httpGet.getURI() + "'.");
 		}
 		
 		// Make the request
-		HttpGet      httpGet  = new HttpGet(commandUrl);
 		HttpResponse response = null;
-		String       buffer;
+		JSONObject   jsonObj  = null;
 		try{
 			HttpClient httpAgent = clientFactory.getHttpClient();
-			response = httpAgent.execute(httpGet);
-			
-			// Make sure the HTTP communication was OK (not the same as an error in the Media API reponse)
-			Integer statusCode = response.getStatusLine().getStatusCode();
-			if(statusCode != 200){
-				httpAgent.getConnectionManager().shutdown();
-				throw new WrapperException(WrapperExceptionCode.HTTP_ERROR_RESPONSE_CODE, "Response code from HTTP server: '" + statusCode + "'");
+			try{
+				response = httpAgent.execute(httpGet);
+				
+				// Make sure the HTTP communication was OK (not the same as an error in the Media API reponse)
+				Integer statusCode = response.getStatusLine().getStatusCode();
+				if(statusCode != 200){
+					// Drain the body so a pooled connection can be reused
+					EntityUtils.consume(response.getEntity());
+					throw new WrapperException(WrapperExceptionCode.HTTP_ERROR_RESPONSE_CODE, "Response code from HTTP server: '" + statusCode + "'");
+				}
+				
+				// Parse the JSON tree from the response stream, without
+				// copying the whole body into a String first
+				HttpEntity entity = response.getEntity();
+				jsonObj = JsonEntityParser.parse(entity, charSet, length);
+			}
+			finally{
+				releaseHttpClient(httpAgent);
 			}
-			
-			// Parse the response
-			HttpEntity entity = response.getEntity();
-			buffer = HttpUtils.parseHttpEntity(entity);
-			httpAgent.getConnectionManager().shutdown();
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_RESPONSE, "JSON Exception: '" + jsone + "'");
 		}
 		catch (IllegalStateException ise) {
 			throw new WrapperException(WrapperExceptionCode.MAPI_ILLEGAL_STATE_RESPONSE, "Exception: '" + ise + "'");
 		}
 		catch(ClientProtocolException cpe){
+			httpGet.abort();
 			throw new WrapperException(WrapperExceptionCode.CLIENT_PROTOCOL_EXCEPTION, "Exception: '" + cpe + "'");
 		}
 		catch (IOException ioe) {
+			httpGet.abort();
 			throw new WrapperException(WrapperExceptionCode.MAPI_IO_EXCEPTION, "Exception: '" + ioe + "'");
 		}
 		
 		if(log != null){
-			log.info("Raw response from server: '" + buffer + "'.");
+			log.info("Response from server: '" + jsonObj + "'.");
 		}
 		
 		// Certain responses from the cache don't really return useful
 		// JSON - e.g. an invalid reference id in a find_video_by_reference_id
 		// will simply return the string "null"
-		if("null".equals(buffer)){
+		if(jsonObj == null){
 			return null;
 		}
 		
-		// Parse JSON
-		JSONObject jsonObj = null;
-		try{
-			jsonObj = new JSONObject(buffer);
-		}
-		catch(JSONException jsone){
-			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_RESPONSE, "JSON Exception: '" + jsone + "'");
-		}
-		
 		// Try to see if there was an error
 		MediaApiException mapie  = new MediaApiException(jsonObj);
 		if((mapie != null) && (mapie.getResponseCode() != null)){
@@ -306,44 +923,108 @@ public class ReadApi {
 		return jsonObj;
 	}
 	
-	// --------------------- Video Read API Methods --------------------------
-	
+	/**
+	 * <p>Releases an HttpClient obtained from the client factory once a request is finished with it.</p>
+	 * 
+	 * <p>A ReleasableHttpClientFactory (e.g. a PooledHttpClientFactory) decides what happens to its clients - any other client is shut down.</p>
+	 * 
+	 * @param httpAgent HttpClient used to make the request
+	 */
+	private void releaseHttpClient(HttpClient httpAgent){
+		if(clientFactory instanceof ReleasableHttpClientFactory){
+			((ReleasableHttpClientFactory)clientFactory).release(httpAgent);
+		}
+		else{
+			httpAgent.getConnectionManager().shutdown();
+		}
+	}
+	
+	// --------------------- Video Read API Methods --------------------------
+	
+	/**
+	 * <p>Looks in the specified account for a video with the specified video id (<b>not</b> the reference id).</p>
+	 * 
+	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
+	 * @param videoId Brightcove id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object matching criteria
+	 * @throws BrightcoveException If any of the following are true:<ul>
+	 * 	<li>Request to the Media API fails</li>
+	 * 	<li>Media API reports an error with the request</li>
+	 * 	<li>Video can not be found</li>
+	 * 	<li>Response from the Media API couldn't be parsed</li>
+	 * </ul>
+	 */
+	public Video FindVideoById(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if((videoBatchLoader != null) && (videoFieldCache == null) && (!answeredLocally(readToken))){
+			// The batched find_videos_by_ids call goes through the exception
+			// handler itself, so don't retry again here
+			return videoBatchLoader.load(readToken, videoId, videoFields, customFields);
+		}
+		
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoById(readToken, videoId, videoFields, customFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoById", attempts);
+			}
+		}
+	}
+	
+	// Internal version of FindVideoById
+	private Video _FindVideoById(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video ret = _FindVideoByIdOrNull(readToken, videoId, videoFields, customFields);
+		if(ret == null){
+			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Brightcove Id '" + videoId + "'.");
+		}
+		
+		return ret;
+	}
+	
 	/**
 	 * <p>Looks in the specified account for a video with the specified video id (<b>not</b> the reference id).</p>
 	 * 
+	 * <p>Same as FindVideoById, except that if the video can't be found null is returned instead of an exception being thrown.  Useful for existence checks.</p>
+	 * 
 	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
 	 * @param videoId Brightcove id for the video to look for
 	 * @param videoFields Set of video fields to populate on the returned Video object
 	 * @param customFields Set of custom fields to populate on the returned Video object
-	 * @return Video object matching criteria
+	 * @return Video object matching criteria, or null if the video can't be found
 	 * @throws BrightcoveException If any of the following are true:<ul>
 	 * 	<li>Request to the Media API fails</li>
 	 * 	<li>Media API reports an error with the request</li>
-	 * 	<li>Video can not be found</li>
 	 * 	<li>Response from the Media API couldn't be parsed</li>
 	 * </ul>
 	 */
-	public Video FindVideoById(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideoById(readToken, videoId, videoFields, customFields);
+	public Video FindVideoByIdOrNull(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if((videoBatchLoader != null) && (videoFieldCache == null) && (!answeredLocally(readToken))){
+			return videoBatchLoader.loadOrNull(readToken, videoId, videoFields, customFields);
 		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByIdOrNull(readToken, videoId, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideoById")){
-					return FindVideoById(readToken, videoId, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByIdOrNull", attempts);
 			}
 		}
 	}
 	
-	// Internal version of FindVideoById
-	private Video _FindVideoById(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+	// Internal version of FindVideoByIdOrNull
+	private Video _FindVideoByIdOrNull(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(answeredLocally(readToken)){
+			return catalogReplica.findVideoById(videoId, videoFields, customFields);
+		}
+		if(videoFieldCache != null){
+			return findVideoThroughFieldCache("find_video_by_id", readToken, videoId, videoFields, customFields);
+		}
+		
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command",  "find_video_by_id"));
@@ -362,7 +1043,7 @@ public class ReadApi {
 		
 		JSONObject response = executeCommand(parameters);
 		if(response == null){
-			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Brightcove Id '" + videoId + "'.");
+			return null;
 		}
 		
 		Video ret = null;
@@ -392,26 +1073,61 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Video FindVideoByIdUnfiltered(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideoByIdUnfiltered(readToken, videoId, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByIdUnfiltered(readToken, videoId, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideoByIdUnfiltered")){
-					return FindVideoByIdUnfiltered(readToken, videoId, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByIdUnfiltered", attempts);
 			}
 		}
 	}
 	
 	// Internal version of FindVideoByIdUnfiltered
 	private Video _FindVideoByIdUnfiltered(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video ret = _FindVideoByIdUnfilteredOrNull(readToken, videoId, videoFields, customFields);
+		if(ret == null){
+			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Brightcove Id '" + videoId + "'.");
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * <p>Looks in the specified account for a video with the specified video id (<b>not</b> the reference id).  This unfiltered version also returns videos that are unscheduled, inactive, or deleted.</p>
+	 * 
+	 * <p>Same as FindVideoByIdUnfiltered, except that if the video can't be found null is returned instead of an exception being thrown.  Useful for existence checks.</p>
+	 * 
+	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
+	 * @param videoId Brightcove id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object matching criteria, or null if the video can't be found
+	 * @throws BrightcoveException If any of the following are true:<ul>
+	 * 	<li>Request to the Media API fails</li>
+	 * 	<li>Media API reports an error with the request</li>
+	 * 	<li>Response from the Media API couldn't be parsed</li>
+	 * </ul>
+	 */
+	public Video FindVideoByIdUnfilteredOrNull(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByIdUnfilteredOrNull(readToken, videoId, videoFields, customFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByIdUnfilteredOrNull", attempts);
+			}
+		}
+	}
+	
+	// Internal version of FindVideoByIdUnfilteredOrNull
+	private Video _FindVideoByIdUnfilteredOrNull(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(videoFieldCache != null){
+			return findVideoThroughFieldCache("find_video_by_id_unfiltered", readToken, videoId, videoFields, customFields);
+		}
+		
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command", "find_video_by_id_unfiltered"));
@@ -430,7 +1146,7 @@ public class ReadApi {
 		
 		JSONObject response = executeCommand(parameters);
 		if(response == null){
-			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Brightcove Id '" + videoId + "'.");
+			return null;
 		}
 		
 		Video ret = null;
@@ -465,20 +1181,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindAllVideos(String readToken, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindAllVideos(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindAllVideos(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindAllVideos")){
-					return FindAllVideos(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindAllVideos", attempts);
 			}
 		}
 	}
@@ -545,20 +1254,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindRelatedVideos(String readToken, Long videoId, String referenceId, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindRelatedVideos(readToken, videoId, referenceId, pageSize, pageNumber, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindRelatedVideos(readToken, videoId, referenceId, pageSize, pageNumber, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindRelatedVideos")){
-					return FindRelatedVideos(readToken, videoId, referenceId, pageSize, pageNumber, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindRelatedVideos", attempts);
 			}
 		}
 	}
@@ -628,26 +1330,23 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByIds(String readToken, Set<Long> videoIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByIds(readToken, videoIds, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByIds(readToken, videoIds, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByIds")){
-					return FindVideosByIds(readToken, videoIds, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByIds", attempts);
 			}
 		}
 	}
 	
 	// Internal version of FindVideosByIds
 	private Videos _FindVideosByIds(String readToken, Set<Long> videoIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(answeredLocally(readToken)){
+			return catalogReplica.findVideosByIds(videoIds, videoFields, customFields);
+		}
+		
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command",  "find_videos_by_ids"));
@@ -697,20 +1396,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByIdsUnfiltered(String readToken, Set<Long> videoIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByIdsUnfiltered(readToken, videoIds, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByIdsUnfiltered(readToken, videoIds, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByIdsUnfiltered")){
-					return FindVideosByIdsUnfiltered(readToken, videoIds, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByIdsUnfiltered", attempts);
 			}
 		}
 	}
@@ -767,26 +1459,61 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Video FindVideoByReferenceId(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideoByReferenceId(readToken, referenceId, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByReferenceId(readToken, referenceId, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideoByReferenceId")){
-					return FindVideoByReferenceId(readToken, referenceId, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByReferenceId", attempts);
 			}
 		}
 	}
 	
 	// Internal version of FindVideoByReferenceId
 	private Video _FindVideoByReferenceId(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video ret = _FindVideoByReferenceIdOrNull(readToken, referenceId, videoFields, customFields);
+		if(ret == null){
+			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Reference Id '" + referenceId + "'.");
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * <p>Looks in the specified account for a video with the specified reference id (<b>not</b> the Brightcove id).</p>
+	 * 
+	 * <p>Same as FindVideoByReferenceId, except that if the video can't be found null is returned instead of an exception being thrown.  Useful for existence checks.</p>
+	 * 
+	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
+	 * @param referenceId Reference id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object matching criteria, or null if the video can't be found
+	 * @throws BrightcoveException If any of the following are true:<ul>
+	 * 	<li>Request to the Media API fails</li>
+	 * 	<li>Media API reports an error with the request</li>
+	 * 	<li>Response from the Media API couldn't be parsed</li>
+	 * </ul>
+	 */
+	public Video FindVideoByReferenceIdOrNull(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByReferenceIdOrNull(readToken, referenceId, videoFields, customFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByReferenceIdOrNull", attempts);
+			}
+		}
+	}
+	
+	// Internal version of FindVideoByReferenceIdOrNull
+	private Video _FindVideoByReferenceIdOrNull(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(answeredLocally(readToken)){
+			return catalogReplica.findVideoByReferenceId(referenceId, videoFields, customFields);
+		}
+		
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command",  "find_video_by_reference_id"));
@@ -805,7 +1532,7 @@ public class ReadApi {
 		
 		JSONObject response = executeCommand(parameters);
 		if(response == null){
-			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Reference Id '" + referenceId + "'.");
+			return null;
 		}
 		
 		Video ret = null;
@@ -835,26 +1562,57 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Video FindVideoByReferenceIdUnfiltered(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideoByReferenceIdUnfiltered(readToken, referenceId, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByReferenceIdUnfiltered(readToken, referenceId, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideoByReferenceIdUnfiltered")){
-					return FindVideoByReferenceIdUnfiltered(readToken, referenceId, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByReferenceIdUnfiltered", attempts);
 			}
 		}
 	}
 	
 	// Internal version of FindVideoByReferenceIdUnfiltered
 	private Video _FindVideoByReferenceIdUnfiltered(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video ret = _FindVideoByReferenceIdUnfilteredOrNull(readToken, referenceId, videoFields, customFields);
+		if(ret == null){
+			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Reference Id '" + referenceId + "'.");
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * <p>Looks in the specified account for a video with the specified reference id (<b>not</b> the Brightcove id).  This unfiltered version also returns videos that are unscheduled, inactive, or deleted.</p>
+	 * 
+	 * <p>Same as FindVideoByReferenceIdUnfiltered, except that if the video can't be found null is returned instead of an exception being thrown.  Useful for existence checks.</p>
+	 * 
+	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
+	 * @param referenceId Reference id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object matching criteria, or null if the video can't be found
+	 * @throws BrightcoveException If any of the following are true:<ul>
+	 * 	<li>Request to the Media API fails</li>
+	 * 	<li>Media API reports an error with the request</li>
+	 * 	<li>Response from the Media API couldn't be parsed</li>
+	 * </ul>
+	 */
+	public Video FindVideoByReferenceIdUnfilteredOrNull(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideoByReferenceIdUnfilteredOrNull(readToken, referenceId, videoFields, customFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideoByReferenceIdUnfilteredOrNull", attempts);
+			}
+		}
+	}
+	
+	// Internal version of FindVideoByReferenceIdUnfilteredOrNull
+	private Video _FindVideoByReferenceIdUnfilteredOrNull(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command", "find_video_by_reference_id_unfiltered"));
@@ -873,7 +1631,7 @@ public class ReadApi {
 		
 		JSONObject response = executeCommand(parameters);
 		if(response == null){
-			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Reference Id '" + referenceId + "'.");
+			return null;
 		}
 		
 		Video ret = null;
@@ -903,20 +1661,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByReferenceIdsUnfiltered(String readToken, Set<String> referenceIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByReferenceIdsUnfiltered(readToken, referenceIds, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByReferenceIdsUnfiltered(readToken, referenceIds, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByReferenceIdsUnfiltered")){
-					return FindVideosByReferenceIdsUnfiltered(readToken, referenceIds, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByReferenceIdsUnfiltered", attempts);
 			}
 		}
 	}
@@ -979,20 +1730,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByReferenceIds(String readToken, Set<String> referenceIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByReferenceIds(readToken, referenceIds, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByReferenceIds(readToken, referenceIds, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByReferenceIds")){
-					return FindVideosByReferenceIds(readToken, referenceIds, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByReferenceIds", attempts);
 			}
 		}
 	}
@@ -1039,6 +1783,89 @@ public class ReadApi {
 		return ret;
 	}
 	
+	/**
+	 * <p>Looks in the specified account for videos with the specified video ids (<b>not</b> the reference id), for any number of ids.</p>
+	 * 
+	 * <p>The ids are split into chunks small enough for a single find_videos_by_ids call, the chunks are requested concurrently
+	 *    (at most BulkParallelism at a time), and the results are merged back into a single list in the same order as the ids
+	 *    were given.  As with FindVideosByIds, an id that can't be found has a null in its place.</p>
+	 * 
+	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
+	 * @param videoIds Brightcove ids for the videos to look for (use an ordered set, e.g. LinkedHashSet, to control the order of the results)
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return List of Video objects matching criteria
+	 * @throws BrightcoveException If any of the following are true:<ul>
+	 * 	<li>Any request to the Media API fails</li>
+	 * 	<li>Media API reports an error with any request</li>
+	 * 	<li>Response from the Media API couldn't be parsed</li>
+	 * </ul>
+	 */
+	public Videos FindVideosByIdsBulk(String readToken, Set<Long> videoIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByIdsBulk(readToken, videoIds, videoFields, customFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByIdsBulk", attempts);
+			}
+		}
+	}
+	
+	// Internal version of FindVideosByIdsBulk
+	private Videos _FindVideosByIdsBulk(String readToken, Set<Long> videoIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		List<String> ids = new ArrayList<String>();
+		for(Long videoId : videoIds){
+			ids.add(""+videoId);
+		}
+		
+		return executeBulkCommand("find_videos_by_ids", "video_ids", readToken, ids, videoFields, customFields);
+	}
+	
+	/**
+	 * <p>Looks in the specified account for videos with the specified reference ids (<b>not</b> the video id), for any number of ids.</p>
+	 * 
+	 * <p>The reference ids are split into chunks small enough for a single find_videos_by_reference_ids call, the chunks are
+	 *    requested concurrently (at most BulkParallelism at a time), and the results are merged back into a single list in the
+	 *    same order as the reference ids were given.  As with FindVideosByReferenceIds, a reference id that can't be found has a
+	 *    null in its place.</p>
+	 * 
+	 * @param readToken Read Media API token for the account.  Note that the privileges of the token can change the fields populated in the returned Video object.
+	 * @param referenceIds Reference ids for the videos to look for (use an ordered set, e.g. LinkedHashSet, to control the order of the results)
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return List of Video objects matching criteria
+	 * @throws BrightcoveException If any of the following are true:<ul>
+	 * 	<li>Any request to the Media API fails</li>
+	 * 	<li>Media API reports an error with any request</li>
+	 *  <li>One or more Reference Ids contains a comma</li>
+	 * 	<li>Response from the Media API couldn't be parsed</li>
+	 * </ul>
+	 */
+	public Videos FindVideosByReferenceIdsBulk(String readToken, Set<String> referenceIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByReferenceIdsBulk(readToken, referenceIds, videoFields, customFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByReferenceIdsBulk", attempts);
+			}
+		}
+	}
+	
+	// Internal version of FindVideosByReferenceIdsBulk
+	private Videos _FindVideosByReferenceIdsBulk(String readToken, Set<String> referenceIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		for(String referenceId : referenceIds){
+			if(referenceId.contains(",")){
+				throw new WrapperException(WrapperExceptionCode.USER_REQUESTED_REFERENCE_ID_WITH_COMMA, "Reference Id '" + referenceId + "' contained a comma.");
+			}
+		}
+		
+		return executeBulkCommand("find_videos_by_reference_ids", "reference_ids", readToken, new ArrayList<String>(referenceIds), videoFields, customFields);
+	}
+	
 	/**
 	 * <p>Retrieves the videos uploaded by the specified user id. This method can be used to find videos submitted using the consumer- generated media (CGM) module.</p>
 	 * 
@@ -1059,20 +1886,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByUserId(String readToken, String userId, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByUserId(readToken, userId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByUserId(readToken, userId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByUserId")){
-					return FindVideosByUserId(readToken, userId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByUserId", attempts);
 			}
 		}
 	}
@@ -1137,20 +1957,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByCampaignId(String readToken, String campaignId, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByCampaignId(readToken, campaignId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByCampaignId(readToken, campaignId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByCampaignId")){
-					return FindVideosByCampaignId(readToken, campaignId, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByCampaignId", attempts);
 			}
 		}
 	}
@@ -1216,20 +2029,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindModifiedVideos(String readToken, Long fromDate, Set<VideoStateFilterEnum> filter, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindModifiedVideos(readToken, fromDate, filter, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindModifiedVideos(readToken, fromDate, filter, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindModifiedVideos")){
-					return FindModifiedVideos(readToken, fromDate, filter, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindModifiedVideos", attempts);
 			}
 		}
 	}
@@ -1302,26 +2108,23 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos SearchVideos(String readToken, List<String> all, List<String> any, List<String> none, Boolean exact, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _SearchVideos(readToken, all, any, none, exact, sortBy, sortOrderType, pageSize, pageNumber, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _SearchVideos(readToken, all, any, none, exact, sortBy, sortOrderType, pageSize, pageNumber, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "SearchVideos")){
-					return SearchVideos(readToken, all, any, none, exact, sortBy, sortOrderType, pageSize, pageNumber, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "SearchVideos", attempts);
 			}
 		}
 	}
 	
 	// Internal version of SearchVideos
 	private Videos _SearchVideos(String readToken, List<String> all, List<String> any, List<String> none, Boolean exact, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(answeredLocally(readToken)){
+			return catalogReplica.searchVideos(all, any, none, exact, sortBy, sortOrderType, pageSize, pageNumber, videoFields, customFields);
+		}
+		
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command",        "search_videos"));
@@ -1395,26 +2198,23 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByText(String readToken, String text, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByText(readToken, text, pageSize, pageNumber, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByText(readToken, text, pageSize, pageNumber, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByText")){
-					return FindVideosByText(readToken, text, pageSize, pageNumber, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByText", attempts);
 			}
 		}
 	}
 	
 	// Internal version of FindVideosByText
 	private Videos _FindVideosByText(String readToken, String text, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(answeredLocally(readToken)){
+			return catalogReplica.findVideosByText(text, pageSize, pageNumber, videoFields, customFields);
+		}
+		
 		if(pageSize > MAX_VIDEOS_PER_PAGE){
 			throw new WrapperException(WrapperExceptionCode.USER_REQUESTED_TOO_MANY_VIDEOS_PER_PAGE, "User error - requested " + pageSize + " videos per page; maximum allowed is " + MAX_VIDEOS_PER_PAGE + " videos per page.");
 		}
@@ -1473,26 +2273,23 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Videos FindVideosByTags(String readToken, Set<String> andTags, Set<String> orTags, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
-		try{
-			return _FindVideosByTags(readToken, andTags, orTags, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindVideosByTags(readToken, andTags, orTags, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindVideosByTags")){
-					return FindVideosByTags(readToken, andTags, orTags, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindVideosByTags", attempts);
 			}
 		}
 	}
 	
 	// Internal version of FindVideosByTags
 	private Videos _FindVideosByTags(String readToken, Set<String> andTags, Set<String> orTags, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		if(answeredLocally(readToken)){
+			return catalogReplica.findVideosByTags(andTags, orTags, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields);
+		}
+		
 		List<NameValuePair> parameters = new ArrayList<NameValuePair>();
 		
 		parameters.add(new BasicNameValuePair("command",        "find_videos_by_tags"));
@@ -1565,20 +2362,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Playlists FindAllPlaylists(String readToken, Integer pageSize, Integer pageNumber, SortByTypeEnum sortBy, SortOrderTypeEnum sortOrderType, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields, EnumSet<PlaylistFieldEnum> playlistFields) throws BrightcoveException {
-		try{
-			return _FindAllPlaylists(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields, playlistFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindAllPlaylists(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields, playlistFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindAllPlaylists")){
-					return FindAllPlaylists(readToken, pageSize, pageNumber, sortBy, sortOrderType, videoFields, customFields, playlistFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindAllPlaylists", attempts);
 			}
 		}
 	}
@@ -1646,20 +2436,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Playlist FindPlaylistById(String readToken, Long playlistId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields, EnumSet<PlaylistFieldEnum> playlistFields) throws BrightcoveException {
-		try{
-			return _FindPlaylistById(readToken, playlistId, videoFields, customFields, playlistFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
-			}
-			else{
-				if(exceptionHandler.handleException(be, "FindPlaylistById")){
-					return FindPlaylistById(readToken, playlistId, videoFields, customFields, playlistFields);
-				}
-				else{
-					throw be;
-				}
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindPlaylistById(readToken, playlistId, videoFields, customFields, playlistFields);
+			}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindPlaylistById", attempts);
 			}
 		}
 	}
@@ -1722,20 +2505,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Playlist FindPlaylistByReferenceId(String readToken, String referenceId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields, EnumSet<PlaylistFieldEnum> playlistFields) throws BrightcoveException {
-		try{
-			return _FindPlaylistByReferenceId(readToken, referenceId, videoFields, customFields, playlistFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindPlaylistByReferenceId(readToken, referenceId, videoFields, customFields, playlistFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindPlaylistByReferenceId")){
-					return FindPlaylistByReferenceId(readToken, referenceId, videoFields, customFields, playlistFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindPlaylistByReferenceId", attempts);
 			}
 		}
 	}
@@ -1798,20 +2574,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Playlists FindPlaylistsByIds(String readToken, Set<Long> playlistIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields, EnumSet<PlaylistFieldEnum> playlistFields) throws BrightcoveException {
-		try{
-			return _FindPlaylistsByIds(readToken, playlistIds, videoFields, customFields, playlistFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindPlaylistsByIds(readToken, playlistIds, videoFields, customFields, playlistFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindPlaylistsByIds")){
-					return FindPlaylistsByIds(readToken, playlistIds, videoFields, customFields, playlistFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindPlaylistsByIds", attempts);
 			}
 		}
 	}
@@ -1877,20 +2646,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Playlists FindPlaylistsByReferenceIds(String readToken, Set<String> referenceIds, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields, EnumSet<PlaylistFieldEnum> playlistFields) throws BrightcoveException {
-		try{
-			return _FindPlaylistsByReferenceIds(readToken, referenceIds, videoFields, customFields, playlistFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindPlaylistsByReferenceIds(readToken, referenceIds, videoFields, customFields, playlistFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindPlaylistsByReferenceIds")){
-					return FindPlaylistsByReferenceIds(readToken, referenceIds, videoFields, customFields, playlistFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindPlaylistsByReferenceIds", attempts);
 			}
 		}
 	}
@@ -1959,20 +2721,13 @@ public class ReadApi {
 	 * </ul>
 	 */
 	public Playlists FindPlaylistsForPlayerId(String readToken, String playerId, Integer pageSize, Integer pageNumber, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields, EnumSet<PlaylistFieldEnum> playlistFields) throws BrightcoveException {
-		try{
-			return _FindPlaylistsForPlayerId(readToken, playerId, pageSize, pageNumber, videoFields, customFields, playlistFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _FindPlaylistsForPlayerId(readToken, playerId, pageSize, pageNumber, videoFields, customFields, playlistFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "FindPlaylistsForPlayerId")){
-					return FindPlaylistsForPlayerId(readToken, playerId, pageSize, pageNumber, videoFields, customFields, playlistFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "FindPlaylistsForPlayerId", attempts);
 			}
 		}
 	}
@@ -2083,6 +2838,529 @@ public class ReadApi {
 		this.exceptionHandler = exceptionHandler;
 	}
 	
+	/**
+	 * <p>Sets the policy that decides whether, and after how long, a public
+	 *    method retries a call that failed.  If an exception handler is set
+	 *    too, a call is only retried when the handler asks for it and the
+	 *    policy allows it.  Set to null (the default) to leave retries to the
+	 *    exception handler alone, with no limit or delay.</p>
+	 * 
+	 * @param retryPolicy Retry policy, or null
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy){
+		this.retryPolicy = retryPolicy;
+	}
+	
+	/**
+	 * <p>Gets the policy failed calls are retried under, if any.</p>
+	 * 
+	 * @return Retry policy, or null
+	 */
+	public RetryPolicy getRetryPolicy(){
+		return retryPolicy;
+	}
+	
+	/**
+	 * <p>Starts tracking the attempts of a call to a public method.</p>
+	 * 
+	 * @return State of the call's attempts, or null if there is no retry policy
+	 */
+	private RetryPolicy.Attempts startAttempts(){
+		RetryPolicy policy = retryPolicy;
+		return (policy == null) ? null : policy.start();
+	}
+	
+	/**
+	 * <p>Called when an attempt of a public method fails.  Returns (after any
+	 *    backoff delay) if the exception handler and the retry policy agree the
+	 *    call should be attempted again, and throws the exception otherwise.</p>
+	 * 
+	 * @param be Exception the attempt failed with
+	 * @param methodName Name of the public method, passed to the exception handler
+	 * @param attempts State of the call's attempts (null if there was no retry policy when it started)
+	 * @throws BrightcoveException The exception provided, if the call shouldn't be retried
+	 */
+	private void retryOrThrow(BrightcoveException be, String methodName, RetryPolicy.Attempts attempts) throws BrightcoveException {
+		RetryPolicy policy = retryPolicy;
+		if(exceptionHandler != null){
+			if(!exceptionHandler.handleException(be, methodName)){
+				throw be;
+			}
+		}
+		else if((policy == null) || (attempts == null)){
+			throw be;
+		}
+		
+		if((policy != null) && (attempts != null)){
+			policy.beforeRetry(be, attempts);
+		}
+	}
+	
+	/**
+	 * <p><i><u>For advanced users...</u></i></p>
+	 * <p>Sets a loader used to batch concurrent FindVideoById calls into
+	 *    shared find_videos_by_ids calls.  Set to null (the default) to make
+	 *    one find_video_by_id call per lookup.</p>
+	 * 
+	 * @param videoBatchLoader Loader to route FindVideoById calls through
+	 */
+	public void setVideoBatchLoader(VideoBatchLoader videoBatchLoader){
+		this.videoBatchLoader = videoBatchLoader;
+	}
+	
+	/**
+	 * <p><i><u>For advanced users...</u></i></p>
+	 * <p>Gets the loader used to batch concurrent FindVideoById calls, if any.</p>
+	 * 
+	 * @return Loader FindVideoById calls are routed through, or null
+	 */
+	public VideoBatchLoader getVideoBatchLoader(){
+		return videoBatchLoader;
+	}
+	
+	/**
+	 * <p><i><u>For advanced users...</u></i></p>
+	 * <p>If true, identical requests made by different threads at the same
+	 *    time share a single call to the Media API and a single parsed
+	 *    response.  Only useful when one ReadApi instance is shared between
+	 *    threads (e.g. with a PooledHttpClientFactory).  Defaults to false.</p>
+	 * 
+	 * @param coalesceRequests Whether or not to share identical in-flight requests
+	 */
+	public void setCoalesceRequests(Boolean coalesceRequests){
+		if(coalesceRequests){
+			if(requestCoalescer == null){
+				requestCoalescer = new RequestCoalescer();
+			}
+		}
+		else{
+			requestCoalescer = null;
+		}
+	}
+	
+	/**
+	 * <p><i><u>For advanced users...</u></i></p>
+	 * <p>Gets whether identical in-flight requests share a single call to the Media API.</p>
+	 * 
+	 * @return Whether or not identical in-flight requests are shared
+	 */
+	public Boolean getCoalesceRequests(){
+		return (requestCoalescer != null);
+	}
+	
+	/**
+	 * <p>Sets a cache for responses from the Media API.  Every finder method
+	 *    reads through the cache, so repeated lookups within the cache's TTL
+	 *    don't go to the Media API.  Set to null (the default) to disable
+	 *    caching.</p>
+	 * 
+	 * <p>While caching, requests that limit the video or playlist fields
+	 *    returned also ask for the ids and reference ids (and a playlist's
+	 *    videoIds), so that writes made by either id invalidate them.  The
+	 *    extra fields are removed before the response is cached or returned.</p>
+	 * 
+	 * @param responseCache Cache to read responses through
+	 */
+	public void setResponseCache(ResponseCache responseCache){
+		this.responseCache = responseCache;
+	}
+	
+	/**
+	 * <p>Gets the cache responses from the Media API are read through, if any.
+	 *    Use this to read the cache's hit, miss and eviction counters.</p>
+	 * 
+	 * @return Response cache, or null
+	 */
+	public ResponseCache getResponseCache(){
+		return responseCache;
+	}
+	
+	/**
+	 * <p>Sets the circuit breakers calls to the Media API go through (the
+	 *    READ breaker for the call's token).  While a breaker is open, calls
+	 *    fail straight away with WrapperExceptionCode.CIRCUIT_OPEN - or return
+	 *    a stale response, if the response cache has one (see
+	 *    ResponseCache.setStaleIfErrorMillis).  Set to null (the default) to
+	 *    always call the Media API.</p>
+	 * 
+	 * @param circuitBreakers Circuit breakers, or null
+	 */
+	public void setCircuitBreakers(CircuitBreakerRegistry circuitBreakers){
+		this.circuitBreakers = circuitBreakers;
+	}
+	
+	/**
+	 * <p>Gets the circuit breakers calls to the Media API go through, if any.</p>
+	 * 
+	 * @return Circuit breakers, or null
+	 */
+	public CircuitBreakerRegistry getCircuitBreakers(){
+		return circuitBreakers;
+	}
+	
+	/**
+	 * <p>Sets the rate limiter every call to the Media API takes a READ
+	 *    permit from (for the call's token) first.  A call that doesn't get a
+	 *    permit in time fails with WrapperExceptionCode.RATE_LIMITED - or
+	 *    returns a stale response, if the response cache has one.  Set to null
+	 *    (the default) to not limit calls.</p>
+	 * 
+	 * @param rateLimiter Rate limiter, or null
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter){
+		this.rateLimiter = rateLimiter;
+	}
+	
+	/**
+	 * <p>Gets the rate limiter calls to the Media API take permits from, if any.</p>
+	 * 
+	 * @return Rate limiter, or null
+	 */
+	public RateLimiter getRateLimiter(){
+		return rateLimiter;
+	}
+	
+	/**
+	 * <p>Sets the limiter that adapts how many calls to the Read API can be
+	 *    in flight at the same time.  Calls over the limit wait for room, and
+	 *    fail with WrapperExceptionCode.CONCURRENCY_LIMITED (or return a stale
+	 *    response, if the response cache has one) if there is none in time.
+	 *    Use a different limiter for a WriteApi.  Set to null (the default) to
+	 *    not limit calls.</p>
+	 * 
+	 * @param concurrencyLimiter Concurrency limiter, or null
+	 */
+	public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter){
+		this.concurrencyLimiter = concurrencyLimiter;
+	}
+	
+	/**
+	 * <p>Gets the limiter on calls in flight to the Read API, if any.</p>
+	 * 
+	 * @return Concurrency limiter, or null
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter(){
+		return concurrencyLimiter;
+	}
+	
+	/**
+	 * <p>Sets the policy used to hedge requests to the Read API: a request
+	 *    that hasn't returned after a percentile of recent latencies is sent
+	 *    again, and the first response is used.  A hedge needs its own rate
+	 *    limiter permit and room in the concurrency limiter, and isn't sent
+	 *    if either isn't available straight away; the circuit breaker counts
+	 *    the hedged call once.  Set to null (the default) to not hedge
+	 *    requests.</p>
+	 * 
+	 * @param hedgingPolicy Hedging policy, or null
+	 */
+	public void setHedgingPolicy(HedgingPolicy hedgingPolicy){
+		this.hedgingPolicy = hedgingPolicy;
+	}
+	
+	/**
+	 * <p>Gets the policy used to hedge requests to the Read API, if any.</p>
+	 * 
+	 * @return Hedging policy, or null
+	 */
+	public HedgingPolicy getHedgingPolicy(){
+		return hedgingPolicy;
+	}
+	
+	/**
+	 * <p>Sets how long to stop waiting on the Media API after a request fails
+	 *    with a transport error (see WrapperExceptionCode.isTransportError) or
+	 *    a Media API timeout.  For this long afterwards requests
+	 *    with a last known good response in the response cache (see
+	 *    ResponseCache.setStaleIfErrorMillis) return it straight away, and
+	 *    only requests without one go to the Media API.  Any successful
+	 *    request ends this early.  Like the circuit breakers, this is kept
+	 *    per token unless the breakers are shared between tokens.  Defaults to 5 seconds; set to null or 0 to
+	 *    always try the Media API first.</p>
+	 * 
+	 * @param staleShortCircuitMillis Short circuit time in milliseconds, or null
+	 */
+	public void setStaleShortCircuitMillis(Long staleShortCircuitMillis){
+		this.staleShortCircuitMillis = staleShortCircuitMillis;
+	}
+	
+	/**
+	 * <p>Gets how long to stop waiting on the Media API after a transport error.</p>
+	 * 
+	 * @return Short circuit time in milliseconds, or null
+	 */
+	public Long getStaleShortCircuitMillis(){
+		return staleShortCircuitMillis;
+	}
+	
+	/**
+	 * <p>Sets where the calls made on this thread record stale responses,
+	 *    until it is set back.  Requests that Bulk methods, the video batch
+	 *    loader and AsyncReadApi make on other threads for these calls are
+	 *    recorded in it too.  Set to null (the default) to stop recording.</p>
+	 * 
+	 * @param staleness Collector for stale responses, or null
+	 * @return Collector that was set on this thread before, or null (so it can be set back)
+	 */
+	public ResponseStaleness setResponseStaleness(ResponseStaleness staleness){
+		ResponseStaleness previous = responseStaleness.get();
+		if(staleness == null){
+			responseStaleness.remove();
+		}
+		else{
+			responseStaleness.set(staleness);
+		}
+		return previous;
+	}
+	
+	/**
+	 * <p>Gets where the calls made on this thread record stale responses.</p>
+	 * 
+	 * @return Collector for stale responses, or null
+	 */
+	public ResponseStaleness getResponseStaleness(){
+		return responseStaleness.get();
+	}
+	
+	/**
+	 * <p>Sets a cache that keeps one copy of each video found by id, with
+	 *    the union of the video and custom fields requested for it.
+	 *    FindVideoById, FindVideoByIdOrNull and their Unfiltered versions
+	 *    then answer any request for fields already held locally, and fetch
+	 *    only the missing fields otherwise.  These calls bypass the response
+	 *    cache and the video batch loader while it is set.  Set to null (the
+	 *    default) to disable it.</p>
+	 * 
+	 * @param videoFieldCache Cache to read single videos through
+	 */
+	public void setVideoFieldCache(VideoFieldCache videoFieldCache){
+		this.videoFieldCache = videoFieldCache;
+	}
+	
+	/**
+	 * <p>Gets the cache single videos are read through, if any.</p>
+	 * 
+	 * @return Video field cache, or null
+	 */
+	public VideoFieldCache getVideoFieldCache(){
+		return videoFieldCache;
+	}
+	
+	/**
+	 * <p>Sets a local replica of the catalog to answer FindVideoById,
+	 *    FindVideoByReferenceId, FindVideosByIds, FindVideosByTags,
+	 *    SearchVideos and FindVideosByText from, for calls made with the
+	 *    replica's read token once it has been synced.  Set to null (the
+	 *    default) to always call the Media API.</p>
+	 * 
+	 * @param catalogReplica Replica to answer queries from
+	 */
+	public void setCatalogReplica(CatalogReplica catalogReplica){
+		this.catalogReplica = catalogReplica;
+	}
+	
+	/**
+	 * <p>Gets the local replica of the catalog queries are answered from, if any.</p>
+	 * 
+	 * @return Catalog replica, or null
+	 */
+	public CatalogReplica getCatalogReplica(){
+		return catalogReplica;
+	}
+	
+	/**
+	 * <p>Sets the maximum number of ids sent in each request made by the Bulk finder methods.  Defaults to 50.</p>
+	 * 
+	 * @param bulkChunkSize Maximum number of ids per request
+	 */
+	public void setBulkChunkSize(Integer bulkChunkSize){
+		this.bulkChunkSize = bulkChunkSize;
+	}
+	
+	/**
+	 * <p>Gets the maximum number of ids sent in each request made by the Bulk finder methods.</p>
+	 * 
+	 * @return Maximum number of ids per request
+	 */
+	public Integer getBulkChunkSize(){
+		return bulkChunkSize;
+	}
+	
+	/**
+	 * <p>Sets the maximum length (in characters, before URL encoding) of the comma separated id list sent in each request made by
+	 *    the Bulk finder methods, to keep request URLs within server limits.  Defaults to 2000.</p>
+	 * 
+	 * @param bulkChunkLength Maximum length of the id list per request
+	 */
+	public void setBulkChunkLength(Integer bulkChunkLength){
+		this.bulkChunkLength = bulkChunkLength;
+	}
+	
+	/**
+	 * <p>Gets the maximum length of the comma separated id list sent in each request made by the Bulk finder methods.</p>
+	 * 
+	 * @return Maximum length of the id list per request
+	 */
+	public Integer getBulkChunkLength(){
+		return bulkChunkLength;
+	}
+	
+	/**
+	 * <p>Sets the maximum number of requests a single call to a Bulk finder method makes at the same time.  Defaults to 4.</p>
+	 * 
+	 * @param bulkParallelism Maximum number of concurrent requests per Bulk call
+	 */
+	public void setBulkParallelism(Integer bulkParallelism){
+		this.bulkParallelism = bulkParallelism;
+	}
+	
+	/**
+	 * <p>Gets the maximum number of requests a single call to a Bulk finder method makes at the same time.</p>
+	 * 
+	 * @return Maximum number of concurrent requests per Bulk call
+	 */
+	public Integer getBulkParallelism(){
+		return bulkParallelism;
+	}
+	
+	/**
+	 * <p>Sets the executor the Bulk finder methods run their requests on.  Set to null (the default) to have each Bulk call
+	 *    create (and shut down) its own threads.  The executor is owned by the caller.</p>
+	 * 
+	 * @param bulkExecutor Executor to run Bulk requests on
+	 */
+	public void setBulkExecutor(Executor bulkExecutor){
+		this.bulkExecutor = bulkExecutor;
+	}
+	
+	/**
+	 * <p>Splits a list of ids into chunks, issues one command per chunk (concurrently) and merges the "items" of the responses in order.</p>
+	 * 
+	 * @param command Media API command to issue for each chunk
+	 * @param idsParameter Name of the parameter holding the comma separated ids
+	 * @param readToken Read Media API token for the account
+	 * @param ids Ids to look up, in the order the results should be returned
+	 * @param videoFields Set of video fields to populate on the returned Video objects
+	 * @param customFields Set of custom fields to populate on the returned Video objects
+	 * @return Merged list of videos
+	 * @throws BrightcoveException If any chunk fails, or the merged response can't be parsed
+	 */
+	private Videos executeBulkCommand(String command, String idsParameter, String readToken, List<String> ids, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		String videoFieldsString  = CollectionUtils.JoinToString((Set<?>)videoFields, ",");
+		String customFieldsString = CollectionUtils.JoinToString((Set<?>)customFields, ",");
+		
+		List<List<NameValuePair>> requests = new ArrayList<List<NameValuePair>>();
+		for(String chunk : ChunkIds(ids)){
+			List<NameValuePair> parameters = new ArrayList<NameValuePair>();
+			
+			parameters.add(new BasicNameValuePair("command",    command));
+			parameters.add(new BasicNameValuePair("token",      readToken));
+			parameters.add(new BasicNameValuePair(idsParameter, chunk));
+			
+			if(!("".equals(videoFieldsString))){
+				parameters.add(new BasicNameValuePair("video_fields", videoFieldsString));
+			}
+			if(!("".equals(customFieldsString))){
+				parameters.add(new BasicNameValuePair("custom_fields", customFieldsString));
+			}
+			
+			requests.add(parameters);
+		}
+		
+		List<JSONObject> responses = executeCommands(requests);
+		
+		Videos ret = null;
+		try{
+			JSONArray items = new JSONArray();
+			for(JSONObject response : responses){
+				if(response == null){
+					throw new WrapperException(WrapperExceptionCode.MAPI_UNKNOWN_NULL, "Couldn't find videos.");
+				}
+				
+				JSONArray chunkItems = response.optJSONArray("items");
+				if(chunkItems != null){
+					for(int i=0;i<chunkItems.length();i++){
+						items.put(chunkItems.get(i));
+					}
+				}
+			}
+			
+			JSONObject merged = new JSONObject();
+			merged.put("items",       items);
+			merged.put("page_number", 0);
+			merged.put("page_size",   items.length());
+			merged.put("total_count", items.length());
+			
+			ret = new Videos(merged);
+		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_VIDEOS, "Couldn't parse video list from JSON.  Exception caught: '" + jsone + "'.");
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * <p>Joins ids into comma separated chunks, each with no more than BulkChunkSize ids and (where possible) no more than BulkChunkLength characters.</p>
+	 * 
+	 * @param ids Ids to chunk
+	 * @return Comma separated chunks, in order
+	 */
+	private List<String> ChunkIds(List<String> ids){
+		List<String>  chunks = new ArrayList<String>();
+		StringBuilder chunk  = new StringBuilder();
+		Integer       count  = 0;
+		
+		for(String id : ids){
+			if((count > 0) && ((count >= bulkChunkSize) || (chunk.length() + 1 + id.length() > bulkChunkLength))){
+				chunks.add(chunk.toString());
+				chunk.setLength(0);
+				count = 0;
+			}
+			
+			if(count > 0){
+				chunk.append(",");
+			}
+			chunk.append(id);
+			count++;
+		}
+		if(count > 0){
+			chunks.add(chunk.toString());
+		}
+		
+		return chunks;
+	}
+	
+	/**
+	 * <p>Issues several commands, at most BulkParallelism at a time, and returns their responses in the same order.</p>
+	 * 
+	 * <p>Commands are run on the bulk executor if one has been set, otherwise on temporary threads created for this call.  If any
+	 *    command fails, commands that haven't started yet are skipped and the first failure is thrown.</p>
+	 * 
+	 * @param requests Parameters for each command
+	 * @return Response to each command, in the same order as the requests
+	 * @throws BrightcoveException If any command fails
+	 */
+	private List<JSONObject> executeCommands(final List<List<NameValuePair>> requests) throws BrightcoveException {
+		final JSONObject[]      responses = new JSONObject[requests.size()];
+		final ResponseStaleness staleness = responseStaleness.get();
+		
+		ParallelRunner runner = new ParallelRunner(bulkExecutor, bulkParallelism, "mapi-bulk-read");
+		runner.run(requests.size(), new ParallelRunner.Task(){
+			public void run(Integer index) throws BrightcoveException {
+				// Stale responses count towards the caller's ResponseStaleness, whichever thread runs the command
+				ResponseStaleness previous = setResponseStaleness(staleness);
+				try{
+					responses[index] = executeCommand(requests.get(index));
+				}
+				finally{
+					setResponseStaleness(previous);
+				}
+			}
+		});
+		
+		return Arrays.asList(responses);
+	}
 	
 	private void addPageSizeParameter(List<NameValuePair> parameters, Integer pageSize) throws WrapperException {
 		if(pageSize == null){
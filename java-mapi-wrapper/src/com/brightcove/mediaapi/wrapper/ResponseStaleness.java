@@ -0,0 +1,97 @@
+package com.brightcove.mediaapi.wrapper;
+
+/**
+ * <p>
+ *    Collects how stale the responses to a set of Read API calls were.  A
+ *    response is stale if it came from the response cache after its TTL had
+ *    passed - either within the cache's maximum staleness, or because the
+ *    Media API was failing.
+ * </p>
+ *
+ * <p>
+ *    Set one on a ReadApi around the calls to check.  Every Media API
+ *    request those calls make is counted, including the pages of a
+ *    multi-page call, the requests a Bulk method makes on other threads,
+ *    batched lookups (see VideoBatchLoader) and calls made through an
+ *    AsyncReadApi while it is set:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;ResponseStaleness staleness = new ResponseStaleness();<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;ResponseStaleness previous  = readApi.setResponseStaleness(staleness);<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;try{ videos = readApi.FindVideosByIdsBulk(...); }<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;finally{ readApi.setResponseStaleness(previous); }<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;if(staleness.isStale()){ ... }
+ * </p>
+ */
+public class ResponseStaleness {
+	private Integer staleCount;
+	private Long    maxStalenessMillis;
+
+	/**
+	 * <p>Creates a collector that hasn't seen a stale response yet.</p>
+	 */
+	public ResponseStaleness(){
+		staleCount         = 0;
+		maxStalenessMillis = null;
+	}
+
+	/**
+	 * <p>Records a stale response.</p>
+	 *
+	 * @param stalenessMillis Milliseconds since the response expired
+	 */
+	synchronized void record(Long stalenessMillis){
+		staleCount++;
+		if((maxStalenessMillis == null) || (stalenessMillis > maxStalenessMillis)){
+			maxStalenessMillis = stalenessMillis;
+		}
+	}
+
+	/**
+	 * <p>Adds the stale responses recorded by another collector.</p>
+	 *
+	 * @param other Collector to add
+	 */
+	void add(ResponseStaleness other){
+		Integer count;
+		Long    max;
+		synchronized(other){
+			count = other.staleCount;
+			max   = other.maxStalenessMillis;
+		}
+		if(max == null){
+			return;
+		}
+		synchronized(this){
+			staleCount += count;
+			if((maxStalenessMillis == null) || (max > maxStalenessMillis)){
+				maxStalenessMillis = max;
+			}
+		}
+	}
+
+	/**
+	 * <p>Checks whether any response was stale.</p>
+	 *
+	 * @return True if at least one response was stale
+	 */
+	public synchronized Boolean isStale(){
+		return (staleCount > 0);
+	}
+
+	/**
+	 * <p>Gets the number of stale responses.</p>
+	 *
+	 * @return Number of stale responses
+	 */
+	public synchronized Integer getStaleCount(){
+		return staleCount;
+	}
+
+	/**
+	 * <p>Gets how stale the stalest response was.</p>
+	 *
+	 * @return Milliseconds since the stalest response expired, or null if every response was fresh
+	 */
+	public synchronized Long getMaxStalenessMillis(){
+		return maxStalenessMillis;
+	}
+}
@@ -0,0 +1,295 @@
+package com.brightcove.mediaapi.wrapper;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.commons.collection.CollectionUtils;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Collects single video lookups made by concurrent threads into batched
+ *    find_videos_by_ids calls.
+ * </p>
+ *
+ * <p>
+ *    The first thread to ask for a video with a given read token, video
+ *    field set and custom field set opens a batch and waits for a short
+ *    window.  Any other thread asking for a video with the same token and
+ *    fields during that window joins the batch.  When the window expires (or
+ *    the batch is full) one find_videos_by_ids call is made and every waiting
+ *    thread is handed its own Video.
+ * </p>
+ *
+ * <p>
+ *    Once set on a ReadApi, FindVideoById uses the loader automatically:<br/>
+ *    &nbsp;&nbsp;&nbsp;&nbsp;readApi.setVideoBatchLoader(new VideoBatchLoader(readApi));
+ * </p>
+ *
+ * <p>
+ *    Each lookup is delayed by up to the batch window, so this is only worth
+ *    enabling when many threads look up videos at the same time.
+ * </p>
+ */
+public class VideoBatchLoader {
+	private ReadApi readApi;
+	private Long    windowMillis;
+	private Integer maxBatchSize;
+
+	private final Map<String, Batch> openBatches;
+
+	public static final Long    DEFAULT_WINDOW_MILLIS  = 5l;
+	public static final Integer DEFAULT_MAX_BATCH_SIZE = 50;
+
+	/**
+	 * <p>
+	 *    Creates a batch loader with the default window and batch size.
+	 * </p>
+	 *
+	 * @param readApi ReadApi used to make the batched find_videos_by_ids calls
+	 */
+	public VideoBatchLoader(ReadApi readApi){
+		this(readApi, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+	}
+
+	/**
+	 * <p>
+	 *    Creates a batch loader with the specified window and batch size.
+	 * </p>
+	 *
+	 * @param readApi ReadApi used to make the batched find_videos_by_ids calls
+	 * @param windowMillis How long the first lookup in a batch waits for others to join it
+	 * @param maxBatchSize Maximum number of video ids sent in a single call (the Media API allows 50)
+	 */
+	public VideoBatchLoader(ReadApi readApi, Long windowMillis, Integer maxBatchSize){
+		this.readApi      = readApi;
+		this.windowMillis = windowMillis;
+		this.maxBatchSize = maxBatchSize;
+
+		openBatches = new HashMap<String, Batch>();
+	}
+
+	/**
+	 * <p>
+	 *    Looks up a single video, sharing a find_videos_by_ids call with any
+	 *    other lookups for the same token and fields made within the window.
+	 * </p>
+	 *
+	 * @param readToken Read Media API token for the account
+	 * @param videoId Brightcove id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object matching criteria
+	 * @throws BrightcoveException If the batched request fails, or the video can not be found
+	 */
+	public Video load(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		Video ret = loadOrNull(readToken, videoId, videoFields, customFields);
+		if(ret == null){
+			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_FOUND, "Couldn't find video by Brightcove Id '" + videoId + "'.");
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>
+	 *    Same as load, except that if the video can't be found null is
+	 *    returned instead of an exception being thrown.
+	 * </p>
+	 *
+	 * @param readToken Read Media API token for the account
+	 * @param videoId Brightcove id for the video to look for
+	 * @param videoFields Set of video fields to populate on the returned Video object
+	 * @param customFields Set of custom fields to populate on the returned Video object
+	 * @return Video object matching criteria, or null if the video can't be found
+	 * @throws BrightcoveException If the batched request fails
+	 */
+	public Video loadOrNull(String readToken, Long videoId, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields) throws BrightcoveException {
+		String  key    = readToken + "|" + CollectionUtils.JoinToString((Set<?>)videoFields, ",") + "|" + CollectionUtils.JoinToString((Set<?>)customFields, ",");
+		Batch   batch  = null;
+		Boolean leader = false;
+
+		synchronized(openBatches){
+			batch = openBatches.get(key);
+			if(batch == null){
+				batch = new Batch(readToken, videoFields, customFields);
+				openBatches.put(key, batch);
+				leader = true;
+			}
+
+			batch.videoIds.add(videoId);
+			if(batch.videoIds.size() >= maxBatchSize){
+				// No one else may join - wake the leader up early
+				openBatches.remove(key);
+				batch.full.countDown();
+			}
+		}
+
+		if(leader){
+			try{
+				batch.full.await(windowMillis, TimeUnit.MILLISECONDS);
+			}
+			catch(InterruptedException ie){
+				Thread.currentThread().interrupt();
+			}
+
+			synchronized(openBatches){
+				if(openBatches.get(key) == batch){
+					openBatches.remove(key);
+				}
+			}
+
+			batch.execute();
+		}
+		else{
+			batch.await();
+		}
+
+		// Every caller in the batch was answered by the same requests
+		ResponseStaleness staleness = readApi.getResponseStaleness();
+		if(staleness != null){
+			staleness.add(batch.staleness);
+		}
+
+		return batch.getVideo(videoId);
+	}
+
+	/**
+	 * <p>Gets how long the first lookup in a batch waits for others to join it.</p>
+	 *
+	 * @return Batch window in milliseconds
+	 */
+	public Long getWindowMillis(){
+		return windowMillis;
+	}
+
+	/**
+	 * <p>Sets how long the first lookup in a batch waits for others to join it.</p>
+	 *
+	 * @param windowMillis Batch window in milliseconds
+	 */
+	public void setWindowMillis(Long windowMillis){
+		this.windowMillis = windowMillis;
+	}
+
+	/**
+	 * <p>Gets the maximum number of video ids sent in a single call.</p>
+	 *
+	 * @return Maximum batch size
+	 */
+	public Integer getMaxBatchSize(){
+		return maxBatchSize;
+	}
+
+	/**
+	 * <p>Sets the maximum number of video ids sent in a single call.</p>
+	 *
+	 * @param maxBatchSize Maximum batch size
+	 */
+	public void setMaxBatchSize(Integer maxBatchSize){
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * <p>A set of video ids (all with the same token and fields) that will be requested together.</p>
+	 */
+	private class Batch {
+		private final String                  readToken;
+		private final EnumSet<VideoFieldEnum> videoFields;
+		private final Set<String>             customFields;
+
+		// Only modified while the batch is open (guarded by openBatches)
+		private final Set<Long> videoIds = new LinkedHashSet<Long>();
+
+		private final CountDownLatch full = new CountDownLatch(1);
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private final ResponseStaleness staleness = new ResponseStaleness();
+
+		private Map<Long, Video>   videos;
+		private BrightcoveException error;
+
+		public Batch(String readToken, EnumSet<VideoFieldEnum> videoFields, Set<String> customFields){
+			this.readToken    = readToken;
+			this.videoFields  = videoFields;
+			this.customFields = customFields;
+		}
+
+		/**
+		 * <p>Makes the find_videos_by_ids call and releases the waiting threads.</p>
+		 */
+		public void execute(){
+			ResponseStaleness previous = readApi.setResponseStaleness(staleness);
+			try{
+				// The id is needed to hand each video back to the right caller
+				EnumSet<VideoFieldEnum> requestFields = videoFields;
+				if((videoFields != null) && (!videoFields.isEmpty()) && (!videoFields.contains(VideoFieldEnum.ID))){
+					requestFields = EnumSet.copyOf(videoFields);
+					requestFields.add(VideoFieldEnum.ID);
+				}
+
+				Videos found = readApi.FindVideosByIds(readToken, videoIds, requestFields, customFields);
+
+				Map<Long, Video> byId = new HashMap<Long, Video>();
+				if(found != null){
+					for(Video video : found){
+						if((video != null) && (video.getId() != null)){
+							byId.put(video.getId(), video);
+						}
+					}
+				}
+				videos = byId;
+			}
+			catch(BrightcoveException be){
+				error = be;
+			}
+			finally{
+				readApi.setResponseStaleness(previous);
+				done.countDown();
+			}
+		}
+
+		/**
+		 * <p>Waits for the leader of the batch to finish the call.</p>
+		 *
+		 * @throws BrightcoveException If the thread is interrupted while waiting
+		 */
+		public void await() throws BrightcoveException {
+			try{
+				done.await();
+			}
+			catch(InterruptedException ie){
+				Thread.currentThread().interrupt();
+				throw new WrapperException(WrapperExceptionCode.BATCH_REQUEST_INTERRUPTED, "Interrupted while waiting for batched video lookup.");
+			}
+		}
+
+		/**
+		 * <p>Gets one caller's video from the completed batch.</p>
+		 *
+		 * @param videoId Brightcove id for the video
+		 * @return Video object with the id given, or null if it wasn't returned
+		 * @throws BrightcoveException If the batched call failed
+		 */
+		public Video getVideo(Long videoId) throws BrightcoveException {
+			if(error != null){
+				throw error;
+			}
+			if(videos == null){
+				// The leader failed with an unexpected (runtime) exception
+				throw new WrapperException(WrapperExceptionCode.MAPI_UNKNOWN_NULL, "Batched lookup for video '" + videoId + "' failed.");
+			}
+
+			return videos.get(videoId);
+		}
+	}
+}
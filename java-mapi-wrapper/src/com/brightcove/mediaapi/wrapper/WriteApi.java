@@ -12,8 +12,12 @@ import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import org.apache.http.HttpEntity;
@@ -27,6 +31,7 @@ import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
+import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -39,13 +44,20 @@ import com.brightcove.commons.catalog.objects.enumerations.UploadStatusEnum;
 import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
 import com.brightcove.commons.http.DefaultHttpClientFactory;
 import com.brightcove.commons.http.HttpClientFactory;
-import com.brightcove.commons.http.HttpUtils;
 import com.brightcove.commons.misc.nvpair.BcHttpParams;
+import com.brightcove.mediaapi.cache.InvalidationBus;
 import com.brightcove.mediaapi.exceptions.BrightcoveException;
 import com.brightcove.mediaapi.exceptions.BrightcoveExceptionHandler;
 import com.brightcove.mediaapi.exceptions.MediaApiException;
+import com.brightcove.mediaapi.exceptions.RetryPolicy;
 import com.brightcove.mediaapi.exceptions.WrapperException;
 import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+import com.brightcove.mediaapi.http.AdaptiveConcurrencyLimiter;
+import com.brightcove.mediaapi.http.CircuitBreaker;
+import com.brightcove.mediaapi.http.CircuitBreakerRegistry;
+import com.brightcove.mediaapi.http.JsonEntityParser;
+import com.brightcove.mediaapi.http.RateLimiter;
+import com.brightcove.mediaapi.http.ReleasableHttpClientFactory;
 
 /**
  * <p>
@@ -96,6 +108,16 @@ public class WriteApi {
 	private static final String  WRITE_API_DEFAULT_PATH   = "/services/post";
 	
 	private BrightcoveExceptionHandler exceptionHandler;
+	private RetryPolicy                retryPolicy;
+	
+	private InvalidationBus invalidationBus;
+	
+	private CircuitBreakerRegistry     circuitBreakers;
+	private RateLimiter                rateLimiter;
+	private AdaptiveConcurrencyLimiter concurrencyLimiter;
+	
+	// Methods that may be applied twice if an attempt that reached the Media API is repeated
+	private static final Set<String> NON_IDEMPOTENT_METHODS = new HashSet<String>(Arrays.asList("CreateVideo", "AddImage", "ShareVideo", "CreatePlaylist"));
 	
 	/**
 	 * <p>Default constructor</p>
@@ -172,6 +194,11 @@ public class WriteApi {
 		clientFactory = new DefaultHttpClientFactory();
 		
 		exceptionHandler = null;
+		retryPolicy      = null;
+		invalidationBus  = null;
+		circuitBreakers  = null;
+		rateLimiter      = null;
+		concurrencyLimiter = null;
 	}
 	
 	/**
@@ -192,6 +219,8 @@ public class WriteApi {
 	/**
 	 * <p>Overrides the standard factory used to create HTTPClients to connect to the Write API Server.</p>
 	 * 
+	 * <p>Use a PooledHttpClientFactory to reuse keep-alive connections between calls.  With a pooled factory a single WriteApi instance can be shared by all request threads.</p>
+	 * 
 	 * @param clientFactory HttpClientFactory to use to generate HttpClient objects
 	 */
 	public void OverrideHttpClientFactory(HttpClientFactory clientFactory){
@@ -199,7 +228,7 @@ public class WriteApi {
 	}
 	
 	/**
-	 * <p>Issues the command JSON to the Media API and returns the response as a String</p>
+	 * <p>Issues the command JSON to the Media API (once the rate limiter and the concurrency limiter allow it, and through the Write API circuit breaker for the token, if there are circuit breakers) and returns the response as a String</p>
 	 * 
 	 * @param json JSON object to pass to the Media API
 	 * @return Response from server in the form of a JSON Object
@@ -213,6 +242,63 @@ public class WriteApi {
 	 * </ul>
 	 */
 	private JSONObject executeCommand(JSONObject json, File file) throws BrightcoveException {
+		if((circuitBreakers == null) && (rateLimiter == null) && (concurrencyLimiter == null)){
+			return executeRequest(json, file);
+		}
+		
+		JSONObject params = json.optJSONObject("params");
+		String     token  = (params == null) ? null : params.optString("token", null);
+		
+		if(rateLimiter != null){
+			rateLimiter.permit(token, (file == null) ? RateLimiter.CommandClass.WRITE : RateLimiter.CommandClass.UPLOAD);
+		}
+		AdaptiveConcurrencyLimiter limiter = concurrencyLimiter;
+		if(limiter != null){
+			limiter.acquire();
+		}
+		
+		CircuitBreaker breaker  = null;
+		Long           admitted = null;
+		Long           start    = null;
+		Boolean        failed   = true;
+		try{
+			if(circuitBreakers != null){
+				breaker = circuitBreakers.get(CircuitBreakerRegistry.WRITE, token);
+				admitted = breaker.acquire();
+			}
+			
+			start = System.nanoTime();
+			JSONObject response = executeRequest(json, file);
+			failed = false;
+			return response;
+		}
+		catch(BrightcoveException be){
+			failed = CircuitBreaker.isFailure(be);
+			throw be;
+		}
+		finally{
+			// No timing if the circuit breaker didn't let the call through
+			Long elapsed = (start == null) ? null : System.nanoTime() - start;
+			if((breaker != null) && (elapsed != null)){
+				// An upload takes as long as its file does, so it is never counted as slow
+				breaker.record(admitted, failed, (file == null) ? TimeUnit.NANOSECONDS.toMillis(elapsed) : null);
+			}
+			if(limiter != null){
+				// Only a failed upload says anything about the Media API
+				limiter.release(elapsed, failed, (file == null) ? json.optString("method", AdaptiveConcurrencyLimiter.DEFAULT_LATENCY_CLASS) : null);
+			}
+		}
+	}
+	
+	/**
+	 * <p>Makes a request to the Write Media API</p>
+	 * 
+	 * @param json JSON object to pass to the Media API
+	 * @param file File to upload with the request (may be null)
+	 * @return Response from server in the form of a JSON Object
+	 * @throws BrightcoveException If the request fails, or the Media API reports an error
+	 */
+	private JSONObject executeRequest(JSONObject json, File file) throws BrightcoveException {
 		if(log != null){
 			log.info("JSON Command to execute: '" + json + "'.");
 			
@@ -254,53 +340,58 @@ public class WriteApi {
 		method.setEntity(entityIn);
 		
 		HttpResponse response = null;
-		String       buffer;
+		JSONObject   jsonObj  = null;
 		try{
 			HttpClient httpAgent = clientFactory.getHttpClient();
-			response = httpAgent.execute(method);
-			
-			// Make sure the HTTP communication was OK (not the same as an error in the Media API reponse)
-			Integer statusCode = response.getStatusLine().getStatusCode();
-			if(statusCode != 200){
-				httpAgent.getConnectionManager().shutdown();
-				throw new WrapperException(WrapperExceptionCode.HTTP_ERROR_RESPONSE_CODE, "Response code from HTTP server: '" + statusCode + "'");
+			try{
+				response = httpAgent.execute(method);
+				
+				// Make sure the HTTP communication was OK (not the same as an error in the Media API reponse)
+				Integer statusCode = response.getStatusLine().getStatusCode();
+				if(statusCode != 200){
+					// Drain the body so a pooled connection can be reused
+					EntityUtils.consume(response.getEntity());
+					throw new WrapperException(WrapperExceptionCode.HTTP_ERROR_RESPONSE_CODE, "Response code from HTTP server: '" + statusCode + "'");
+				}
+				
+				// Parse the JSON tree from the response stream, without
+				// copying the whole body into a String first
+				HttpEntity entity = response.getEntity();
+				jsonObj = JsonEntityParser.parse(entity, charSet);
+			}
+			finally{
+				releaseHttpClient(httpAgent);
 			}
-			
-			// Parse the response
-			HttpEntity entity = response.getEntity();
-			buffer = HttpUtils.parseHttpEntity(entity);
-			httpAgent.getConnectionManager().shutdown();
 		}
 		catch(ClientProtocolException cpe){
+			method.abort();
 			throw new WrapperException(WrapperExceptionCode.CLIENT_PROTOCOL_EXCEPTION, "Exception: '" + cpe + "'");
 		}
+		catch(JSONException jsone){
+			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_RESPONSE, "JSON Exception: '" + jsone + "'");
+		}
 		catch (IllegalStateException ise) {
 			throw new WrapperException(WrapperExceptionCode.MAPI_ILLEGAL_STATE_RESPONSE, "Exception: '" + ise + "'");
 		}
 		catch (IOException ioe) {
-			throw new WrapperException(WrapperExceptionCode.MAPI_IO_EXCEPTION, "Exception: '" + ioe + "'");
+			method.abort();
+			// Keep the cause, so a retry can tell a failure to connect from one after the request was sent
+			WrapperException we = new WrapperException(WrapperExceptionCode.MAPI_IO_EXCEPTION, "Exception: '" + ioe + "'");
+			we.initCause(ioe);
+			throw we;
 		}
 		
 		if(log != null){
-			log.info("Raw response from server: '" + buffer + "'.");
+			log.info("Response from server: '" + jsonObj + "'.");
 		}
 		
 		// Certain responses from the cache don't really return useful
 		// JSON - e.g. an invalid reference id in a find_video_by_reference_id
 		// will simply return the string "null"
-		if("null".equals(buffer)){
+		if(jsonObj == null){
 			return null;
 		}
 		
-		// Parse JSON
-		JSONObject jsonObj = null;
-		try{
-			jsonObj = new JSONObject(buffer);
-		}
-		catch(JSONException jsone){
-			throw new WrapperException(WrapperExceptionCode.MAPI_UNPARSABLE_RESPONSE, "JSON Exception: '" + jsone + "'");
-		}
-		
 		// Try to see if there was an error
 		MediaApiException mapie  = new MediaApiException(jsonObj);
 		if((mapie != null) && (mapie.getResponseCode() != null)){
@@ -310,6 +401,22 @@ public class WriteApi {
 		return jsonObj;
 	}
 	
+	/**
+	 * <p>Releases an HttpClient obtained from the client factory once a request is finished with it.</p>
+	 * 
+	 * <p>A ReleasableHttpClientFactory (e.g. a PooledHttpClientFactory) decides what happens to its clients - any other client is shut down.</p>
+	 * 
+	 * @param httpAgent HttpClient used to make the request
+	 */
+	private void releaseHttpClient(HttpClient httpAgent){
+		if(clientFactory instanceof ReleasableHttpClientFactory){
+			((ReleasableHttpClientFactory)clientFactory).release(httpAgent);
+		}
+		else{
+			httpAgent.getConnectionManager().shutdown();
+		}
+	}
+	
 	// --------------------- Video Write API Methods --------------------------
 	
 	/**
@@ -331,20 +438,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public Long CreateVideo(String writeToken, Video video, String filename, EncodeToEnum encodeTo, Boolean createMultipleRenditions, Boolean preserveSourceRendition, Boolean h264NoProcessing) throws BrightcoveException {
-		try{
-			return _CreateVideo(writeToken, video, filename, encodeTo, createMultipleRenditions, preserveSourceRendition, h264NoProcessing);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _CreateVideo(writeToken, video, filename, encodeTo, createMultipleRenditions, preserveSourceRendition, h264NoProcessing);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "CreateVideo")){
-					return CreateVideo(writeToken, video, filename, encodeTo, createMultipleRenditions, preserveSourceRendition, h264NoProcessing);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "CreateVideo", attempts);
 			}
 		}
 	}
@@ -453,6 +553,10 @@ public class WriteApi {
 		
 		try{
 			Long result = response.getLong("result");
+			
+			// Drops any cached "not found" for the new video's reference id
+			videoChanged(result, video.getReferenceId());
+			
 			return result;
 		}
 		catch(JSONException jsone){
@@ -478,20 +582,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public Image AddImage(String writeToken, Image image, String filename, Long videoId, String videoReferenceId, Boolean resize) throws BrightcoveException {
-		try{
-			return _AddImage(writeToken, image, filename, videoId, videoReferenceId, resize);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _AddImage(writeToken, image, filename, videoId, videoReferenceId, resize);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "AddImage")){
-					return AddImage(writeToken, image, filename, videoId, videoReferenceId, resize);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "AddImage", attempts);
 			}
 		}
 	}
@@ -550,6 +647,8 @@ public class WriteApi {
 		if(response == null){
 			throw new WrapperException(WrapperExceptionCode.MAPI_IMAGE_NOT_ADDED, "Null response from Media API when trying to add image '" + image + "'.");
 		}
+		videoChanged(videoId, videoReferenceId);
+		
 		Image result = null;
 		try{
 			if(response.getString("result") != null){
@@ -578,20 +677,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public UploadStatusEnum GetUploadStatus(String writeToken, Long videoId, String referenceId) throws BrightcoveException {
-		try{
-			return _GetUploadStatus(writeToken, videoId, referenceId);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _GetUploadStatus(writeToken, videoId, referenceId);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "GetUploadStatus")){
-					return GetUploadStatus(writeToken, videoId, referenceId);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "GetUploadStatus", attempts);
 			}
 		}
 	}
@@ -674,20 +766,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public JSONObject DeleteVideo(String writeToken, Long videoId, String referenceId, Boolean cascade, Boolean deleteShares) throws BrightcoveException {
-		try{
-			return _DeleteVideo(writeToken, videoId, referenceId, cascade, deleteShares);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _DeleteVideo(writeToken, videoId, referenceId, cascade, deleteShares);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "DeleteVideo")){
-					return DeleteVideo(writeToken, videoId, referenceId, cascade, deleteShares);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "DeleteVideo", attempts);
 			}
 		}
 	}
@@ -731,6 +816,7 @@ public class WriteApi {
 		if(response == null){
 			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_DELETED, "Null response from Media API when trying to delete video (" + videoId + "," + referenceId + ").");
 		}
+		videoChanged(videoId, referenceId);
 		
 		return response;
 	}
@@ -751,20 +837,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public List<Long> ShareVideo(String writeToken, Long videoId, Boolean autoAccept, List<Long> shareeAccountIds) throws BrightcoveException {
-		try{
-			return _ShareVideo(writeToken, videoId, autoAccept, shareeAccountIds);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _ShareVideo(writeToken, videoId, autoAccept, shareeAccountIds);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "ShareVideo")){
-					return ShareVideo(writeToken, videoId, autoAccept, shareeAccountIds);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "ShareVideo", attempts);
 			}
 		}
 	}
@@ -791,20 +870,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public List<Long> ShareVideo(String writeToken, Long videoId, Boolean autoAccept, List<Long> shareeAccountIds, Boolean forceReshare) throws BrightcoveException {
-		try{
-			return _ShareVideo(writeToken, videoId, autoAccept, shareeAccountIds, forceReshare);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _ShareVideo(writeToken, videoId, autoAccept, shareeAccountIds, forceReshare);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "ShareVideo")){
-					return ShareVideo(writeToken, videoId, autoAccept, shareeAccountIds, forceReshare);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "ShareVideo", attempts);
 			}
 		}
 	}
@@ -845,6 +917,7 @@ public class WriteApi {
 		if(response == null){
 			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_SHARED, "Null response from Media API when trying to share video '" + videoId + "'.");
 		}
+		videoChanged(videoId, null);
 		
 		try{
 			JSONArray  jsonResult = response.getJSONArray("result");
@@ -876,20 +949,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public Video UpdateVideo(String writeToken, Video video) throws BrightcoveException {
-		try{
-			return _UpdateVideo(writeToken, video);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _UpdateVideo(writeToken, video);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "UpdateVideo")){
-					return UpdateVideo(writeToken, video);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "UpdateVideo", attempts);
 			}
 		}
 	}
@@ -915,20 +981,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public Video UpdateVideo(String writeToken, Video video, EnumSet<VideoFieldEnum> includeNullFields) throws BrightcoveException {
-		try{
-			return _UpdateVideo(writeToken, video, includeNullFields);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _UpdateVideo(writeToken, video, includeNullFields);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "UpdateVideo")){
-					return UpdateVideo(writeToken, video, includeNullFields);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "UpdateVideo", attempts);
 			}
 		}
 	}
@@ -956,6 +1015,7 @@ public class WriteApi {
 		if(response == null){
 			throw new WrapperException(WrapperExceptionCode.MAPI_VIDEO_NOT_UPDATED, "Null response from Media API when trying to update video '" + video + "'.");
 		}
+		videoChanged(video.getId(), video.getReferenceId());
 		
 		try{
 			Video result = null;
@@ -986,20 +1046,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public Long CreatePlaylist(String writeToken, Playlist playlist) throws BrightcoveException {
-		try{
-			return _CreatePlaylist(writeToken, playlist);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _CreatePlaylist(writeToken, playlist);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "CreatePlaylist")){
-					return CreatePlaylist(writeToken, playlist);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "CreatePlaylist", attempts);
 			}
 		}
 	}
@@ -1049,6 +1102,10 @@ public class WriteApi {
 		
 		try{
 			Long result = response.getLong("result");
+			
+			// Drops any cached "not found" for the new playlist's reference id
+			playlistChanged(result, playlist.getReferenceId());
+			
 			return result;
 		}
 		catch(JSONException jsone){
@@ -1070,20 +1127,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public Playlist UpdatePlaylist(String writeToken, Playlist playlist) throws BrightcoveException {
-		try{
-			return _UpdatePlaylist(writeToken, playlist);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _UpdatePlaylist(writeToken, playlist);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "UpdatePlaylist")){
-					return UpdatePlaylist(writeToken, playlist);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "UpdatePlaylist", attempts);
 			}
 		}
 	}
@@ -1127,6 +1177,7 @@ public class WriteApi {
 		if(response == null){
 			throw new WrapperException(WrapperExceptionCode.MAPI_PLAYLIST_NOT_UPDATED, "Null response from Media API when trying to update playlist '" + playlist + "'.");
 		}
+		playlistChanged(playlist.getId(), playlist.getReferenceId());
 		
 		try{
 			Playlist result = null;
@@ -1157,20 +1208,13 @@ public class WriteApi {
 	 * </ul>
 	 */
 	public JSONObject DeletePlaylist(String writeToken, Long playlistId, String referenceId, Boolean cascade) throws BrightcoveException {
-		try{
-			return _DeletePlaylist(writeToken, playlistId, referenceId, cascade);
-		}
-		catch(BrightcoveException be){
-			if(exceptionHandler == null){
-				throw be;
+		RetryPolicy.Attempts attempts = startAttempts();
+		while(true){
+			try{
+				return _DeletePlaylist(writeToken, playlistId, referenceId, cascade);
 			}
-			else{
-				if(exceptionHandler.handleException(be, "DeletePlaylist")){
-					return DeletePlaylist(writeToken, playlistId, referenceId, cascade);
-				}
-				else{
-					throw be;
-				}
+			catch(BrightcoveException be){
+				retryOrThrow(be, "DeletePlaylist", attempts);
 			}
 		}
 	}
@@ -1211,6 +1255,7 @@ public class WriteApi {
 		if(response == null){
 			throw new WrapperException(WrapperExceptionCode.MAPI_PLAYLIST_NOT_DELETED, "Null response from Media API when trying to delete playlist (" + playlistId + "," + referenceId + ").");
 		}
+		playlistChanged(playlistId, referenceId);
 		
 		return response;
 	}
@@ -1254,6 +1299,184 @@ public class WriteApi {
 	public void setBrightcoveExceptionHandler(BrightcoveExceptionHandler exceptionHandler){
 		this.exceptionHandler = exceptionHandler;
 	}
+	
+	/**
+	 * <p>Sets the policy that decides whether, and after how long, a public
+	 *    method retries a call that failed.  If an exception handler is set
+	 *    too, a call is only retried when the handler asks for it and the
+	 *    policy allows it.  Set to null (the default) to leave retries to the
+	 *    exception handler alone, with no limit or delay.</p>
+	 * 
+	 * @param retryPolicy Retry policy, or null
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy){
+		this.retryPolicy = retryPolicy;
+	}
+	
+	/**
+	 * <p>Gets the policy failed calls are retried under, if any.</p>
+	 * 
+	 * @return Retry policy, or null
+	 */
+	public RetryPolicy getRetryPolicy(){
+		return retryPolicy;
+	}
+	
+	/**
+	 * <p>Starts tracking the attempts of a call to a public method.</p>
+	 * 
+	 * @return State of the call's attempts, or null if there is no retry policy
+	 */
+	private RetryPolicy.Attempts startAttempts(){
+		RetryPolicy policy = retryPolicy;
+		return (policy == null) ? null : policy.start();
+	}
+	
+	/**
+	 * <p>Called when an attempt of a public method fails.  Returns (after any
+	 *    backoff delay) if the exception handler and the retry policy agree the
+	 *    call should be attempted again, and throws the exception otherwise.
+	 *    Methods that create something are only retried by the policy if the
+	 *    failed attempt never reached the Media API (see RetryPolicy.isUnsent).</p>
+	 * 
+	 * @param be Exception the attempt failed with
+	 * @param methodName Name of the public method, passed to the exception handler
+	 * @param attempts State of the call's attempts (null if there was no retry policy when it started)
+	 * @throws BrightcoveException The exception provided, if the call shouldn't be retried
+	 */
+	private void retryOrThrow(BrightcoveException be, String methodName, RetryPolicy.Attempts attempts) throws BrightcoveException {
+		RetryPolicy policy = retryPolicy;
+		if(exceptionHandler != null){
+			if(!exceptionHandler.handleException(be, methodName)){
+				throw be;
+			}
+		}
+		else if((policy == null) || (attempts == null)){
+			throw be;
+		}
+		
+		if((policy != null) && (attempts != null)){
+			policy.beforeRetry(be, attempts, !NON_IDEMPOTENT_METHODS.contains(methodName));
+		}
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the circuit breakers calls to the Media API go through (the
+	 *    WRITE breaker for the call's token).  While a breaker is open, calls
+	 *    fail straight away with WrapperExceptionCode.CIRCUIT_OPEN.  Null (the
+	 *    default) always calls the Media API.
+	 * </p>
+	 * 
+	 * @param circuitBreakers Circuit breakers, or null
+	 */
+	public void setCircuitBreakers(CircuitBreakerRegistry circuitBreakers){
+		this.circuitBreakers = circuitBreakers;
+	}
+	
+	/**
+	 * <p>Gets the circuit breakers calls to the Media API go through, if any.</p>
+	 * 
+	 * @return Circuit breakers, or null
+	 */
+	public CircuitBreakerRegistry getCircuitBreakers(){
+		return circuitBreakers;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the rate limiter every call to the Media API takes a permit from
+	 *    (for the call's token) first: an UPLOAD permit for calls that upload
+	 *    a file, and a WRITE permit for any other call.  A call that doesn't
+	 *    get a permit in time fails with WrapperExceptionCode.RATE_LIMITED.
+	 *    Null (the default) doesn't limit calls.
+	 * </p>
+	 * 
+	 * @param rateLimiter Rate limiter, or null
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter){
+		this.rateLimiter = rateLimiter;
+	}
+	
+	/**
+	 * <p>Gets the rate limiter calls to the Media API take permits from, if any.</p>
+	 * 
+	 * @return Rate limiter, or null
+	 */
+	public RateLimiter getRateLimiter(){
+		return rateLimiter;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the limiter that adapts how many calls to the Write API can be
+	 *    in flight at the same time.  Calls over the limit wait for room, and
+	 *    fail with WrapperExceptionCode.CONCURRENCY_LIMITED if there is none
+	 *    in time.  Use a different limiter for a ReadApi.  Null (the default)
+	 *    doesn't limit calls.
+	 * </p>
+	 * 
+	 * @param concurrencyLimiter Concurrency limiter, or null
+	 */
+	public void setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter){
+		this.concurrencyLimiter = concurrencyLimiter;
+	}
+	
+	/**
+	 * <p>Gets the limiter on calls in flight to the Write API, if any.</p>
+	 * 
+	 * @return Concurrency limiter, or null
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter(){
+		return concurrencyLimiter;
+	}
+	
+	/**
+	 * <p>
+	 *    Sets the bus to publish invalidations on.  After every successful
+	 *    write the videos or playlists it changed are published, so that
+	 *    caches listening on the bus drop any responses containing them.
+	 *    Null (the default) publishes nothing.
+	 * </p>
+	 * 
+	 * @param invalidationBus Bus shared with the caches to invalidate
+	 */
+	public void setInvalidationBus(InvalidationBus invalidationBus){
+		this.invalidationBus = invalidationBus;
+	}
+	
+	/**
+	 * <p>Gets the bus invalidations are published on, if any.</p>
+	 * 
+	 * @return Invalidation bus, or null
+	 */
+	public InvalidationBus getInvalidationBus(){
+		return invalidationBus;
+	}
+	
+	/**
+	 * <p>Publishes that a video changed, if there is an invalidation bus</p>
+	 * 
+	 * @param videoId Id of the video (may be null)
+	 * @param referenceId Reference id of the video (may be null)
+	 */
+	private void videoChanged(Long videoId, String referenceId){
+		if(invalidationBus != null){
+			invalidationBus.videoChanged(videoId, referenceId);
+		}
+	}
+	
+	/**
+	 * <p>Publishes that a playlist changed, if there is an invalidation bus</p>
+	 * 
+	 * @param playlistId Id of the playlist (may be null)
+	 * @param referenceId Reference id of the playlist (may be null)
+	 */
+	private void playlistChanged(Long playlistId, String referenceId){
+		if(invalidationBus != null){
+			invalidationBus.playlistChanged(playlistId, referenceId);
+		}
+	}
 }
 
 /**
@@ -0,0 +1,70 @@
+package com.brightcove.mediaapi;
+
+import java.util.logging.Logger;
+
+import com.brightcove.mediaapi.cache.BinaryJsonTests;
+import com.brightcove.mediaapi.cache.CacheSnapshotTests;
+import com.brightcove.mediaapi.cache.ResponseCacheTests;
+import com.brightcove.mediaapi.catalog.CatalogReplicaTests;
+import com.brightcove.mediaapi.catalog.OrdinalBitmapTests;
+import com.brightcove.mediaapi.catalog.PostingListTests;
+import com.brightcove.mediaapi.catalog.TextIndexTests;
+import com.brightcove.mediaapi.catalog.VideoPagerTests;
+import com.brightcove.mediaapi.concurrent.ParallelRunnerTests;
+import com.brightcove.mediaapi.exceptions.RetryPolicyTests;
+import com.brightcove.mediaapi.http.AdaptiveConcurrencyLimiterTests;
+import com.brightcove.mediaapi.http.CircuitBreakerTests;
+import com.brightcove.mediaapi.http.JsonEntityParserTests;
+import com.brightcove.mediaapi.http.TokenBucketTests;
+import com.brightcove.mediaapi.wrapper.CacheInvalidationTests;
+
+/**
+ * <p>
+ *    Runs every offline unit test (the "test" target in build.xml).
+ * </p>
+ */
+public class AllTests {
+	/**
+	 * <p>
+	 *    Main execution kickoff
+	 * </p>
+	 *
+	 * @param args Arguments passed in on command line (ignored)
+	 */
+	public static void main(String[] args){
+		Logger log = Logger.getLogger(AllTests.class.getCanonicalName());
+
+		UnitTests[] tests = new UnitTests[]{
+			new AdaptiveConcurrencyLimiterTests(),
+			new BinaryJsonTests(),
+			new CacheInvalidationTests(),
+			new CacheSnapshotTests(),
+			new CatalogReplicaTests(),
+			new CircuitBreakerTests(),
+			new JsonEntityParserTests(),
+			new OrdinalBitmapTests(),
+			new ParallelRunnerTests(),
+			new PostingListTests(),
+			new ResponseCacheTests(),
+			new RetryPolicyTests(),
+			new TextIndexTests(),
+			new TokenBucketTests(),
+			new VideoPagerTests()
+		};
+
+		Integer failures = 0;
+		for(UnitTests test : tests){
+			failures += test.run();
+		}
+
+		if(failures > 0){
+			log.severe(failures + " test(s) failed.");
+		}
+		else{
+			log.info("All tests passed.");
+		}
+
+		// The fake Media API servers' threads would otherwise keep the VM running
+		System.exit((failures > 0) ? 1 : 0);
+	}
+}
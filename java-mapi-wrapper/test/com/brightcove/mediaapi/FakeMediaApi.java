@@ -0,0 +1,387 @@
+package com.brightcove.mediaapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.http.PooledHttpClientFactory;
+import com.brightcove.mediaapi.wrapper.ReadApi;
+import com.brightcove.mediaapi.wrapper.WriteApi;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ *    An in-process stand-in for the Media API, for tests that need a
+ *    ReadApi or WriteApi without a network connection.
+ * </p>
+ *
+ * <p>
+ *    The Read API answers the single and multiple video lookups by id and
+ *    reference id, and every other video command with all of its videos on
+ *    one page, each limited to the video_fields asked for.  The Write API
+ *    answers every method successfully, sharing a video returns a new id
+ *    for it, and deleting a video removes it.
+ * </p>
+ */
+public class FakeMediaApi {
+	public static final String READ_PATH  = "/services/library";
+	public static final String WRITE_PATH = "/services/post";
+
+	private final HttpServer                server;
+	private final Map<Long, JSONObject>     videos;
+	private final List<Map<String, String>> readRequests;
+	private final List<JSONObject>          writeRequests;
+
+	/**
+	 * <p>Starts a fake Media API on a free local port, with no videos.</p>
+	 *
+	 * @throws IOException If the server can't be started
+	 */
+	public FakeMediaApi() throws IOException {
+		videos        = Collections.synchronizedMap(new LinkedHashMap<Long, JSONObject>());
+		readRequests  = Collections.synchronizedList(new ArrayList<Map<String, String>>());
+		writeRequests = Collections.synchronizedList(new ArrayList<JSONObject>());
+
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext(READ_PATH, new HttpHandler(){
+			public void handle(HttpExchange exchange) throws IOException {
+				Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+				readRequests.add(parameters);
+				try{
+					respond(exchange, read(parameters));
+				}
+				catch(JSONException jsone){
+					respond(exchange, error(jsone.toString()));
+				}
+			}
+		});
+		server.createContext(WRITE_PATH, new HttpHandler(){
+			public void handle(HttpExchange exchange) throws IOException {
+				try{
+					JSONObject json = parseRpc(readBody(exchange.getRequestBody()));
+					writeRequests.add(json);
+					respond(exchange, write(json));
+				}
+				catch(JSONException jsone){
+					respond(exchange, error(jsone.toString()));
+				}
+			}
+		});
+		server.start();
+	}
+
+	/**
+	 * <p>Adds (or replaces) a video.</p>
+	 *
+	 * @param id Id of the video
+	 * @param referenceId Reference id of the video (may be null)
+	 * @param name Name of the video
+	 * @return Video JSON, which can be changed to add other fields
+	 * @throws JSONException If the JSON can't be built
+	 */
+	public JSONObject addVideo(Long id, String referenceId, String name) throws JSONException {
+		JSONObject video = new JSONObject();
+		video.put("id", id);
+		if(referenceId != null){
+			video.put("referenceId", referenceId);
+		}
+		video.put("name", name);
+		videos.put(id, video);
+		return video;
+	}
+
+	/**
+	 * <p>Creates a ReadApi that makes its requests to this fake.</p>
+	 *
+	 * @return ReadApi using a pooled HttpClient factory
+	 */
+	public ReadApi createReadApi(){
+		ReadApi readApi = new ReadApi();
+		readApi.OverrideReadApiServerSettings("http", "127.0.0.1", getPort(), READ_PATH);
+		readApi.OverrideHttpClientFactory(new PooledHttpClientFactory());
+		return readApi;
+	}
+
+	/**
+	 * <p>Creates a WriteApi that makes its requests to this fake.</p>
+	 *
+	 * @return WriteApi using a pooled HttpClient factory
+	 */
+	public WriteApi createWriteApi(){
+		WriteApi writeApi = new WriteApi();
+		writeApi.OverrideWriteApiServerSettings("http", "127.0.0.1", getPort(), WRITE_PATH);
+		writeApi.OverrideHttpClientFactory(new PooledHttpClientFactory());
+		return writeApi;
+	}
+
+	/**
+	 * <p>Gets the port the fake listens on.</p>
+	 *
+	 * @return Local port
+	 */
+	public Integer getPort(){
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * <p>Gets the parameters of every Read API request made so far.</p>
+	 *
+	 * @return Request parameters, oldest first
+	 */
+	public List<Map<String, String>> getReadRequests(){
+		synchronized(readRequests){
+			return new ArrayList<Map<String, String>>(readRequests);
+		}
+	}
+
+	/**
+	 * <p>Gets the JSON-RPC body of every Write API request made so far.</p>
+	 *
+	 * @return Request JSON, oldest first
+	 */
+	public List<JSONObject> getWriteRequests(){
+		synchronized(writeRequests){
+			return new ArrayList<JSONObject>(writeRequests);
+		}
+	}
+
+	/**
+	 * <p>Stops the fake.</p>
+	 */
+	public void stop(){
+		server.stop(0);
+	}
+
+	/**
+	 * <p>Answers a Read API request.</p>
+	 *
+	 * @param parameters Request parameters
+	 * @return Response body
+	 * @throws JSONException If the response can't be built
+	 */
+	private String read(Map<String, String> parameters) throws JSONException {
+		String command = parameters.get("command");
+		String fields  = parameters.get("video_fields");
+
+		if("find_video_by_id".equals(command) || "find_video_by_id_unfiltered".equals(command)){
+			JSONObject video = videos.get(Long.valueOf(parameters.get("video_id")));
+			return (video == null) ? "null" : project(video, fields).toString();
+		}
+		if("find_video_by_reference_id".equals(command) || "find_video_by_reference_id_unfiltered".equals(command)){
+			JSONObject video = findByReferenceId(parameters.get("reference_id"));
+			return (video == null) ? "null" : project(video, fields).toString();
+		}
+
+		JSONArray items = new JSONArray();
+		if("find_videos_by_ids".equals(command) || "find_videos_by_ids_unfiltered".equals(command)){
+			for(String id : parameters.get("video_ids").split(",")){
+				JSONObject video = videos.get(Long.valueOf(id.trim()));
+				items.put((video == null) ? JSONObject.NULL : project(video, fields));
+			}
+		}
+		else if("find_videos_by_reference_ids".equals(command) || "find_videos_by_reference_ids_unfiltered".equals(command)){
+			for(String referenceId : parameters.get("reference_ids").split(",")){
+				JSONObject video = findByReferenceId(referenceId.trim());
+				items.put((video == null) ? JSONObject.NULL : project(video, fields));
+			}
+		}
+		else if((command != null) && command.contains("videos")){
+			synchronized(videos){
+				for(JSONObject video : videos.values()){
+					items.put(project(video, fields));
+				}
+			}
+		}
+		else{
+			return error("Unknown command '" + command + "'.");
+		}
+
+		JSONObject ret = new JSONObject();
+		ret.put("items", items);
+		ret.put("page_number", 0);
+		ret.put("page_size", items.length());
+		ret.put("total_count", items.length());
+		return ret.toString();
+	}
+
+	/**
+	 * <p>Answers a Write API request.</p>
+	 *
+	 * @param json JSON-RPC request
+	 * @return Response body
+	 * @throws JSONException If the response can't be built
+	 */
+	private String write(JSONObject json) throws JSONException {
+		String     method = json.getString("method");
+		JSONObject params = json.getJSONObject("params");
+
+		Object result = new JSONObject();
+		if("share_video".equals(method)){
+			JSONArray ids      = new JSONArray();
+			JSONArray accounts = params.getJSONArray("sharee_account_ids");
+			for(int i=0;i<accounts.length();i++){
+				ids.put(params.getLong("video_id") + 1000 * (i + 1));
+			}
+			result = ids;
+		}
+		else if("delete_video".equals(method)){
+			if(params.has("video_id")){
+				videos.remove(params.getLong("video_id"));
+			}
+			else{
+				JSONObject video = findByReferenceId(params.getString("reference_id"));
+				if(video != null){
+					videos.remove(video.getLong("id"));
+				}
+			}
+		}
+
+		JSONObject ret = new JSONObject();
+		ret.put("result", result);
+		ret.put("error", JSONObject.NULL);
+		ret.put("id", JSONObject.NULL);
+		return ret.toString();
+	}
+
+	/**
+	 * <p>Finds a video by reference id.</p>
+	 *
+	 * @param referenceId Reference id to look for
+	 * @return Video JSON, or null if there is no such video
+	 */
+	private JSONObject findByReferenceId(String referenceId){
+		synchronized(videos){
+			for(JSONObject video : videos.values()){
+				if(referenceId.equals(video.optString("referenceId", null))){
+					return video;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * <p>Limits a video to the fields asked for, as the Media API does.</p>
+	 *
+	 * @param video Video JSON
+	 * @param fields Comma separated video_fields parameter (null for every field)
+	 * @return Copy of the video with only the fields asked for
+	 * @throws JSONException If the copy can't be built
+	 */
+	private static JSONObject project(JSONObject video, String fields) throws JSONException {
+		JSONObject ret = new JSONObject();
+		Iterator<?> keys = video.keys();
+		while(keys.hasNext()){
+			String key = (String)keys.next();
+			Boolean asked = (fields == null);
+			if(!asked){
+				for(String field : fields.split(",")){
+					asked |= key.equalsIgnoreCase(field.trim());
+				}
+			}
+			if(asked){
+				ret.put(key, video.get(key));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Builds a Media API error response.</p>
+	 *
+	 * @param message Error message
+	 * @return Response body
+	 */
+	private static String error(String message){
+		return "{\"result\":null,\"error\":{\"name\":\"UnknownServerError\",\"message\":" + JSONObject.quote(message) + ",\"code\":100},\"id\":null}";
+	}
+
+	/**
+	 * <p>Gets the JSON-RPC part of a multipart Write API request.</p>
+	 *
+	 * @param body Request body
+	 * @return JSON-RPC request
+	 * @throws JSONException If the body doesn't have a JSON-RPC part
+	 */
+	private static JSONObject parseRpc(String body) throws JSONException {
+		Integer start = body.indexOf('{');
+		Integer end   = body.lastIndexOf('}');
+		if((start < 0) || (end < start)){
+			throw new JSONException("No JSON-RPC part in request.");
+		}
+		return new JSONObject(body.substring(start, end + 1));
+	}
+
+	/**
+	 * <p>Parses a URL query string.</p>
+	 *
+	 * @param query Raw query string (may be null)
+	 * @return Decoded parameters
+	 * @throws UnsupportedEncodingException Never (UTF-8 is always supported)
+	 */
+	private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+		Map<String, String> ret = new LinkedHashMap<String, String>();
+		if(query == null){
+			return ret;
+		}
+		for(String pair : query.split("&")){
+			String[] parts = pair.split("=", 2);
+			ret.put(URLDecoder.decode(parts[0], "UTF-8"), (parts.length > 1) ? URLDecoder.decode(parts[1], "UTF-8") : "");
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Reads a request body.</p>
+	 *
+	 * @param in Request body stream
+	 * @return Body as a UTF-8 string
+	 * @throws IOException If the body can't be read
+	 */
+	private static String readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream out    = new ByteArrayOutputStream();
+		byte[]                buffer = new byte[4096];
+		int                   read;
+		while((read = in.read(buffer)) > 0){
+			out.write(buffer, 0, read);
+		}
+		return out.toString("UTF-8");
+	}
+
+	/**
+	 * <p>Sends a 200 response.</p>
+	 *
+	 * @param exchange Exchange to respond to
+	 * @param body Response body
+	 * @throws IOException If the response can't be sent
+	 */
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		byte[] bytes = body.getBytes("UTF-8");
+		exchange.sendResponseHeaders(200, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		try{
+			out.write(bytes);
+		}
+		finally{
+			out.close();
+		}
+	}
+}
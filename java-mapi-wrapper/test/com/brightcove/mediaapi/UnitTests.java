@@ -0,0 +1,93 @@
+package com.brightcove.mediaapi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ *    Base class for the offline unit tests.  Every public no-argument
+ *    method whose name starts with "test" is a test; a test fails if it
+ *    throws anything.
+ * </p>
+ *
+ * <p>
+ *    The tests don't need a Media API account or a network connection - see
+ *    com.brightcove.mediaapi.wrapper.test for the tests that run against a
+ *    live account.
+ * </p>
+ */
+public abstract class UnitTests {
+	protected Logger log;
+
+	/**
+	 * <p>Constructor</p>
+	 */
+	public UnitTests(){
+		log = Logger.getLogger(this.getClass().getCanonicalName());
+	}
+
+	/**
+	 * <p>Runs every test in the class, in name order.</p>
+	 *
+	 * @return Number of tests that failed
+	 */
+	public Integer run(){
+		Method[] methods = this.getClass().getMethods();
+		Arrays.sort(methods, new Comparator<Method>(){
+			public int compare(Method a, Method b){
+				return a.getName().compareTo(b.getName());
+			}
+		});
+
+		Integer failures = 0;
+		for(Method method : methods){
+			if((!method.getName().startsWith("test")) || (method.getParameterTypes().length != 0)){
+				continue;
+			}
+
+			String name = this.getClass().getSimpleName() + "." + method.getName();
+			try{
+				method.invoke(this);
+				log.info("Passed: " + name);
+			}
+			catch(InvocationTargetException ite){
+				failures++;
+				log.log(Level.SEVERE, "Failed: " + name, ite.getCause());
+			}
+			catch(IllegalAccessException iae){
+				failures++;
+				log.log(Level.SEVERE, "Couldn't run: " + name, iae);
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * <p>Fails the test if a condition doesn't hold.</p>
+	 *
+	 * @param condition Condition to check
+	 * @param message Description of the failure
+	 */
+	public static void check(Boolean condition, String message){
+		if(!condition){
+			throw new AssertionError(message);
+		}
+	}
+
+	/**
+	 * <p>Fails the test if a value isn't the one expected.</p>
+	 *
+	 * @param expected Value expected (may be null)
+	 * @param actual Value found (may be null)
+	 * @param message Description of the value
+	 */
+	public static void checkEquals(Object expected, Object actual, String message){
+		if((expected == null) ? (actual != null) : (!expected.equals(actual))){
+			throw new AssertionError(message + ": expected '" + expected + "' but was '" + actual + "'.");
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.brightcove.mediaapi.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests encoding and decoding JSON with BinaryJson.
+ * </p>
+ */
+public class BinaryJsonTests extends UnitTests {
+	/**
+	 * <p>Every kind of value decodes to what was encoded, with object keys shared through the key table.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testRoundTrip() throws Exception {
+		JSONObject response = new JSONObject("{\"items\":[" +
+			"{\"id\":1234567890123,\"name\":\"Caf\\u00e9 \\u2615\",\"playsTotal\":7,\"rating\":4.5,\"economics\":null,\"tags\":[\"a\",\"b\"],\"active\":true}," +
+			"{\"id\":2,\"name\":\"\",\"playsTotal\":-1,\"rating\":0.0,\"economics\":\"AD_SUPPORTED\",\"tags\":[],\"active\":false}" +
+			"],\"page_number\":0,\"total_count\":2}");
+
+		BinaryJson encoder = new BinaryJson();
+		byte[]     bytes   = encode(encoder, response);
+		checkEquals(10, encoder.getKeys().size(), "Keys in the key table");
+
+		ByteBuffer in      = ByteBuffer.wrap(bytes);
+		Object     decoded = BinaryJson.decode(in, encoder.getKeys().toArray(new String[0]));
+		checkEquals(0, in.remaining(), "Bytes left after decoding");
+		checkSame(response, decoded, "response");
+	}
+
+	/**
+	 * <p>Variable-length ints round trip at every width.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testVarInt() throws Exception {
+		int[] values = new int[]{ 0, 1, 127, 128, 16383, 16384, 1 << 21, 1 << 28, Integer.MAX_VALUE };
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream      out   = new DataOutputStream(bytes);
+		for(int value : values){
+			BinaryJson.writeVarInt(value, out);
+		}
+		out.flush();
+		checkEquals(1 + 1 + 1 + 2 + 2 + 3 + 4 + 5 + 5, bytes.size(), "Encoded length");
+
+		ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+		for(int value : values){
+			checkEquals(value, BinaryJson.readVarInt(in), "Decoded value");
+		}
+	}
+
+	/**
+	 * <p>A truncated value fails to decode rather than decoding to something else.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testTruncatedValue() throws Exception {
+		BinaryJson encoder = new BinaryJson();
+		byte[]     bytes   = encode(encoder, new JSONObject("{\"id\":1,\"name\":\"Harbour lights\"}"));
+		String[]   keys    = encoder.getKeys().toArray(new String[0]);
+
+		for(int length=0;length<bytes.length;length++){
+			try{
+				BinaryJson.decode(ByteBuffer.wrap(bytes, 0, length), keys);
+				check(false, "Value truncated to " + length + " of " + bytes.length + " bytes was decoded.");
+			}
+			catch(BufferUnderflowException bue){
+				// Expected
+			}
+		}
+	}
+
+	/**
+	 * <p>Encodes a value.</p>
+	 *
+	 * @param encoder Encoder (holds the key table)
+	 * @param value Value to encode
+	 * @return Encoded value
+	 * @throws Exception If the value can't be encoded
+	 */
+	static byte[] encode(BinaryJson encoder, Object value) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream      out   = new DataOutputStream(bytes);
+		encoder.encode(value, out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * <p>Fails the test unless two JSON values are the same, whatever the order of their object keys.</p>
+	 *
+	 * @param expected Value expected
+	 * @param actual Value found
+	 * @param path Where the values are in the response
+	 */
+	static void checkSame(Object expected, Object actual, String path){
+		if(expected instanceof JSONObject){
+			check(actual instanceof JSONObject, path + " isn't an object: " + actual);
+			JSONObject x = (JSONObject)expected;
+			JSONObject y = (JSONObject)actual;
+			checkEquals(x.length(), y.length(), path + " - number of keys");
+			Iterator<?> it = x.keys();
+			while(it.hasNext()){
+				String key = (String)it.next();
+				checkSame(x.opt(key), y.opt(key), path + "." + key);
+			}
+		}
+		else if(expected instanceof JSONArray){
+			check(actual instanceof JSONArray, path + " isn't an array: " + actual);
+			JSONArray x = (JSONArray)expected;
+			JSONArray y = (JSONArray)actual;
+			checkEquals(x.length(), y.length(), path + " - length");
+			for(int i=0;i<x.length();i++){
+				checkSame(x.opt(i), y.opt(i), path + "[" + i + "]");
+			}
+		}
+		else{
+			checkEquals(expected, actual, path);
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package com.brightcove.mediaapi.cache;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Tests writing and reading ResponseCache snapshot files, including
+ *    damaged ones.
+ * </p>
+ */
+public class CacheSnapshotTests extends UnitTests {
+	private static final Long STORED_AT  = 1000000000000l;
+	private static final Long EXPIRES_AT = STORED_AT + 60000;
+
+	/**
+	 * <p>Entries read back have the keys, times, weights, tags and responses written, in order.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testRoundTrip() throws Exception {
+		File file = tempFile();
+		try{
+			Map<String, CacheEntry> written = entries();
+			checkEquals(3, CacheSnapshot.write(file, written), "Entries written");
+
+			Map<String, CacheEntry> read = CacheSnapshot.read(file);
+			checkEquals(new ArrayList<String>(written.keySet()), new ArrayList<String>(read.keySet()), "Keys");
+			for(String key : written.keySet()){
+				CacheEntry expected = written.get(key);
+				CacheEntry actual   = read.get(key);
+				check(actual.load(), "Entry '" + key + "' didn't load.");
+				checkEquals(expected.getStoredAt(), actual.getStoredAt(), key + " - stored at");
+				checkEquals(expected.getExpiresAt(), actual.getExpiresAt(), key + " - expires at");
+				checkEquals(expected.getWeight(), actual.getWeight(), key + " - weight");
+				checkEquals(Arrays.asList(expected.getTags()), Arrays.asList(actual.getTags()), key + " - tags");
+				checkEquals(expected.isNotFound(), actual.isNotFound(), key + " - not found");
+				if(!expected.isNotFound()){
+					BinaryJsonTests.checkSame(expected.getResponse(), actual.getResponse(), key);
+				}
+			}
+		}
+		finally{
+			file.delete();
+		}
+	}
+
+	/**
+	 * <p>A truncated file, or one that isn't a snapshot, is rejected.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testTruncatedFileIsRejected() throws Exception {
+		File file = tempFile();
+		try{
+			CacheSnapshot.write(file, entries());
+			long length = file.length();
+			for(long cut : new long[]{ 1, 10, length / 2, length - 5, length }){
+				CacheSnapshot.write(file, entries());
+				RandomAccessFile raf = new RandomAccessFile(file, "rw");
+				try{
+					raf.setLength(length - cut);
+				}
+				finally{
+					raf.close();
+				}
+				checkRejected(file, "Snapshot cut short by " + cut + " bytes");
+			}
+
+			Files.write(file.toPath(), "{\"items\":[]}".getBytes(StandardCharsets.UTF_8));
+			checkRejected(file, "JSON file");
+		}
+		finally{
+			file.delete();
+		}
+	}
+
+	/**
+	 * <p>A record with damaged fields is skipped, and the records after it are still read.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testDamagedRecordIsSkipped() throws Exception {
+		File file = tempFile();
+		try{
+			CacheSnapshot.write(file, entries());
+
+			// A negative weight
+			overwrite(file, find(file, "key-2") + "key-2".length() + 16, new byte[]{ (byte)0xFF });
+
+			Map<String, CacheEntry> read = CacheSnapshot.read(file);
+			checkEquals(Arrays.asList("key-1", "key-3"), new ArrayList<String>(read.keySet()), "Keys");
+		}
+		finally{
+			file.delete();
+		}
+	}
+
+	/**
+	 * <p>A record whose length runs past the records is dropped with every record after it.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testOverlongRecordDropsTheRest() throws Exception {
+		File file = tempFile();
+		try{
+			CacheSnapshot.write(file, entries());
+
+			// key, 3 longs, one tag (varint count, varint length, bytes), then the record length
+			int length = find(file, "key-2") + "key-2".length() + 24 + 1 + 1 + "video:2".length();
+			overwrite(file, length, new byte[]{ 0x7F, 0, 0, 0 });
+
+			Map<String, CacheEntry> read = CacheSnapshot.read(file);
+			checkEquals(Arrays.asList("key-1"), new ArrayList<String>(read.keySet()), "Keys");
+		}
+		finally{
+			file.delete();
+		}
+	}
+
+	/**
+	 * <p>A response that is damaged inside its record fails to load, rather than loading as something else.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testDamagedResponseFailsToLoad() throws Exception {
+		File file = tempFile();
+		try{
+			CacheSnapshot.write(file, entries());
+
+			// The length of the name string now runs past the end of the record
+			overwrite(file, find(file, "Harbour lights") - 1, new byte[]{ 0x7F });
+
+			Map<String, CacheEntry> read = CacheSnapshot.read(file);
+			checkEquals(3, read.size(), "Entries read");
+			check(!read.get("key-1").load(), "Damaged response loaded.");
+			check(read.get("key-2").load(), "Undamaged response didn't load.");
+		}
+		finally{
+			file.delete();
+		}
+	}
+
+	/**
+	 * <p>Builds the entries to write: two responses and a "not found".</p>
+	 *
+	 * @return Entries by request key
+	 * @throws Exception If the responses can't be built
+	 */
+	private static Map<String, CacheEntry> entries() throws Exception {
+		Map<String, CacheEntry> ret = new LinkedHashMap<String, CacheEntry>();
+		ret.put("key-1", new CacheEntry(new JSONObject("{\"id\":1,\"name\":\"Harbour lights\",\"tags\":[\"news\"]}"), new String[]{ "video:1", "videoReference:ref-1" }, STORED_AT, EXPIRES_AT, 52l));
+		ret.put("key-2", new CacheEntry(new JSONObject("{\"id\":2,\"name\":\"Big game\"}"), new String[]{ "video:2" }, STORED_AT, EXPIRES_AT, 27l));
+		ret.put("key-3", new CacheEntry(null, new String[0], STORED_AT, EXPIRES_AT, 1l));
+		return ret;
+	}
+
+	/**
+	 * @return New empty file in the temporary directory
+	 * @throws Exception If the file can't be created
+	 */
+	private static File tempFile() throws Exception {
+		File file = File.createTempFile("mapi-snapshot", ".bin");
+		file.deleteOnExit();
+		return file;
+	}
+
+	/**
+	 * <p>Finds the first occurrence of a string in a file.</p>
+	 *
+	 * @param file File to search
+	 * @param text Text to look for (encoded as UTF-8)
+	 * @return Offset of the text
+	 * @throws Exception If the file can't be read or doesn't contain the text
+	 */
+	private static int find(File file, String text) throws Exception {
+		byte[] bytes  = Files.readAllBytes(file.toPath());
+		byte[] target = text.getBytes(StandardCharsets.UTF_8);
+		for(int i=0;i+target.length<=bytes.length;i++){
+			if(Arrays.equals(target, Arrays.copyOfRange(bytes, i, i + target.length))){
+				return i;
+			}
+		}
+		throw new AssertionError("'" + text + "' isn't in the snapshot.");
+	}
+
+	/**
+	 * <p>Overwrites some bytes of a file.</p>
+	 *
+	 * @param file File to change
+	 * @param offset Offset of the first byte to overwrite
+	 * @param bytes New bytes
+	 * @throws Exception If the file can't be written
+	 */
+	private static void overwrite(File file, int offset, byte[] bytes) throws Exception {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try{
+			raf.seek(offset);
+			raf.write(bytes);
+		}
+		finally{
+			raf.close();
+		}
+	}
+
+	/**
+	 * <p>Fails the test unless a file is rejected as a snapshot.</p>
+	 *
+	 * @param file File to read
+	 * @param message Description of the file
+	 */
+	private static void checkRejected(File file, String message){
+		try{
+			CacheSnapshot.read(file);
+			check(false, message + " was read.");
+		}
+		catch(WrapperException we){
+			checkEquals(WrapperExceptionCode.CACHE_SNAPSHOT_IO_EXCEPTION, we.getCode(), message + " - exception code");
+		}
+		catch(Exception e){
+			throw new AssertionError(message + " threw " + e);
+		}
+	}
+}
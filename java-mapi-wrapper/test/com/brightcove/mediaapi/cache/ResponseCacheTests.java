@@ -0,0 +1,139 @@
+package com.brightcove.mediaapi.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests storing, weighing, invalidating and expiring responses in a
+ *    ResponseCache.
+ * </p>
+ */
+public class ResponseCacheTests extends UnitTests {
+	/**
+	 * <p>A response stored with a known weight isn't turned back into text to be weighed.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testKnownWeightIsUsed() throws Exception {
+		ResponseCache cache = new ResponseCache(60000l, 10);
+		cache.setMaxWeight(1000l);
+
+		JSONObject response = new JSONObject(){
+			public String toString(){
+				throw new AssertionError("Response was turned into text to be weighed.");
+			}
+		};
+		check(cache.put("a", response, null, null, null, 42l), "Response with a known weight wasn't stored.");
+		checkEquals(42l, cache.getWeight(), "Weight");
+
+		cache.put("b", new JSONObject("{\"id\":1}"));
+		checkEquals(42l + "{\"id\":1}".length(), cache.getWeight(), "Weight after a response weighed by its text");
+	}
+
+	/**
+	 * <p>A response fetched before an invalidation isn't stored afterwards, even if the invalidation found nothing to remove.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testResponseFetchedBeforeInvalidationIsDropped() throws Exception {
+		ResponseCache cache = new ResponseCache(60000l, 10);
+
+		Long generation = cache.getGeneration();
+		cache.invalidate(Arrays.asList("video:1"));
+		check(!cache.put("a", new JSONObject("{\"id\":1}"), Arrays.asList("video:1"), generation), "Response fetched before the invalidation was stored.");
+		check(!cache.putNotFound("b", Arrays.asList("video:1"), generation), "\"Not found\" fetched before the invalidation was stored.");
+		checkEquals(null, cache.peek("a"), "Cached response");
+		checkEquals(0, cache.size(), "Size");
+
+		generation = cache.getGeneration();
+		check(cache.put("a", new JSONObject("{\"id\":1}"), Arrays.asList("video:1"), generation), "Response fetched after the invalidation wasn't stored.");
+		checkEquals(1, cache.size(), "Size after a current response");
+	}
+
+	/**
+	 * <p>Invalidating a tag removes every response carrying it, and nothing else.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testInvalidateByTag() throws Exception {
+		ResponseCache cache = new ResponseCache(60000l, 10);
+		cache.put("a", new JSONObject("{\"id\":1}"), Arrays.asList("video:1"));
+		cache.put("b", new JSONObject("{\"items\":[{\"id\":1},{\"id\":2}]}"), Arrays.asList("video:1", "video:2"));
+		cache.put("c", new JSONObject("{\"id\":2}"), Arrays.asList("video:2"));
+		cache.putNotFound("d", Arrays.asList("videoReference:ref-1"));
+
+		cache.invalidate(Arrays.asList("video:1", "videoReference:ref-1"));
+		checkEquals(null, cache.peek("a"), "Response tagged with the video");
+		checkEquals(null, cache.peek("b"), "Page containing the video");
+		checkEquals(null, cache.peek("d"), "\"Not found\" for the reference id");
+		check(cache.peek("c") != null, "Untagged response was removed.");
+		checkEquals(3l, cache.getInvalidationCount(), "Invalidation count");
+
+		// Replacing a response drops its old tags
+		cache.put("c", new JSONObject("{\"id\":3}"), Arrays.asList("video:3"));
+		cache.invalidate(Arrays.asList("video:2"));
+		check(cache.peek("c") != null, "Response was removed by a tag it no longer has.");
+		cache.invalidate(Arrays.asList("video:3"));
+		checkEquals(null, cache.peek("c"), "Response tagged with its new tag");
+	}
+
+	/**
+	 * <p>An expired response is a miss, but is still returned as the last known good value until the stale-if-error time has passed.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testStaleIfError() throws Exception {
+		AtomicLong    clock = new AtomicLong(1000000l);
+		ResponseCache cache = cache(clock, 60000l);
+		cache.setStaleIfErrorMillis(30000l);
+		cache.put("a", new JSONObject("{\"id\":1}"));
+
+		clock.addAndGet(60000l + 1);
+		checkEquals(null, cache.lookup("a"), "Expired response");
+		CacheEntry stale = cache.lookupStale("a");
+		check(stale != null, "Expired response wasn't kept for errors.");
+		checkEquals(1, stale.getResponse().getInt("id"), "Stale response id");
+		checkEquals(1l, cache.getStaleIfErrorHitCount(), "Stale-if-error hit count");
+
+		clock.addAndGet(30000l);
+		checkEquals(null, cache.lookupStale("a"), "Response past the stale-if-error time");
+		checkEquals(0, cache.size(), "Size");
+	}
+
+	/**
+	 * <p>Without a stale-if-error time an expired response is removed, so there's nothing to fall back on.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testExpiredResponseIsRemovedWithoutStaleIfError() throws Exception {
+		AtomicLong    clock = new AtomicLong(1000000l);
+		ResponseCache cache = cache(clock, 60000l);
+		cache.put("a", new JSONObject("{\"id\":1}"));
+
+		clock.addAndGet(60000l - 1);
+		check(cache.lookup("a") != null, "Response expired early.");
+		clock.addAndGet(2);
+		checkEquals(null, cache.lookupStale("a"), "Expired response");
+		checkEquals(0, cache.size(), "Size");
+	}
+
+	/**
+	 * <p>Creates a cache whose clock is read from an AtomicLong.</p>
+	 *
+	 * @param clock Current time in milliseconds
+	 * @param ttlMillis Time to live for responses
+	 * @return New cache
+	 */
+	private static ResponseCache cache(final AtomicLong clock, Long ttlMillis){
+		return new ResponseCache(ttlMillis, 10){
+			long currentTimeMillis(){
+				return clock.get();
+			}
+		};
+	}
+}
@@ -0,0 +1,149 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Tests the queries a CatalogReplica answers, and that the videos it
+ *    returns are the caller's own.
+ * </p>
+ */
+public class CatalogReplicaTests extends UnitTests {
+	/**
+	 * <p>Every lookup returns a new copy, so changing one doesn't change the replica or its indexes.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testLookupsReturnCopies() throws Exception {
+		Video          stored  = video(1l, "ref-1", "One", "news");
+		CatalogReplica replica = replica(stored);
+
+		Video found = replica.findVideoById(1l, null, null);
+		check(found != stored, "Lookup returned the replica's own video.");
+		check(found != replica.findVideoById(1l, null, null), "Two lookups returned the same video.");
+		checkEquals("One", found.getName(), "Name");
+
+		found.setTags(Arrays.asList("sports"));
+		checkEquals(Arrays.asList("news"), replica.findVideoById(1l, null, null).getTags(), "Tags after changing a copy");
+		checkEquals(1, replica.findVideosByTags(Collections.singleton("news"), null, null, null, null, null, null, null).size(), "Videos tagged news");
+		checkEquals(0, replica.findVideosByTags(Collections.singleton("sports"), null, null, null, null, null, null, null).size(), "Videos tagged sports");
+
+		Videos byIds = replica.findVideosByIds(new LinkedHashSet<Long>(Arrays.asList(1l, 2l)), null, null);
+		checkEquals(2, byIds.size(), "Entries for two ids");
+		check(byIds.get(0) != stored, "FindVideosByIds returned the replica's own video.");
+		checkEquals(null, byIds.get(1), "Entry for a missing id");
+	}
+
+	/**
+	 * <p>Videos only have the fields asked for, as from the Media API.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testLookupsAreProjected() throws Exception {
+		CatalogReplica replica = replica(video(1l, "ref-1", "One", "news"));
+
+		Video found = replica.findVideoByReferenceId("ref-1", EnumSet.of(VideoFieldEnum.NAME), null);
+		checkEquals("One", found.getName(), "Name (asked for)");
+		checkEquals(null, found.getShortDescription(), "Short description (not asked for)");
+		checkEquals(null, found.getTags(), "Tags (not asked for)");
+		checkEquals(null, found.getCustomFields(), "Custom fields (not asked for)");
+
+		Set<String> custom = Collections.singleton("genre");
+		found = replica.findVideoById(1l, EnumSet.of(VideoFieldEnum.NAME), custom);
+		checkEquals(1, found.getCustomFields().size(), "Custom fields (one asked for)");
+
+		found = replica.findVideosByTags(Collections.singleton("news"), null, null, null, null, null, EnumSet.of(VideoFieldEnum.ID), null).get(0);
+		checkEquals(1l, found.getId(), "Id (asked for)");
+		checkEquals(null, found.getName(), "Name (not asked for)");
+	}
+
+	/**
+	 * <p>Search and text queries return projected copies too.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testSearchesReturnProjectedCopies() throws Exception {
+		Video          stored  = video(1l, "ref-1", "Harbour lights", "news");
+		CatalogReplica replica = replica(stored);
+
+		Video found = replica.searchVideos(Arrays.asList("harbour"), null, null, false, null, null, null, null, EnumSet.of(VideoFieldEnum.NAME), null).get(0);
+		check(found != stored, "SearchVideos returned the replica's own video.");
+		checkEquals("Harbour lights", found.getName(), "Name (asked for)");
+		checkEquals(null, found.getTags(), "Tags (not asked for)");
+
+		found = replica.findVideosByText("lights", null, null, EnumSet.of(VideoFieldEnum.REFERENCEID), null).get(0);
+		check(found != stored, "FindVideosByText returned the replica's own video.");
+		checkEquals("ref-1", found.getReferenceId(), "Reference id (asked for)");
+		checkEquals(null, found.getName(), "Name (not asked for)");
+	}
+
+	/**
+	 * <p>A negative page number is the caller's error, not an IndexOutOfBoundsException.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testNegativePageNumberIsRejected() throws Exception {
+		CatalogReplica replica = replica(video(1l, "ref-1", "One", "news"));
+
+		try{
+			replica.findVideosByTags(Collections.singleton("news"), null, 10, -1, null, null, null, null);
+			check(false, "Negative page number was accepted.");
+		}
+		catch(WrapperException we){
+			checkEquals(WrapperExceptionCode.USER_REQUESTED_INCORRECT_PARAMETERS, we.getCode(), "Exception code");
+		}
+		checkEquals(0, replica.findVideosByTags(Collections.singleton("news"), null, 10, 1, null, null, null, null).size(), "Videos on a page past the end");
+	}
+
+	/**
+	 * <p>Builds a synced replica holding some videos.</p>
+	 *
+	 * @param videos Videos to hold
+	 * @return Replica that answers queries made with "token"
+	 */
+	static CatalogReplica replica(Video... videos){
+		CatalogReplica replica = new CatalogReplica("token");
+		for(Video video : videos){
+			replica.put(video);
+		}
+		replica.commit();
+		return replica;
+	}
+
+	/**
+	 * <p>Builds an active video the way the Media API returns it.</p>
+	 *
+	 * @param id Id of the video
+	 * @param referenceId Reference id of the video
+	 * @param name Name of the video
+	 * @param tag Tag on the video
+	 * @return Video
+	 * @throws Exception If the video can't be built
+	 */
+	static Video video(Long id, String referenceId, String name, String tag) throws Exception {
+		JSONObject json = new JSONObject();
+		json.put("id",               id);
+		json.put("referenceId",      referenceId);
+		json.put("name",             name);
+		json.put("shortDescription", "About " + name);
+		json.put("itemState",        "ACTIVE");
+		json.put("creationDate",     "" + (1000000000000l + id));
+		json.put("tags",             new JSONArray(Arrays.asList(tag)));
+		json.put("customFields",     new JSONObject().put("genre", "drama").put("rating", "PG"));
+		return new Video(json);
+	}
+}
@@ -0,0 +1,149 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests OrdinalBitmap against a BitSet, with chunks stored both as
+ *    arrays and as bitmaps.
+ * </p>
+ */
+public class OrdinalBitmapTests extends UnitTests {
+	/**
+	 * <p>Added ordinals come back out in order, across chunks of both kinds.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testRoundTrip() throws Exception {
+		Random random = new Random(1);
+		for(int density : new int[]{ 100, 5000, 30000 }){
+			BitSet        expected = new BitSet();
+			OrdinalBitmap bitmap   = fill(random, density, expected);
+
+			checkSame(expected, bitmap, density + " ordinals per chunk");
+			for(int i=0;i<1000;i++){
+				int ordinal = random.nextInt(3 << 16);
+				checkEquals(expected.get(ordinal), bitmap.contains(ordinal), "Contains " + ordinal);
+			}
+		}
+		check(new OrdinalBitmap().isEmpty(), "New bitmap isn't empty.");
+	}
+
+	/**
+	 * <p>Removing ordinals turns a bitmap chunk back into an array, and drops empty chunks.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testRemove() throws Exception {
+		BitSet        expected = new BitSet();
+		OrdinalBitmap bitmap   = fill(new Random(2), 6000, expected);
+
+		// Down past the array threshold, and then to nothing in the first chunk
+		for(int ordinal=expected.nextSetBit(0);(ordinal >= 0) && (ordinal < 65536);ordinal=expected.nextSetBit(ordinal + 1)){
+			if(expected.get(0, 65536).cardinality() > 3000){
+				bitmap.remove(ordinal);
+				expected.clear(ordinal);
+			}
+		}
+		checkSame(expected, bitmap, "After removing down to 3000 in the first chunk");
+
+		for(int ordinal=expected.nextSetBit(0);(ordinal >= 0) && (ordinal < 65536);ordinal=expected.nextSetBit(ordinal + 1)){
+			bitmap.remove(ordinal);
+			expected.clear(ordinal);
+		}
+		bitmap.remove(12345);
+		checkSame(expected, bitmap, "After emptying the first chunk");
+
+		for(int ordinal : bitmap.toArray()){
+			bitmap.remove(ordinal);
+		}
+		check(bitmap.isEmpty(), "Bitmap isn't empty after removing everything.");
+	}
+
+	/**
+	 * <p>And and or match BitSet for every combination of chunk kinds (and for chunks only one side has), and leave their inputs alone.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testAndOr() throws Exception {
+		Random random    = new Random(3);
+		int[]  densities = new int[]{ 50, 3000, 20000 };
+		for(int da : densities){
+			for(int db : densities){
+				BitSet        x = new BitSet();
+				BitSet        y = new BitSet();
+				OrdinalBitmap a = fill(random, da, x);
+				OrdinalBitmap b = fill(random, db, y, 0, 1);
+				int[]         aBefore = a.toArray();
+				int[]         bBefore = b.toArray();
+
+				BitSet and = (BitSet)x.clone();
+				and.and(y);
+				BitSet or = (BitSet)x.clone();
+				or.or(y);
+
+				String        name     = da + " and " + db + " ordinals per chunk";
+				OrdinalBitmap andFound = OrdinalBitmap.and(a, b);
+				OrdinalBitmap orFound  = OrdinalBitmap.or(a, b);
+				checkSame(and, andFound, "And of " + name);
+				checkSame(or, orFound, "Or of " + name);
+
+				// The results share nothing with the inputs
+				andFound.add(70000);
+				orFound.add(200000);
+				check(Arrays.equals(aBefore, a.toArray()), "First input changed: " + name);
+				check(Arrays.equals(bBefore, b.toArray()), "Second input changed: " + name);
+			}
+		}
+	}
+
+	/**
+	 * <p>Builds a bitmap with random ordinals in chunks 0 and 2.</p>
+	 *
+	 * @param random Random numbers
+	 * @param perChunk Roughly how many ordinals to add to each chunk
+	 * @param expected Set to add the same ordinals to
+	 * @return Bitmap
+	 */
+	private static OrdinalBitmap fill(Random random, Integer perChunk, BitSet expected){
+		return fill(random, perChunk, expected, 0, 2);
+	}
+
+	/**
+	 * <p>Builds a bitmap with random ordinals in the chunks given.</p>
+	 *
+	 * @param random Random numbers
+	 * @param perChunk Roughly how many ordinals to add to each chunk
+	 * @param expected Set to add the same ordinals to
+	 * @param chunks Chunks (high 16 bits of the ordinals) to fill
+	 * @return Bitmap
+	 */
+	private static OrdinalBitmap fill(Random random, Integer perChunk, BitSet expected, int... chunks){
+		OrdinalBitmap bitmap = new OrdinalBitmap();
+		for(int chunk : chunks){
+			for(int i=0;i<perChunk;i++){
+				int ordinal = (chunk << 16) | random.nextInt(65536);
+				bitmap.add(ordinal);
+				expected.set(ordinal);
+			}
+		}
+		return bitmap;
+	}
+
+	/**
+	 * <p>Fails the test unless a bitmap holds the same ordinals as a BitSet.</p>
+	 *
+	 * @param expected Ordinals expected
+	 * @param bitmap Bitmap found
+	 * @param message Description of the bitmap
+	 */
+	private static void checkSame(BitSet expected, OrdinalBitmap bitmap, String message){
+		checkEquals(expected.cardinality(), bitmap.cardinality(), message + " - cardinality");
+		check(Arrays.equals(expected.stream().toArray(), bitmap.toArray()), message + " - ordinals differ.");
+		checkEquals(expected.isEmpty(), bitmap.isEmpty(), message + " - empty");
+	}
+}
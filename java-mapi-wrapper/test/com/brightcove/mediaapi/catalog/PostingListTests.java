@@ -0,0 +1,113 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests encoding PostingLists and combining the ordinal arrays they
+ *    decode to.
+ * </p>
+ */
+public class PostingListTests extends UnitTests {
+	/**
+	 * <p>Ordinals come back out as they went in, whatever the size of the gaps between them.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testRoundTrip() throws Exception {
+		int[]       ordinals = new int[]{ 0, 1, 127, 128, 16511, 16512, 1 << 21, (1 << 28) + 5, Integer.MAX_VALUE };
+		PostingList list     = new PostingList();
+		for(int ordinal : ordinals){
+			list.add(ordinal);
+			list.add(ordinal);
+		}
+		checkEquals(ordinals.length, list.size(), "Size (adding the last ordinal again does nothing)");
+		check(Arrays.equals(ordinals, list.toArray()), "Decoded " + Arrays.toString(list.toArray()));
+
+		list.trim();
+		check(Arrays.equals(ordinals, list.toArray()), "Decoded after trim " + Arrays.toString(list.toArray()));
+		checkEquals(0, new PostingList().toArray().length, "Ordinals in an empty list");
+
+		try{
+			list.add(5);
+			check(false, "Ordinal added out of order.");
+		}
+		catch(IllegalArgumentException iae){
+			// Expected
+		}
+	}
+
+	/**
+	 * <p>And, or and andNot match the same operations on sorted sets.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testAndOrAndNot() throws Exception {
+		Random random = new Random(4);
+		for(int round=0;round<50;round++){
+			TreeSet<Integer> x = randomSet(random);
+			TreeSet<Integer> y = randomSet(random);
+			int[]            a = toList(x).toArray();
+			int[]            b = toList(y).toArray();
+
+			TreeSet<Integer> and = new TreeSet<Integer>(x);
+			and.retainAll(y);
+			TreeSet<Integer> or = new TreeSet<Integer>(x);
+			or.addAll(y);
+			TreeSet<Integer> andNot = new TreeSet<Integer>(x);
+			andNot.removeAll(y);
+
+			check(Arrays.equals(toArray(and), PostingList.and(a, b)), "And in round " + round);
+			check(Arrays.equals(toArray(or), PostingList.or(a, b)), "Or in round " + round);
+			check(Arrays.equals(toArray(andNot), PostingList.andNot(a, b)), "AndNot in round " + round);
+		}
+	}
+
+	/**
+	 * <p>Builds a random set of ordinals, sometimes empty.</p>
+	 *
+	 * @param random Random numbers
+	 * @return Ordinals
+	 */
+	private static TreeSet<Integer> randomSet(Random random){
+		TreeSet<Integer> ret   = new TreeSet<Integer>();
+		int              count = random.nextInt(5) == 0 ? 0 : random.nextInt(500);
+		for(int i=0;i<count;i++){
+			ret.add(random.nextInt(1000));
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Encodes a set of ordinals as a posting list.</p>
+	 *
+	 * @param ordinals Ordinals
+	 * @return Posting list
+	 */
+	private static PostingList toList(TreeSet<Integer> ordinals){
+		PostingList ret = new PostingList();
+		for(Integer ordinal : ordinals){
+			ret.add(ordinal);
+		}
+		return ret;
+	}
+
+	/**
+	 * <p>Lists a set of ordinals.</p>
+	 *
+	 * @param ordinals Ordinals
+	 * @return Ordinals in increasing order
+	 */
+	private static int[] toArray(TreeSet<Integer> ordinals){
+		int[] ret = new int[ordinals.size()];
+		int   n   = 0;
+		for(Integer ordinal : ordinals){
+			ret[n++] = ordinal;
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,154 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests the search_videos clauses and find_videos_by_text queries a
+ *    TextIndex answers.
+ * </p>
+ */
+public class TextIndexTests extends UnitTests {
+	/**
+	 * <p>Clauses with no field search the name and short description, by stem unless the search is exact.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testDefaultFieldsAndStems() throws Exception {
+		TextIndex index = index();
+
+		checkOrdinals(new int[]{ 0, 1 }, index.search(list("game"), null, null, false), "Stemmed \"game\"");
+		checkOrdinals(new int[]{ 0 }, index.search(list("game"), null, null, true), "Exact \"game\"");
+		checkOrdinals(new int[]{ 0 }, index.search(list("BIG game"), null, null, false), "Every word of \"BIG game\"");
+		checkOrdinals(new int[]{}, index.search(list("harbour"), null, null, false), "Word only in a long description");
+		checkOrdinals(new int[]{}, index.search(list("  "), null, null, false), "Clause with no words");
+	}
+
+	/**
+	 * <p>A field name limits a clause to that field, including custom fields.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testFieldClauses() throws Exception {
+		TextIndex index = index();
+
+		checkOrdinals(new int[]{ 0, 2 }, index.search(list("tag:sports"), null, null, false), "tag:sports");
+		checkOrdinals(new int[]{ 0 }, index.search(list("display_name:big game"), null, null, false), "display_name:big game");
+		checkOrdinals(new int[]{}, index.search(list("display_name:tonight"), null, null, false), "display_name:tonight (only in the short description)");
+		checkOrdinals(new int[]{ 1 }, index.search(list("reference_id:cook"), null, null, false), "reference_id:cook");
+		checkOrdinals(new int[]{ 2 }, index.search(list("genre:drama"), null, null, false), "genre:drama");
+		checkOrdinals(new int[]{ 2 }, index.search(list("custom_fields:drama"), null, null, false), "custom_fields:drama");
+		checkOrdinals(new int[]{ 2 }, index.search(list("search_text:harbour"), null, null, false), "search_text:harbour");
+	}
+
+	/**
+	 * <p>A video matches every "all" clause, at least one "any" clause and no "none" clause.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testAllAnyNone() throws Exception {
+		TextIndex index = index();
+
+		checkOrdinals(new int[]{ 1, 2 }, index.search(null, list("news", "cooking"), null, false), "Any of news, cooking");
+		checkOrdinals(new int[]{ 2 }, index.search(list("tag:sports"), list("news", "cooking"), null, false), "All tag:sports, any of news, cooking");
+		checkOrdinals(new int[]{ 1 }, index.search(null, null, list("tag:sports"), false), "None tag:sports");
+		checkOrdinals(new int[]{ 0, 1, 2 }, index.search(null, null, null, false), "No clauses");
+	}
+
+	/**
+	 * <p>Find by text looks in the long description too, and needs every word.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testFindByText() throws Exception {
+		TextIndex index = index();
+
+		checkOrdinals(new int[]{ 2 }, index.findByText("harbour"), "harbour");
+		checkOrdinals(new int[]{ 2 }, index.findByText("Evening, harbour!"), "Evening, harbour!");
+		checkOrdinals(new int[]{}, index.findByText("evening game"), "evening game");
+	}
+
+	/**
+	 * <p>The stemmer removes common plural and verb endings, but leaves short words alone.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testStem() throws Exception {
+		checkEquals("story", TextIndex.stem("stories"), "Stem of stories");
+		checkEquals("play", TextIndex.stem("playing"), "Stem of playing");
+		checkEquals("box", TextIndex.stem("boxes"), "Stem of boxes");
+		checkEquals("class", TextIndex.stem("class"), "Stem of class");
+		checkEquals("game", TextIndex.stem("games"), "Stem of games");
+		checkEquals("gas", TextIndex.stem("gas"), "Stem of gas");
+		checkEquals(Arrays.asList("big", "game", "2"), TextIndex.tokenize("Big-game #2"), "Words of \"Big-game #2\"");
+	}
+
+	/**
+	 * <p>Builds an index of three videos.</p>
+	 *
+	 * @return Index
+	 * @throws Exception If the videos can't be built
+	 */
+	private static TextIndex index() throws Exception {
+		TextIndex index = new TextIndex();
+		index.add(0, video("Big game", "Tonight at eight", null, "big-game", "sports", null));
+		index.add(1, video("Cooking games", "For all the family", null, "cook-1", "food", null));
+		index.add(2, video("Evening news", "Headlines", "Live from the harbour", "news-1", "sports", "drama"));
+		index.trim();
+		return index;
+	}
+
+	/**
+	 * <p>Builds a video.</p>
+	 *
+	 * @param name Name of the video
+	 * @param shortDescription Short description of the video
+	 * @param longDescription Long description of the video (may be null)
+	 * @param referenceId Reference id of the video
+	 * @param tag Tag on the video
+	 * @param genre Value of the "genre" custom field (may be null)
+	 * @return Video
+	 * @throws Exception If the video can't be built
+	 */
+	private static Video video(String name, String shortDescription, String longDescription, String referenceId, String tag, String genre) throws Exception {
+		JSONObject json = new JSONObject();
+		json.put("name",             name);
+		json.put("shortDescription", shortDescription);
+		json.put("longDescription",  longDescription);
+		json.put("referenceId",      referenceId);
+		json.put("tags",             new JSONArray(Collections.singletonList(tag)));
+		if(genre != null){
+			json.put("customFields", new JSONObject().put("genre", genre));
+		}
+		return new Video(json);
+	}
+
+	/**
+	 * <p>Lists search clauses.</p>
+	 *
+	 * @param clauses Clauses
+	 * @return List of the clauses
+	 */
+	private static List<String> list(String... clauses){
+		return Arrays.asList(clauses);
+	}
+
+	/**
+	 * <p>Fails the test unless the ordinals found are the ones expected.</p>
+	 *
+	 * @param expected Ordinals expected
+	 * @param actual Ordinals found
+	 * @param message Description of the query
+	 */
+	private static void checkOrdinals(int[] expected, int[] actual, String message){
+		checkEquals(Arrays.toString(expected), Arrays.toString(actual), message);
+	}
+}
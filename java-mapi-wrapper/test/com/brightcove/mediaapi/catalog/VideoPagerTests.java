@@ -0,0 +1,56 @@
+package com.brightcove.mediaapi.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+
+/**
+ * <p>
+ *    Tests paging through results with a VideoPager.
+ * </p>
+ */
+public class VideoPagerTests extends UnitTests {
+	/**
+	 * <p>Closing an iterator abandoned before the end cancels the page being prefetched.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testClosingIteratorCancelsPrefetch() throws Exception {
+		final List<Runnable> prefetches = new ArrayList<Runnable>();
+		final List<Integer>  pagesRead  = new ArrayList<Integer>();
+		final Videos         page       = new Videos();
+		page.add(CatalogReplicaTests.video(1l, "ref-1", "One", "news"));
+		page.add(CatalogReplicaTests.video(2l, "ref-2", "Two", "news"));
+
+		VideoPager pager = new VideoPager(null, new Executor(){
+			public void execute(Runnable runnable){
+				prefetches.add(runnable);
+			}
+		});
+		pager.setPageSize(2);
+
+		VideoIterator videos = pager.iterate(new VideoPageReader(){
+			public Videos read(Integer pageNumber) throws BrightcoveException {
+				// Every page is full, so there is always another one to prefetch
+				pagesRead.add(pageNumber);
+				return page;
+			}
+		});
+		try{
+			checkEquals(1l, videos.next().getId(), "First video");
+			checkEquals(1, prefetches.size(), "Prefetches started");
+		}
+		finally{
+			videos.close();
+		}
+
+		// The prefetch only gets to run after the iterator was closed
+		prefetches.get(0).run();
+		checkEquals(1, pagesRead.size(), "Pages read");
+		check(!videos.hasNext(), "Closed iterator has more videos.");
+	}
+}
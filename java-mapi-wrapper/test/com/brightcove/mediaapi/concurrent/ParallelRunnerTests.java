@@ -0,0 +1,66 @@
+package com.brightcove.mediaapi.concurrent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.exceptions.BrightcoveException;
+
+/**
+ * <p>
+ *    Tests running tasks in parallel with a ParallelRunner.
+ * </p>
+ */
+public class ParallelRunnerTests extends UnitTests {
+	/**
+	 * <p>An Error thrown by a task on another thread is thrown to the caller.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testErrorIsRethrown() throws Exception {
+		ParallelRunner runner = new ParallelRunner(null, 4, "test-runner");
+		try{
+			runner.run(8, new ParallelRunner.Task(){
+				public void run(Integer index) throws BrightcoveException {
+					if(index == 5){
+						throw new StackOverflowError("Task " + index);
+					}
+				}
+			});
+			check(false, "Run finished normally after a task threw an Error.");
+		}
+		catch(StackOverflowError soe){
+			checkEquals("Task 5", soe.getMessage(), "Error message");
+		}
+	}
+
+	/**
+	 * <p>Threads created by the runner have numbered names.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testThreadsAreNumbered() throws Exception {
+		final Set<String>    names   = Collections.synchronizedSet(new HashSet<String>());
+		final CountDownLatch started = new CountDownLatch(3);
+
+		new ParallelRunner(null, 3, "test-runner").run(3, new ParallelRunner.Task(){
+			public void run(Integer index) throws BrightcoveException {
+				names.add(Thread.currentThread().getName());
+
+				// Keep every thread busy until all three have a task
+				started.countDown();
+				try{
+					started.await(10, TimeUnit.SECONDS);
+				}
+				catch(InterruptedException ie){
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		checkEquals(new HashSet<String>(Arrays.asList("test-runner-0", "test-runner-1", "test-runner-2")), names, "Thread names");
+	}
+}
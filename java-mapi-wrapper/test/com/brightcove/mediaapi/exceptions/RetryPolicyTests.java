@@ -0,0 +1,170 @@
+package com.brightcove.mediaapi.exceptions;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests which failures a RetryPolicy retries, and for how long.
+ * </p>
+ */
+public class RetryPolicyTests extends UnitTests {
+	/**
+	 * <p>Only failures that show the call never reached the Media API count as unsent.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testIsUnsent() throws Exception {
+		check(RetryPolicy.isUnsent(error(WrapperExceptionCode.CIRCUIT_OPEN, null)), "Open circuit breaker isn't unsent.");
+		check(RetryPolicy.isUnsent(error(WrapperExceptionCode.RATE_LIMITED, null)), "Rate limited call isn't unsent.");
+		check(RetryPolicy.isUnsent(error(WrapperExceptionCode.CONCURRENCY_LIMITED, null)), "Concurrency limited call isn't unsent.");
+		check(RetryPolicy.isUnsent(error(WrapperExceptionCode.MAPI_IO_EXCEPTION, new ConnectException("refused"))), "Refused connection isn't unsent.");
+
+		check(!RetryPolicy.isUnsent(error(WrapperExceptionCode.MAPI_IO_EXCEPTION, new SocketTimeoutException("read timed out"))), "Read timeout is unsent.");
+		check(!RetryPolicy.isUnsent(error(WrapperExceptionCode.MAPI_IO_EXCEPTION, null)), "I/O error without a cause is unsent.");
+		check(!RetryPolicy.isUnsent(error(WrapperExceptionCode.HTTP_ERROR_RESPONSE_CODE, null)), "HTTP error response is unsent.");
+		check(!RetryPolicy.isUnsent(timeout()), "Media API call timeout is unsent.");
+	}
+
+	/**
+	 * <p>Transport errors and Media API call timeouts are retried, other errors aren't.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testRetryableErrors() throws Exception {
+		RetryPolicy policy = new RetryPolicy(3, 0l, 0l, null);
+
+		check(policy.isRetryable(error(WrapperExceptionCode.MAPI_IO_EXCEPTION, null)), "I/O error isn't retryable.");
+		check(policy.isRetryable(timeout()), "Media API call timeout isn't retryable.");
+		check(!policy.isRetryable(error(WrapperExceptionCode.USER_REQUESTED_INCORRECT_PARAMETERS, null)), "Caller's error is retryable.");
+		check(!policy.isRetryable(new MediaApiException(new JSONObject("{\"error\":\"invalid token\",\"code\":210}"))), "Invalid token is retryable.");
+	}
+
+	/**
+	 * <p>A call that isn't idempotent is only retried if the failed attempt wasn't sent.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testNonIdempotentCallsRetryOnlyUnsent() throws Exception {
+		RetryPolicy          policy   = new RetryPolicy(3, 0l, 0l, null);
+		RetryPolicy.Attempts attempts = policy.start();
+
+		BrightcoveException readTimeout = error(WrapperExceptionCode.MAPI_IO_EXCEPTION, new SocketTimeoutException("read timed out"));
+		checkThrown(policy, readTimeout, attempts, false);
+		checkEquals(1, attempts.getCount(), "Attempt after a sent failure");
+
+		policy.beforeRetry(error(WrapperExceptionCode.MAPI_IO_EXCEPTION, new ConnectException("refused")), attempts, false);
+		checkEquals(2, attempts.getCount(), "Attempt after an unsent failure");
+
+		policy.beforeRetry(readTimeout, attempts, true);
+		checkEquals(3, attempts.getCount(), "Attempt after a sent failure of an idempotent call");
+	}
+
+	/**
+	 * <p>A call is attempted at most the maximum number of times.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testMaxAttempts() throws Exception {
+		RetryPolicy          policy   = new RetryPolicy(3, 0l, 0l, null);
+		RetryPolicy.Attempts attempts = policy.start();
+		BrightcoveException  failure  = error(WrapperExceptionCode.MAPI_IO_EXCEPTION, null);
+
+		policy.beforeRetry(failure, attempts);
+		policy.beforeRetry(failure, attempts);
+		checkEquals(3, attempts.getCount(), "Attempt");
+		checkThrown(policy, failure, attempts, true);
+	}
+
+	/**
+	 * <p>No retry is started once the time budget has run out.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testTimeBudget() throws Exception {
+		final AtomicLong clock  = new AtomicLong(1000000000000l);
+		RetryPolicy      policy = new RetryPolicy(null, 0l, 0l, 1000l){
+			long currentTimeMillis(){
+				return clock.get();
+			}
+		};
+		RetryPolicy.Attempts attempts = policy.start();
+		BrightcoveException  failure  = error(WrapperExceptionCode.MAPI_IO_EXCEPTION, null);
+
+		clock.addAndGet(1000);
+		policy.beforeRetry(failure, attempts);
+		checkEquals(2, attempts.getCount(), "Attempt at the end of the budget");
+
+		clock.addAndGet(1);
+		checkThrown(policy, failure, attempts, true);
+	}
+
+	/**
+	 * <p>Delays are random, up to a cap that doubles with each retry up to the maximum delay.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testDelayCap() throws Exception {
+		RetryPolicy policy = new RetryPolicy(null, 100l, 1000l, null);
+
+		long[] caps = new long[]{100, 200, 400, 800, 1000, 1000};
+		for(int attempt=1;attempt<=caps.length;attempt++){
+			for(int i=0;i<200;i++){
+				Long delay = policy.getDelayMillis(attempt);
+				check((delay >= 0) && (delay <= caps[attempt - 1]), "Delay " + delay + " for attempt " + attempt + " is outside 0.." + caps[attempt - 1]);
+			}
+		}
+
+		Long delay = policy.getDelayMillis(1000);
+		check((delay >= 0) && (delay <= 1000), "Delay " + delay + " for attempt 1000 is outside 0..1000");
+		checkEquals(0l, new RetryPolicy(null, 0l, 1000l, null).getDelayMillis(5), "Delay with no base delay");
+	}
+
+	/**
+	 * <p>Builds a wrapper exception.</p>
+	 *
+	 * @param code Error code
+	 * @param cause Cause of the error, or null
+	 * @return Exception
+	 */
+	private static WrapperException error(WrapperExceptionCode code, Throwable cause){
+		WrapperException we = new WrapperException(code, "Test");
+		if(cause != null){
+			we.initCause(cause);
+		}
+		return we;
+	}
+
+	/**
+	 * <p>Builds a Media API call timeout.</p>
+	 *
+	 * @return Exception
+	 * @throws Exception If the exception can't be built
+	 */
+	private static MediaApiException timeout() throws Exception {
+		return new MediaApiException(new JSONObject("{\"result\":null,\"error\":{\"code\":103,\"name\":\"CallTimeoutError\",\"message\":\"Taking too long\"}}"));
+	}
+
+	/**
+	 * <p>Fails the test unless a policy gives up on a call.</p>
+	 *
+	 * @param policy Policy
+	 * @param failure Exception the attempt failed with
+	 * @param attempts State of the call's attempts
+	 * @param idempotent True if the call is idempotent
+	 */
+	private static void checkThrown(RetryPolicy policy, BrightcoveException failure, RetryPolicy.Attempts attempts, Boolean idempotent){
+		try{
+			policy.beforeRetry(failure, attempts, idempotent);
+			check(false, "Call was retried after " + failure);
+		}
+		catch(BrightcoveException be){
+			check(be == failure, "Policy threw a different exception: " + be);
+		}
+	}
+}
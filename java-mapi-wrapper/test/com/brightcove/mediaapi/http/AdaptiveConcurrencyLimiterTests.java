@@ -0,0 +1,149 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Tests how an AdaptiveConcurrencyLimiter admits calls and adjusts its
+ *    limit, on a clock the tests move by hand.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiterTests extends UnitTests {
+	private static final Long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * <p>Calls over the limit are rejected when there is no wait, until a call finishes.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testCallsOverTheLimitAreRejected() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = limiter(new AtomicLong(0), 2);
+		limiter.setMaxWaitMillis(0l);
+
+		limiter.acquire();
+		limiter.acquire();
+		checkEquals(2, limiter.getInFlight(), "Calls in flight");
+		try{
+			limiter.acquire();
+			check(false, "Call over the limit was let through.");
+		}
+		catch(WrapperException we){
+			checkEquals(WrapperExceptionCode.CONCURRENCY_LIMITED, we.getCode(), "Exception code");
+		}
+		checkEquals(1l, limiter.getRejectedCount(), "Rejected count");
+		check(!limiter.tryAcquire(), "TryAcquire over the limit succeeded.");
+
+		limiter.release(null, false);
+		check(limiter.tryAcquire(), "TryAcquire after a call finished failed.");
+	}
+
+	/**
+	 * <p>The limit grows while calls that use it succeed at the lowest latency.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testLimitGrowsWhileLatencyIsLow() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = limiter(new AtomicLong(0), 2);
+
+		for(int i=0;i<10;i++){
+			check(limiter.tryAcquire(), "First call of round " + i + " wasn't let through.");
+			check(limiter.tryAcquire(), "Second call of round " + i + " wasn't let through.");
+			limiter.release(10 * MILLIS, false, "a");
+			limiter.release(10 * MILLIS, false, "a");
+		}
+		check(limiter.getLimit() > 2, "Limit didn't grow: " + limiter.getLimit());
+		checkEquals(10.0, limiter.getMinRttMillis("a"), "Lowest latency");
+	}
+
+	/**
+	 * <p>The limit shrinks slowly while calls take longer than the tolerance allows.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testLimitShrinksWhileLatencyIsHigh() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = limiter(new AtomicLong(0), 10);
+
+		call(limiter, 10 * MILLIS, false, "a");
+		for(int i=0;i<20;i++){
+			call(limiter, 50 * MILLIS, false, "a");
+		}
+		check(limiter.getLimit() < 10, "Limit didn't shrink: " + limiter.getLimit());
+		check(limiter.getLimit() > 5, "Limit shrank too fast: " + limiter.getLimit());
+		checkEquals(0l, limiter.getDecreaseCount(), "Decrease count");
+	}
+
+	/**
+	 * <p>A dropped call halves the limit, at most once per round trip.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testDropsCutTheLimitOncePerRoundTrip() throws Exception {
+		AtomicLong                 clock   = new AtomicLong(0);
+		AdaptiveConcurrencyLimiter limiter = limiter(clock, 8);
+
+		clock.set(1000 * MILLIS);
+		call(limiter, 10 * MILLIS, false, "a");
+
+		call(limiter, 10 * MILLIS, true, "a");
+		checkEquals(4, limiter.getLimit(), "Limit after a drop");
+		call(limiter, 10 * MILLIS, true, "a");
+		checkEquals(4, limiter.getLimit(), "Limit after a second drop in the same round trip");
+
+		// A round trip is the lowest latency times the tolerance (2) - 20ms
+		clock.addAndGet(25 * MILLIS);
+		call(limiter, 10 * MILLIS, true, "a");
+		checkEquals(2, limiter.getLimit(), "Limit after a drop in the next round trip");
+		checkEquals(2l, limiter.getDecreaseCount(), "Decrease count");
+	}
+
+	/**
+	 * <p>A slow kind of call is only compared with calls of its own latency class.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testLatencyClassesAreSeparate() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = limiter(new AtomicLong(0), 10);
+
+		call(limiter, 10 * MILLIS, false, "single");
+		for(int i=0;i<20;i++){
+			call(limiter, 200 * MILLIS, false, "page");
+		}
+		checkEquals(10, limiter.getLimit(), "Limit");
+		checkEquals(200.0, limiter.getMinRttMillis("page"), "Lowest page latency");
+		checkEquals(10.0, limiter.getMinRttMillis(), "Lowest latency of any class");
+	}
+
+	/**
+	 * <p>Builds a limiter that reads the time from a clock the test moves.</p>
+	 *
+	 * @param clock Current time in nanoseconds
+	 * @param initialLimit Number of calls allowed in flight to start with (the maximum is 100)
+	 * @return Limiter
+	 */
+	private static AdaptiveConcurrencyLimiter limiter(final AtomicLong clock, Integer initialLimit){
+		return new AdaptiveConcurrencyLimiter(initialLimit, 1, 100){
+			long nanoTime(){
+				return clock.get();
+			}
+		};
+	}
+
+	/**
+	 * <p>Makes a single call through a limiter.</p>
+	 *
+	 * @param limiter Limiter
+	 * @param rttNanos How long the call takes
+	 * @param dropped True if the call is dropped
+	 * @param latencyClass Latency class of the call
+	 * @throws Exception If the limiter rejects the call
+	 */
+	private static void call(AdaptiveConcurrencyLimiter limiter, Long rttNanos, Boolean dropped, String latencyClass) throws Exception {
+		limiter.acquire();
+		limiter.release(rttNanos, dropped, latencyClass);
+	}
+}
@@ -0,0 +1,206 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.exceptions.WrapperException;
+import com.brightcove.mediaapi.exceptions.WrapperExceptionCode;
+
+/**
+ * <p>
+ *    Tests the state transitions of a CircuitBreaker, on a clock the tests
+ *    move by hand.
+ * </p>
+ */
+public class CircuitBreakerTests extends UnitTests {
+	private static final Long START = 1000000000000l;
+
+	/**
+	 * <p>The breaker opens once enough calls in the window have failed, and then rejects calls.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testOpensOnFailureRate() throws Exception {
+		AtomicLong     clock   = new AtomicLong(START);
+		CircuitBreaker breaker = breaker(clock);
+
+		call(breaker, true);
+		call(breaker, false);
+		call(breaker, true);
+		checkEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "State below the minimum number of calls");
+
+		call(breaker, false);
+		checkEquals(CircuitBreaker.State.OPEN, breaker.getState(), "State after half the calls failed");
+		checkEquals(1l, breaker.getOpenCount(), "Open count");
+
+		checkRejected(breaker);
+		checkEquals(1l, breaker.getRejectedCount(), "Rejected count");
+	}
+
+	/**
+	 * <p>The breaker opens once enough calls in the window were slow.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testOpensOnSlowCallRate() throws Exception {
+		AtomicLong     clock   = new AtomicLong(START);
+		CircuitBreaker breaker = breaker(clock);
+
+		for(int i=0;i<4;i++){
+			breaker.record(breaker.acquire(), false, (i % 2 == 0) ? 500l : 10l);
+		}
+		checkEquals(CircuitBreaker.State.OPEN, breaker.getState(), "State after half the calls were slow");
+	}
+
+	/**
+	 * <p>Failures that have left the rolling window no longer count.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testOldCallsLeaveTheWindow() throws Exception {
+		AtomicLong     clock   = new AtomicLong(START);
+		CircuitBreaker breaker = breaker(clock);
+
+		for(int i=0;i<3;i++){
+			call(breaker, true);
+		}
+		clock.addAndGet(breaker.getWindowMillis() + 1000);
+		for(int i=0;i<4;i++){
+			call(breaker, false);
+		}
+		call(breaker, true);
+		checkEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "State with one failure in the window");
+	}
+
+	/**
+	 * <p>After the open time a few probes are let through, and close the breaker if they all succeed.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testProbesCloseTheBreaker() throws Exception {
+		AtomicLong     clock   = new AtomicLong(START);
+		CircuitBreaker breaker = openBreaker(clock);
+
+		clock.addAndGet(breaker.getOpenMillis() - 1);
+		checkRejected(breaker);
+
+		clock.addAndGet(1);
+		Long first  = breaker.acquire();
+		Long second = breaker.acquire();
+		checkEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "State after the open time");
+		checkRejected(breaker);
+
+		breaker.record(first, false, 10l);
+		checkEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "State after one of two probes succeeded");
+		breaker.record(second, false, 10l);
+		checkEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "State after both probes succeeded");
+	}
+
+	/**
+	 * <p>A failed or slow probe opens the breaker again.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testFailedProbeReopens() throws Exception {
+		AtomicLong     clock   = new AtomicLong(START);
+		CircuitBreaker breaker = openBreaker(clock);
+
+		clock.addAndGet(breaker.getOpenMillis());
+		breaker.record(breaker.acquire(), true, 10l);
+		checkEquals(CircuitBreaker.State.OPEN, breaker.getState(), "State after a failed probe");
+		checkRejected(breaker);
+
+		clock.addAndGet(breaker.getOpenMillis());
+		breaker.record(breaker.acquire(), false, 500l);
+		checkEquals(CircuitBreaker.State.OPEN, breaker.getState(), "State after a slow probe");
+		checkEquals(3l, breaker.getOpenCount(), "Open count");
+	}
+
+	/**
+	 * <p>A call let through before the breaker opened doesn't count as a probe when it finishes while half open.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testEarlierCallIsNotAProbe() throws Exception {
+		AtomicLong     clock   = new AtomicLong(START);
+		CircuitBreaker breaker = breaker(clock);
+		breaker.setHalfOpenCalls(1);
+
+		Long early = breaker.acquire();
+		for(int i=0;i<4;i++){
+			call(breaker, true);
+		}
+		checkEquals(CircuitBreaker.State.OPEN, breaker.getState(), "State after the failures");
+
+		clock.addAndGet(breaker.getOpenMillis());
+		Long probe = breaker.acquire();
+		breaker.record(early, false, 10l);
+		checkEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(), "State after the earlier call succeeded");
+
+		breaker.record(probe, false, 10l);
+		checkEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "State after the probe succeeded");
+	}
+
+	/**
+	 * <p>Builds a breaker that reads the time from a clock the test moves: 4 calls minimum, half of them failed or slow (100ms) to open, open for 30 seconds, 2 probes.</p>
+	 *
+	 * @param clock Current time in milliseconds
+	 * @return Closed breaker
+	 */
+	private static CircuitBreaker breaker(final AtomicLong clock){
+		CircuitBreaker breaker = new CircuitBreaker("test"){
+			long currentTimeMillis(){
+				return clock.get();
+			}
+		};
+		breaker.setMinimumCalls(4);
+		breaker.setFailureRateThreshold(0.5);
+		breaker.setSlowCallMillis(100l);
+		breaker.setSlowCallRateThreshold(0.5);
+		breaker.setOpenMillis(30000l);
+		breaker.setHalfOpenCalls(2);
+		return breaker;
+	}
+
+	/**
+	 * <p>Builds a breaker (see breaker()) and opens it.</p>
+	 *
+	 * @param clock Current time in milliseconds
+	 * @return Open breaker
+	 * @throws Exception If the breaker doesn't open
+	 */
+	private static CircuitBreaker openBreaker(AtomicLong clock) throws Exception {
+		CircuitBreaker breaker = breaker(clock);
+		for(int i=0;i<4;i++){
+			call(breaker, true);
+		}
+		checkEquals(CircuitBreaker.State.OPEN, breaker.getState(), "State after the failures");
+		return breaker;
+	}
+
+	/**
+	 * <p>Makes a quick call through a breaker.</p>
+	 *
+	 * @param breaker Breaker
+	 * @param failed True if the call fails
+	 * @throws Exception If the breaker rejects the call
+	 */
+	private static void call(CircuitBreaker breaker, Boolean failed) throws Exception {
+		breaker.record(breaker.acquire(), failed, 10l);
+	}
+
+	/**
+	 * <p>Fails the test unless a breaker rejects a call.</p>
+	 *
+	 * @param breaker Breaker
+	 */
+	private static void checkRejected(CircuitBreaker breaker){
+		try{
+			breaker.acquire();
+			check(false, "Breaker in state " + breaker.getState() + " let a call through.");
+		}
+		catch(WrapperException we){
+			checkEquals(WrapperExceptionCode.CIRCUIT_OPEN, we.getCode(), "Exception code");
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.entity.StringEntity;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests parsing Media API responses from an HTTP entity.
+ * </p>
+ */
+public class JsonEntityParserTests extends UnitTests {
+	/**
+	 * <p>The length of the body is counted while it is parsed.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testLengthIsCounted() throws Exception {
+		String     body   = "{\"items\":[{\"id\":1,\"name\":\"Caf\u00e9\"}],\"total_count\":1}";
+		AtomicLong length = new AtomicLong();
+
+		JSONObject parsed = JsonEntityParser.parse(new StringEntity(body, "UTF-8"), "UTF-8", length);
+		checkEquals(1, parsed.getInt("total_count"), "Total count");
+		checkEquals((long)body.length(), length.get(), "Length");
+	}
+
+	/**
+	 * <p>"null" is no response, but an empty body is an error.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testNullAndEmptyBodies() throws Exception {
+		checkEquals(null, JsonEntityParser.parse(new StringEntity("null", "UTF-8"), "UTF-8"), "Response for \"null\"");
+
+		try{
+			JsonEntityParser.parse(new StringEntity("", "UTF-8"), "UTF-8");
+			check(false, "Empty body was parsed.");
+		}
+		catch(JSONException jsone){
+			// Expected
+		}
+	}
+}
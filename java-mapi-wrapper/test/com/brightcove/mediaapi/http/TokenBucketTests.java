@@ -0,0 +1,82 @@
+package com.brightcove.mediaapi.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.brightcove.mediaapi.UnitTests;
+
+/**
+ * <p>
+ *    Tests the permits a TokenBucket hands out, on a clock the tests move
+ *    by hand.
+ * </p>
+ */
+public class TokenBucketTests extends UnitTests {
+	/**
+	 * <p>A full bucket hands out a burst of permits, then one per interval.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testBurstThenRate() throws Exception {
+		AtomicLong  clock  = new AtomicLong(0);
+		TokenBucket bucket = bucket(clock, 10.0, 3);
+
+		for(int i=0;i<3;i++){
+			check(bucket.tryAcquire(), "Permit " + i + " of the burst wasn't handed out.");
+		}
+		check(!bucket.tryAcquire(), "Permit handed out past the burst.");
+
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+		check(bucket.tryAcquire(), "Permit added after an interval wasn't handed out.");
+		check(!bucket.tryAcquire(), "Second permit handed out after one interval.");
+	}
+
+	/**
+	 * <p>An idle bucket doesn't collect more than one burst of permits.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testIdleBucketHoldsOneBurst() throws Exception {
+		AtomicLong  clock  = new AtomicLong(0);
+		TokenBucket bucket = bucket(clock, 10.0, 3);
+
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+		for(int i=0;i<3;i++){
+			check(bucket.tryAcquire(), "Permit " + i + " of the burst wasn't handed out.");
+		}
+		check(!bucket.tryAcquire(), "Idle bucket handed out more than a burst.");
+	}
+
+	/**
+	 * <p>A timed acquire gives up straight away if no permit will be due in time.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testTimedAcquire() throws Exception {
+		AtomicLong  clock  = new AtomicLong(0);
+		TokenBucket bucket = bucket(clock, 10.0, 1);
+
+		check(bucket.tryAcquire(0l), "Permit in a full bucket wasn't handed out.");
+		check(!bucket.tryAcquire(50l), "Permit due in 100ms was handed out within 50ms.");
+
+		// Reserves the permit due in 100ms and sleeps until it is due
+		check(bucket.tryAcquire(150l), "Permit due in 100ms wasn't handed out within 150ms.");
+		check(!bucket.tryAcquire(), "Permit handed out after the next one was reserved.");
+	}
+
+	/**
+	 * <p>Builds a bucket that reads the time from a clock the test moves.</p>
+	 *
+	 * @param clock Current time in nanoseconds
+	 * @param permitsPerSecond Rate permits are added at
+	 * @param burst Maximum number of permits the bucket holds
+	 * @return Bucket
+	 */
+	private static TokenBucket bucket(final AtomicLong clock, Double permitsPerSecond, Integer burst){
+		return new TokenBucket(permitsPerSecond, burst){
+			long nanoTime(){
+				return clock.get();
+			}
+		};
+	}
+}
@@ -0,0 +1,141 @@
+package com.brightcove.mediaapi.wrapper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import com.brightcove.commons.catalog.objects.Video;
+import com.brightcove.commons.catalog.objects.Videos;
+import com.brightcove.commons.catalog.objects.enumerations.VideoFieldEnum;
+import com.brightcove.mediaapi.FakeMediaApi;
+import com.brightcove.mediaapi.UnitTests;
+import com.brightcove.mediaapi.cache.InvalidationBus;
+import com.brightcove.mediaapi.cache.ResponseCache;
+
+/**
+ * <p>
+ *    Tests that WriteApi writes remove the cached ReadApi responses they
+ *    affect, against a FakeMediaApi.
+ * </p>
+ */
+public class CacheInvalidationTests extends UnitTests {
+	/**
+	 * <p>A list read limited to other fields is still tagged by id, so a write by id alone removes it.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testProjectedListIsInvalidatedByShareVideo() throws Exception {
+		FakeMediaApi fake = new FakeMediaApi();
+		try{
+			fake.addVideo(1l, "ref-1", "One");
+			fake.addVideo(2l, "ref-2", "Two");
+
+			ResponseCache cache    = new ResponseCache();
+			ReadApi       readApi  = createReadApi(fake, cache);
+			WriteApi      writeApi = createWriteApi(fake, cache);
+
+			readApi.FindAllVideos("read-token", 100, 0, null, null, EnumSet.of(VideoFieldEnum.NAME), null);
+			checkEquals(1, cache.size(), "Cached responses after list read");
+
+			writeApi.ShareVideo("write-token", 2l, true, Arrays.asList(99l));
+			checkEquals(0, cache.size(), "Cached responses after ShareVideo");
+
+			readApi.FindAllVideos("read-token", 100, 0, null, null, EnumSet.of(VideoFieldEnum.NAME), null);
+			checkEquals(2, fake.getReadRequests().size(), "Read API requests");
+		}
+		finally{
+			fake.stop();
+		}
+	}
+
+	/**
+	 * <p>A tag query limited to other fields is removed by a DeleteVideo made with only the video id.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testProjectedListIsInvalidatedByIdOnlyDelete() throws Exception {
+		FakeMediaApi fake = new FakeMediaApi();
+		try{
+			fake.addVideo(1l, "ref-1", "One");
+			fake.addVideo(2l, "ref-2", "Two");
+
+			ResponseCache cache    = new ResponseCache();
+			ReadApi       readApi  = createReadApi(fake, cache);
+			WriteApi      writeApi = createWriteApi(fake, cache);
+
+			readApi.FindVideosByTags("read-token", Collections.singleton("news"), null, 100, 0, null, null, EnumSet.of(VideoFieldEnum.NAME), null);
+			checkEquals(1, cache.size(), "Cached responses after tag query");
+
+			writeApi.DeleteVideo("write-token", 1l, null, null, null);
+			checkEquals(0, cache.size(), "Cached responses after DeleteVideo");
+
+			Videos videos = readApi.FindVideosByTags("read-token", Collections.singleton("news"), null, 100, 0, null, null, EnumSet.of(VideoFieldEnum.NAME), null);
+			checkEquals(1, videos.size(), "Videos after DeleteVideo");
+		}
+		finally{
+			fake.stop();
+		}
+	}
+
+	/**
+	 * <p>The ids asked for to tag a response are removed from it, whether it comes from the Media API or the cache.</p>
+	 *
+	 * @throws Exception If the test fails
+	 */
+	public void testTagFieldsAreRemovedFromProjectedResponses() throws Exception {
+		FakeMediaApi fake = new FakeMediaApi();
+		try{
+			fake.addVideo(1l, "ref-1", "One");
+
+			ResponseCache cache   = new ResponseCache();
+			ReadApi       readApi = createReadApi(fake, cache);
+
+			for(int read=0;read<2;read++){
+				Videos videos = readApi.FindAllVideos("read-token", 100, 0, null, null, EnumSet.of(VideoFieldEnum.NAME), null);
+				Video  video  = videos.get(0);
+				checkEquals("One", video.getName(), "Name");
+				checkEquals(null, video.getId(), "Id (not asked for)");
+				checkEquals(null, video.getReferenceId(), "Reference id (not asked for)");
+			}
+
+			List<Map<String, String>> requests = fake.getReadRequests();
+			checkEquals(1, requests.size(), "Read API requests");
+			String fields = requests.get(0).get("video_fields").toLowerCase();
+			check(fields.contains("id") && fields.contains("referenceid"), "Tag fields asked for: '" + fields + "'.");
+		}
+		finally{
+			fake.stop();
+		}
+	}
+
+	/**
+	 * <p>Creates a ReadApi reading through a cache.</p>
+	 *
+	 * @param fake Fake Media API to read from
+	 * @param cache Response cache
+	 * @return ReadApi
+	 */
+	private static ReadApi createReadApi(FakeMediaApi fake, ResponseCache cache){
+		ReadApi readApi = fake.createReadApi();
+		readApi.setResponseCache(cache);
+		return readApi;
+	}
+
+	/**
+	 * <p>Creates a WriteApi that invalidates a cache.</p>
+	 *
+	 * @param fake Fake Media API to write to
+	 * @param cache Response cache to invalidate
+	 * @return WriteApi
+	 */
+	private static WriteApi createWriteApi(FakeMediaApi fake, ResponseCache cache){
+		InvalidationBus bus = new InvalidationBus();
+		bus.addListener(cache);
+
+		WriteApi writeApi = fake.createWriteApi();
+		writeApi.setInvalidationBus(bus);
+		return writeApi;
+	}
+}